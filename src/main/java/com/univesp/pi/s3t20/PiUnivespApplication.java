@@ -2,8 +2,10 @@ package com.univesp.pi.s3t20;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class PiUnivespApplication {
 
     public static void main(String[] args) {
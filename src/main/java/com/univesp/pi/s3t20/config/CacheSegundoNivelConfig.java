@@ -0,0 +1,78 @@
+package com.univesp.pi.s3t20.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.univesp.pi.s3t20.model.Cliente;
+import com.univesp.pi.s3t20.model.FormaPagamento;
+import com.univesp.pi.s3t20.model.Produto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.ToDoubleFunction;
+
+// Cache de segundo nível do Hibernate (JCache + Caffeine) para produtos, clientes e formas de pagamento e cache de
+// consultas para os valores distintos e as buscas por código. Regiões, tamanho e TTL em hibernate-cache.conf; cada
+// contexto Spring tem o próprio CacheManager, sem compartilhar entradas entre bancos diferentes (ex.: testes).
+// Taxa de acerto por região em /actuator/metrics/hibernate.cache.hit.ratio.
+@Configuration
+public class CacheSegundoNivelConfig {
+
+    private static final URI CONFIGURACAO = URI.create("classpath:hibernate-cache.conf");
+
+    private static final List<String> REGIOES_ENTIDADES = List.of(
+            Produto.REGIAO, Cliente.REGIAO, FormaPagamento.REGIAO);
+
+    private static final List<String> REGIOES_CONSULTAS = List.of(
+            Produto.REGIAO_CONSULTAS, Cliente.REGIAO_CONSULTAS, FormaPagamento.REGIAO_CONSULTAS);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager cacheManagerSegundoNivel() {
+        // Um provedor novo por contexto: Caching.getCachingProvider() devolveria o mesmo CacheManager para o mesmo URI
+        return new CaffeineCachingProvider().getCacheManager(CONFIGURACAO, getClass().getClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivelHibernate(CacheManager cacheManagerSegundoNivel) {
+        return propriedades -> propriedades.put(ConfigSettings.CACHE_MANAGER, cacheManagerSegundoNivel);
+    }
+
+    @Bean
+    public MeterBinder taxaAcertoCacheSegundoNivel(EntityManagerFactory entityManagerFactory) {
+        return registro -> {
+            Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            REGIOES_ENTIDADES.forEach(regiao -> taxaAcerto(registro, regiao, "entidade",
+                    estatisticas, Statistics::getDomainDataRegionStatistics));
+            REGIOES_CONSULTAS.forEach(regiao -> taxaAcerto(registro, regiao, "consulta",
+                    estatisticas, Statistics::getQueryRegionStatistics));
+        };
+    }
+
+    private static void taxaAcerto(MeterRegistry registro, String regiao, String tipo, Statistics estatisticas,
+                                   BiFunction<Statistics, String, CacheRegionStatistics> estatisticasDaRegiao) {
+        ToDoubleFunction<Statistics> taxa = stats -> {
+            CacheRegionStatistics estatisticasRegiao = estatisticasDaRegiao.apply(stats, regiao);
+            if (estatisticasRegiao == null) {
+                return Double.NaN;
+            }
+            long acertos = estatisticasRegiao.getHitCount();
+            long total = acertos + estatisticasRegiao.getMissCount();
+            return total == 0 ? Double.NaN : (double) acertos / total;
+        };
+        Gauge.builder("hibernate.cache.hit.ratio", estatisticas, taxa)
+                .tags("region", regiao, "type", tipo)
+                .description("Acertos / (acertos + faltas) na região do cache de segundo nível")
+                .register(registro);
+    }
+}
@@ -0,0 +1,177 @@
+package com.univesp.pi.s3t20.config;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+// Contagem de comandos SQL, linhas e tempo de JDBC por thread. O DataSource da aplicação é envolvido por proxies
+// JDK (DataSource -> Connection -> Statement -> ResultSet) que acumulam os totais da thread corrente; quem quer
+// medir um trecho (requisição HTTP, método de serviço) tira um retrato antes e subtrai do retrato depois.
+// Um executeBatch conta como um comando (uma ida ao banco). O COPY do PostgreSQL, feito direto na conexão nativa,
+// não passa pelos proxies.
+public final class ContadorSql {
+
+    private static final ThreadLocal<long[]> ACUMULADO = ThreadLocal.withInitial(() -> new long[3]);
+    private static final int COMANDOS = 0;
+    private static final int LINHAS = 1;
+    private static final int NANOS = 2;
+
+    private ContadorSql() {
+    }
+
+    // Totais da thread corrente; imutável, para ser comparado com um retrato posterior
+    public record Contagem(long comandos, long linhas, long nanos) {
+
+        public Contagem menos(Contagem anterior) {
+            return new Contagem(comandos - anterior.comandos, linhas - anterior.linhas, nanos - anterior.nanos);
+        }
+    }
+
+    public static Contagem atual() {
+        long[] acumulado = ACUMULADO.get();
+        return new Contagem(acumulado[COMANDOS], acumulado[LINHAS], acumulado[NANOS]);
+    }
+
+    public static DataSource envolver(DataSource dataSource) {
+        if (Proxy.isProxyClass(dataSource.getClass()) && Proxy.getInvocationHandler(dataSource) instanceof Conexoes) {
+            return dataSource;
+        }
+        return proxy(DataSource.class, new Conexoes(dataSource));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> tipo, InvocationHandler manipulador) {
+        return (T) Proxy.newProxyInstance(ContadorSql.class.getClassLoader(), new Class<?>[]{tipo}, manipulador);
+    }
+
+    private static Object invocar(Object alvo, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(alvo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // equals/hashCode pela identidade do proxy; toString do objeto real
+    private abstract static class Envoltorio implements InvocationHandler {
+
+        final Object alvo;
+
+        Envoltorio(Object alvo) {
+            this.alvo = alvo;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            return switch (metodo.getName()) {
+                case "equals" -> args.length == 1 && proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "toString" -> alvo.toString();
+                default -> interceptar(metodo, args);
+            };
+        }
+
+        abstract Object interceptar(Method metodo, Object[] args) throws Throwable;
+    }
+
+    // DataSource e Connection: envolve as conexões e os comandos que elas criam
+    private static final class Conexoes extends Envoltorio {
+
+        Conexoes(Object alvo) {
+            super(alvo);
+        }
+
+        @Override
+        Object interceptar(Method metodo, Object[] args) throws Throwable {
+            Object resultado = invocar(alvo, metodo, args);
+            if (resultado instanceof Connection conexao && "getConnection".equals(metodo.getName())) {
+                return proxy(Connection.class, new Conexoes(conexao));
+            }
+            if (resultado instanceof CallableStatement comando) {
+                return proxy(CallableStatement.class, new Comandos(comando));
+            }
+            if (resultado instanceof PreparedStatement comando) {
+                return proxy(PreparedStatement.class, new Comandos(comando));
+            }
+            if (resultado instanceof Statement comando && "createStatement".equals(metodo.getName())) {
+                return proxy(Statement.class, new Comandos(comando));
+            }
+            return resultado;
+        }
+    }
+
+    // Statement: conta e cronometra as execuções e envolve os ResultSets devolvidos
+    private static final class Comandos extends Envoltorio {
+
+        Comandos(Object alvo) {
+            super(alvo);
+        }
+
+        @Override
+        Object interceptar(Method metodo, Object[] args) throws Throwable {
+            if (!metodo.getName().startsWith("execute")) {
+                Object resultado = invocar(alvo, metodo, args);
+                return resultado instanceof ResultSet linhas ? proxy(ResultSet.class, new Linhas(linhas)) : resultado;
+            }
+            long[] acumulado = ACUMULADO.get();
+            long inicio = System.nanoTime();
+            try {
+                Object resultado = invocar(alvo, metodo, args);
+                acumulado[LINHAS] += afetadas(resultado);
+                return resultado instanceof ResultSet linhas ? proxy(ResultSet.class, new Linhas(linhas)) : resultado;
+            } finally {
+                acumulado[COMANDOS]++;
+                acumulado[NANOS] += System.nanoTime() - inicio;
+            }
+        }
+
+        // Linhas alteradas por executeUpdate/executeBatch; as lidas são contadas no ResultSet
+        private static long afetadas(Object resultado) {
+            long total = 0;
+            if (resultado instanceof Integer linhas) {
+                total = Math.max(0, linhas);
+            } else if (resultado instanceof Long linhas) {
+                total = Math.max(0, linhas);
+            } else if (resultado instanceof int[] lote) {
+                for (int linhas : lote) {
+                    total += Math.max(0, linhas);
+                }
+            } else if (resultado instanceof long[] lote) {
+                for (long linhas : lote) {
+                    total += Math.max(0, linhas);
+                }
+            }
+            return total;
+        }
+    }
+
+    // ResultSet: conta as linhas lidas; o tempo de next() (busca dos próximos blocos) entra no tempo de JDBC
+    private static final class Linhas extends Envoltorio {
+
+        Linhas(Object alvo) {
+            super(alvo);
+        }
+
+        @Override
+        Object interceptar(Method metodo, Object[] args) throws Throwable {
+            if (!"next".equals(metodo.getName())) {
+                return invocar(alvo, metodo, args);
+            }
+            long[] acumulado = ACUMULADO.get();
+            long inicio = System.nanoTime();
+            boolean existe = (Boolean) invocar(alvo, metodo, args);
+            acumulado[NANOS] += System.nanoTime() - inicio;
+            if (existe) {
+                acumulado[LINHAS]++;
+            }
+            return existe;
+        }
+    }
+}
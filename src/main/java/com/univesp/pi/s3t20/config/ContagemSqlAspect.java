@@ -0,0 +1,69 @@
+package com.univesp.pi.s3t20.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Comandos SQL, linhas e tempo de JDBC por método público dos serviços (sql.servico.*, tags classe e metodo).
+// Chamadas aninhadas entram também na contagem de quem chamou, como no tempo de uma pilha de chamadas. Fica por
+// fora da transação (@Order), para incluir o flush e o commit do método.
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ContagemSqlAspect {
+
+    private final MeterRegistry meterRegistry;
+    // Medidores resolvidos uma vez por método: o registro do Micrometer não é consultado a cada chamada
+    private final Map<Method, Medidores> medidores = new ConcurrentHashMap<>();
+
+    public ContagemSqlAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("within(com.univesp.pi.s3t20.service..*) && @within(org.springframework.stereotype.Service) && execution(public * *(..))")
+    public Object contar(ProceedingJoinPoint joinPoint) throws Throwable {
+        ContadorSql.Contagem inicio = ContadorSql.atual();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ContadorSql.Contagem contagem = ContadorSql.atual().menos(inicio);
+            Method metodo = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            medidores.computeIfAbsent(metodo, m -> new Medidores(meterRegistry,
+                    joinPoint.getTarget().getClass().getSimpleName(), m.getName())).registrar(contagem);
+        }
+    }
+
+    private record Medidores(DistributionSummary comandos, DistributionSummary linhas, Timer tempo) {
+
+        Medidores(MeterRegistry meterRegistry, String classe, String metodo) {
+            this(DistributionSummary.builder("sql.servico.comandos")
+                            .description("Comandos SQL executados por chamada de método de serviço")
+                            .tags("classe", classe, "metodo", metodo)
+                            .register(meterRegistry),
+                    DistributionSummary.builder("sql.servico.linhas")
+                            .description("Linhas lidas ou alteradas por chamada de método de serviço")
+                            .tags("classe", classe, "metodo", metodo)
+                            .register(meterRegistry),
+                    Timer.builder("sql.servico.tempo")
+                            .description("Tempo em JDBC por chamada de método de serviço")
+                            .tags("classe", classe, "metodo", metodo)
+                            .register(meterRegistry));
+        }
+
+        void registrar(ContadorSql.Contagem contagem) {
+            comandos.record(contagem.comandos());
+            linhas.record(contagem.linhas());
+            tempo.record(contagem.nanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
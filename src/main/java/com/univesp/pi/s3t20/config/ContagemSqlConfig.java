@@ -0,0 +1,49 @@
+package com.univesp.pi.s3t20.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+// Contagem de comandos SQL por requisição e por método de serviço (ContadorSql); desligada com
+// sql.contagem.enabled=false, quando o DataSource fica sem proxies
+@Configuration
+@ConditionalOnProperty(value = "sql.contagem.enabled", matchIfMissing = true)
+public class ContagemSqlConfig {
+
+    // static: o BeanPostProcessor precisa existir antes do DataSource ser criado
+    @Bean
+    public static BeanPostProcessor contagemSqlDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? ContadorSql.envolver(dataSource) : bean;
+            }
+        };
+    }
+
+    @Bean
+    public ContagemSqlFilter contagemSqlFilter(MeterRegistry meterRegistry,
+                                               @Value("${sql.contagem.cabecalho:false}") boolean cabecalho) {
+        return new ContagemSqlFilter(meterRegistry, cabecalho);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ContagemSqlFilter> contagemSqlFilterRegistro(ContagemSqlFilter contagemSqlFilter) {
+        FilterRegistrationBean<ContagemSqlFilter> registro = new FilterRegistrationBean<>(contagemSqlFilter);
+        // Antes dos demais filtros, para cobrir também o que eles executam
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registro;
+    }
+
+    @Bean
+    public ContagemSqlAspect contagemSqlAspect(MeterRegistry meterRegistry) {
+        return new ContagemSqlAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,161 @@
+package com.univesp.pi.s3t20.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Comandos SQL, linhas e tempo de JDBC de cada requisição HTTP: publicados como métricas (sql.requisicao.*, com
+// as tags method e uri do http.server.requests) e, com sql.contagem.cabecalho=true, nos cabeçalhos de depuração
+// X-Query-Count, X-Query-Rows e X-Query-Time (ms). Os cabeçalhos são gravados antes do corpo, então numa resposta
+// em fluxo (NDJSON, exportação) refletem só o que foi executado até o início da escrita.
+public class ContagemSqlFilter extends OncePerRequestFilter {
+
+    public static final String CABECALHO_COMANDOS = "X-Query-Count";
+    public static final String CABECALHO_LINHAS = "X-Query-Rows";
+    public static final String CABECALHO_TEMPO = "X-Query-Time";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean cabecalho;
+    private final List<Consumer<RequisicaoSql>> observadores = new CopyOnWriteArrayList<>();
+    private final AtomicInteger emAndamento = new AtomicInteger();
+
+    public ContagemSqlFilter(MeterRegistry meterRegistry, boolean cabecalho) {
+        this.meterRegistry = meterRegistry;
+        this.cabecalho = cabecalho;
+    }
+
+    // Requisição concluída, com o padrão de URI do mapeamento (ex.: /vendas/{id})
+    public record RequisicaoSql(String metodo, String uri, ContadorSql.Contagem contagem) {
+    }
+
+    // Usado pelos testes (@MaxQueries) para acompanhar as requisições feitas durante um teste
+    public void observar(Consumer<RequisicaoSql> observador) {
+        observadores.add(observador);
+    }
+
+    public void removerObservador(Consumer<RequisicaoSql> observador) {
+        observadores.remove(observador);
+    }
+
+    // Requisições que começaram e ainda não foram publicadas aos observadores
+    public int emAndamento() {
+        return emAndamento.get();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        emAndamento.incrementAndGet();
+        ContadorSql.Contagem inicio = ContadorSql.atual();
+        try {
+            HttpServletResponse resposta = cabecalho ? new RespostaComContagem(response, inicio) : response;
+            filterChain.doFilter(request, resposta);
+            if (cabecalho && !response.isCommitted()) {
+                escreverCabecalhos(response, ContadorSql.atual().menos(inicio));
+            }
+        } finally {
+            try {
+                publicar(request, response, ContadorSql.atual().menos(inicio));
+            } finally {
+                emAndamento.decrementAndGet();
+            }
+        }
+    }
+
+    private void publicar(HttpServletRequest request, HttpServletResponse response, ContadorSql.Contagem contagem) {
+        Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = padrao != null ? padrao.toString() : response.getStatus() == 404 ? "NOT_FOUND" : "UNKNOWN";
+        String metodo = request.getMethod();
+        DistributionSummary.builder("sql.requisicao.comandos")
+                .description("Comandos SQL executados por requisição HTTP")
+                .tags("method", metodo, "uri", uri)
+                .register(meterRegistry)
+                .record(contagem.comandos());
+        DistributionSummary.builder("sql.requisicao.linhas")
+                .description("Linhas lidas ou alteradas por requisição HTTP")
+                .tags("method", metodo, "uri", uri)
+                .register(meterRegistry)
+                .record(contagem.linhas());
+        Timer.builder("sql.requisicao.tempo")
+                .description("Tempo em JDBC por requisição HTTP")
+                .tags("method", metodo, "uri", uri)
+                .register(meterRegistry)
+                .record(contagem.nanos(), TimeUnit.NANOSECONDS);
+        if (!observadores.isEmpty()) {
+            RequisicaoSql requisicao = new RequisicaoSql(metodo, uri, contagem);
+            observadores.forEach(observador -> observador.accept(requisicao));
+        }
+    }
+
+    private static void escreverCabecalhos(HttpServletResponse response, ContadorSql.Contagem contagem) {
+        response.setHeader(CABECALHO_COMANDOS, String.valueOf(contagem.comandos()));
+        response.setHeader(CABECALHO_LINHAS, String.valueOf(contagem.linhas()));
+        response.setHeader(CABECALHO_TEMPO, String.format(Locale.ROOT, "%.3f", contagem.nanos() / 1_000_000.0));
+    }
+
+    // Grava os cabeçalhos quando o corpo começa a ser escrito (ou num erro), enquanto a resposta ainda não foi enviada
+    private static final class RespostaComContagem extends HttpServletResponseWrapper {
+
+        private final ContadorSql.Contagem inicio;
+        private boolean escritos;
+
+        RespostaComContagem(HttpServletResponse response, ContadorSql.Contagem inicio) {
+            super(response);
+            this.inicio = inicio;
+        }
+
+        private void antesDoCorpo() {
+            if (!escritos && !isCommitted()) {
+                escritos = true;
+                escreverCabecalhos((HttpServletResponse) getResponse(), ContadorSql.atual().menos(inicio));
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            antesDoCorpo();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            antesDoCorpo();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            antesDoCorpo();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            antesDoCorpo();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            antesDoCorpo();
+            super.sendError(sc);
+        }
+    }
+}
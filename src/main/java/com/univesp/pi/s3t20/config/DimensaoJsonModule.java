@@ -0,0 +1,122 @@
+package com.univesp.pi.s3t20.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.univesp.pi.s3t20.dto.ClienteDTO;
+import com.univesp.pi.s3t20.dto.FormaPagamentoDTO;
+import com.univesp.pi.s3t20.dto.ProdutoDTO;
+import com.univesp.pi.s3t20.service.DimensaoJsonCache;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Set;
+
+// Serialização de ProdutoDTO, ClienteDTO e FormaPagamentoDTO pelo JSON guardado em DimensaoJsonCache: o DTO
+// compartilhado é serializado uma vez (pelo serializador padrão do Jackson, com a mesma configuração) e nas linhas
+// seguintes os bytes são copiados direto na saída. Os demais DTOs, e os que não estão no cache, seguem o caminho
+// normal. Registrado no ObjectMapper do Spring por ser um bean Module.
+@Component
+public class DimensaoJsonModule extends SimpleModule {
+
+    private static final Set<Class<?>> DIMENSOES = Set.of(ProdutoDTO.class, ClienteDTO.class, FormaPagamentoDTO.class);
+
+    public DimensaoJsonModule(DimensaoJsonCache dimensaoJsonCache) {
+        super("DimensaoJsonModule");
+        setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription descricao,
+                                                      JsonSerializer<?> serializador) {
+                return DIMENSOES.contains(descricao.getBeanClass())
+                        ? new SerializadorPreSerializado(dimensaoJsonCache, (JsonSerializer<Object>) serializador)
+                        : serializador;
+            }
+        });
+    }
+
+    private static final class SerializadorPreSerializado extends JsonSerializer<Object>
+            implements ContextualSerializer, ResolvableSerializer {
+
+        private final DimensaoJsonCache cache;
+        private final JsonSerializer<Object> padrao;
+
+        private SerializadorPreSerializado(DimensaoJsonCache cache, JsonSerializer<Object> padrao) {
+            this.cache = cache;
+            this.padrao = padrao;
+        }
+
+        @Override
+        public void serialize(Object dto, JsonGenerator gerador, SerializerProvider provider) throws IOException {
+            if (!emJson(gerador)) {
+                padrao.serialize(dto, gerador, provider);
+                return;
+            }
+            SerializedString json = cache.json(dto);
+            if (json == null) {
+                if (!cache.compartilhado(dto)) {
+                    padrao.serialize(dto, gerador, provider);
+                    return;
+                }
+                json = serializar(dto, gerador.getCodec().getFactory(), provider);
+                cache.guardarJson(dto, json);
+            }
+            gerador.writeRawValue(json);
+        }
+
+        // Só a saída JSON recebe os bytes prontos (um ObjectMapper de XML ou CBOR do mesmo builder também tem o módulo)
+        private static boolean emJson(JsonGenerator gerador) {
+            return gerador.getCodec() != null
+                    && JsonFactory.FORMAT_NAME_JSON.equals(gerador.getCodec().getFactory().getFormatName());
+        }
+
+        // Primeira serialização do DTO compartilhado: serializador padrão num buffer à parte, com a mesma configuração
+        private SerializedString serializar(Object dto, JsonFactory fabrica, SerializerProvider provider) throws IOException {
+            StringWriter texto = new StringWriter();
+            try (JsonGenerator buffer = fabrica.createGenerator(texto)) {
+                provider.getConfig().initialize(buffer);
+                padrao.serialize(dto, buffer, provider);
+            }
+            return new SerializedString(texto.toString());
+        }
+
+        @Override
+        public void serializeWithType(Object dto, JsonGenerator gerador, SerializerProvider provider,
+                                      TypeSerializer tipo) throws IOException {
+            padrao.serializeWithType(dto, gerador, provider, tipo);
+        }
+
+        @Override
+        public void resolve(SerializerProvider provider) throws JsonMappingException {
+            if (padrao instanceof ResolvableSerializer resolvivel) {
+                resolvivel.resolve(provider);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty propriedade)
+                throws JsonMappingException {
+            JsonSerializer<?> contextual = padrao instanceof ContextualSerializer contextualizavel
+                    ? contextualizavel.createContextual(provider, propriedade) : padrao;
+            return contextual == padrao ? this : new SerializadorPreSerializado(cache, (JsonSerializer<Object>) contextual);
+        }
+
+        @Override
+        public Class<Object> handledType() {
+            return padrao.handledType();
+        }
+    }
+}
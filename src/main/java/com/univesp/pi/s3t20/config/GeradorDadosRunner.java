@@ -0,0 +1,52 @@
+package com.univesp.pi.s3t20.config;
+
+import com.univesp.pi.s3t20.service.GeradorDadosService;
+import com.univesp.pi.s3t20.service.GeradorDadosService.ResultadoGeracao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+// Geração de dados sintéticos pela linha de comando: ativada quando gerador.vendas é informado. Com
+// --spring.main.web-application-type=none a aplicação encerra ao terminar a carga, por exemplo:
+// ./mvnw spring-boot:run -Dspring-boot.run.arguments="--spring.main.web-application-type=none --gerador.clientes=10000 --gerador.vendas=1000000"
+@Component
+@ConditionalOnProperty("gerador.vendas")
+public class GeradorDadosRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(GeradorDadosRunner.class);
+
+    @Autowired
+    private GeradorDadosService geradorDadosService;
+
+    @Value("${gerador.vendas}")
+    private long vendas;
+
+    @Value("${gerador.clientes:0}")
+    private int clientes;
+
+    // Padrão: o último ano até hoje
+    @Value("${gerador.data-inicio:#{null}}")
+    private LocalDate dataInicio;
+
+    @Value("${gerador.data-fim:#{null}}")
+    private LocalDate dataFim;
+
+    @Value("${gerador.semente:42}")
+    private long semente;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        LocalDate fim = dataFim != null ? dataFim : LocalDate.now();
+        LocalDate inicio = dataInicio != null ? dataInicio : fim.minusYears(1).plusDays(1);
+        log.info("Gerando {} clientes e {} vendas entre {} e {} (semente {})", clientes, vendas, inicio, fim, semente);
+        ResultadoGeracao resultado = geradorDadosService.gerar(clientes, vendas, inicio, fim, semente);
+        log.info("Gerados {} clientes e {} vendas em {} ms", resultado.clientes, resultado.vendas, resultado.milissegundos);
+    }
+}
@@ -0,0 +1,17 @@
+package com.univesp.pi.s3t20.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Temporizadores dos serviços anotados com @Timed (servico.chamadas, tags class, method e exception); histogramas
+// e percentis em management.metrics.distribution.*
+@Configuration
+public class MetricasConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
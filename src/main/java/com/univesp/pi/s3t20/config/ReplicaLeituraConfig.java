@@ -0,0 +1,65 @@
+package com.univesp.pi.s3t20.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+// Réplica de leitura (datasource.replica.*, ligada no perfil prd): o DataSource da aplicação passa a rotear as
+// transações somente leitura para a réplica e as demais para o primário (spring.datasource.*). Os dois pools Hikari
+// ficam fora do contexto, para o proxy de contagem de SQL envolver só o DataSource roteado (sem contar em dobro);
+// as métricas saem em hikaricp.* com pool=primario e pool=replica.
+@Configuration
+@ConditionalOnProperty("datasource.replica.enabled")
+public class ReplicaLeituraConfig {
+
+    private HikariDataSource primario;
+    private HikariDataSource replica;
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        Binder binder = Binder.get(environment);
+        primario = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primario));
+        primario.setPoolName("primario");
+
+        // Sem url/usuário/senha próprios, a réplica usa os do primário; spring.datasource.hikari vale para os dois
+        // pools e datasource.replica.hikari sobrepõe na réplica
+        replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+        binder.bind("datasource.replica.url", String.class).ifBound(replica::setJdbcUrl);
+        binder.bind("datasource.replica.username", String.class).ifBound(replica::setUsername);
+        binder.bind("datasource.replica.password", String.class).ifBound(replica::setPassword);
+        binder.bind("datasource.replica.hikari", Bindable.ofInstance(replica));
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+
+        meterRegistry.ifAvailable(registro -> {
+            primario.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registro));
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registro));
+        });
+        return new LazyConnectionDataSourceProxy(new RoteamentoLeituraDataSource(primario, replica));
+    }
+
+    @PreDestroy
+    void fechar() {
+        if (replica != null) {
+            replica.close();
+        }
+        if (primario != null) {
+            primario.close();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.univesp.pi.s3t20.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Escolhe o pool pela transação corrente: somente leitura vai para a réplica, o resto (escritas, Flyway, acessos
+// fora de transação) para o primário. Precisa ficar atrás de um LazyConnectionDataSourceProxy: o gerenciador de
+// transações pede a conexão antes de marcar a transação como somente leitura, e o proxy adia a escolha até o
+// primeiro comando.
+class RoteamentoLeituraDataSource extends AbstractRoutingDataSource {
+
+    enum Destino {
+        PRIMARIO, REPLICA
+    }
+
+    RoteamentoLeituraDataSource(DataSource primario, DataSource replica) {
+        setTargetDataSources(Map.of(Destino.PRIMARIO, primario, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(primario);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Destino.REPLICA : Destino.PRIMARIO;
+    }
+}
@@ -0,0 +1,17 @@
+package com.univesp.pi.s3t20.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Página de uma listagem por cursor (keyset em id): itens em ordem crescente de id e o cursor da próxima página
+public record Pagina<T>(List<T> itens, Long proximo) {
+
+    // O repositório busca limite + 1 linhas; a linha extra só indica que existe próxima página
+    public static <T> Pagina<T> de(List<T> resultado, int limite, Function<T, Long> id) {
+        if (resultado.size() <= limite) {
+            return new Pagina<>(resultado, null);
+        }
+        List<T> itens = resultado.subList(0, limite);
+        return new Pagina<>(itens, id.apply(itens.get(limite - 1)));
+    }
+}
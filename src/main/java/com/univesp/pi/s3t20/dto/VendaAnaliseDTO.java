@@ -0,0 +1,66 @@
+package com.univesp.pi.s3t20.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Schema(description = "Linha agregada da análise de vendas: valores das dimensões agrupadas e totais")
+public class VendaAnaliseDTO {
+
+    @Schema(description = "Valores das dimensões agrupadas, na ordem do parâmetro groupBy",
+            example = "{\"categoria\": \"Salgado\", \"mes\": \"2025-09\"}")
+    private Map<String, String> chaves;
+
+    @Schema(description = "Quantidade de vendas", example = "42")
+    private Long totalVendas;
+
+    @Schema(description = "Soma das quantidades vendidas", example = "3150")
+    private Long quantidadeTotal;
+
+    @Schema(description = "Soma da receita", example = "2520.00")
+    private BigDecimal receitaTotal;
+
+    // Constructors
+    public VendaAnaliseDTO() {}
+
+    public VendaAnaliseDTO(Map<String, String> chaves, Long totalVendas, Long quantidadeTotal, BigDecimal receitaTotal) {
+        this.chaves = chaves;
+        this.totalVendas = totalVendas;
+        this.quantidadeTotal = quantidadeTotal;
+        this.receitaTotal = receitaTotal;
+    }
+
+    // Getters and Setters
+    public Map<String, String> getChaves() {
+        return chaves;
+    }
+
+    public void setChaves(Map<String, String> chaves) {
+        this.chaves = chaves;
+    }
+
+    public Long getTotalVendas() {
+        return totalVendas;
+    }
+
+    public void setTotalVendas(Long totalVendas) {
+        this.totalVendas = totalVendas;
+    }
+
+    public Long getQuantidadeTotal() {
+        return quantidadeTotal;
+    }
+
+    public void setQuantidadeTotal(Long quantidadeTotal) {
+        this.quantidadeTotal = quantidadeTotal;
+    }
+
+    public BigDecimal getReceitaTotal() {
+        return receitaTotal;
+    }
+
+    public void setReceitaTotal(BigDecimal receitaTotal) {
+        this.receitaTotal = receitaTotal;
+    }
+}
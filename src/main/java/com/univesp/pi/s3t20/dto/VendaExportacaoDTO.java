@@ -0,0 +1,10 @@
+package com.univesp.pi.s3t20.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Uma linha da exportação de vendas, com as dimensões pelo código (layout de FatoVendas.csv)
+public record VendaExportacaoDTO(String idVenda, LocalDate data, String idProduto, Integer quantidade,
+                                 BigDecimal precoUnitario, BigDecimal receitaTotal, String idCliente,
+                                 String idPagamento) {
+}
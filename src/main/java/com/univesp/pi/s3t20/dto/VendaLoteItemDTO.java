@@ -0,0 +1,71 @@
+package com.univesp.pi.s3t20.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Resultado de um item da inclusão de vendas em lote")
+public class VendaLoteItemDTO {
+
+    @Schema(description = "Posição do item no array enviado (a partir de 0)", example = "0")
+    private Integer indice;
+
+    @Schema(description = "Indica se a venda foi criada", example = "true")
+    private Boolean sucesso;
+
+    @Schema(description = "Venda criada (quando sucesso = true)")
+    private VendaResponseDTO venda;
+
+    @Schema(description = "Motivo da recusa (quando sucesso = false)", example = "Produto não encontrado")
+    private String erro;
+
+    // Constructors
+    public VendaLoteItemDTO() {}
+
+    public static VendaLoteItemDTO criado(int indice, VendaResponseDTO venda) {
+        VendaLoteItemDTO item = new VendaLoteItemDTO();
+        item.setIndice(indice);
+        item.setSucesso(true);
+        item.setVenda(venda);
+        return item;
+    }
+
+    public static VendaLoteItemDTO recusado(int indice, String erro) {
+        VendaLoteItemDTO item = new VendaLoteItemDTO();
+        item.setIndice(indice);
+        item.setSucesso(false);
+        item.setErro(erro);
+        return item;
+    }
+
+    // Getters and Setters
+    public Integer getIndice() {
+        return indice;
+    }
+
+    public void setIndice(Integer indice) {
+        this.indice = indice;
+    }
+
+    public Boolean getSucesso() {
+        return sucesso;
+    }
+
+    public void setSucesso(Boolean sucesso) {
+        this.sucesso = sucesso;
+    }
+
+    public VendaResponseDTO getVenda() {
+        return venda;
+    }
+
+    public void setVenda(VendaResponseDTO venda) {
+        this.venda = venda;
+    }
+
+    public String getErro() {
+        return erro;
+    }
+
+    public void setErro(String erro) {
+        this.erro = erro;
+    }
+}
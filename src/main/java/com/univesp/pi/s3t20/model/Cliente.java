@@ -4,14 +4,22 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.List;
 
 @Entity
 @Table(name = "clientes")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Cliente.REGIAO)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Schema(description = "Entidade que representa um cliente")
 public class Cliente {
 
+    // Regiões do cache de segundo nível: entidades por id e resultados das consultas por código e dos valores distintos
+    // (TTL e tamanho em hibernate-cache.conf)
+    public static final String REGIAO = "clientes";
+    public static final String REGIAO_CONSULTAS = "clientes-consultas";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Schema(description = "ID único do cliente (gerado automaticamente)", example = "1", accessMode = Schema.AccessMode.READ_ONLY)
@@ -4,14 +4,22 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.List;
 
 @Entity
 @Table(name = "formas_pagamento")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = FormaPagamento.REGIAO)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Schema(description = "Entidade que representa uma forma de pagamento")
 public class FormaPagamento {
 
+    // Regiões do cache de segundo nível: entidades por id e resultados das consultas por código e dos valores distintos
+    // (TTL e tamanho em hibernate-cache.conf)
+    public static final String REGIAO = "formas-pagamento";
+    public static final String REGIAO_CONSULTAS = "formas-pagamento-consultas";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Schema(description = "ID único da forma de pagamento (gerado automaticamente)", example = "1", accessMode = Schema.AccessMode.READ_ONLY)
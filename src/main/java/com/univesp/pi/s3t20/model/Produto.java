@@ -4,15 +4,23 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 import java.util.List;
 
 @Entity
 @Table(name = "produtos")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Produto.REGIAO)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Schema(description = "Entidade que representa um produto")
 public class Produto {
 
+    // Regiões do cache de segundo nível: entidades por id e resultados das consultas por código e dos valores distintos
+    // (TTL e tamanho em hibernate-cache.conf)
+    public static final String REGIAO = "produtos";
+    public static final String REGIAO_CONSULTAS = "produtos-consultas";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Schema(description = "ID único do produto (gerado automaticamente)", example = "1", accessMode = Schema.AccessMode.READ_ONLY)
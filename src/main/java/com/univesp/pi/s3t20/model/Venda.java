@@ -8,12 +8,22 @@ import java.time.LocalDate;
 
 @Entity
 @Table(name = "vendas")
+@NamedEntityGraph(name = Venda.GRAFO_COMPLETO, attributeNodes = {
+        @NamedAttributeNode("produto"),
+        @NamedAttributeNode("cliente"),
+        @NamedAttributeNode("formaPagamento")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Schema(description = "Entidade que representa uma venda")
 public class Venda {
 
+    // Produto, cliente e forma de pagamento no mesmo SELECT da venda, para as listagens não dispararem N+1
+    public static final String GRAFO_COMPLETO = "Venda.completa";
+
+    // Ids reservados em blocos de 50 (pooled-lo) na sequência vendas_id_seq, para os INSERTs irem em lote (ver V9)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vendas_id")
+    @SequenceGenerator(name = "vendas_id", sequenceName = "vendas_id_seq", allocationSize = 50)
     @Schema(description = "ID único da venda (gerado automaticamente)", example = "1", accessMode = Schema.AccessMode.READ_ONLY)
     private Long id;
 
@@ -0,0 +1,159 @@
+package com.univesp.pi.s3t20.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Agregado diário das vendas, mantido pelo VendaService na mesma transação das alterações em vendas.
+// As chaves das dimensões são guardadas como ids simples (sem relacionamento) para não acoplar o rollup
+// ao ciclo de vida das entidades.
+@Entity
+@Table(name = "vendas_resumo_diario",
+       uniqueConstraints = @UniqueConstraint(name = "uk_vendas_resumo_diario_chave",
+               columnNames = {"data", "produto_id", "cliente_id", "forma_pagamento_id"}))
+public class VendaResumoDiario {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "data", nullable = false)
+    private LocalDate data;
+
+    @Column(name = "produto_id", nullable = false)
+    private Long produtoId;
+
+    @Column(name = "cliente_id", nullable = false)
+    private Long clienteId;
+
+    @Column(name = "forma_pagamento_id", nullable = false)
+    private Long formaPagamentoId;
+
+    @Column(name = "total_vendas", nullable = false)
+    private Long totalVendas;
+
+    @Column(name = "quantidade_total", nullable = false)
+    private Long quantidadeTotal;
+
+    @Column(name = "receita_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal receitaTotal;
+
+    @Column(name = "quantidade_minima")
+    private Integer quantidadeMinima;
+
+    @Column(name = "quantidade_maxima")
+    private Integer quantidadeMaxima;
+
+    @Column(name = "receita_minima", precision = 10, scale = 2)
+    private BigDecimal receitaMinima;
+
+    @Column(name = "receita_maxima", precision = 10, scale = 2)
+    private BigDecimal receitaMaxima;
+
+    // Constructors
+    public VendaResumoDiario() {}
+
+    public VendaResumoDiario(LocalDate data, Long produtoId, Long clienteId, Long formaPagamentoId) {
+        this.data = data;
+        this.produtoId = produtoId;
+        this.clienteId = clienteId;
+        this.formaPagamentoId = formaPagamentoId;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getData() {
+        return data;
+    }
+
+    public void setData(LocalDate data) {
+        this.data = data;
+    }
+
+    public Long getProdutoId() {
+        return produtoId;
+    }
+
+    public void setProdutoId(Long produtoId) {
+        this.produtoId = produtoId;
+    }
+
+    public Long getClienteId() {
+        return clienteId;
+    }
+
+    public void setClienteId(Long clienteId) {
+        this.clienteId = clienteId;
+    }
+
+    public Long getFormaPagamentoId() {
+        return formaPagamentoId;
+    }
+
+    public void setFormaPagamentoId(Long formaPagamentoId) {
+        this.formaPagamentoId = formaPagamentoId;
+    }
+
+    public Long getTotalVendas() {
+        return totalVendas;
+    }
+
+    public void setTotalVendas(Long totalVendas) {
+        this.totalVendas = totalVendas;
+    }
+
+    public Long getQuantidadeTotal() {
+        return quantidadeTotal;
+    }
+
+    public void setQuantidadeTotal(Long quantidadeTotal) {
+        this.quantidadeTotal = quantidadeTotal;
+    }
+
+    public BigDecimal getReceitaTotal() {
+        return receitaTotal;
+    }
+
+    public void setReceitaTotal(BigDecimal receitaTotal) {
+        this.receitaTotal = receitaTotal;
+    }
+
+    public Integer getQuantidadeMinima() {
+        return quantidadeMinima;
+    }
+
+    public void setQuantidadeMinima(Integer quantidadeMinima) {
+        this.quantidadeMinima = quantidadeMinima;
+    }
+
+    public Integer getQuantidadeMaxima() {
+        return quantidadeMaxima;
+    }
+
+    public void setQuantidadeMaxima(Integer quantidadeMaxima) {
+        this.quantidadeMaxima = quantidadeMaxima;
+    }
+
+    public BigDecimal getReceitaMinima() {
+        return receitaMinima;
+    }
+
+    public void setReceitaMinima(BigDecimal receitaMinima) {
+        this.receitaMinima = receitaMinima;
+    }
+
+    public BigDecimal getReceitaMaxima() {
+        return receitaMaxima;
+    }
+
+    public void setReceitaMaxima(BigDecimal receitaMaxima) {
+        this.receitaMaxima = receitaMaxima;
+    }
+}
@@ -1,18 +1,34 @@
 package com.univesp.pi.s3t20.repository;
 
 import com.univesp.pi.s3t20.model.Cliente;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+// Buscas por código e valores distintos no cache de consultas do Hibernate (região Cliente.REGIAO_CONSULTAS)
 @Repository
 public interface ClienteRepository extends JpaRepository<Cliente, Long> {
     
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = Cliente.REGIAO_CONSULTAS)})
     Optional<Cliente> findByIdCliente(String idCliente);
     
+    List<Cliente> findByIdClienteIn(Collection<String> idsCliente);
+    
+    @Query("SELECT c.idCliente AS codigo, c.id AS id FROM Cliente c")
+    List<CodigoId> findCodigos();
+    
+    // Paginação por cursor (keyset em id)
+    List<Cliente> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    
     List<Cliente> findByCidade(String cidade);
     
     List<Cliente> findByBairro(String bairro);
@@ -21,9 +37,13 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
     
     List<Cliente> findByNomeClienteContainingIgnoreCase(String nome);
     
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = Cliente.REGIAO_CONSULTAS)})
     @Query("SELECT DISTINCT c.cidade FROM Cliente c ORDER BY c.cidade")
     List<String> findDistinctCidades();
     
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = Cliente.REGIAO_CONSULTAS)})
     @Query("SELECT DISTINCT c.bairro FROM Cliente c ORDER BY c.bairro")
     List<String> findDistinctBairros();
     
@@ -0,0 +1,7 @@
+package com.univesp.pi.s3t20.repository;
+
+// Projeção código de negócio -> id das tabelas de dimensão, usada para resolver os códigos das planilhas importadas
+public interface CodigoId {
+    String getCodigo();
+    Long getId();
+}
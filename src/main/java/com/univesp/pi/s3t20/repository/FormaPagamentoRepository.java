@@ -1,13 +1,31 @@
 package com.univesp.pi.s3t20.repository;
 
 import com.univesp.pi.s3t20.model.FormaPagamento;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+// Buscas por código e valores distintos no cache de consultas do Hibernate (região FormaPagamento.REGIAO_CONSULTAS)
 @Repository
 public interface FormaPagamentoRepository extends JpaRepository<FormaPagamento, Long> {
     
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = FormaPagamento.REGIAO_CONSULTAS)})
     Optional<FormaPagamento> findByIdPagamento(String idPagamento);
+    
+    List<FormaPagamento> findByIdPagamentoIn(Collection<String> idsPagamento);
+    
+    @Query("SELECT f.idPagamento AS codigo, f.id AS id FROM FormaPagamento f")
+    List<CodigoId> findCodigos();
+    
+    // Paginação por cursor (keyset em id)
+    List<FormaPagamento> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
@@ -1,22 +1,40 @@
 package com.univesp.pi.s3t20.repository;
 
 import com.univesp.pi.s3t20.model.Produto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+// Buscas por código e valores distintos no cache de consultas do Hibernate (região Produto.REGIAO_CONSULTAS)
 @Repository
 public interface ProdutoRepository extends JpaRepository<Produto, Long> {
     
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = Produto.REGIAO_CONSULTAS)})
     Optional<Produto> findByIdProduto(String idProduto);
     
+    List<Produto> findByIdProdutoIn(Collection<String> idsProduto);
+    
+    @Query("SELECT p.idProduto AS codigo, p.id AS id FROM Produto p")
+    List<CodigoId> findCodigos();
+    
+    // Paginação por cursor (keyset em id)
+    List<Produto> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    
     List<Produto> findByCategoria(String categoria);
     
     List<Produto> findByProdutoContainingIgnoreCase(String produto);
     
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = Produto.REGIAO_CONSULTAS)})
     @Query("SELECT DISTINCT p.categoria FROM Produto p ORDER BY p.categoria")
     List<String> findDistinctCategorias();
 }
@@ -0,0 +1,62 @@
+package com.univesp.pi.s3t20.repository;
+
+import com.univesp.pi.s3t20.dto.VendaAnaliseDTO;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+// Fragmento com a consulta de análise multidimensional (GROUP BY dinâmico sobre o rollup diário)
+public interface VendaAnaliseRepository {
+
+    List<VendaAnaliseDTO> agrupar(List<Dimensao> dimensoes, LocalDate dataInicio, LocalDate dataFim);
+
+    // Ordena as linhas pelos valores das chaves, na ordem das dimensões pedidas (nulos primeiro)
+    static Comparator<VendaAnaliseDTO> ordemDasChaves() {
+        Comparator<String> porValor = Comparator.nullsFirst(Comparator.naturalOrder());
+        return (a, b) -> {
+            var valoresA = a.getChaves().values().iterator();
+            var valoresB = b.getChaves().values().iterator();
+            while (valoresA.hasNext() && valoresB.hasNext()) {
+                int comparacao = porValor.compare(valoresA.next(), valoresB.next());
+                if (comparacao != 0) {
+                    return comparacao;
+                }
+            }
+            return 0;
+        };
+    }
+
+    enum Dimensao {
+        CATEGORIA("categoria", false),
+        CIDADE("cidade", false),
+        FORMA_PAGAMENTO("formaPagamento", false),
+        DIA("dia", true),
+        SEMANA("semana", true),
+        MES("mes", true);
+
+        private final String parametro;
+        private final boolean temporal;
+
+        Dimensao(String parametro, boolean temporal) {
+            this.parametro = parametro;
+            this.temporal = temporal;
+        }
+
+        public String getParametro() {
+            return parametro;
+        }
+
+        public boolean isTemporal() {
+            return temporal;
+        }
+
+        public static Optional<Dimensao> doParametro(String parametro) {
+            return Arrays.stream(values())
+                .filter(d -> d.parametro.equalsIgnoreCase(parametro.trim()))
+                .findFirst();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.univesp.pi.s3t20.repository;
+
+import com.univesp.pi.s3t20.dto.VendaAnaliseDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class VendaAnaliseRepositoryImpl implements VendaAnaliseRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Monta um único SELECT ... GROUP BY sobre vendas_resumo_diario, juntando apenas as dimensões pedidas.
+    // Dimensões temporais são agrupadas por dia no banco (o rollup já é diário) e, para semana/mês,
+    // consolidadas aqui: o número de linhas é limitado a dias x combinações das demais chaves.
+    @Override
+    public List<VendaAnaliseDTO> agrupar(List<Dimensao> dimensoes, LocalDate dataInicio, LocalDate dataFim) {
+        List<String> colunas = new ArrayList<>();
+        StringBuilder from = new StringBuilder(" FROM VendaResumoDiario r");
+        for (Dimensao dimensao : dimensoes) {
+            switch (dimensao) {
+                case CATEGORIA -> {
+                    colunas.add("p.categoria");
+                    from.append(" JOIN Produto p ON p.id = r.produtoId");
+                }
+                case CIDADE -> {
+                    colunas.add("c.cidade");
+                    from.append(" JOIN Cliente c ON c.id = r.clienteId");
+                }
+                case FORMA_PAGAMENTO -> {
+                    colunas.add("f.formaPagamento");
+                    from.append(" JOIN FormaPagamento f ON f.id = r.formaPagamentoId");
+                }
+                case DIA, SEMANA, MES -> colunas.add("r.data");
+            }
+        }
+
+        StringBuilder jpql = new StringBuilder("SELECT ");
+        for (String coluna : colunas) {
+            jpql.append(coluna).append(", ");
+        }
+        jpql.append("SUM(r.totalVendas), SUM(r.quantidadeTotal), SUM(r.receitaTotal)").append(from);
+
+        List<String> filtros = new ArrayList<>();
+        if (dataInicio != null) {
+            filtros.add("r.data >= :dataInicio");
+        }
+        if (dataFim != null) {
+            filtros.add("r.data <= :dataFim");
+        }
+        if (!filtros.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", filtros));
+        }
+        if (!colunas.isEmpty()) {
+            jpql.append(" GROUP BY ").append(String.join(", ", colunas));
+        }
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class);
+        if (dataInicio != null) {
+            query.setParameter("dataInicio", dataInicio);
+        }
+        if (dataFim != null) {
+            query.setParameter("dataFim", dataFim);
+        }
+
+        Map<List<String>, VendaAnaliseDTO> linhas = new LinkedHashMap<>();
+        for (Object[] tupla : query.getResultList()) {
+            if (tupla[colunas.size()] == null) {
+                continue; // agregação sem linhas (sem GROUP BY e sem vendas no período)
+            }
+            List<String> valores = new ArrayList<>(dimensoes.size());
+            for (int i = 0; i < dimensoes.size(); i++) {
+                valores.add(formatar(dimensoes.get(i), tupla[i]));
+            }
+            VendaAnaliseDTO linha = linhas.computeIfAbsent(valores, v -> novaLinha(dimensoes, v));
+            linha.setTotalVendas(linha.getTotalVendas() + ((Number) tupla[colunas.size()]).longValue());
+            linha.setQuantidadeTotal(linha.getQuantidadeTotal() + ((Number) tupla[colunas.size() + 1]).longValue());
+            linha.setReceitaTotal(linha.getReceitaTotal().add((BigDecimal) tupla[colunas.size() + 2]));
+        }
+
+        return linhas.values().stream()
+            .sorted(VendaAnaliseRepository.ordemDasChaves())
+            .toList();
+    }
+
+    private static VendaAnaliseDTO novaLinha(List<Dimensao> dimensoes, List<String> valores) {
+        Map<String, String> chaves = new LinkedHashMap<>();
+        for (int i = 0; i < dimensoes.size(); i++) {
+            chaves.put(dimensoes.get(i).getParametro(), valores.get(i));
+        }
+        return new VendaAnaliseDTO(chaves, 0L, 0L, BigDecimal.ZERO);
+    }
+
+    private static String formatar(Dimensao dimensao, Object valor) {
+        if (valor == null) {
+            return null;
+        }
+        return switch (dimensao) {
+            case DIA -> valor.toString();
+            case SEMANA -> {
+                LocalDate data = (LocalDate) valor;
+                yield String.format("%d-W%02d", data.get(IsoFields.WEEK_BASED_YEAR),
+                        data.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            }
+            case MES -> {
+                LocalDate data = (LocalDate) valor;
+                yield String.format("%d-%02d", data.getYear(), data.getMonthValue());
+            }
+            default -> valor.toString();
+        };
+    }
+}
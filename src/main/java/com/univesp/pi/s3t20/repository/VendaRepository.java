@@ -1,32 +1,137 @@
 package com.univesp.pi.s3t20.repository;
 
+import com.univesp.pi.s3t20.dto.VendaExportacaoDTO;
 import com.univesp.pi.s3t20.model.Venda;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface VendaRepository extends JpaRepository<Venda, Long> {
     
+    // As listagens carregam as dimensões junto com a venda (ver Venda.GRAFO_COMPLETO)
+    @Override
+    @EntityGraph(Venda.GRAFO_COMPLETO)
+    List<Venda> findAll();
+    
+    @Override
+    @EntityGraph(Venda.GRAFO_COMPLETO)
+    Optional<Venda> findById(Long id);
+    
+    @EntityGraph(Venda.GRAFO_COMPLETO)
     Optional<Venda> findByIdVenda(String idVenda);
     
+    @EntityGraph(Venda.GRAFO_COMPLETO)
     List<Venda> findByData(LocalDate data);
     
+    @EntityGraph(Venda.GRAFO_COMPLETO)
     List<Venda> findByDataBetween(LocalDate dataInicio, LocalDate dataFim);
     
+    @EntityGraph(Venda.GRAFO_COMPLETO)
     List<Venda> findByClienteId(Long clienteId);
     
+    @EntityGraph(Venda.GRAFO_COMPLETO)
     List<Venda> findByProdutoId(Long produtoId);
     
+    @EntityGraph(Venda.GRAFO_COMPLETO)
     List<Venda> findByFormaPagamentoId(Long formaPagamentoId);
     
-    @Query("SELECT v FROM Venda v WHERE v.cliente.cidade = ?1")
+    // Paginação por cursor (keyset em id): cada página começa logo após o último id da anterior
+    @EntityGraph(Venda.GRAFO_COMPLETO)
+    List<Venda> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    
+    @EntityGraph(Venda.GRAFO_COMPLETO)
+    List<Venda> findByDataBetweenAndIdGreaterThanOrderByIdAsc(LocalDate dataInicio, LocalDate dataFim, Long id, Limit limit);
+    
+    @EntityGraph(Venda.GRAFO_COMPLETO)
+    List<Venda> findByClienteIdAndIdGreaterThanOrderByIdAsc(Long clienteId, Long id, Limit limit);
+    
+    @EntityGraph(Venda.GRAFO_COMPLETO)
+    List<Venda> findByProdutoIdAndIdGreaterThanOrderByIdAsc(Long produtoId, Long id, Limit limit);
+    
+    @Query("SELECT v FROM Venda v JOIN FETCH v.produto JOIN FETCH v.cliente c JOIN FETCH v.formaPagamento WHERE c.cidade = ?1")
     List<Venda> findByClienteCidade(String cidade);
     
-    @Query("SELECT v FROM Venda v WHERE v.produto.categoria = ?1")
+    @Query("SELECT v FROM Venda v JOIN FETCH v.produto p JOIN FETCH v.cliente JOIN FETCH v.formaPagamento WHERE p.categoria = ?1")
     List<Venda> findByProdutoCategoria(String categoria);
+    
+    // Receita em centavos (BIGINT) já no banco: o resumo é montado sem BigDecimal intermediário
+    String AGREGACAO = "SELECT COUNT(v) AS totalVendas, " +
+                       "CAST(SUM(v.receitaTotal) * 100 AS Long) AS receitaTotalCentavos, " +
+                       "CAST(MIN(v.receitaTotal) * 100 AS Long) AS receitaMinimaCentavos, " +
+                       "CAST(MAX(v.receitaTotal) * 100 AS Long) AS receitaMaximaCentavos, " +
+                       "SUM(v.quantidade) AS quantidadeTotal, MIN(v.quantidade) AS quantidadeMinima, " +
+                       "MAX(v.quantidade) AS quantidadeMaxima " +
+                       "FROM Venda v";
+    
+    @Query(AGREGACAO)
+    ResumoAgregado agregarResumo();
+    
+    @Query(AGREGACAO + " WHERE v.data BETWEEN ?1 AND ?2")
+    ResumoAgregado agregarResumoPorPeriodo(LocalDate dataInicio, LocalDate dataFim);
+    
+    // Leitura em fluxo (cursor forward-only) para as respostas NDJSON; as dimensões vêm no mesmo SELECT
+    @Query("SELECT v FROM Venda v JOIN FETCH v.produto JOIN FETCH v.cliente JOIN FETCH v.formaPagamento ORDER BY v.id")
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+                 @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")})
+    Stream<Venda> streamTodas();
+    
+    @Query("SELECT v FROM Venda v JOIN FETCH v.produto JOIN FETCH v.cliente JOIN FETCH v.formaPagamento " +
+           "WHERE v.data BETWEEN ?1 AND ?2 ORDER BY v.id")
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+                 @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")})
+    Stream<Venda> streamPorPeriodo(LocalDate dataInicio, LocalDate dataFim);
+    
+    // Leitura escalar (sem hidratar entidades) usada para carregar o cubo em memória, com os rótulos das dimensões
+    @Query("SELECT v.id, v.data, p.id, c.id, f.id, v.quantidade, CAST(v.receitaTotal * 100 AS Long), " +
+           "p.categoria, c.cidade, f.formaPagamento " +
+           "FROM Venda v JOIN v.produto p JOIN v.cliente c JOIN v.formaPagamento f")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<Object[]> streamLancamentos();
+    
+    // Exportação do período: só as colunas do layout de FatoVendas.csv, sem hidratar entidades
+    @Query("SELECT new com.univesp.pi.s3t20.dto.VendaExportacaoDTO(v.idVenda, v.data, p.idProduto, v.quantidade, " +
+           "v.precoUnitario, v.receitaTotal, c.idCliente, f.idPagamento) " +
+           "FROM Venda v JOIN v.produto p JOIN v.cliente c JOIN v.formaPagamento f " +
+           "WHERE v.data BETWEEN ?1 AND ?2 ORDER BY v.id")
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"),
+                 @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")})
+    Stream<VendaExportacaoDTO> streamExportacao(LocalDate dataInicio, LocalDate dataFim);
+    
+    // Validador dos GETs condicionais do período: última alteração e quantidade de vendas (a quantidade denuncia
+    // exclusões, que não deixam rastro em updated_at)
+    @Query("SELECT MAX(v.updatedAt) AS ultimaAlteracao, COUNT(v) AS quantidade FROM Venda v WHERE v.data BETWEEN ?1 AND ?2")
+    VersaoPeriodo versaoPorPeriodo(LocalDate dataInicio, LocalDate dataFim);
+    
+    // Códigos já cadastrados entre os informados (importação de planilhas)
+    @Query("SELECT v.idVenda FROM Venda v WHERE v.idVenda IN ?1")
+    List<String> findCodigosExistentes(Collection<String> codigos);
+    
+    // Projeção com o resultado das agregações calculadas pelo banco (uma única linha); valores monetários em centavos
+    interface ResumoAgregado {
+        Long getTotalVendas();
+        Long getReceitaTotalCentavos();
+        Long getReceitaMinimaCentavos();
+        Long getReceitaMaximaCentavos();
+        Long getQuantidadeTotal();
+        Integer getQuantidadeMinima();
+        Integer getQuantidadeMaxima();
+    }
+    
+    interface VersaoPeriodo {
+        LocalDateTime getUltimaAlteracao();
+        long getQuantidade();
+    }
 }
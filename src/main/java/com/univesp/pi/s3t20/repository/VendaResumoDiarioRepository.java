@@ -0,0 +1,91 @@
+package com.univesp.pi.s3t20.repository;
+
+import com.univesp.pi.s3t20.model.VendaResumoDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Repository
+public interface VendaResumoDiarioRepository extends JpaRepository<VendaResumoDiario, Long>, VendaAnaliseRepository {
+
+    String CHAVE = "r.data = :data AND r.produtoId = :produtoId AND r.clienteId = :clienteId " +
+                   "AND r.formaPagamentoId = :formaPagamentoId";
+
+    String AGREGACAO = "SELECT SUM(r.totalVendas) AS totalVendas, " +
+                       "CAST(SUM(r.receitaTotal) * 100 AS Long) AS receitaTotalCentavos, " +
+                       "CAST(MIN(r.receitaMinima) * 100 AS Long) AS receitaMinimaCentavos, " +
+                       "CAST(MAX(r.receitaMaxima) * 100 AS Long) AS receitaMaximaCentavos, " +
+                       "SUM(r.quantidadeTotal) AS quantidadeTotal, MIN(r.quantidadeMinima) AS quantidadeMinima, " +
+                       "MAX(r.quantidadeMaxima) AS quantidadeMaxima " +
+                       "FROM VendaResumoDiario r";
+
+    @Query(AGREGACAO)
+    VendaRepository.ResumoAgregado agregarResumo();
+
+    @Query(AGREGACAO + " WHERE r.data BETWEEN ?1 AND ?2")
+    VendaRepository.ResumoAgregado agregarResumoPorPeriodo(LocalDate dataInicio, LocalDate dataFim);
+
+    // Soma novas vendas da mesma chave (uma ou um lote) ao agregado existente; retorna 0 quando ainda não há linha para a chave
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE VendaResumoDiario r SET r.totalVendas = r.totalVendas + :totalVendas, " +
+           "r.quantidadeTotal = r.quantidadeTotal + :quantidadeTotal, r.receitaTotal = r.receitaTotal + :receitaTotal, " +
+           "r.quantidadeMinima = LEAST(r.quantidadeMinima, :quantidadeMinima), " +
+           "r.quantidadeMaxima = GREATEST(r.quantidadeMaxima, :quantidadeMaxima), " +
+           "r.receitaMinima = LEAST(r.receitaMinima, :receitaMinima), " +
+           "r.receitaMaxima = GREATEST(r.receitaMaxima, :receitaMaxima) " +
+           "WHERE " + CHAVE)
+    int acumular(@Param("data") LocalDate data, @Param("produtoId") Long produtoId,
+                 @Param("clienteId") Long clienteId, @Param("formaPagamentoId") Long formaPagamentoId,
+                 @Param("totalVendas") long totalVendas, @Param("quantidadeTotal") long quantidadeTotal,
+                 @Param("receitaTotal") BigDecimal receitaTotal,
+                 @Param("quantidadeMinima") Integer quantidadeMinima, @Param("quantidadeMaxima") Integer quantidadeMaxima,
+                 @Param("receitaMinima") BigDecimal receitaMinima, @Param("receitaMaxima") BigDecimal receitaMaxima);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE VendaResumoDiario r SET r.totalVendas = r.totalVendas + :deltaVendas, " +
+           "r.quantidadeTotal = r.quantidadeTotal + :deltaQuantidade, " +
+           "r.receitaTotal = r.receitaTotal + :deltaReceita " +
+           "WHERE " + CHAVE)
+    int aplicarDelta(@Param("data") LocalDate data, @Param("produtoId") Long produtoId,
+                     @Param("clienteId") Long clienteId, @Param("formaPagamentoId") Long formaPagamentoId,
+                     @Param("deltaVendas") long deltaVendas, @Param("deltaQuantidade") long deltaQuantidade,
+                     @Param("deltaReceita") BigDecimal deltaReceita);
+
+    // Mínimos e máximos não podem ser decrementados: após uma retirada são recalculados a partir
+    // das vendas da própria chave (poucas linhas, filtradas pelo índice de data)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE VendaResumoDiario r SET " +
+           "r.quantidadeMinima = (SELECT MIN(v.quantidade) FROM Venda v WHERE v.data = r.data AND v.produto.id = r.produtoId " +
+           "AND v.cliente.id = r.clienteId AND v.formaPagamento.id = r.formaPagamentoId), " +
+           "r.quantidadeMaxima = (SELECT MAX(v.quantidade) FROM Venda v WHERE v.data = r.data AND v.produto.id = r.produtoId " +
+           "AND v.cliente.id = r.clienteId AND v.formaPagamento.id = r.formaPagamentoId), " +
+           "r.receitaMinima = (SELECT MIN(v.receitaTotal) FROM Venda v WHERE v.data = r.data AND v.produto.id = r.produtoId " +
+           "AND v.cliente.id = r.clienteId AND v.formaPagamento.id = r.formaPagamentoId), " +
+           "r.receitaMaxima = (SELECT MAX(v.receitaTotal) FROM Venda v WHERE v.data = r.data AND v.produto.id = r.produtoId " +
+           "AND v.cliente.id = r.clienteId AND v.formaPagamento.id = r.formaPagamentoId) " +
+           "WHERE " + CHAVE)
+    int recalcularExtremos(@Param("data") LocalDate data, @Param("produtoId") Long produtoId,
+                           @Param("clienteId") Long clienteId, @Param("formaPagamentoId") Long formaPagamentoId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM VendaResumoDiario r WHERE " + CHAVE + " AND r.totalVendas <= 0")
+    int removerSemVendas(@Param("data") LocalDate data, @Param("produtoId") Long produtoId,
+                         @Param("clienteId") Long clienteId, @Param("formaPagamentoId") Long formaPagamentoId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM VendaResumoDiario r WHERE r.produtoId = ?1")
+    int removerPorProduto(Long produtoId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM VendaResumoDiario r WHERE r.clienteId = ?1")
+    int removerPorCliente(Long clienteId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM VendaResumoDiario r WHERE r.formaPagamentoId = ?1")
+    int removerPorFormaPagamento(Long formaPagamentoId);
+}
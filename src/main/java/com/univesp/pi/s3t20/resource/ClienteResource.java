@@ -4,6 +4,7 @@ import com.univesp.pi.s3t20.dto.ClienteDTO;
 import com.univesp.pi.s3t20.model.Cliente;
 import com.univesp.pi.s3t20.service.ClienteService;
 import com.univesp.pi.s3t20.service.MapperService;
+import com.univesp.pi.s3t20.service.VersaoRecursoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,6 +16,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -30,14 +32,34 @@ public class ClienteResource {
     @Autowired
     private MapperService mapperService;
 
+    @Autowired
+    private Paginacao paginacao;
+
+    @Autowired
+    private RespostaCondicional respostaCondicional;
+
     @GetMapping
-    @Operation(summary = "Listar todos os clientes", description = "Retorna uma lista com todos os clientes cadastrados")
-    @ApiResponse(responseCode = "200", description = "Lista de clientes retornada com sucesso",
-            content = @Content(schema = @Schema(implementation = ClienteDTO.class)))
-    public List<ClienteDTO> listarClientes() {
-        return clienteService.listarTodos().stream()
-                .map(mapperService::toClienteDTO)
-                .toList();
+    @Operation(summary = "Listar clientes", description = "Retorna os clientes cadastrados em ordem de ID. Paginada por cursor: o cabeçalho X-Next-Cursor (e Link rel=\"next\") indica o valor de after da próxima página.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de clientes retornada com sucesso",
+                    content = @Content(schema = @Schema(implementation = ClienteDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Não modificado desde o ETag (If-None-Match) ou a data (If-Modified-Since) informados"),
+            @ApiResponse(responseCode = "400", description = "Limite inválido")
+    })
+    public ResponseEntity<List<ClienteDTO>> listarClientes(
+            @Parameter(description = "Quantidade máxima de itens na página (padrão 100, máximo 1000)", example = "100")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Cursor da página: ID do último item da página anterior (cabeçalho X-Next-Cursor)", example = "100")
+            @RequestParam(required = false) Long after,
+            WebRequest request) {
+        Optional<Integer> limite = paginacao.limite(limit);
+        if (limite.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (respostaCondicional.naoModificado(request, VersaoRecursoService.Recurso.CLIENTES)) {
+            return null;
+        }
+        return paginacao.resposta(clienteService.listarPagina(after, limite.get()), limite.get(), mapperService::toClienteDTO);
     }
 
     @GetMapping("/{id}")
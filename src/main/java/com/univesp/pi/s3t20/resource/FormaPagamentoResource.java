@@ -4,6 +4,7 @@ import com.univesp.pi.s3t20.dto.FormaPagamentoDTO;
 import com.univesp.pi.s3t20.model.FormaPagamento;
 import com.univesp.pi.s3t20.service.FormaPagamentoService;
 import com.univesp.pi.s3t20.service.MapperService;
+import com.univesp.pi.s3t20.service.VersaoRecursoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,6 +16,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -30,14 +32,34 @@ public class FormaPagamentoResource {
     @Autowired
     private MapperService mapperService;
 
+    @Autowired
+    private Paginacao paginacao;
+
+    @Autowired
+    private RespostaCondicional respostaCondicional;
+
     @GetMapping
-    @Operation(summary = "Listar todas as formas de pagamento", description = "Retorna uma lista com todas as formas de pagamento cadastradas")
-    @ApiResponse(responseCode = "200", description = "Lista de formas de pagamento retornada com sucesso",
-            content = @Content(schema = @Schema(implementation = FormaPagamentoDTO.class)))
-    public List<FormaPagamentoDTO> listarFormasPagamento() {
-        return formaPagamentoService.listarTodos().stream()
-                .map(mapperService::toFormaPagamentoDTO)
-                .toList();
+    @Operation(summary = "Listar formas de pagamento", description = "Retorna as formas de pagamento cadastradas em ordem de ID. Paginada por cursor: o cabeçalho X-Next-Cursor (e Link rel=\"next\") indica o valor de after da próxima página.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de formas de pagamento retornada com sucesso",
+                    content = @Content(schema = @Schema(implementation = FormaPagamentoDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Não modificado desde o ETag (If-None-Match) ou a data (If-Modified-Since) informados"),
+            @ApiResponse(responseCode = "400", description = "Limite inválido")
+    })
+    public ResponseEntity<List<FormaPagamentoDTO>> listarFormasPagamento(
+            @Parameter(description = "Quantidade máxima de itens na página (padrão 100, máximo 1000)", example = "100")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Cursor da página: ID do último item da página anterior (cabeçalho X-Next-Cursor)", example = "100")
+            @RequestParam(required = false) Long after,
+            WebRequest request) {
+        Optional<Integer> limite = paginacao.limite(limit);
+        if (limite.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (respostaCondicional.naoModificado(request, VersaoRecursoService.Recurso.FORMAS_PAGAMENTO)) {
+            return null;
+        }
+        return paginacao.resposta(formaPagamentoService.listarPagina(after, limite.get()), limite.get(), mapperService::toFormaPagamentoDTO);
     }
 
     @GetMapping("/{id}")
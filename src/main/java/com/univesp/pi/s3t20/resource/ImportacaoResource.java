@@ -0,0 +1,95 @@
+package com.univesp.pi.s3t20.resource;
+
+import com.univesp.pi.s3t20.service.ImportacaoService;
+import com.univesp.pi.s3t20.service.ImportacaoService.ResultadoImportacao;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+// O arquivo vem como corpo da requisição (Content-Type: text/csv) e é lido em fluxo direto do socket,
+// sem passar por multipart nem ser carregado inteiro em memória
+@RestController
+@RequestMapping("/importacao")
+@Tag(name = "Importação", description = "API para carga das planilhas de origem (formato de docs/*.csv)")
+public class ImportacaoResource {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    // Codificação das planilhas exportadas pela loja, usada quando o Content-Type não informa charset
+    private static final Charset CODIFICACAO_PADRAO = StandardCharsets.ISO_8859_1;
+
+    @Autowired
+    private ImportacaoService importacaoService;
+
+    @PostMapping(value = "/vendas", consumes = TEXT_CSV)
+    @Operation(summary = "Importar vendas", description = "Importa vendas no formato de FatoVendas.csv (separado por ';', valores em R$). Produtos, clientes e formas de pagamento são referenciados pelo código; vendas com código já cadastrado são ignoradas.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Importação concluída; linhas rejeitadas são listadas em erros"),
+            @ApiResponse(responseCode = "400", description = "Cabeçalho diferente do formato esperado")
+    })
+    public ResponseEntity<ResultadoImportacao> importarVendas(
+            @Parameter(hidden = true) @RequestHeader(HttpHeaders.CONTENT_TYPE) String tipoConteudo,
+            @Parameter(hidden = true) InputStream corpo) throws IOException {
+        return resposta(importacaoService.importarVendas(leitor(corpo, tipoConteudo)));
+    }
+
+    @PostMapping(value = "/produtos", consumes = TEXT_CSV)
+    @Operation(summary = "Importar produtos", description = "Importa produtos no formato de DimProduto.csv. Produtos com código já cadastrado são atualizados.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Importação concluída; linhas rejeitadas são listadas em erros"),
+            @ApiResponse(responseCode = "400", description = "Cabeçalho diferente do formato esperado")
+    })
+    public ResponseEntity<ResultadoImportacao> importarProdutos(
+            @Parameter(hidden = true) @RequestHeader(HttpHeaders.CONTENT_TYPE) String tipoConteudo,
+            @Parameter(hidden = true) InputStream corpo) throws IOException {
+        return resposta(importacaoService.importarProdutos(leitor(corpo, tipoConteudo)));
+    }
+
+    @PostMapping(value = "/clientes", consumes = TEXT_CSV)
+    @Operation(summary = "Importar clientes", description = "Importa clientes no formato de DimCliente.csv. Clientes com código já cadastrado são atualizados.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Importação concluída; linhas rejeitadas são listadas em erros"),
+            @ApiResponse(responseCode = "400", description = "Cabeçalho diferente do formato esperado")
+    })
+    public ResponseEntity<ResultadoImportacao> importarClientes(
+            @Parameter(hidden = true) @RequestHeader(HttpHeaders.CONTENT_TYPE) String tipoConteudo,
+            @Parameter(hidden = true) InputStream corpo) throws IOException {
+        return resposta(importacaoService.importarClientes(leitor(corpo, tipoConteudo)));
+    }
+
+    @PostMapping(value = "/formas-pagamento", consumes = TEXT_CSV)
+    @Operation(summary = "Importar formas de pagamento", description = "Importa formas de pagamento no formato de DimFormaPagamento.csv. Formas com código já cadastrado são atualizadas.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Importação concluída; linhas rejeitadas são listadas em erros"),
+            @ApiResponse(responseCode = "400", description = "Cabeçalho diferente do formato esperado")
+    })
+    public ResponseEntity<ResultadoImportacao> importarFormasPagamento(
+            @Parameter(hidden = true) @RequestHeader(HttpHeaders.CONTENT_TYPE) String tipoConteudo,
+            @Parameter(hidden = true) InputStream corpo) throws IOException {
+        return resposta(importacaoService.importarFormasPagamento(leitor(corpo, tipoConteudo)));
+    }
+
+    private static Reader leitor(InputStream corpo, String tipoConteudo) {
+        Charset charset = MediaType.parseMediaType(tipoConteudo).getCharset();
+        return new InputStreamReader(corpo, charset != null ? charset : CODIFICACAO_PADRAO);
+    }
+
+    private static ResponseEntity<ResultadoImportacao> resposta(Optional<ResultadoImportacao> resultado) {
+        return resultado.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.badRequest().build());
+    }
+}
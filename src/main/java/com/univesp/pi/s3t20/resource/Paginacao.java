@@ -0,0 +1,51 @@
+package com.univesp.pi.s3t20.resource;
+
+import com.univesp.pi.s3t20.dto.Pagina;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Parâmetros limit/after das listagens e cabeçalhos da resposta paginada.
+// O corpo continua sendo um array JSON; o cursor da próxima página vai em X-Next-Cursor e em Link (rel="next").
+@Component
+public class Paginacao {
+
+    public static final String CABECALHO_PROXIMO = "X-Next-Cursor";
+
+    @Value("${paginacao.limite-padrao:100}")
+    private int limitePadrao;
+
+    @Value("${paginacao.limite-maximo:1000}")
+    private int limiteMaximo;
+
+    // Vazio quando o limite informado é inválido (zero ou negativo); acima do máximo é reduzido ao máximo
+    public Optional<Integer> limite(Integer limit) {
+        if (limit == null) {
+            return Optional.of(limitePadrao);
+        }
+        if (limit < 1) {
+            return Optional.empty();
+        }
+        return Optional.of(Math.min(limit, limiteMaximo));
+    }
+
+    public <E, D> ResponseEntity<List<D>> resposta(Pagina<E> pagina, int limite, Function<E, D> conversor) {
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok();
+        if (pagina.proximo() != null) {
+            String proxima = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("limit", limite)
+                    .replaceQueryParam("after", pagina.proximo())
+                    .build()
+                    .toUriString();
+            resposta.header(CABECALHO_PROXIMO, pagina.proximo().toString())
+                    .header(HttpHeaders.LINK, "<" + proxima + ">; rel=\"next\"");
+        }
+        return resposta.body(pagina.itens().stream().map(conversor).toList());
+    }
+}
@@ -4,6 +4,7 @@ import com.univesp.pi.s3t20.dto.ProdutoDTO;
 import com.univesp.pi.s3t20.model.Produto;
 import com.univesp.pi.s3t20.service.ProdutoService;
 import com.univesp.pi.s3t20.service.MapperService;
+import com.univesp.pi.s3t20.service.VersaoRecursoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,6 +16,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -30,14 +32,34 @@ public class ProdutoResource {
     @Autowired
     private MapperService mapperService;
 
+    @Autowired
+    private Paginacao paginacao;
+
+    @Autowired
+    private RespostaCondicional respostaCondicional;
+
     @GetMapping
-    @Operation(summary = "Listar todos os produtos", description = "Retorna uma lista com todos os produtos cadastrados")
-    @ApiResponse(responseCode = "200", description = "Lista de produtos retornada com sucesso",
-            content = @Content(schema = @Schema(implementation = ProdutoDTO.class)))
-    public List<ProdutoDTO> listarProdutos() {
-        return produtoService.listarTodos().stream()
-                .map(mapperService::toProdutoDTO)
-                .toList();
+    @Operation(summary = "Listar produtos", description = "Retorna os produtos cadastrados em ordem de ID. Paginada por cursor: o cabeçalho X-Next-Cursor (e Link rel=\"next\") indica o valor de after da próxima página.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de produtos retornada com sucesso",
+                    content = @Content(schema = @Schema(implementation = ProdutoDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Não modificado desde o ETag (If-None-Match) ou a data (If-Modified-Since) informados"),
+            @ApiResponse(responseCode = "400", description = "Limite inválido")
+    })
+    public ResponseEntity<List<ProdutoDTO>> listarProdutos(
+            @Parameter(description = "Quantidade máxima de itens na página (padrão 100, máximo 1000)", example = "100")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Cursor da página: ID do último item da página anterior (cabeçalho X-Next-Cursor)", example = "100")
+            @RequestParam(required = false) Long after,
+            WebRequest request) {
+        Optional<Integer> limite = paginacao.limite(limit);
+        if (limite.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (respostaCondicional.naoModificado(request, VersaoRecursoService.Recurso.PRODUTOS)) {
+            return null;
+        }
+        return paginacao.resposta(produtoService.listarPagina(after, limite.get()), limite.get(), mapperService::toProdutoDTO);
     }
 
     @GetMapping("/{id}")
@@ -76,11 +98,18 @@ public class ProdutoResource {
 
     @GetMapping("/categoria/{categoria}")
     @Operation(summary = "Buscar produtos por categoria", description = "Retorna uma lista de produtos de uma categoria específica")
-    @ApiResponse(responseCode = "200", description = "Lista de produtos da categoria retornada com sucesso",
-            content = @Content(schema = @Schema(implementation = ProdutoDTO.class)))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lista de produtos da categoria retornada com sucesso",
+                    content = @Content(schema = @Schema(implementation = ProdutoDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Não modificado desde o ETag (If-None-Match) ou a data (If-Modified-Since) informados")
+    })
     public List<ProdutoDTO> buscarPorCategoria(
             @Parameter(description = "Categoria dos produtos", required = true, example = "Pizza")
-            @PathVariable String categoria) {
+            @PathVariable String categoria,
+            WebRequest request) {
+        if (respostaCondicional.naoModificado(request, VersaoRecursoService.Recurso.PRODUTOS)) {
+            return null;
+        }
         return produtoService.buscarPorCategoria(categoria).stream()
                 .map(mapperService::toProdutoDTO)
                 .toList();
@@ -151,8 +180,14 @@ public class ProdutoResource {
 
     @GetMapping("/categorias")
     @Operation(summary = "Listar categorias", description = "Retorna uma lista com todas as categorias de produtos")
-    @ApiResponse(responseCode = "200", description = "Lista de categorias retornada com sucesso")
-    public List<String> listarCategorias() {
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lista de categorias retornada com sucesso"),
+            @ApiResponse(responseCode = "304", description = "Não modificado desde o ETag (If-None-Match) ou a data (If-Modified-Since) informados")
+    })
+    public List<String> listarCategorias(WebRequest request) {
+        if (respostaCondicional.naoModificado(request, VersaoRecursoService.Recurso.PRODUTOS)) {
+            return null;
+        }
         return produtoService.listarCategorias();
     }
 
@@ -0,0 +1,63 @@
+package com.univesp.pi.s3t20.resource;
+
+import com.univesp.pi.s3t20.repository.VendaRepository;
+import com.univesp.pi.s3t20.service.VersaoRecursoService;
+import com.univesp.pi.s3t20.service.VersaoRecursoService.Recurso;
+import com.univesp.pi.s3t20.service.VersaoRecursoService.Versao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// GETs condicionais (If-None-Match / If-Modified-Since) conferidos antes da consulta. O ETag forte e o Last-Modified
+// vêm da última alteração e da quantidade de registros de cada recurso (VersaoRecursoService) e, nos períodos de
+// vendas, das vendas do período. Quando o cliente já tem a representação atual, a resposta fica em 304 Not Modified
+// e o método do recurso retorna null, sem ler nem serializar a listagem; caso contrário, ETag e Last-Modified saem
+// na resposta 200. Exclusões só mudam o ETag (pela quantidade): quem envia apenas If-Modified-Since não as percebe.
+// Com a réplica de leitura, validador e listagem são lidos nela (transações somente leitura), nessa ordem: como a
+// réplica só avança, o ETag nunca é mais novo que o corpo. No pior caso o corpo já inclui uma gravação que o ETag
+// não inclui, e a próxima requisição recebe 200 de novo. Ler o validador no primário e o corpo na réplica atrasada
+// guardaria um corpo antigo com o ETag novo, e o 304 o manteria até a próxima alteração. Isso vale para uma réplica
+// só; atrás de um balanceador com várias réplicas, sem leituras monotônicas, as listagens condicionais devem ir
+// para o primário.
+@Component
+public class RespostaCondicional {
+
+    @Autowired
+    private VersaoRecursoService versaoRecursoService;
+
+    public boolean naoModificado(WebRequest request, Recurso... recursos) {
+        return naoModificado(request, validador(recursos));
+    }
+
+    public boolean naoModificado(WebRequest request, VendaRepository.VersaoPeriodo periodo, Recurso... recursos) {
+        return naoModificado(request, validador(recursos).com(periodo.getUltimaAlteracao(), periodo.getQuantidade()));
+    }
+
+    private Validador validador(Recurso... recursos) {
+        Validador validador = Validador.VAZIO;
+        for (Versao versao : versaoRecursoService.atuais(recursos)) {
+            validador = validador.com(versao.ultimaAlteracao(), versao.quantidade());
+        }
+        return validador;
+    }
+
+    private static boolean naoModificado(WebRequest request, Validador validador) {
+        return request.checkNotModified("\"" + validador.etag() + "\"", validador.ultimaAlteracao());
+    }
+
+    private record Validador(String etag, long ultimaAlteracao) {
+
+        static final Validador VAZIO = new Validador("", -1);
+
+        // Acrescenta a última alteração e a quantidade de registros de uma tabela ou período
+        Validador com(LocalDateTime alteradoEm, long quantidade) {
+            long milissegundos = alteradoEm == null ? -1
+                    : alteradoEm.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            String parte = Long.toString(milissegundos, 36) + "-" + quantidade;
+            return new Validador(etag.isEmpty() ? parte : etag + "-" + parte, Math.max(ultimaAlteracao, milissegundos));
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package com.univesp.pi.s3t20.resource;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.univesp.pi.s3t20.dto.VendaAnaliseDTO;
 import com.univesp.pi.s3t20.dto.VendaDTO;
+import com.univesp.pi.s3t20.dto.VendaLoteItemDTO;
 import com.univesp.pi.s3t20.dto.VendaResponseDTO;
 import com.univesp.pi.s3t20.model.Venda;
+import com.univesp.pi.s3t20.repository.VendaAnaliseRepository;
+import com.univesp.pi.s3t20.service.ExportacaoService;
 import com.univesp.pi.s3t20.service.MapperService;
 import com.univesp.pi.s3t20.service.VendaService;
+import com.univesp.pi.s3t20.service.VersaoRecursoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,34 +19,92 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/vendas")
 @Tag(name = "Vendas", description = "API para gerenciamento de vendas")
 public class VendaResource {
 
+    private static final int LOTE_NDJSON = 500;
+    private static final String TIPO_XLSX = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
     @Autowired
     private VendaService vendaService;
 
     @Autowired
     private MapperService mapperService;
 
+    @Autowired
+    private ExportacaoService exportacaoService;
+
+    @Autowired
+    private Paginacao paginacao;
+
+    @Autowired
+    private RespostaCondicional respostaCondicional;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${vendas.lote.tamanho-maximo:1000}")
+    private int tamanhoMaximoLote;
+
     @GetMapping
-    @Operation(summary = "Listar todas as vendas", description = "Retorna uma lista com todas as vendas cadastradas")
-    @ApiResponse(responseCode = "200", description = "Lista de vendas retornada com sucesso",
-            content = @Content(schema = @Schema(implementation = VendaResponseDTO.class)))
-    public List<VendaResponseDTO> listarVendas() {
-        return vendaService.listarTodos().stream()
-                .map(mapperService::toVendaResponseDTO)
-                .toList();
+    @Operation(summary = "Listar vendas", description = "Retorna as vendas cadastradas em ordem de ID. Paginada por cursor: o cabeçalho X-Next-Cursor (e Link rel=\"next\") indica o valor de after da próxima página.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de vendas retornada com sucesso",
+                    content = @Content(schema = @Schema(implementation = VendaResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Limite inválido")
+    })
+    public ResponseEntity<List<VendaResponseDTO>> listarVendas(
+            @Parameter(description = "Quantidade máxima de itens na página (padrão 100, máximo 1000)", example = "100")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Cursor da página: ID do último item da página anterior (cabeçalho X-Next-Cursor)", example = "100")
+            @RequestParam(required = false) Long after) {
+        Optional<Integer> limite = paginacao.limite(limit);
+        if (limite.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return paginacao.resposta(vendaService.listarPagina(after, limite.get()), limite.get(), mapperService::toVendaResponseDTO);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Exportar vendas em NDJSON",
+            description = "Com Accept: application/x-ndjson, transmite todas as vendas (uma por linha, em ordem de ID) " +
+                    "à medida que são lidas do banco, sem paginação; indicado para cargas em lote")
+    @ApiResponse(responseCode = "200", description = "Vendas transmitidas com sucesso",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = VendaResponseDTO.class)))
+    public void transmitirVendas(HttpServletResponse response) throws IOException {
+        try (JsonGenerator gerador = abrirNdjson(response)) {
+            vendaService.percorrerTodas(escritorNdjson(gerador));
+        }
     }
 
     @GetMapping("/{id}")
@@ -72,41 +137,126 @@ public class VendaResource {
     }
 
     @GetMapping("/cliente/{clienteId}")
-    @Operation(summary = "Buscar vendas por cliente", description = "Retorna uma lista de vendas de um cliente específico")
-    @ApiResponse(responseCode = "200", description = "Lista de vendas do cliente retornada com sucesso",
-            content = @Content(schema = @Schema(implementation = VendaResponseDTO.class)))
-    public List<VendaResponseDTO> buscarPorCliente(
+    @Operation(summary = "Buscar vendas por cliente", description = "Retorna as vendas de um cliente específico em ordem de ID. Paginada por cursor: o cabeçalho X-Next-Cursor (e Link rel=\"next\") indica o valor de after da próxima página.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de vendas do cliente retornada com sucesso",
+                    content = @Content(schema = @Schema(implementation = VendaResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Limite inválido")
+    })
+    public ResponseEntity<List<VendaResponseDTO>> buscarPorCliente(
             @Parameter(description = "ID do cliente", required = true, example = "1")
-            @PathVariable Long clienteId) {
-        return vendaService.buscarPorCliente(clienteId).stream()
-                .map(mapperService::toVendaResponseDTO)
-                .toList();
+            @PathVariable Long clienteId,
+            @Parameter(description = "Quantidade máxima de itens na página (padrão 100, máximo 1000)", example = "100")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Cursor da página: ID do último item da página anterior (cabeçalho X-Next-Cursor)", example = "100")
+            @RequestParam(required = false) Long after) {
+        Optional<Integer> limite = paginacao.limite(limit);
+        if (limite.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return paginacao.resposta(vendaService.buscarPorClientePagina(clienteId, after, limite.get()), limite.get(), mapperService::toVendaResponseDTO);
     }
 
     @GetMapping("/produto/{produtoId}")
-    @Operation(summary = "Buscar vendas por produto", description = "Retorna uma lista de vendas de um produto específico")
-    @ApiResponse(responseCode = "200", description = "Lista de vendas do produto retornada com sucesso",
-            content = @Content(schema = @Schema(implementation = VendaResponseDTO.class)))
-    public List<VendaResponseDTO> buscarPorProduto(
+    @Operation(summary = "Buscar vendas por produto", description = "Retorna as vendas de um produto específico em ordem de ID. Paginada por cursor: o cabeçalho X-Next-Cursor (e Link rel=\"next\") indica o valor de after da próxima página.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de vendas do produto retornada com sucesso",
+                    content = @Content(schema = @Schema(implementation = VendaResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Limite inválido")
+    })
+    public ResponseEntity<List<VendaResponseDTO>> buscarPorProduto(
             @Parameter(description = "ID do produto", required = true, example = "1")
-            @PathVariable Long produtoId) {
-        return vendaService.buscarPorProduto(produtoId).stream()
-                .map(mapperService::toVendaResponseDTO)
-                .toList();
+            @PathVariable Long produtoId,
+            @Parameter(description = "Quantidade máxima de itens na página (padrão 100, máximo 1000)", example = "100")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Cursor da página: ID do último item da página anterior (cabeçalho X-Next-Cursor)", example = "100")
+            @RequestParam(required = false) Long after) {
+        Optional<Integer> limite = paginacao.limite(limit);
+        if (limite.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return paginacao.resposta(vendaService.buscarPorProdutoPagina(produtoId, after, limite.get()), limite.get(), mapperService::toVendaResponseDTO);
     }
 
     @GetMapping("/periodo")
-    @Operation(summary = "Buscar vendas por período", description = "Retorna uma lista de vendas em um período específico")
-    @ApiResponse(responseCode = "200", description = "Lista de vendas do período retornada com sucesso",
-            content = @Content(schema = @Schema(implementation = VendaResponseDTO.class)))
-    public List<VendaResponseDTO> buscarPorPeriodo(
+    @Operation(summary = "Buscar vendas por período", description = "Retorna as vendas de um período específico em ordem de ID. Paginada por cursor: o cabeçalho X-Next-Cursor (e Link rel=\"next\") indica o valor de after da próxima página.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de vendas do período retornada com sucesso",
+                    content = @Content(schema = @Schema(implementation = VendaResponseDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Não modificado desde o ETag (If-None-Match) ou a data (If-Modified-Since) informados"),
+            @ApiResponse(responseCode = "400", description = "Limite inválido")
+    })
+    public ResponseEntity<List<VendaResponseDTO>> buscarPorPeriodo(
             @Parameter(description = "Data de início do período", required = true, example = "2024-01-01")
             @RequestParam LocalDate dataInicio,
             @Parameter(description = "Data de fim do período", required = true, example = "2024-01-31")
-            @RequestParam LocalDate dataFim) {
-        return vendaService.buscarPorPeriodo(dataInicio, dataFim).stream()
-                .map(mapperService::toVendaResponseDTO)
-                .toList();
+            @RequestParam LocalDate dataFim,
+            @Parameter(description = "Quantidade máxima de itens na página (padrão 100, máximo 1000)", example = "100")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Cursor da página: ID do último item da página anterior (cabeçalho X-Next-Cursor)", example = "100")
+            @RequestParam(required = false) Long after,
+            WebRequest request) {
+        Optional<Integer> limite = paginacao.limite(limit);
+        if (limite.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        // As vendas trazem produto, cliente e forma de pagamento: as versões deles também entram no validador
+        if (respostaCondicional.naoModificado(request, vendaService.versaoPorPeriodo(dataInicio, dataFim),
+                VersaoRecursoService.Recurso.PRODUTOS, VersaoRecursoService.Recurso.CLIENTES,
+                VersaoRecursoService.Recurso.FORMAS_PAGAMENTO)) {
+            return null;
+        }
+        return paginacao.resposta(vendaService.buscarPorPeriodoPagina(dataInicio, dataFim, after, limite.get()), limite.get(), mapperService::toVendaResponseDTO);
+    }
+
+    @GetMapping(value = "/periodo", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Exportar vendas do período em NDJSON",
+            description = "Com Accept: application/x-ndjson, transmite as vendas do período (uma por linha, em ordem de ID) " +
+                    "à medida que são lidas do banco, sem paginação; indicado para cargas em lote")
+    @ApiResponse(responseCode = "200", description = "Vendas do período transmitidas com sucesso",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = VendaResponseDTO.class)))
+    public void transmitirPorPeriodo(
+            @Parameter(description = "Data de início do período", required = true, example = "2024-01-01")
+            @RequestParam LocalDate dataInicio,
+            @Parameter(description = "Data de fim do período", required = true, example = "2024-01-31")
+            @RequestParam LocalDate dataFim,
+            HttpServletResponse response) throws IOException {
+        try (JsonGenerator gerador = abrirNdjson(response)) {
+            vendaService.percorrerPorPeriodo(dataInicio, dataFim, escritorNdjson(gerador));
+        }
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Exportar vendas do período em planilha",
+            description = "Transmite as vendas do período (em ordem de ID) como arquivo CSV, no layout de FatoVendas.csv " +
+                    "(ISO-8859-1, separado por ';', reimportável por POST /importacao/vendas), ou XLSX. As linhas são lidas " +
+                    "do banco por cursor e escritas à medida que chegam, sem carregar o período em memória")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Arquivo transmitido com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Formato inválido")
+    })
+    public void exportar(
+            @Parameter(description = "Data de início do período", required = true, example = "2024-01-01")
+            @RequestParam LocalDate dataInicio,
+            @Parameter(description = "Data de fim do período", required = true, example = "2024-01-31")
+            @RequestParam LocalDate dataFim,
+            @Parameter(description = "Formato do arquivo: csv (padrão) ou xlsx", example = "csv")
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletResponse response) throws IOException {
+        String nomeArquivo = "vendas_" + dataInicio + "_" + dataFim;
+        switch (format.toLowerCase()) {
+            case "csv" -> {
+                response.setContentType(new MediaType("text", "csv", ExportacaoService.CODIFICACAO_CSV).toString());
+                anexo(response, nomeArquivo + ".csv");
+                exportacaoService.exportarCsv(dataInicio, dataFim, response.getOutputStream());
+            }
+            case "xlsx" -> {
+                response.setContentType(TIPO_XLSX);
+                anexo(response, nomeArquivo + ".xlsx");
+                exportacaoService.exportarXlsx(dataInicio, dataFim, response.getOutputStream());
+            }
+            default -> response.sendError(HttpStatus.BAD_REQUEST.value());
+        }
     }
 
     @PostMapping
@@ -131,6 +281,50 @@ public class VendaResource {
         }
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Criar vendas em lote",
+            description = "Cria várias vendas em uma única transação (ex.: sincronização de terminais de venda). " +
+                    "Cada item da resposta indica, na mesma posição do array enviado, a venda criada ou o motivo da recusa; " +
+                    "itens inválidos não impedem a criação dos demais")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lote processado; ver o resultado de cada item"),
+            @ApiResponse(responseCode = "400", description = "Lote vazio ou acima do tamanho máximo")
+    })
+    public ResponseEntity<List<VendaLoteItemDTO>> criarVendasEmLote(
+            @Parameter(description = "Vendas a serem criadas", required = true)
+            @RequestBody List<VendaDTO> vendasDTO) {
+        if (vendasDTO == null || vendasDTO.isEmpty() || vendasDTO.size() > tamanhoMaximoLote) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        VendaLoteItemDTO[] resultado = new VendaLoteItemDTO[vendasDTO.size()];
+        List<Integer> indicesValidos = new ArrayList<>();
+        List<Venda> vendas = new ArrayList<>();
+        for (int i = 0; i < vendasDTO.size(); i++) {
+            VendaDTO vendaDTO = vendasDTO.get(i);
+            Set<ConstraintViolation<VendaDTO>> violacoes = vendaDTO != null ? validator.validate(vendaDTO) : Set.of();
+            if (vendaDTO == null || !violacoes.isEmpty()) {
+                resultado[i] = VendaLoteItemDTO.recusado(i, vendaDTO == null ? "Item vazio" : violacoes.stream()
+                        .map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; ")));
+                continue;
+            }
+            indicesValidos.add(i);
+            vendas.add(mapperService.toVenda(vendaDTO));
+        }
+
+        if (!vendas.isEmpty()) {
+            List<VendaService.ItemLote> itens = vendaService.criarLote(vendas);
+            for (int j = 0; j < itens.size(); j++) {
+                int indice = indicesValidos.get(j);
+                VendaService.ItemLote item = itens.get(j);
+                resultado[indice] = item.isCriado()
+                        ? VendaLoteItemDTO.criado(indice, mapperService.toVendaResponseDTO(item.venda()))
+                        : VendaLoteItemDTO.recusado(indice, item.erro());
+            }
+        }
+        return ResponseEntity.ok(Arrays.asList(resultado));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Atualizar venda", description = "Atualiza os dados de uma venda existente")
     @ApiResponses(value = {
@@ -181,19 +375,88 @@ public class VendaResource {
 
     @GetMapping("/resumo/periodo")
     @Operation(summary = "Obter resumo de vendas por período", description = "Retorna um resumo das vendas em um período específico")
-    @ApiResponse(responseCode = "200", description = "Resumo de vendas do período retornado com sucesso")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resumo de vendas do período retornado com sucesso"),
+            @ApiResponse(responseCode = "304", description = "Não modificado desde o ETag (If-None-Match) ou a data (If-Modified-Since) informados")
+    })
     public VendaService.VendaResumo obterResumoPorPeriodo(
             @Parameter(description = "Data de início do período", required = true, example = "2024-01-01")
             @RequestParam LocalDate dataInicio,
             @Parameter(description = "Data de fim do período", required = true, example = "2024-01-31")
-            @RequestParam LocalDate dataFim) {
+            @RequestParam LocalDate dataFim,
+            WebRequest request) {
+        if (respostaCondicional.naoModificado(request, vendaService.versaoPorPeriodo(dataInicio, dataFim))) {
+            return null;
+        }
         return vendaService.obterResumoPorPeriodo(dataInicio, dataFim);
     }
 
+    @GetMapping("/analytics")
+    @Operation(summary = "Análise agregada de vendas",
+            description = "Agrupa as vendas pelas dimensões informadas (categoria, cidade, formaPagamento e no máximo uma entre dia, semana ou mes) " +
+                    "e retorna, por combinação, a quantidade de vendas, a quantidade vendida e a receita")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Análise retornada com sucesso",
+                    content = @Content(schema = @Schema(implementation = VendaAnaliseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Dimensão inválida ou repetida, ou mais de uma dimensão temporal")
+    })
+    public ResponseEntity<List<VendaAnaliseDTO>> analisar(
+            @Parameter(description = "Dimensões de agrupamento separadas por vírgula", example = "categoria,mes")
+            @RequestParam(required = false) List<String> groupBy,
+            @Parameter(description = "Data de início do período", example = "2024-01-01")
+            @RequestParam(required = false) LocalDate dataInicio,
+            @Parameter(description = "Data de fim do período", example = "2024-01-31")
+            @RequestParam(required = false) LocalDate dataFim) {
+        List<VendaAnaliseRepository.Dimensao> dimensoes = new ArrayList<>();
+        if (groupBy != null) {
+            for (String parametro : groupBy) {
+                Optional<VendaAnaliseRepository.Dimensao> dimensao = VendaAnaliseRepository.Dimensao.doParametro(parametro);
+                if (dimensao.isEmpty() || dimensoes.contains(dimensao.get())) {
+                    return ResponseEntity.badRequest().build();
+                }
+                dimensoes.add(dimensao.get());
+            }
+        }
+        if (dimensoes.stream().filter(VendaAnaliseRepository.Dimensao::isTemporal).count() > 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(vendaService.analisar(dimensoes, dataInicio, dataFim));
+    }
+
     @GetMapping("/count")
     @Operation(summary = "Contar vendas", description = "Retorna o número total de vendas cadastradas")
     @ApiResponse(responseCode = "200", description = "Contagem de vendas retornada com sucesso")
     public Long contar() {
         return vendaService.contar();
     }
+
+    private static void anexo(HttpServletResponse response, String nomeArquivo) {
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(nomeArquivo).build().toString());
+    }
+
+    private JsonGenerator abrirNdjson(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        JsonGenerator gerador = objectMapper.createGenerator(response.getOutputStream());
+        gerador.setRootValueSeparator(null);
+        return gerador;
+    }
+
+    // Escreve uma venda por linha e descarrega o buffer a cada lote, para o cliente receber os dados
+    // enquanto o restante ainda é lido do banco
+    private Consumer<Venda> escritorNdjson(JsonGenerator gerador) {
+        int[] escritas = {0};
+        return venda -> {
+            try {
+                gerador.writeObject(mapperService.toVendaResponseDTO(venda));
+                gerador.writeRaw('\n');
+                if (++escritas[0] % LOTE_NDJSON == 0) {
+                    gerador.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
 }
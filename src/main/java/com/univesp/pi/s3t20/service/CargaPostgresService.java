@@ -0,0 +1,251 @@
+package com.univesp.pi.s3t20.service;
+
+import com.univesp.pi.s3t20.model.Cliente;
+import com.univesp.pi.s3t20.model.Produto;
+import com.univesp.pi.s3t20.model.Venda;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jdbc.Work;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+// Caminho rápido das cargas em massa no PostgreSQL (perfil prd, carga.copy.enabled): vendas, produtos e clientes
+// vão ao banco pelo protocolo COPY em vez de INSERTs. O COPY usa a conexão da transação corrente, então faz
+// commit ou rollback junto com o resto do lote (rollup, cubo). Em outros bancos ativa() é falso e os serviços
+// seguem com os lotes JDBC do Hibernate. As chaves estrangeiras continuam validadas antes da carga pelos
+// serviços (VendaService.criarLote e ImportacaoService), que relatam os itens recusados.
+@Service
+@Transactional
+public class CargaPostgresService {
+
+    // Deve ser igual ao allocationSize de Venda.id: cada nextval de vendas_id_seq reserva esse número de ids
+    private static final int BLOCO_IDS_VENDA = 50;
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private static final String COPY_VENDAS = "COPY vendas (id, id_venda, data, produto_id, quantidade, preco_unitario, " +
+            "receita_total, cliente_id, forma_pagamento_id, is_active, created_at, updated_at) FROM STDIN";
+
+    @Value("${carga.copy.enabled:false}")
+    private boolean habilitada;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DimensaoCacheService dimensaoCacheService;
+
+    @Autowired
+    private VendaCubeService vendaCubeService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private boolean ativa;
+
+    @PostConstruct
+    void iniciar() {
+        ativa = habilitada && entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+    }
+
+    public boolean ativa() {
+        return ativa;
+    }
+
+    // Reserva ids em vendas_id_seq (os mesmos blocos do otimizador pooled-lo do Hibernate), preenche Venda.id e
+    // grava as vendas com um único COPY. As entidades não ficam gerenciadas pelo contexto de persistência.
+    public void inserirVendas(List<Venda> vendas) {
+        executar(conexao -> {
+            reservarIds(conexao, vendas);
+            copiar(conexao, COPY_VENDAS, escritor -> {
+                for (Venda venda : vendas) {
+                    linha(escritor, venda.getId(), venda.getIdVenda(), venda.getData(), venda.getProduto().getId(),
+                            venda.getQuantidade(), venda.getPrecoUnitario(), venda.getReceitaTotal(),
+                            venda.getCliente().getId(), venda.getFormaPagamento().getId(), venda.getIsActive(),
+                            venda.getCreatedAt(), venda.getUpdatedAt());
+                }
+            });
+        });
+    }
+
+    // Inclui ou atualiza pelo código: COPY para uma tabela temporária e INSERT ... ON CONFLICT a partir dela.
+    // Devolve quantos já existiam (ocorrências repetidas do mesmo código contam como atualização, como no JPA).
+    public int gravarProdutos(List<Produto> produtos) {
+        LocalDateTime agora = LocalDateTime.now();
+        int atualizados = gravarDimensao(
+                "CREATE TEMP TABLE carga_produtos (linha INTEGER, id_produto VARCHAR(10), produto VARCHAR(255), " +
+                        "categoria VARCHAR(100), pedido_minimo INTEGER, custo_unitario DECIMAL(10,2), " +
+                        "preco_sugerido DECIMAL(10,2), cento_preco DECIMAL(10,2)) ON COMMIT DROP",
+                "COPY carga_produtos FROM STDIN",
+                escritor -> {
+                    int linha = 0;
+                    for (Produto produto : produtos) {
+                        linha(escritor, linha++, produto.getIdProduto(), produto.getProduto(), produto.getCategoria(),
+                                produto.getPedidoMinimo(), produto.getCustoUnitario(), produto.getPrecoSugerido(),
+                                produto.getCentoPreco());
+                    }
+                },
+                // DISTINCT ON: um INSERT ... ON CONFLICT não pode alterar a mesma linha duas vezes; vale a última
+                "INSERT INTO produtos AS p (id_produto, produto, categoria, pedido_minimo, custo_unitario, preco_sugerido, " +
+                        "cento_preco, is_active, created_at, updated_at) " +
+                        "SELECT DISTINCT ON (id_produto) id_produto, produto, categoria, pedido_minimo, custo_unitario, " +
+                        "preco_sugerido, cento_preco, true, ?, ? FROM carga_produtos ORDER BY id_produto, linha DESC " +
+                        "ON CONFLICT (id_produto) DO UPDATE SET produto = EXCLUDED.produto, categoria = EXCLUDED.categoria, " +
+                        "pedido_minimo = EXCLUDED.pedido_minimo, custo_unitario = EXCLUDED.custo_unitario, " +
+                        "preco_sugerido = EXCLUDED.preco_sugerido, cento_preco = EXCLUDED.cento_preco, " +
+                        "updated_at = EXCLUDED.updated_at " +
+                        "RETURNING p.id, (p.xmax = 0) AS incluido, p.categoria",
+                agora, produtos.size(), (id, categoria) -> {
+                    dimensaoCacheService.invalidarProduto(id);
+                    vendaCubeService.rotularProduto(id, categoria);
+                });
+        dimensaoCacheService.invalidarSegundoNivel(Produto.class, Produto.REGIAO_CONSULTAS);
+        return atualizados;
+    }
+
+    public int gravarClientes(List<Cliente> clientes) {
+        LocalDateTime agora = LocalDateTime.now();
+        int atualizados = gravarDimensao(
+                "CREATE TEMP TABLE carga_clientes (linha INTEGER, id_cliente VARCHAR(10), nome_cliente VARCHAR(255), " +
+                        "bairro VARCHAR(100), cidade VARCHAR(100), tipo_cliente VARCHAR(20)) ON COMMIT DROP",
+                "COPY carga_clientes FROM STDIN",
+                escritor -> {
+                    int linha = 0;
+                    for (Cliente cliente : clientes) {
+                        linha(escritor, linha++, cliente.getIdCliente(), cliente.getNomeCliente(), cliente.getBairro(),
+                                cliente.getCidade(), cliente.getTipoCliente());
+                    }
+                },
+                "INSERT INTO clientes AS c (id_cliente, nome_cliente, bairro, cidade, tipo_cliente, is_active, " +
+                        "created_at, updated_at) " +
+                        "SELECT DISTINCT ON (id_cliente) id_cliente, nome_cliente, bairro, cidade, tipo_cliente, true, ?, ? " +
+                        "FROM carga_clientes ORDER BY id_cliente, linha DESC " +
+                        "ON CONFLICT (id_cliente) DO UPDATE SET nome_cliente = EXCLUDED.nome_cliente, " +
+                        "bairro = EXCLUDED.bairro, cidade = EXCLUDED.cidade, tipo_cliente = EXCLUDED.tipo_cliente, " +
+                        "updated_at = EXCLUDED.updated_at " +
+                        "RETURNING c.id, (c.xmax = 0) AS incluido, c.cidade",
+                agora, clientes.size(), (id, cidade) -> {
+                    dimensaoCacheService.invalidarCliente(id);
+                    vendaCubeService.rotularCliente(id, cidade);
+                });
+        dimensaoCacheService.invalidarSegundoNivel(Cliente.class, Cliente.REGIAO_CONSULTAS);
+        return atualizados;
+    }
+
+    private int gravarDimensao(String criarTemporaria, String copy, Consumer<Writer> linhas, String upsert,
+                               LocalDateTime agora, int total, BiConsumer<Long, String> atualizado) {
+        int[] incluidos = new int[1];
+        executar(conexao -> {
+            try (Statement statement = conexao.createStatement()) {
+                statement.execute(criarTemporaria);
+            }
+            copiar(conexao, copy, linhas);
+            try (PreparedStatement statement = conexao.prepareStatement(upsert)) {
+                statement.setObject(1, agora);
+                statement.setObject(2, agora);
+                try (ResultSet resultado = statement.executeQuery()) {
+                    while (resultado.next()) {
+                        if (resultado.getBoolean(2)) {
+                            incluidos[0]++;
+                        } else {
+                            atualizado.accept(resultado.getLong(1), resultado.getString(3));
+                        }
+                    }
+                }
+            }
+        });
+        return total - incluidos[0];
+    }
+
+    private static void reservarIds(Connection conexao, List<Venda> vendas) throws SQLException {
+        int blocos = (vendas.size() + BLOCO_IDS_VENDA - 1) / BLOCO_IDS_VENDA;
+        try (PreparedStatement statement = conexao.prepareStatement(
+                "SELECT nextval('vendas_id_seq') FROM generate_series(1, ?)")) {
+            statement.setInt(1, blocos);
+            try (ResultSet resultado = statement.executeQuery()) {
+                int i = 0;
+                while (resultado.next()) {
+                    long inicio = resultado.getLong(1);
+                    for (int j = 0; j < BLOCO_IDS_VENDA && i < vendas.size(); j++, i++) {
+                        vendas.get(i).setId(inicio + j);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void copiar(Connection conexao, String copy, Consumer<Writer> linhas) throws SQLException {
+        PGConnection postgres = conexao.unwrap(PGConnection.class);
+        try (Writer escritor = new BufferedWriter(new OutputStreamWriter(
+                new PGCopyOutputStream(postgres, copy, TAMANHO_BUFFER), StandardCharsets.UTF_8), TAMANHO_BUFFER)) {
+            linhas.accept(escritor);
+        } catch (IOException | UncheckedIOException e) {
+            throw new SQLException("Falha no COPY: " + copy, e);
+        }
+    }
+
+    // Uma linha no formato texto do COPY: campos separados por tabulação, \N para nulo
+    private static void linha(Writer escritor, Object... campos) {
+        try {
+            for (int i = 0; i < campos.length; i++) {
+                if (i > 0) {
+                    escritor.write('\t');
+                }
+                escrever(escritor, campos[i]);
+            }
+            escritor.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void escrever(Writer escritor, Object valor) throws IOException {
+        if (valor == null) {
+            escritor.write("\\N");
+            return;
+        }
+        String texto = valor instanceof BigDecimal decimal ? decimal.toPlainString() : valor.toString();
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '\\' -> escritor.write("\\\\");
+                case '\t' -> escritor.write("\\t");
+                case '\n' -> escritor.write("\\n");
+                case '\r' -> escritor.write("\\r");
+                default -> escritor.write(c);
+            }
+        }
+    }
+
+    // Conexão JDBC da transação corrente, depois de enviar o que estiver pendente no contexto de persistência
+    private void executar(Work trabalho) {
+        entityManager.flush();
+        entityManager.unwrap(Session.class).doWork(trabalho);
+    }
+}
@@ -0,0 +1,111 @@
+package com.univesp.pi.s3t20.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Aritmética monetária em ponto fixo: valores em centavos (long) com verificação de overflow.
+// Acumulações trabalham só com long; BigDecimal aparece apenas na entrada e na resposta.
+public final class Centavos {
+
+    private static final int ESCALA = 2;
+
+    private Centavos() {}
+
+    // Mais de dois decimais arredonda como o numeric(…, 2) do PostgreSQL (meio para longe do zero), para o total
+    // em centavos bater com o que o banco grava
+    public static long de(BigDecimal valor) {
+        if (valor == null) {
+            return 0L;
+        }
+        return valor.setScale(ESCALA, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // Valor em reais como escrito nas planilhas de origem (" R$ 1,234.56 "), lido direto dos caracteres
+    // entre inicio e fim, sem String nem BigDecimal intermediários. Vírgula é separador de milhar; até dois decimais.
+    public static long de(CharSequence texto, int inicio, int fim) {
+        int i = inicio;
+        int limite = fim;
+        while (i < limite && Character.isWhitespace(texto.charAt(i))) {
+            i++;
+        }
+        while (limite > i && Character.isWhitespace(texto.charAt(limite - 1))) {
+            limite--;
+        }
+        if (limite - i >= 2 && texto.charAt(i) == 'R' && texto.charAt(i + 1) == '$') {
+            i += 2;
+            while (i < limite && Character.isWhitespace(texto.charAt(i))) {
+                i++;
+            }
+        }
+        boolean negativo = i < limite && texto.charAt(i) == '-';
+        if (negativo) {
+            i++;
+        }
+
+        long reais = 0;
+        long centavos = 0;
+        int decimais = -1;
+        boolean algumDigito = false;
+        try {
+            for (; i < limite; i++) {
+                char c = texto.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    algumDigito = true;
+                    if (decimais < 0) {
+                        reais = Math.addExact(Math.multiplyExact(reais, 10), c - '0');
+                    } else if (decimais < ESCALA) {
+                        centavos = centavos * 10 + (c - '0');
+                        decimais++;
+                    } else {
+                        throw valorInvalido(texto, inicio, fim);
+                    }
+                } else if (c == '.' && decimais < 0) {
+                    decimais = 0;
+                } else if (c != ',' || decimais >= 0) {
+                    throw valorInvalido(texto, inicio, fim);
+                }
+            }
+            if (!algumDigito) {
+                throw valorInvalido(texto, inicio, fim);
+            }
+            if (decimais == 1) {
+                centavos *= 10;
+            }
+            long total = Math.addExact(Math.multiplyExact(reais, 100), centavos);
+            return negativo ? -total : total;
+        } catch (ArithmeticException e) {
+            throw valorInvalido(texto, inicio, fim);
+        }
+    }
+
+    private static NumberFormatException valorInvalido(CharSequence texto, int inicio, int fim) {
+        return new NumberFormatException("Valor monetário inválido: '" + texto.subSequence(inicio, fim).toString().trim() + "'");
+    }
+
+    public static BigDecimal paraBigDecimal(long centavos) {
+        return BigDecimal.valueOf(centavos, ESCALA);
+    }
+
+    public static BigDecimal paraBigDecimal(Long centavos) {
+        return centavos != null ? paraBigDecimal(centavos.longValue()) : null;
+    }
+
+    public static long somar(long totalCentavos, long centavos) {
+        return Math.addExact(totalCentavos, centavos);
+    }
+
+    public static long multiplicar(long centavos, long quantidade) {
+        return Math.multiplyExact(centavos, quantidade);
+    }
+
+    // Média arredondada para o centavo (meio para o par), sem passar por double
+    public static long media(long totalCentavos, long quantidade) {
+        long quociente = totalCentavos / quantidade;
+        long resto = totalCentavos % quantidade;
+        long dobroResto = Math.abs(resto) * 2;
+        if (dobroResto > quantidade || (dobroResto == quantidade && (quociente & 1) != 0)) {
+            quociente += Long.signum(totalCentavos);
+        }
+        return quociente;
+    }
+}
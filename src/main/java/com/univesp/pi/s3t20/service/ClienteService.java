@@ -1,72 +1,109 @@
 package com.univesp.pi.s3t20.service;
 
+import com.univesp.pi.s3t20.dto.Pagina;
 import com.univesp.pi.s3t20.model.Cliente;
 import com.univesp.pi.s3t20.repository.ClienteRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 @Transactional
+@Timed("servico.chamadas")
 public class ClienteService {
 
     @Autowired
     private ClienteRepository clienteRepository;
 
+    @Autowired
+    private VendaResumoDiarioService vendaResumoDiarioService;
+
+    @Autowired
+    private VendaCubeService vendaCubeService;
+
+    @Autowired
+    private DimensaoCacheService dimensaoCacheService;
+
+    @Autowired
+    private GeradorCodigoService geradorCodigoService;
+
+    @Autowired
+    private CargaPostgresService cargaPostgresService;
+
+    @Autowired
+    private MetricasEntidadesService metricasEntidadesService;
+
+    @Transactional(readOnly = true)
     public List<Cliente> listarTodos() {
         return clienteRepository.findAll();
     }
 
+    // Listagem paginada por cursor: busca uma linha a mais que o limite para saber se há próxima página
+    @Transactional(readOnly = true)
+    public Pagina<Cliente> listarPagina(Long apos, int limite) {
+        return Pagina.de(clienteRepository.findByIdGreaterThanOrderByIdAsc(apos != null ? apos : 0L, Limit.of(limite + 1)),
+                limite, Cliente::getId);
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Cliente> buscarPorId(Long id) {
         return clienteRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Cliente> buscarPorCodigo(String codigo) {
         return clienteRepository.findByIdCliente(codigo);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Cliente> buscarPorIdCliente(String idCliente) {
         return clienteRepository.findByIdCliente(idCliente);
     }
 
+    @Transactional(readOnly = true)
     public List<Cliente> buscarPorCidade(String cidade) {
         return clienteRepository.findByCidade(cidade);
     }
 
+    @Transactional(readOnly = true)
     public List<Cliente> buscarPorBairro(String bairro) {
         return clienteRepository.findByBairro(bairro);
     }
 
+    @Transactional(readOnly = true)
     public List<Cliente> buscarPorTipo(String tipo) {
         return clienteRepository.findByTipoCliente(tipo);
     }
 
+    @Transactional(readOnly = true)
     public List<Cliente> buscarPorTipoCliente(String tipoCliente) {
         return clienteRepository.findByTipoCliente(tipoCliente);
     }
 
     public Optional<Cliente> criar(Cliente cliente) {
-        // Gerar código único se não fornecido
+        // Gerar código único se não fornecido; a verificação de duplicidade salta códigos já cadastrados manualmente
         if (cliente.getIdCliente() == null || cliente.getIdCliente().trim().isEmpty()) {
-            cliente.setIdCliente(gerarCodigoCliente());
-        }
-        
-        // Verificar se já existe um cliente com o mesmo idCliente
-        if (buscarPorIdCliente(cliente.getIdCliente()).isPresent()) {
+            do {
+                cliente.setIdCliente(geradorCodigoService.proximo(GeradorCodigoService.Sequencia.CLIENTE));
+            } while (buscarPorIdCliente(cliente.getIdCliente()).isPresent());
+        } else if (buscarPorIdCliente(cliente.getIdCliente()).isPresent()) {
+            // Já existe um cliente com o mesmo idCliente
             return Optional.empty();
         }
         
         cliente.setCreatedAt(java.time.LocalDateTime.now());
         cliente.setUpdatedAt(java.time.LocalDateTime.now());
-        return Optional.of(clienteRepository.save(cliente));
-    }
-    
-    private String gerarCodigoCliente() {
-        long count = clienteRepository.count();
-        return String.format("CLI%03d", count + 1);
+        Cliente clienteSalvo = clienteRepository.save(cliente);
+        metricasEntidadesService.criadas(MetricasEntidadesService.Entidade.CLIENTE, 1);
+        return Optional.of(clienteSalvo);
     }
 
     public Optional<Cliente> atualizar(Long id, Cliente clienteAtualizado) {
@@ -86,34 +123,84 @@ public class ClienteService {
         cliente.setTipoCliente(clienteAtualizado.getTipoCliente());
         cliente.setUpdatedAt(java.time.LocalDateTime.now());
         
+        dimensaoCacheService.invalidarCliente(id);
+        vendaCubeService.rotularCliente(id, cliente.getCidade());
+        metricasEntidadesService.atualizadas(MetricasEntidadesService.Entidade.CLIENTE, 1);
         return Optional.of(clienteRepository.save(cliente));
     }
 
+    // Importação de planilha: inclui os clientes novos e atualiza os já cadastrados com o mesmo código.
+    // Devolve quantos foram atualizados
+    public int importarLote(List<Cliente> clientes) {
+        int atualizados = cargaPostgresService.ativa()
+                ? cargaPostgresService.gravarClientes(clientes) : gravarLote(clientes);
+        metricasEntidadesService.criadas(MetricasEntidadesService.Entidade.CLIENTE, clientes.size() - atualizados);
+        metricasEntidadesService.atualizadas(MetricasEntidadesService.Entidade.CLIENTE, atualizados);
+        return atualizados;
+    }
+
+    private int gravarLote(List<Cliente> clientes) {
+        Map<String, Cliente> cadastrados = new HashMap<>();
+        clienteRepository.findByIdClienteIn(clientes.stream().map(Cliente::getIdCliente).toList())
+                .forEach(cliente -> cadastrados.put(cliente.getIdCliente(), cliente));
+
+        int atualizados = 0;
+        LocalDateTime agora = LocalDateTime.now();
+        for (Cliente cliente : clientes) {
+            Cliente cadastrado = cadastrados.get(cliente.getIdCliente());
+            if (cadastrado == null) {
+                cliente.setCreatedAt(agora);
+                cliente.setUpdatedAt(agora);
+                cadastrados.put(cliente.getIdCliente(), clienteRepository.save(cliente));
+            } else {
+                cadastrado.setNomeCliente(cliente.getNomeCliente());
+                cadastrado.setBairro(cliente.getBairro());
+                cadastrado.setCidade(cliente.getCidade());
+                cadastrado.setTipoCliente(cliente.getTipoCliente());
+                cadastrado.setUpdatedAt(agora);
+                dimensaoCacheService.invalidarCliente(cadastrado.getId());
+                vendaCubeService.rotularCliente(cadastrado.getId(), cadastrado.getCidade());
+                atualizados++;
+            }
+        }
+        return atualizados;
+    }
+
     public boolean deletar(Long id) {
         if (!clienteRepository.existsById(id)) {
             return false;
         }
         
+        // As vendas são removidas em cascata; o rollup e o cubo não têm FK e precisam ser limpos explicitamente
+        vendaResumoDiarioService.removerPorCliente(id);
+        vendaCubeService.removerPorCliente(id);
+        dimensaoCacheService.invalidarCliente(id);
         clienteRepository.deleteById(id);
+        metricasEntidadesService.removidas(MetricasEntidadesService.Entidade.CLIENTE, 1);
         return true;
     }
 
+    @Transactional(readOnly = true)
     public Long contar() {
         return clienteRepository.count();
     }
 
+    @Transactional(readOnly = true)
     public List<String> listarCidades() {
         return clienteRepository.findDistinctCidades();
     }
 
+    @Transactional(readOnly = true)
     public List<String> listarBairros() {
         return clienteRepository.findDistinctBairros();
     }
 
+    @Transactional(readOnly = true)
     public Long contarPorTipo(String tipo) {
         return clienteRepository.countByTipoCliente(tipo);
     }
 
+    @Transactional(readOnly = true)
     public List<Cliente> buscarPorNome(String nome) {
         return clienteRepository.findByNomeClienteContainingIgnoreCase(nome);
     }
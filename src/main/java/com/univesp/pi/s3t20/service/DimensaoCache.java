@@ -0,0 +1,171 @@
+package com.univesp.pi.s3t20.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Cache LRU limitado de uma tabela de dimensão, indexado pelo id e pelo código natural.
+// A leitura do banco acontece fora do lock; o contador de versão descarta cargas que começaram
+// antes de uma invalidação, para um valor antigo não voltar ao cache depois do commit de uma alteração.
+// Cada entrada vale por ttl desde a carga: alterações que não passam pelos serviços desta instância (outra
+// instância da aplicação, SQL direto) aparecem no máximo depois desse prazo.
+final class DimensaoCache<T> {
+
+    private final int tamanhoMaximo;
+    private final long ttlNanos;
+    private final Function<T, Long> id;
+    private final Function<T, String> codigo;
+
+    private final LinkedHashMap<Long, Entrada<T>> porId;
+    private final Map<String, Long> idPorCodigo = new HashMap<>();
+    private long versao;
+
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder faltas = new LongAdder();
+    private final LongAdder remocoes = new LongAdder();
+
+    DimensaoCache(int tamanhoMaximo, Duration ttl, Function<T, Long> id, Function<T, String> codigo) {
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.ttlNanos = ttl.toNanos();
+        this.id = id;
+        this.codigo = codigo;
+        this.porId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entrada<T>> maisAntigo) {
+                if (size() <= DimensaoCache.this.tamanhoMaximo) {
+                    return false;
+                }
+                idPorCodigo.remove(DimensaoCache.this.codigo.apply(maisAntigo.getValue().valor()));
+                remocoes.increment();
+                return true;
+            }
+        };
+    }
+
+    Optional<T> porId(Long chave, Supplier<Optional<T>> carregar) {
+        long versaoLida;
+        synchronized (this) {
+            T valor = valido(chave);
+            if (valor != null) {
+                acertos.increment();
+                return Optional.of(valor);
+            }
+            versaoLida = versao;
+        }
+        faltas.increment();
+        return guardar(carregar.get(), versaoLida);
+    }
+
+    Optional<T> porCodigo(String chave, Supplier<Optional<T>> carregar) {
+        long versaoLida;
+        synchronized (this) {
+            Long idCache = idPorCodigo.get(chave);
+            T valor = idCache != null ? valido(idCache) : null;
+            if (valor != null) {
+                acertos.increment();
+                return Optional.of(valor);
+            }
+            versaoLida = versao;
+        }
+        faltas.increment();
+        return guardar(carregar.get(), versaoLida);
+    }
+
+    // Resolve vários ids de uma vez: os ausentes do cache são carregados juntos (uma única consulta IN)
+    Map<Long, T> porIds(Collection<Long> chaves, Function<List<Long>, List<T>> carregar) {
+        Map<Long, T> encontrados = new HashMap<>();
+        List<Long> ausentes = new ArrayList<>();
+        long versaoLida;
+        synchronized (this) {
+            for (Long chave : chaves) {
+                T valor = valido(chave);
+                if (valor != null) {
+                    encontrados.put(chave, valor);
+                } else {
+                    ausentes.add(chave);
+                }
+            }
+            versaoLida = versao;
+        }
+        acertos.add(encontrados.size());
+        faltas.add(ausentes.size());
+        if (!ausentes.isEmpty()) {
+            for (T valor : carregar.apply(ausentes)) {
+                encontrados.put(id.apply(valor), guardar(valor, versaoLida));
+            }
+        }
+        return encontrados;
+    }
+
+    synchronized void invalidar(Long chave) {
+        versao++;
+        Entrada<T> entrada = porId.remove(chave);
+        if (entrada != null) {
+            idPorCodigo.remove(codigo.apply(entrada.valor()));
+        }
+    }
+
+    synchronized void limpar() {
+        versao++;
+        porId.clear();
+        idPorCodigo.clear();
+    }
+
+    synchronized int tamanho() {
+        return porId.size();
+    }
+
+    long acertos() {
+        return acertos.sum();
+    }
+
+    long faltas() {
+        return faltas.sum();
+    }
+
+    long remocoes() {
+        return remocoes.sum();
+    }
+
+    private Optional<T> guardar(Optional<T> carregado, long versaoLida) {
+        carregado.ifPresent(valor -> guardar(valor, versaoLida));
+        return carregado;
+    }
+
+    private T guardar(T valor, long versaoLida) {
+        if (tamanhoMaximo > 0) {
+            synchronized (this) {
+                if (versao == versaoLida) {
+                    porId.put(id.apply(valor), new Entrada<>(valor, System.nanoTime() + ttlNanos));
+                    idPorCodigo.put(codigo.apply(valor), id.apply(valor));
+                }
+            }
+        }
+        return valor;
+    }
+
+    // Valor da entrada ainda no prazo; a vencida sai do cache (contada como remoção) e a busca vira uma falta
+    private T valido(Long chave) {
+        Entrada<T> entrada = porId.get(chave);
+        if (entrada == null) {
+            return null;
+        }
+        if (System.nanoTime() - entrada.expiraEm() < 0) {
+            return entrada.valor();
+        }
+        porId.remove(chave);
+        idPorCodigo.remove(codigo.apply(entrada.valor()));
+        remocoes.increment();
+        return null;
+    }
+
+    private record Entrada<T>(T valor, long expiraEm) {}
+}
@@ -0,0 +1,195 @@
+package com.univesp.pi.s3t20.service;
+
+import com.univesp.pi.s3t20.model.Cliente;
+import com.univesp.pi.s3t20.model.FormaPagamento;
+import com.univesp.pi.s3t20.model.Produto;
+import com.univesp.pi.s3t20.repository.ClienteRepository;
+import com.univesp.pi.s3t20.repository.FormaPagamentoRepository;
+import com.univesp.pi.s3t20.repository.ProdutoRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+// Cache em processo das dimensões (produtos, clientes e formas de pagamento), consultado no caminho
+// quente de criação de vendas. Os serviços de cada dimensão invalidam a entrada (e o JSON guardado em
+// DimensaoJsonCache) ao alterar ou excluir o registro: na hora e de novo ao fim da transação. Alterações feitas por
+// fora (outra instância, SQL direto) são vistas quando a entrada vence (dimensoes.cache.ttl).
+// Métricas em /actuator/metrics/cache.gets, cache.size e cache.evictions.
+@Service
+public class DimensaoCacheService {
+
+    @Value("${dimensoes.cache.tamanho-maximo:10000}")
+    private int tamanhoMaximo;
+
+    @Value("${dimensoes.cache.ttl:10m}")
+    private Duration ttl;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private FormaPagamentoRepository formaPagamentoRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DimensaoJsonCache dimensaoJsonCache;
+
+    private DimensaoCache<Produto> produtos;
+    private DimensaoCache<Cliente> clientes;
+    private DimensaoCache<FormaPagamento> formasPagamento;
+
+    @PostConstruct
+    void iniciar() {
+        produtos = registrar("produtos", new DimensaoCache<>(tamanhoMaximo, ttl, Produto::getId, Produto::getIdProduto));
+        clientes = registrar("clientes", new DimensaoCache<>(tamanhoMaximo, ttl, Cliente::getId, Cliente::getIdCliente));
+        formasPagamento = registrar("formas-pagamento",
+                new DimensaoCache<>(tamanhoMaximo, ttl, FormaPagamento::getId, FormaPagamento::getIdPagamento));
+    }
+
+    public Optional<Produto> produto(Long id) {
+        return produtos.porId(id, () -> carregar(produtos, produtoRepository.findById(id), Produto::getId));
+    }
+
+    public Optional<Produto> produtoPorCodigo(String codigo) {
+        return produtos.porCodigo(codigo, () -> carregar(produtos, produtoRepository.findByIdProduto(codigo), Produto::getId));
+    }
+
+    public Optional<Cliente> cliente(Long id) {
+        return clientes.porId(id, () -> carregar(clientes, clienteRepository.findById(id), Cliente::getId));
+    }
+
+    public Optional<Cliente> clientePorCodigo(String codigo) {
+        return clientes.porCodigo(codigo, () -> carregar(clientes, clienteRepository.findByIdCliente(codigo), Cliente::getId));
+    }
+
+    public Optional<FormaPagamento> formaPagamento(Long id) {
+        return formasPagamento.porId(id,
+                () -> carregar(formasPagamento, formaPagamentoRepository.findById(id), FormaPagamento::getId));
+    }
+
+    public Optional<FormaPagamento> formaPagamentoPorCodigo(String codigo) {
+        return formasPagamento.porCodigo(codigo,
+                () -> carregar(formasPagamento, formaPagamentoRepository.findByIdPagamento(codigo), FormaPagamento::getId));
+    }
+
+    // Variantes para lotes: ids ausentes do cache são buscados em uma única consulta por dimensão
+    public Map<Long, Produto> produtos(Collection<Long> ids) {
+        return produtos.porIds(ids, ausentes -> carregar(produtos, produtoRepository.findAllById(ausentes), Produto::getId));
+    }
+
+    public Map<Long, Cliente> clientes(Collection<Long> ids) {
+        return clientes.porIds(ids, ausentes -> carregar(clientes, clienteRepository.findAllById(ausentes), Cliente::getId));
+    }
+
+    public Map<Long, FormaPagamento> formasPagamento(Collection<Long> ids) {
+        return formasPagamento.porIds(ids,
+                ausentes -> carregar(formasPagamento, formaPagamentoRepository.findAllById(ausentes), FormaPagamento::getId));
+    }
+
+    public void invalidarProduto(Long id) {
+        invalidar(produtos, id);
+        invalidar(dimensaoJsonCache::invalidarProduto, id);
+    }
+
+    public void invalidarCliente(Long id) {
+        invalidar(clientes, id);
+        invalidar(dimensaoJsonCache::invalidarCliente, id);
+    }
+
+    public void invalidarFormaPagamento(Long id) {
+        invalidar(formasPagamento, id);
+        invalidar(dimensaoJsonCache::invalidarFormaPagamento, id);
+    }
+
+    // Cargas pelo COPY (CargaPostgresService) alteram as tabelas por fora do Hibernate, que então não invalida o
+    // cache de segundo nível: a região da entidade e a das consultas são esvaziadas, na hora e ao fim da transação
+    public void invalidarSegundoNivel(Class<?> entidade, String regiaoConsultas) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        Runnable esvaziar = () -> {
+            cache.evictEntityData(entidade);
+            cache.evictQueryRegion(regiaoConsultas);
+        };
+        esvaziar.run();
+        aoFimDaTransacao(status -> esvaziar.run());
+    }
+
+    public void limpar() {
+        produtos.limpar();
+        clientes.limpar();
+        formasPagamento.limpar();
+        dimensaoJsonCache.limpar();
+    }
+
+    private static void invalidar(DimensaoCache<?> cache, Long id) {
+        invalidar(cache::invalidar, id);
+    }
+
+    private static void invalidar(Consumer<Long> invalidacao, Long id) {
+        invalidacao.accept(id);
+        aoFimDaTransacao(status -> invalidacao.accept(id));
+    }
+
+    // Um registro lido dentro de uma transação que depois é revertida (ex.: inserido nela mesma) não pode ficar no cache
+    private static <T> Optional<T> carregar(DimensaoCache<T> cache, Optional<T> carregado, Function<T, Long> id) {
+        carregado.ifPresent(valor -> aoFimDaTransacao(status -> {
+            if (status != TransactionSynchronization.STATUS_COMMITTED) {
+                cache.invalidar(id.apply(valor));
+            }
+        }));
+        return carregado;
+    }
+
+    private static <T> List<T> carregar(DimensaoCache<T> cache, List<T> carregados, Function<T, Long> id) {
+        carregados.forEach(valor -> carregar(cache, Optional.of(valor), id));
+        return carregados;
+    }
+
+    private static void aoFimDaTransacao(IntConsumer acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    acao.accept(status);
+                }
+            });
+        }
+    }
+
+    private <T> DimensaoCache<T> registrar(String nome, DimensaoCache<T> cache) {
+        FunctionCounter.builder("cache.gets", cache, DimensaoCache::acertos)
+                .tags("cache", nome, "result", "hit").register(meterRegistry);
+        FunctionCounter.builder("cache.gets", cache, DimensaoCache::faltas)
+                .tags("cache", nome, "result", "miss").register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", cache, DimensaoCache::remocoes)
+                .tags("cache", nome).register(meterRegistry);
+        Gauge.builder("cache.size", cache, DimensaoCache::tamanho)
+                .tags("cache", nome).register(meterRegistry);
+        return cache;
+    }
+}
@@ -0,0 +1,161 @@
+package com.univesp.pi.s3t20.service;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.univesp.pi.s3t20.dto.ClienteDTO;
+import com.univesp.pi.s3t20.dto.FormaPagamentoDTO;
+import com.univesp.pi.s3t20.dto.ProdutoDTO;
+import com.univesp.pi.s3t20.model.Cliente;
+import com.univesp.pi.s3t20.model.FormaPagamento;
+import com.univesp.pi.s3t20.model.Produto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+// DTOs de produtos, clientes e formas de pagamento compartilhados entre as vendas de uma listagem (e entre
+// respostas), cada um com o JSON já serializado em UTF-8: DimensaoJsonModule copia esses bytes na saída em vez de
+// serializar a mesma dimensão a cada linha. A entrada vale para o updatedAt da entidade lida; uma entidade com
+// outro updatedAt gera um DTO novo, e DimensaoCacheService descarta a entrada ao alterar ou excluir o registro.
+// Cada dimensão guarda até tamanhoMaximo entradas em LRU, como DimensaoCache; com 0, uma cópia por linha.
+@Service
+public class DimensaoJsonCache {
+
+    private final Regiao produtos;
+    private final Regiao clientes;
+    private final Regiao formasPagamento;
+
+    public DimensaoJsonCache(@Value("${dimensoes.cache.tamanho-maximo:10000}") int tamanhoMaximo) {
+        this.produtos = new Regiao(tamanhoMaximo);
+        this.clientes = new Regiao(tamanhoMaximo);
+        this.formasPagamento = new Regiao(tamanhoMaximo);
+    }
+
+    public ProdutoDTO produto(Produto produto, Function<Produto, ProdutoDTO> mapear) {
+        return compartilhado(produtos, produto, produto.getId(), produto.getUpdatedAt(), mapear);
+    }
+
+    public ClienteDTO cliente(Cliente cliente, Function<Cliente, ClienteDTO> mapear) {
+        return compartilhado(clientes, cliente, cliente.getId(), cliente.getUpdatedAt(), mapear);
+    }
+
+    public FormaPagamentoDTO formaPagamento(FormaPagamento formaPagamento, Function<FormaPagamento, FormaPagamentoDTO> mapear) {
+        return compartilhado(formasPagamento, formaPagamento, formaPagamento.getId(), formaPagamento.getUpdatedAt(), mapear);
+    }
+
+    // Se o DTO é o compartilhado da entrada atual (e não uma cópia ou um DTO descartado por uma alteração)
+    public boolean compartilhado(Object dto) {
+        return entrada(dto) != null;
+    }
+
+    // JSON guardado para este DTO; null se não é o compartilhado ou se ainda não foi serializado
+    public SerializedString json(Object dto) {
+        Entrada entrada = entrada(dto);
+        return entrada != null ? entrada.json : null;
+    }
+
+    public void guardarJson(Object dto, SerializedString json) {
+        Entrada entrada = entrada(dto);
+        if (entrada != null) {
+            // Já em UTF-8: a cópia na saída não codifica de novo os caracteres
+            json.asUnquotedUTF8();
+            entrada.json = json;
+        }
+    }
+
+    public void invalidarProduto(Long id) {
+        produtos.remove(id);
+    }
+
+    public void invalidarCliente(Long id) {
+        clientes.remove(id);
+    }
+
+    public void invalidarFormaPagamento(Long id) {
+        formasPagamento.remove(id);
+    }
+
+    public void limpar() {
+        produtos.clear();
+        clientes.clear();
+        formasPagamento.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E, D> D compartilhado(Regiao entradas, E entidade, Long id, LocalDateTime versao, Function<E, D> mapear) {
+        if (id == null) {
+            return mapear.apply(entidade);
+        }
+        Entrada entrada = entradas.get(id);
+        if (entrada != null && Objects.equals(entrada.versao, versao)) {
+            return (D) entrada.dto;
+        }
+        D dto = mapear.apply(entidade);
+        entradas.put(id, new Entrada(dto, versao));
+        return dto;
+    }
+
+    private Entrada entrada(Object dto) {
+        Entrada entrada;
+        if (dto instanceof ProdutoDTO produto) {
+            entrada = produto.getId() != null ? produtos.get(produto.getId()) : null;
+        } else if (dto instanceof ClienteDTO cliente) {
+            entrada = cliente.getId() != null ? clientes.get(cliente.getId()) : null;
+        } else if (dto instanceof FormaPagamentoDTO formaPagamento) {
+            entrada = formaPagamento.getId() != null ? formasPagamento.get(formaPagamento.getId()) : null;
+        } else {
+            entrada = null;
+        }
+        return entrada != null && entrada.dto == dto ? entrada : null;
+    }
+
+    // Entradas de uma dimensão em ordem de acesso; passando de tamanhoMaximo, sai a usada há mais tempo
+    private static final class Regiao {
+
+        private final int tamanhoMaximo;
+        private final LinkedHashMap<Long, Entrada> entradas;
+
+        private Regiao(int tamanhoMaximo) {
+            this.tamanhoMaximo = tamanhoMaximo;
+            this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Entrada> maisAntiga) {
+                    return size() > Regiao.this.tamanhoMaximo;
+                }
+            };
+        }
+
+        synchronized Entrada get(Long id) {
+            return entradas.get(id);
+        }
+
+        synchronized void put(Long id, Entrada entrada) {
+            if (tamanhoMaximo > 0) {
+                entradas.put(id, entrada);
+            }
+        }
+
+        synchronized void remove(Long id) {
+            entradas.remove(id);
+        }
+
+        synchronized void clear() {
+            entradas.clear();
+        }
+    }
+
+    private static final class Entrada {
+
+        private final Object dto;
+        private final LocalDateTime versao;
+        private volatile SerializedString json;
+
+        private Entrada(Object dto, LocalDateTime versao) {
+            this.dto = dto;
+            this.versao = versao;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.univesp.pi.s3t20.service;
+
+import com.univesp.pi.s3t20.dto.VendaExportacaoDTO;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+// Exportação das vendas de um período em fluxo: as linhas vêm de um cursor do banco (projeção sem entidades) e
+// são escritas direto na saída, então a memória usada não depende do tamanho do período. O CSV segue o layout
+// de docs/FatoVendas.csv e pode ser reimportado por POST /importacao/vendas.
+@Service
+public class ExportacaoService {
+
+    // Mesma codificação e cabeçalho das planilhas de origem
+    public static final Charset CODIFICACAO_CSV = StandardCharsets.ISO_8859_1;
+    static final String CABECALHO_CSV = "ID_Venda;Data;ID_Produto;Quantidade; Preco_Unitario ; Receita_Total ;ID_Cliente;ID_Pagamento;;;";
+    static final String[] CABECALHO_XLSX = {"ID_Venda", "Data", "ID_Produto", "Quantidade", "Preco_Unitario",
+            "Receita_Total", "ID_Cliente", "ID_Pagamento"};
+
+    // Linhas mantidas em memória pelo SXSSF; as anteriores já foram gravadas no arquivo temporário
+    static final int JANELA_XLSX = 100;
+    private static final int LOTE_FLUSH_CSV = 1000;
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+    // Limite de linhas de uma planilha do Excel, descontado o cabeçalho
+    private static final int LINHAS_POR_PLANILHA = SpreadsheetVersion.EXCEL2007.getMaxRows() - 1;
+
+    @Autowired
+    private VendaService vendaService;
+
+    public void exportarCsv(LocalDate dataInicio, LocalDate dataFim, OutputStream saida) throws IOException {
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(saida, CODIFICACAO_CSV), TAMANHO_BUFFER);
+        escritor.write(CABECALHO_CSV);
+        escritor.write('\n');
+        int[] escritas = {0};
+        try {
+            vendaService.percorrerExportacao(dataInicio, dataFim, venda -> {
+                try {
+                    escreverCsv(escritor, venda);
+                    // Descarrega a cada lote para o cliente receber os dados enquanto o restante é lido do banco
+                    if (++escritas[0] % LOTE_FLUSH_CSV == 0) {
+                        escritor.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        escritor.flush();
+    }
+
+    // O XLSX é um zip que só pode ser fechado no fim; o SXSSF mantém JANELA_XLSX linhas em memória e grava as
+    // demais num arquivo temporário compactado, removido em dispose()
+    public void exportarXlsx(LocalDate dataInicio, LocalDate dataFim, OutputStream saida) throws IOException {
+        SXSSFWorkbook planilha = new SXSSFWorkbook(JANELA_XLSX);
+        try {
+            planilha.setCompressTempFiles(true);
+            EscritorXlsx escritor = new EscritorXlsx(planilha);
+            vendaService.percorrerExportacao(dataInicio, dataFim, escritor::escrever);
+            escritor.garantirPlanilha();
+            planilha.write(saida);
+        } finally {
+            planilha.dispose();
+            planilha.close();
+        }
+        saida.flush();
+    }
+
+    private static void escreverCsv(Writer escritor, VendaExportacaoDTO venda) throws IOException {
+        escritor.write(venda.idVenda());
+        escritor.write(';');
+        escritor.write(venda.data().toString());
+        escritor.write(';');
+        escritor.write(venda.idProduto());
+        escritor.write(';');
+        escritor.write(String.valueOf(venda.quantidade()));
+        escritor.write(';');
+        escreverReais(escritor, venda.precoUnitario());
+        escritor.write(';');
+        escreverReais(escritor, venda.receitaTotal());
+        escritor.write(';');
+        escritor.write(venda.idCliente());
+        escritor.write(';');
+        escritor.write(venda.idPagamento());
+        escritor.write(";;;\n");
+    }
+
+    // Valor no formato das planilhas (" R$ 80.00 "); vazio quando não informado
+    private static void escreverReais(Writer escritor, BigDecimal valor) throws IOException {
+        if (valor != null) {
+            escritor.write(" R$ ");
+            escritor.write(Centavos.paraBigDecimal(Centavos.de(valor)).toPlainString());
+            escritor.write(' ');
+        }
+    }
+
+    // Abre uma nova planilha (com cabeçalho) sempre que a atual chega ao limite de linhas do formato
+    private static class EscritorXlsx {
+
+        private final SXSSFWorkbook planilha;
+        private final CellStyle estiloData;
+        private final CellStyle estiloReais;
+        private Sheet folha;
+        private int linha;
+
+        EscritorXlsx(SXSSFWorkbook planilha) {
+            this.planilha = planilha;
+            short formatoData = planilha.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd");
+            short formatoReais = planilha.getCreationHelper().createDataFormat().getFormat("\"R$\" #,##0.00");
+            estiloData = planilha.createCellStyle();
+            estiloData.setDataFormat(formatoData);
+            estiloReais = planilha.createCellStyle();
+            estiloReais.setDataFormat(formatoReais);
+        }
+
+        void escrever(VendaExportacaoDTO venda) {
+            if (folha == null || linha > LINHAS_POR_PLANILHA) {
+                novaFolha();
+            }
+            Row row = folha.createRow(linha++);
+            row.createCell(0).setCellValue(venda.idVenda());
+            row.createCell(1).setCellValue(venda.data());
+            row.getCell(1).setCellStyle(estiloData);
+            row.createCell(2).setCellValue(venda.idProduto());
+            row.createCell(3).setCellValue(venda.quantidade());
+            reais(row, 4, venda.precoUnitario());
+            reais(row, 5, venda.receitaTotal());
+            row.createCell(6).setCellValue(venda.idCliente());
+            row.createCell(7).setCellValue(venda.idPagamento());
+        }
+
+        // Período sem vendas: a planilha sai só com o cabeçalho
+        void garantirPlanilha() {
+            if (folha == null) {
+                novaFolha();
+            }
+        }
+
+        private void reais(Row row, int coluna, BigDecimal valor) {
+            if (valor != null) {
+                row.createCell(coluna).setCellValue(valor.doubleValue());
+                row.getCell(coluna).setCellStyle(estiloReais);
+            }
+        }
+
+        private void novaFolha() {
+            folha = planilha.createSheet("Vendas" + (planilha.getNumberOfSheets() == 0 ? "" : " " + (planilha.getNumberOfSheets() + 1)));
+            Row cabecalho = folha.createRow(0);
+            for (int i = 0; i < CABECALHO_XLSX.length; i++) {
+                cabecalho.createCell(i).setCellValue(CABECALHO_XLSX[i]);
+            }
+            linha = 1;
+        }
+    }
+}
@@ -1,52 +1,81 @@
 package com.univesp.pi.s3t20.service;
 
+import com.univesp.pi.s3t20.dto.Pagina;
 import com.univesp.pi.s3t20.model.FormaPagamento;
 import com.univesp.pi.s3t20.repository.FormaPagamentoRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 @Transactional
+@Timed("servico.chamadas")
 public class FormaPagamentoService {
 
     @Autowired
     private FormaPagamentoRepository formaPagamentoRepository;
 
+    @Autowired
+    private VendaResumoDiarioService vendaResumoDiarioService;
+
+    @Autowired
+    private VendaCubeService vendaCubeService;
+
+    @Autowired
+    private DimensaoCacheService dimensaoCacheService;
+
+    @Autowired
+    private GeradorCodigoService geradorCodigoService;
+
+    @Autowired
+    private MetricasEntidadesService metricasEntidadesService;
+
+    @Transactional(readOnly = true)
     public List<FormaPagamento> listarTodos() {
         return formaPagamentoRepository.findAll();
     }
 
+    // Listagem paginada por cursor: busca uma linha a mais que o limite para saber se há próxima página
+    @Transactional(readOnly = true)
+    public Pagina<FormaPagamento> listarPagina(Long apos, int limite) {
+        return Pagina.de(formaPagamentoRepository.findByIdGreaterThanOrderByIdAsc(apos != null ? apos : 0L, Limit.of(limite + 1)),
+                limite, FormaPagamento::getId);
+    }
+
+    @Transactional(readOnly = true)
     public Optional<FormaPagamento> buscarPorId(Long id) {
         return formaPagamentoRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
     public Optional<FormaPagamento> buscarPorCodigo(String codigo) {
         return formaPagamentoRepository.findByIdPagamento(codigo);
     }
 
     public Optional<FormaPagamento> criar(FormaPagamento formaPagamento) {
-        // Gerar código único se não fornecido
+        // Gerar código único se não fornecido; a verificação de duplicidade salta códigos já cadastrados manualmente
         if (formaPagamento.getIdPagamento() == null || formaPagamento.getIdPagamento().trim().isEmpty()) {
-            formaPagamento.setIdPagamento(gerarCodigoFormaPagamento());
-        }
-        
-        // Verificar se já existe uma forma de pagamento com o mesmo idPagamento
-        if (buscarPorCodigo(formaPagamento.getIdPagamento()).isPresent()) {
+            do {
+                formaPagamento.setIdPagamento(geradorCodigoService.proximo(GeradorCodigoService.Sequencia.FORMA_PAGAMENTO));
+            } while (buscarPorCodigo(formaPagamento.getIdPagamento()).isPresent());
+        } else if (buscarPorCodigo(formaPagamento.getIdPagamento()).isPresent()) {
+            // Já existe uma forma de pagamento com o mesmo idPagamento
             return Optional.empty();
         }
         
         formaPagamento.setCreatedAt(java.time.LocalDateTime.now());
         formaPagamento.setUpdatedAt(java.time.LocalDateTime.now());
-        return Optional.of(formaPagamentoRepository.save(formaPagamento));
-    }
-    
-    private String gerarCodigoFormaPagamento() {
-        long count = formaPagamentoRepository.count();
-        return String.format("PAG%03d", count + 1);
+        FormaPagamento formaPagamentoSalva = formaPagamentoRepository.save(formaPagamento);
+        metricasEntidadesService.criadas(MetricasEntidadesService.Entidade.FORMA_PAGAMENTO, 1);
+        return Optional.of(formaPagamentoSalva);
     }
 
     public Optional<FormaPagamento> atualizar(Long id, FormaPagamento formaPagamentoAtualizada) {
@@ -64,18 +93,55 @@ public class FormaPagamentoService {
         formaPagamento.setIsActive(formaPagamentoAtualizada.getIsActive());
         formaPagamento.setUpdatedAt(java.time.LocalDateTime.now());
         
+        dimensaoCacheService.invalidarFormaPagamento(id);
+        vendaCubeService.rotularFormaPagamento(id, formaPagamento.getFormaPagamento());
+        metricasEntidadesService.atualizadas(MetricasEntidadesService.Entidade.FORMA_PAGAMENTO, 1);
         return Optional.of(formaPagamentoRepository.save(formaPagamento));
     }
 
+    // Importação de planilha: inclui as formas de pagamento novas e atualiza as já cadastradas com o mesmo código.
+    // Devolve quantas foram atualizadas
+    public int importarLote(List<FormaPagamento> formasPagamento) {
+        Map<String, FormaPagamento> cadastradas = new HashMap<>();
+        formaPagamentoRepository.findByIdPagamentoIn(formasPagamento.stream().map(FormaPagamento::getIdPagamento).toList())
+                .forEach(formaPagamento -> cadastradas.put(formaPagamento.getIdPagamento(), formaPagamento));
+
+        int atualizadas = 0;
+        LocalDateTime agora = LocalDateTime.now();
+        for (FormaPagamento formaPagamento : formasPagamento) {
+            FormaPagamento cadastrada = cadastradas.get(formaPagamento.getIdPagamento());
+            if (cadastrada == null) {
+                formaPagamento.setCreatedAt(agora);
+                formaPagamento.setUpdatedAt(agora);
+                cadastradas.put(formaPagamento.getIdPagamento(), formaPagamentoRepository.save(formaPagamento));
+            } else {
+                cadastrada.setFormaPagamento(formaPagamento.getFormaPagamento());
+                cadastrada.setUpdatedAt(agora);
+                dimensaoCacheService.invalidarFormaPagamento(cadastrada.getId());
+                vendaCubeService.rotularFormaPagamento(cadastrada.getId(), cadastrada.getFormaPagamento());
+                atualizadas++;
+            }
+        }
+        metricasEntidadesService.criadas(MetricasEntidadesService.Entidade.FORMA_PAGAMENTO, formasPagamento.size() - atualizadas);
+        metricasEntidadesService.atualizadas(MetricasEntidadesService.Entidade.FORMA_PAGAMENTO, atualizadas);
+        return atualizadas;
+    }
+
     public boolean deletar(Long id) {
         if (!formaPagamentoRepository.existsById(id)) {
             return false;
         }
         
+        // As vendas são removidas em cascata; o rollup e o cubo não têm FK e precisam ser limpos explicitamente
+        vendaResumoDiarioService.removerPorFormaPagamento(id);
+        vendaCubeService.removerPorFormaPagamento(id);
+        dimensaoCacheService.invalidarFormaPagamento(id);
         formaPagamentoRepository.deleteById(id);
+        metricasEntidadesService.removidas(MetricasEntidadesService.Entidade.FORMA_PAGAMENTO, 1);
         return true;
     }
 
+    @Transactional(readOnly = true)
     public Long contar() {
         return formaPagamentoRepository.count();
     }
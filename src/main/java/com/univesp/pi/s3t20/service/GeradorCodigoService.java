@@ -0,0 +1,98 @@
+package com.univesp.pi.s3t20.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Gera os códigos de negócio (VEN001, PROD001, ...) a partir das sequências *_seq. Cada nextval reserva
+// um bloco de TAMANHO_BLOCO valores (a sequência incrementa de 50, ver migration V8), distribuído em memória
+// sem lock; só a troca de bloco vai ao banco. As sequências garantem códigos distintos entre threads e
+// instâncias; blocos não usados até o desligamento viram lacunas na numeração.
+@Service
+public class GeradorCodigoService {
+
+    static final int TAMANHO_BLOCO = 50;
+
+    public enum Sequencia {
+        VENDA("vendas_seq", "VEN"),
+        PRODUTO("produtos_seq", "PROD"),
+        CLIENTE("clientes_seq", "CLI"),
+        FORMA_PAGAMENTO("formas_pagamento_seq", "PAG");
+
+        private final String nome;
+        private final String prefixo;
+
+        Sequencia(String nome, String prefixo) {
+            this.nome = nome;
+            this.prefixo = prefixo;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final Map<Sequencia, Alocador> alocadores = new EnumMap<>(Sequencia.class);
+
+    @PostConstruct
+    void iniciar() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        for (Sequencia sequencia : Sequencia.values()) {
+            alocadores.put(sequencia, new Alocador(dialect.getSequenceSupport().getSequenceNextValString(sequencia.nome)));
+        }
+    }
+
+    public String proximo(Sequencia sequencia) {
+        return String.format("%s%03d", sequencia.prefixo, alocadores.get(sequencia).proximo());
+    }
+
+    private final class Alocador {
+
+        private final String sqlProximoBloco;
+        private volatile Bloco bloco = new Bloco(0, 0);
+
+        Alocador(String sqlProximoBloco) {
+            this.sqlProximoBloco = sqlProximoBloco;
+        }
+
+        long proximo() {
+            while (true) {
+                Bloco atual = bloco;
+                long valor = atual.proximo.getAndIncrement();
+                if (valor < atual.limite) {
+                    return valor;
+                }
+                trocarBloco(atual);
+            }
+        }
+
+        // Só uma thread reserva o bloco seguinte; as demais voltam a tentar no bloco novo
+        private synchronized void trocarBloco(Bloco esgotado) {
+            if (bloco == esgotado) {
+                long inicio = jdbcTemplate.queryForObject(sqlProximoBloco, Long.class);
+                bloco = new Bloco(inicio, inicio + TAMANHO_BLOCO);
+            }
+        }
+    }
+
+    private static final class Bloco {
+
+        private final AtomicLong proximo;
+        private final long limite;
+
+        Bloco(long inicio, long limite) {
+            this.proximo = new AtomicLong(inicio);
+            this.limite = limite;
+        }
+    }
+}
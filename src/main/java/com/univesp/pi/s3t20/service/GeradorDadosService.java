@@ -0,0 +1,356 @@
+package com.univesp.pi.s3t20.service;
+
+import com.univesp.pi.s3t20.model.Cliente;
+import com.univesp.pi.s3t20.model.FormaPagamento;
+import com.univesp.pi.s3t20.model.Produto;
+import com.univesp.pi.s3t20.model.Venda;
+import com.univesp.pi.s3t20.repository.ClienteRepository;
+import com.univesp.pi.s3t20.repository.CodigoId;
+import com.univesp.pi.s3t20.repository.FormaPagamentoRepository;
+import com.univesp.pi.s3t20.repository.ProdutoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Gera clientes e vendas sintéticos com o perfil das planilhas de origem (docs/*.csv): popularidade e preço
+// de cada produto, quantidades, formas de pagamento e dias da semana de FatoVendas.csv, bairros/cidades,
+// nomes e atividade dos clientes de DimCliente.csv. A gravação passa pelos mesmos caminhos em lote da
+// importação (ClienteService.importarLote e VendaService.criarLote), ou seja, COPY no PostgreSQL com
+// carga.copy.enabled e lotes JDBC nos demais bancos; rollup e cubo ficam atualizados. Mesma semente,
+// mesmos dados. Sem @Transactional na classe de propósito (uma transação por lote).
+@Service
+public class GeradorDadosService {
+
+    private static final String PLANILHAS = "docs/";
+
+    @Autowired
+    private ImportacaoService importacaoService;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private VendaService vendaService;
+
+    @Autowired
+    private GeradorCodigoService geradorCodigoService;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private FormaPagamentoRepository formaPagamentoRepository;
+
+    @Value("${gerador.lote.tamanho:5000}")
+    private int tamanhoLote;
+
+    private volatile Perfil perfil;
+
+    // Inclui `clientes` clientes novos e `vendas` vendas com data entre dataInicio e dataFim. As vendas são
+    // distribuídas entre os clientes novos ou, sem eles, entre os clientes já cadastrados.
+    public ResultadoGeracao gerar(int clientes, long vendas, LocalDate dataInicio, LocalDate dataFim, long semente) {
+        if (clientes < 0 || vendas < 0 || dataFim.isBefore(dataInicio)) {
+            throw new IllegalArgumentException("Parâmetros de geração inválidos");
+        }
+        long inicio = System.nanoTime();
+        Perfil perfil = perfil();
+        Random random = new Random(semente);
+        garantirDimensoes(perfil);
+
+        ResultadoGeracao resultado = new ResultadoGeracao();
+        List<String> codigosClientes = gerarClientes(perfil, clientes, random);
+        resultado.clientes = codigosClientes.size();
+
+        Map<String, Long> idsClientes = mapaCodigos(clienteRepository.findCodigos());
+        long[] clientesIds = (codigosClientes.isEmpty() ? new ArrayList<>(idsClientes.keySet()) : codigosClientes)
+                .stream().mapToLong(idsClientes::get).toArray();
+        if (vendas > 0 && clientesIds.length == 0) {
+            throw new IllegalStateException("Nenhum cliente cadastrado para as vendas");
+        }
+        resultado.vendas = gerarVendas(perfil, vendas, clientesIds, dataInicio, dataFim, random);
+        resultado.milissegundos = (System.nanoTime() - inicio) / 1_000_000;
+        return resultado;
+    }
+
+    private List<String> gerarClientes(Perfil perfil, int quantidade, Random random) {
+        List<String> codigos = new ArrayList<>(quantidade);
+        List<Cliente> lote = new ArrayList<>(Math.min(quantidade, tamanhoLote));
+        for (int i = 0; i < quantidade; i++) {
+            String[] endereco = perfil.enderecos.get(random.nextInt(perfil.enderecos.size()));
+            Cliente cliente = new Cliente();
+            cliente.setIdCliente(geradorCodigoService.proximo(GeradorCodigoService.Sequencia.CLIENTE));
+            cliente.setNomeCliente(perfil.nomes.get(random.nextInt(perfil.nomes.size())) + " " +
+                    perfil.sobrenomes.get(random.nextInt(perfil.sobrenomes.size())));
+            cliente.setBairro(endereco[0]);
+            cliente.setCidade(endereco[1]);
+            cliente.setTipoCliente(endereco[2]);
+            lote.add(cliente);
+            codigos.add(cliente.getIdCliente());
+            if (lote.size() == tamanhoLote) {
+                clienteService.importarLote(lote);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            clienteService.importarLote(lote);
+        }
+        return codigos;
+    }
+
+    private long gerarVendas(Perfil perfil, long quantidade, long[] clientesIds, LocalDate dataInicio,
+                             LocalDate dataFim, Random random) {
+        Map<String, Long> idsProdutos = mapaCodigos(produtoRepository.findCodigos());
+        Map<String, Long> idsFormas = mapaCodigos(formaPagamentoRepository.findCodigos());
+        long[] produtosIds = perfil.produtos.stream().mapToLong(idsProdutos::get).toArray();
+        long[] formasIds = perfil.formasPagamento.stream().mapToLong(idsFormas::get).toArray();
+
+        // Cada cliente novo herda a atividade de um cliente das planilhas escolhido ao acaso
+        double[] pesosClientes = new double[clientesIds.length];
+        for (int i = 0; i < pesosClientes.length; i++) {
+            pesosClientes[i] = perfil.atividadeClientes[random.nextInt(perfil.atividadeClientes.length)];
+        }
+        Amostrador clientes = new Amostrador(pesosClientes);
+
+        int dias = (int) ChronoUnit.DAYS.between(dataInicio, dataFim) + 1;
+        double[] pesosDias = new double[dias];
+        for (int i = 0; i < dias; i++) {
+            pesosDias[i] = perfil.pesoDiaSemana[dataInicio.plusDays(i).getDayOfWeek().ordinal()];
+        }
+        Amostrador datas = new Amostrador(pesosDias);
+
+        long criadas = 0;
+        List<Venda> lote = new ArrayList<>((int) Math.min(quantidade, tamanhoLote));
+        for (long i = 0; i < quantidade; i++) {
+            int indiceProduto = perfil.popularidade.sortear(random);
+            Venda venda = new Venda();
+            venda.setData(dataInicio.plusDays(datas.sortear(random)));
+            venda.setQuantidade(perfil.quantidades[random.nextInt(perfil.quantidades.length)]);
+            venda.setPrecoUnitario(Centavos.paraBigDecimal(perfil.precos[indiceProduto]));
+            venda.setProduto(produto(produtosIds[indiceProduto]));
+            venda.setCliente(cliente(clientesIds[clientes.sortear(random)]));
+            venda.setFormaPagamento(formaPagamento(formasIds[perfil.mixPagamento.sortear(random)]));
+            lote.add(venda);
+            if (lote.size() == tamanhoLote) {
+                criadas += gravarVendas(lote);
+            }
+        }
+        return criadas + gravarVendas(lote);
+    }
+
+    private long gravarVendas(List<Venda> lote) {
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        long criadas = vendaService.criarLote(lote).stream().filter(VendaService.ItemLote::isCriado).count();
+        lote.clear();
+        return criadas;
+    }
+
+    // Produtos e formas de pagamento das planilhas que faltarem no banco são importados antes da geração
+    private void garantirDimensoes(Perfil perfil) {
+        try {
+            if (!mapaCodigos(produtoRepository.findCodigos()).keySet().containsAll(perfil.produtos)) {
+                importacaoService.importarProdutos(planilha("DimProduto.csv"));
+            }
+            if (!mapaCodigos(formaPagamentoRepository.findCodigos()).keySet().containsAll(perfil.formasPagamento)) {
+                importacaoService.importarFormasPagamento(planilha("DimFormaPagamento.csv"));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Perfil perfil() {
+        if (perfil == null) {
+            synchronized (this) {
+                if (perfil == null) {
+                    try {
+                        perfil = Perfil.ler(this::planilha);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }
+        }
+        return perfil;
+    }
+
+    private Reader planilha(String nome) throws IOException {
+        return new InputStreamReader(new ClassPathResource(PLANILHAS + nome).getInputStream(), StandardCharsets.ISO_8859_1);
+    }
+
+    // Entidades só com o id preenchido, como as montadas a partir do VendaDTO
+    private static Produto produto(long id) {
+        Produto produto = new Produto();
+        produto.setId(id);
+        return produto;
+    }
+
+    private static Cliente cliente(long id) {
+        Cliente cliente = new Cliente();
+        cliente.setId(id);
+        return cliente;
+    }
+
+    private static FormaPagamento formaPagamento(long id) {
+        FormaPagamento formaPagamento = new FormaPagamento();
+        formaPagamento.setId(id);
+        return formaPagamento;
+    }
+
+    private static Map<String, Long> mapaCodigos(List<CodigoId> codigos) {
+        Map<String, Long> mapa = new HashMap<>(codigos.size() * 2);
+        codigos.forEach(codigo -> mapa.put(codigo.getCodigo(), codigo.getId()));
+        return mapa;
+    }
+
+    @FunctionalInterface
+    interface Planilhas {
+        Reader abrir(String nome) throws IOException;
+    }
+
+    // Distribuições extraídas das planilhas de origem
+    static final class Perfil {
+
+        final List<String> produtos = new ArrayList<>();
+        long[] precos;
+        Amostrador popularidade;
+        int[] quantidades;
+        final List<String> formasPagamento = new ArrayList<>();
+        Amostrador mixPagamento;
+        final double[] pesoDiaSemana = new double[DayOfWeek.values().length];
+        final List<String[]> enderecos = new ArrayList<>();
+        final List<String> nomes = new ArrayList<>();
+        final List<String> sobrenomes = new ArrayList<>();
+        double[] atividadeClientes;
+
+        static Perfil ler(Planilhas planilhas) throws IOException {
+            Perfil perfil = new Perfil();
+            Map<String, Long> precosSugeridos = new LinkedHashMap<>();
+            try (LeitorCsv leitor = new LeitorCsv(planilhas.abrir("DimProduto.csv"))) {
+                leitor.lerCabecalho();
+                while (leitor.proxima()) {
+                    Long preco = leitor.vazia() ? null : leitor.centavos(5);
+                    if (preco != null) {
+                        precosSugeridos.put(leitor.obrigatorio(0), preco);
+                    }
+                }
+            }
+            Map<String, Integer> formas = new LinkedHashMap<>();
+            try (LeitorCsv leitor = new LeitorCsv(planilhas.abrir("DimFormaPagamento.csv"))) {
+                leitor.lerCabecalho();
+                while (leitor.proxima()) {
+                    if (!leitor.vazia()) {
+                        formas.put(leitor.obrigatorio(0), 0);
+                    }
+                }
+            }
+            Map<String, Integer> clientes = new LinkedHashMap<>();
+            try (LeitorCsv leitor = new LeitorCsv(planilhas.abrir("DimCliente.csv"))) {
+                leitor.lerCabecalho();
+                while (leitor.proxima()) {
+                    if (leitor.vazia()) {
+                        continue;
+                    }
+                    clientes.put(leitor.obrigatorio(0), 0);
+                    String[] nome = leitor.obrigatorio(1).split(" ", 2);
+                    perfil.nomes.add(nome[0]);
+                    if (nome.length > 1) {
+                        perfil.sobrenomes.add(nome[1]);
+                    }
+                    perfil.enderecos.add(new String[]{leitor.texto(2), leitor.texto(3), leitor.obrigatorio(4)});
+                }
+            }
+
+            // Popularidade, preço praticado e quantidades de cada produto, mix de pagamento, dias da semana
+            // e atividade dos clientes vêm das vendas
+            Map<String, Integer> vendasPorProduto = new HashMap<>();
+            Map<String, Long> precosPraticados = new HashMap<>();
+            List<Integer> quantidades = new ArrayList<>();
+            try (LeitorCsv leitor = new LeitorCsv(planilhas.abrir("FatoVendas.csv"))) {
+                leitor.lerCabecalho();
+                while (leitor.proxima()) {
+                    if (leitor.vazia()) {
+                        continue;
+                    }
+                    String produto = leitor.obrigatorio(2);
+                    vendasPorProduto.merge(produto, 1, Integer::sum);
+                    Long preco = leitor.centavos(4);
+                    if (preco != null) {
+                        precosPraticados.put(produto, preco);
+                    }
+                    quantidades.add(leitor.inteiro(3));
+                    perfil.pesoDiaSemana[leitor.data(1).getDayOfWeek().ordinal()]++;
+                    formas.computeIfPresent(leitor.obrigatorio(7), (codigo, total) -> total + 1);
+                    clientes.computeIfPresent(leitor.obrigatorio(6), (codigo, total) -> total + 1);
+                }
+            }
+
+            List<Double> pesos = new ArrayList<>();
+            List<Long> precos = new ArrayList<>();
+            for (Map.Entry<String, Long> produto : precosSugeridos.entrySet()) {
+                perfil.produtos.add(produto.getKey());
+                precos.add(precosPraticados.getOrDefault(produto.getKey(), produto.getValue()));
+                // Produtos sem vendas nas planilhas continuam possíveis, com o peso de uma venda
+                pesos.add((double) Math.max(1, vendasPorProduto.getOrDefault(produto.getKey(), 0)));
+            }
+            perfil.precos = precos.stream().mapToLong(Long::longValue).toArray();
+            perfil.popularidade = new Amostrador(pesos.stream().mapToDouble(Double::doubleValue).toArray());
+            perfil.quantidades = quantidades.stream().mapToInt(Integer::intValue).toArray();
+            perfil.formasPagamento.addAll(formas.keySet());
+            perfil.mixPagamento = new Amostrador(formas.values().stream().mapToDouble(total -> Math.max(1, total)).toArray());
+            perfil.atividadeClientes = clientes.values().stream().mapToDouble(total -> Math.max(1, total)).toArray();
+            for (int i = 0; i < perfil.pesoDiaSemana.length; i++) {
+                perfil.pesoDiaSemana[i] = Math.max(1, perfil.pesoDiaSemana[i]);
+            }
+            return perfil;
+        }
+    }
+
+    // Sorteio de um índice proporcional ao peso: busca binária nos pesos acumulados
+    static final class Amostrador {
+
+        private final double[] acumulados;
+
+        Amostrador(double[] pesos) {
+            acumulados = new double[pesos.length];
+            double total = 0;
+            for (int i = 0; i < pesos.length; i++) {
+                total += pesos[i];
+                acumulados[i] = total;
+            }
+        }
+
+        int sortear(Random random) {
+            double alvo = random.nextDouble() * acumulados[acumulados.length - 1];
+            int indice = Arrays.binarySearch(acumulados, alvo);
+            return indice >= 0 ? indice + 1 : -indice - 1;
+        }
+    }
+
+    public static class ResultadoGeracao {
+        public long clientes;
+        public long vendas;
+        public long milissegundos;
+    }
+}
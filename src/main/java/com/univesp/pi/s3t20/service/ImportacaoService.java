@@ -0,0 +1,274 @@
+package com.univesp.pi.s3t20.service;
+
+import com.univesp.pi.s3t20.model.Cliente;
+import com.univesp.pi.s3t20.model.FormaPagamento;
+import com.univesp.pi.s3t20.model.Produto;
+import com.univesp.pi.s3t20.model.Venda;
+import com.univesp.pi.s3t20.repository.ClienteRepository;
+import com.univesp.pi.s3t20.repository.CodigoId;
+import com.univesp.pi.s3t20.repository.FormaPagamentoRepository;
+import com.univesp.pi.s3t20.repository.ProdutoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Importação das planilhas de origem no formato de docs/FatoVendas.csv, DimProduto.csv, DimCliente.csv e
+// DimFormaPagamento.csv, numa única passada: o arquivo é lido linha a linha e gravado em lotes de
+// importacao.lote.tamanho linhas, cada lote em sua própria transação, então a memória usada não depende do
+// tamanho do arquivo. Reimportar é seguro: dimensões são atualizadas pelo código e vendas com código já
+// cadastrado são ignoradas. Sem @Transactional na classe de propósito (uma transação por lote).
+@Service
+public class ImportacaoService {
+
+    static final int MAXIMO_ERROS = 100;
+    static final int TAMANHO_CODIGO = 10;
+
+    private static final String[] CABECALHO_PRODUTOS = {"ID_Produto", "Produto", "Categoria", "Pedido Mínimo",
+            "Custo_Unitario", "Preco_Sugerido", "Cento_Preco"};
+    private static final String[] CABECALHO_CLIENTES = {"ID_Cliente", "Nome_Cliente", "Bairro", "Cidade", "Tipo_Cliente"};
+    private static final String[] CABECALHO_FORMAS_PAGAMENTO = {"ID_Pagamento", "Forma_Pagamento"};
+    private static final String[] CABECALHO_VENDAS = {"ID_Venda", "Data", "ID_Produto", "Quantidade",
+            "Preco_Unitario", "Receita_Total", "ID_Cliente", "ID_Pagamento"};
+
+    @Autowired
+    private ProdutoService produtoService;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private FormaPagamentoService formaPagamentoService;
+
+    @Autowired
+    private VendaService vendaService;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private FormaPagamentoRepository formaPagamentoRepository;
+
+    @Value("${importacao.lote.tamanho:1000}")
+    private int tamanhoLote;
+
+    // Vazio quando o cabeçalho não corresponde ao formato esperado
+    public Optional<ResultadoImportacao> importarProdutos(Reader arquivo) throws IOException {
+        return importarDimensao(arquivo, CABECALHO_PRODUTOS, leitor -> {
+            Produto produto = new Produto();
+            produto.setIdProduto(codigo(leitor, 0));
+            produto.setProduto(leitor.obrigatorio(1));
+            produto.setCategoria(leitor.obrigatorio(2));
+            produto.setPedidoMinimo(leitor.inteiro(3));
+            produto.setCustoUnitario(Centavos.paraBigDecimal(leitor.centavos(4)));
+            produto.setPrecoSugerido(Centavos.paraBigDecimal(leitor.centavos(5)));
+            produto.setCentoPreco(Centavos.paraBigDecimal(leitor.centavos(6)));
+            return produto;
+        }, produtoService::importarLote);
+    }
+
+    public Optional<ResultadoImportacao> importarClientes(Reader arquivo) throws IOException {
+        return importarDimensao(arquivo, CABECALHO_CLIENTES, leitor -> {
+            Cliente cliente = new Cliente();
+            cliente.setIdCliente(codigo(leitor, 0));
+            cliente.setNomeCliente(leitor.obrigatorio(1));
+            cliente.setBairro(leitor.texto(2));
+            cliente.setCidade(leitor.texto(3));
+            cliente.setTipoCliente(leitor.obrigatorio(4));
+            return cliente;
+        }, clienteService::importarLote);
+    }
+
+    public Optional<ResultadoImportacao> importarFormasPagamento(Reader arquivo) throws IOException {
+        return importarDimensao(arquivo, CABECALHO_FORMAS_PAGAMENTO, leitor -> {
+            FormaPagamento formaPagamento = new FormaPagamento();
+            formaPagamento.setIdPagamento(codigo(leitor, 0));
+            formaPagamento.setFormaPagamento(leitor.obrigatorio(1));
+            return formaPagamento;
+        }, formaPagamentoService::importarLote);
+    }
+
+    // Os códigos de produto, cliente e forma de pagamento são resolvidos por mapas código -> id carregados
+    // uma vez no início; cada lote passa por VendaService.criarLote (INSERTs em lote, rollup e cubo atualizados)
+    public Optional<ResultadoImportacao> importarVendas(Reader arquivo) throws IOException {
+        try (LeitorCsv leitor = new LeitorCsv(arquivo)) {
+            if (!leitor.lerCabecalho(CABECALHO_VENDAS)) {
+                return Optional.empty();
+            }
+            Map<String, Long> produtos = mapaCodigos(produtoRepository.findCodigos());
+            Map<String, Long> clientes = mapaCodigos(clienteRepository.findCodigos());
+            Map<String, Long> formasPagamento = mapaCodigos(formaPagamentoRepository.findCodigos());
+
+            ResultadoImportacao resultado = new ResultadoImportacao();
+            Map<String, Linha<Venda>> lote = new LinkedHashMap<>();
+            while (leitor.proxima()) {
+                if (leitor.vazia()) {
+                    continue;
+                }
+                resultado.linhas++;
+                try {
+                    Venda venda = new Venda();
+                    venda.setIdVenda(codigo(leitor, 0));
+                    venda.setData(obrigatorio(leitor, 1, leitor::data));
+                    venda.setProduto(referencia(leitor, 2, produtos, Produto::new, Produto::setId));
+                    venda.setQuantidade(obrigatorio(leitor, 3, leitor::inteiro));
+                    venda.setPrecoUnitario(Centavos.paraBigDecimal(obrigatorio(leitor, 4, leitor::centavos)));
+                    venda.setReceitaTotal(Centavos.paraBigDecimal(leitor.centavos(5)));
+                    venda.setCliente(referencia(leitor, 6, clientes, Cliente::new, Cliente::setId));
+                    venda.setFormaPagamento(referencia(leitor, 7, formasPagamento, FormaPagamento::new, FormaPagamento::setId));
+                    if (venda.getQuantidade() <= 0) {
+                        throw new IllegalArgumentException("Quantidade deve ser um número positivo");
+                    }
+                    // Código repetido no mesmo lote: vale a primeira ocorrência, como entre lotes
+                    if (lote.putIfAbsent(venda.getIdVenda(), new Linha<>(leitor.numeroLinha(), venda)) != null) {
+                        resultado.ignoradas++;
+                    }
+                } catch (IllegalArgumentException e) {
+                    resultado.rejeitar(leitor.numeroLinha(), e.getMessage());
+                }
+                if (lote.size() == tamanhoLote) {
+                    gravarVendas(lote, resultado);
+                }
+            }
+            gravarVendas(lote, resultado);
+            return Optional.of(resultado);
+        }
+    }
+
+    private void gravarVendas(Map<String, Linha<Venda>> lote, ResultadoImportacao resultado) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        Set<String> existentes = vendaService.codigosExistentes(lote.keySet());
+        List<Linha<Venda>> novas = new ArrayList<>(lote.size());
+        for (Linha<Venda> linha : lote.values()) {
+            if (existentes.contains(linha.valor().getIdVenda())) {
+                resultado.ignoradas++;
+            } else {
+                novas.add(linha);
+            }
+        }
+        lote.clear();
+        if (novas.isEmpty()) {
+            return;
+        }
+
+        List<VendaService.ItemLote> itens = vendaService.criarLote(novas.stream().map(Linha::valor).toList());
+        for (int i = 0; i < itens.size(); i++) {
+            if (itens.get(i).isCriado()) {
+                resultado.incluidas++;
+            } else {
+                resultado.rejeitar(novas.get(i).numero(), itens.get(i).erro());
+            }
+        }
+    }
+
+    private <T> Optional<ResultadoImportacao> importarDimensao(Reader arquivo, String[] cabecalho,
+                                                              Function<LeitorCsv, T> conversor,
+                                                              Function<List<T>, Integer> gravarLote) throws IOException {
+        try (LeitorCsv leitor = new LeitorCsv(arquivo)) {
+            if (!leitor.lerCabecalho(cabecalho)) {
+                return Optional.empty();
+            }
+            ResultadoImportacao resultado = new ResultadoImportacao();
+            List<T> lote = new ArrayList<>(tamanhoLote);
+            while (leitor.proxima()) {
+                if (leitor.vazia()) {
+                    continue;
+                }
+                resultado.linhas++;
+                try {
+                    lote.add(conversor.apply(leitor));
+                } catch (IllegalArgumentException e) {
+                    resultado.rejeitar(leitor.numeroLinha(), e.getMessage());
+                }
+                if (lote.size() == tamanhoLote) {
+                    gravarDimensao(lote, gravarLote, resultado);
+                }
+            }
+            gravarDimensao(lote, gravarLote, resultado);
+            return Optional.of(resultado);
+        }
+    }
+
+    private static <T> void gravarDimensao(List<T> lote, Function<List<T>, Integer> gravarLote, ResultadoImportacao resultado) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        int atualizados = gravarLote.apply(lote);
+        resultado.atualizadas += atualizados;
+        resultado.incluidas += lote.size() - atualizados;
+        lote.clear();
+    }
+
+    private static String codigo(LeitorCsv leitor, int campo) {
+        String codigo = leitor.obrigatorio(campo);
+        if (codigo.length() > TAMANHO_CODIGO) {
+            throw new IllegalArgumentException("Código com mais de " + TAMANHO_CODIGO + " caracteres: '" + codigo + "'");
+        }
+        return codigo;
+    }
+
+    private static <V> V obrigatorio(LeitorCsv leitor, int campo, Function<Integer, V> conversor) {
+        V valor = conversor.apply(campo);
+        if (valor == null) {
+            // Campo vazio: lança a mesma mensagem dos textos obrigatórios
+            leitor.obrigatorio(campo);
+        }
+        return valor;
+    }
+
+    // Entidade só com o id preenchido, como as montadas a partir do VendaDTO
+    private static <T> T referencia(LeitorCsv leitor, int campo, Map<String, Long> ids, Supplier<T> nova,
+                                    BiConsumer<T, Long> definirId) {
+        String codigo = leitor.obrigatorio(campo);
+        Long id = ids.get(codigo);
+        if (id == null) {
+            throw new IllegalArgumentException(codigo + " não cadastrado");
+        }
+        T referencia = nova.get();
+        definirId.accept(referencia, id);
+        return referencia;
+    }
+
+    private static Map<String, Long> mapaCodigos(List<CodigoId> codigos) {
+        Map<String, Long> mapa = new HashMap<>(codigos.size() * 2);
+        codigos.forEach(codigo -> mapa.put(codigo.getCodigo(), codigo.getId()));
+        return mapa;
+    }
+
+    private record Linha<T>(int numero, T valor) {}
+
+    public static class ResultadoImportacao {
+        // Linhas de dados lidas (sem o cabeçalho e as linhas vazias)
+        public long linhas;
+        public long incluidas;
+        public long atualizadas;
+        public long ignoradas;
+        public long rejeitadas;
+        // Primeiras MAXIMO_ERROS rejeições, no formato "linha N: motivo"
+        public List<String> erros = new ArrayList<>();
+
+        void rejeitar(int linha, String motivo) {
+            rejeitadas++;
+            if (erros.size() < MAXIMO_ERROS) {
+                erros.add("linha " + linha + ": " + motivo);
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.univesp.pi.s3t20.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// Leitor das planilhas de origem (docs/*.csv): separadas por ';', sem aspas, com espaços em volta dos valores
+// e colunas vazias no fim. Só a linha atual fica em memória; os campos são posições dentro dela (sem split nem
+// substring) e números, datas e valores em reais são convertidos direto dos caracteres.
+final class LeitorCsv implements Closeable {
+
+    private static final char SEPARADOR = ';';
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private final BufferedReader leitor;
+    private String[] cabecalho = new String[0];
+    private String linha;
+    private int numeroLinha;
+    private int campos;
+    private int[] inicios = new int[16];
+    private int[] fins = new int[16];
+
+    LeitorCsv(Reader reader) {
+        this.leitor = new BufferedReader(reader, TAMANHO_BUFFER);
+    }
+
+    // Lê a primeira linha e confere se as colunas começam pelas esperadas (sem diferenciar maiúsculas)
+    boolean lerCabecalho(String... esperado) throws IOException {
+        if (!proxima() || campos < esperado.length) {
+            return false;
+        }
+        cabecalho = new String[campos];
+        for (int i = 0; i < campos; i++) {
+            cabecalho[i] = linha.substring(inicios[i], fins[i]);
+        }
+        for (int i = 0; i < esperado.length; i++) {
+            if (!cabecalho[i].equalsIgnoreCase(esperado[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean proxima() throws IOException {
+        linha = leitor.readLine();
+        if (linha == null) {
+            return false;
+        }
+        numeroLinha++;
+        campos = 0;
+        // Marca de ordem de bytes de arquivos salvos como UTF-8 pelo Excel
+        int inicio = numeroLinha == 1 && linha.startsWith("\uFEFF") ? 1 : 0;
+        for (int i = inicio; i <= linha.length(); i++) {
+            if (i == linha.length() || linha.charAt(i) == SEPARADOR) {
+                adicionarCampo(inicio, i);
+                inicio = i + 1;
+            }
+        }
+        return true;
+    }
+
+    int numeroLinha() {
+        return numeroLinha;
+    }
+
+    // Linhas só com separadores (como as do fim de FatoVendas.csv)
+    boolean vazia() {
+        for (int i = 0; i < campos; i++) {
+            if (!vazio(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean vazio(int campo) {
+        return campo >= campos || inicios[campo] == fins[campo];
+    }
+
+    String texto(int campo) {
+        return vazio(campo) ? null : linha.substring(inicios[campo], fins[campo]);
+    }
+
+    String obrigatorio(int campo) {
+        if (vazio(campo)) {
+            throw new IllegalArgumentException(nome(campo) + " não informado");
+        }
+        return texto(campo);
+    }
+
+    Integer inteiro(int campo) {
+        if (vazio(campo)) {
+            return null;
+        }
+        int valor = 0;
+        for (int i = inicios[campo]; i < fins[campo]; i++) {
+            char c = linha.charAt(i);
+            if (c < '0' || c > '9' || valor > (Integer.MAX_VALUE - (c - '0')) / 10) {
+                throw invalido(campo);
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        return valor;
+    }
+
+    Long centavos(int campo) {
+        if (vazio(campo)) {
+            return null;
+        }
+        try {
+            return Centavos.de(linha, inicios[campo], fins[campo]);
+        } catch (NumberFormatException e) {
+            throw invalido(campo);
+        }
+    }
+
+    // Datas ISO (aaaa-mm-dd)
+    LocalDate data(int campo) {
+        if (vazio(campo)) {
+            return null;
+        }
+        int inicio = inicios[campo];
+        if (fins[campo] - inicio != 10 || linha.charAt(inicio + 4) != '-' || linha.charAt(inicio + 7) != '-') {
+            throw invalido(campo);
+        }
+        try {
+            return LocalDate.of(digitos(campo, inicio, 4), digitos(campo, inicio + 5, 2), digitos(campo, inicio + 8, 2));
+        } catch (DateTimeException e) {
+            throw invalido(campo);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        leitor.close();
+    }
+
+    private int digitos(int campo, int inicio, int quantidade) {
+        int valor = 0;
+        for (int i = inicio; i < inicio + quantidade; i++) {
+            char c = linha.charAt(i);
+            if (c < '0' || c > '9') {
+                throw invalido(campo);
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        return valor;
+    }
+
+    // Guarda o campo já sem os espaços das bordas
+    private void adicionarCampo(int inicio, int fim) {
+        while (inicio < fim && Character.isWhitespace(linha.charAt(inicio))) {
+            inicio++;
+        }
+        while (fim > inicio && Character.isWhitespace(linha.charAt(fim - 1))) {
+            fim--;
+        }
+        if (campos == inicios.length) {
+            inicios = Arrays.copyOf(inicios, campos * 2);
+            fins = Arrays.copyOf(fins, campos * 2);
+        }
+        inicios[campos] = inicio;
+        fins[campos] = fim;
+        campos++;
+    }
+
+    private IllegalArgumentException invalido(int campo) {
+        return new IllegalArgumentException(nome(campo) + " inválido: '" + texto(campo) + "'");
+    }
+
+    private String nome(int campo) {
+        return campo < cabecalho.length ? cabecalho[campo] : "Coluna " + (campo + 1);
+    }
+}
@@ -0,0 +1,111 @@
+package com.univesp.pi.s3t20.service;
+
+// Mapa long -> int de endereçamento aberto (sondagem linear) em dois arrays primitivos, sem Long/Integer nem nós
+// por entrada. Usado pelo cubo de vendas para localizar a linha de cada venda e o índice de cada dimensão.
+// Posição vazia é valor 0 (os valores são guardados somados de 1, então qualquer chave long é aceita) e a remoção
+// desloca as entradas seguintes para trás, sem marcas de exclusão que degradem as buscas.
+public final class MapaLongInt {
+
+    public static final int AUSENTE = -1;
+
+    private static final int CAPACIDADE_MINIMA = 16;
+
+    private long[] chaves;
+    private int[] valores;
+    private int tamanho;
+
+    public MapaLongInt() {
+        this(CAPACIDADE_MINIMA);
+    }
+
+    // Capacidade esperada de entradas; a tabela fica com no máximo metade das posições ocupadas
+    public MapaLongInt(int capacidade) {
+        int posicoes = Integer.highestOneBit(Math.max(CAPACIDADE_MINIMA, capacidade * 2 - 1)) << 1;
+        chaves = new long[posicoes];
+        valores = new int[posicoes];
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    // Valor da chave ou AUSENTE
+    public int get(long chave) {
+        int mascara = chaves.length - 1;
+        for (int i = posicao(chave, mascara); valores[i] != 0; i = (i + 1) & mascara) {
+            if (chaves[i] == chave) {
+                return valores[i] - 1;
+            }
+        }
+        return AUSENTE;
+    }
+
+    // Valores negativos não são aceitos (AUSENTE não seria distinguível)
+    public void put(long chave, int valor) {
+        if (valor < 0 || valor == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Valor fora do intervalo: " + valor);
+        }
+        int mascara = chaves.length - 1;
+        int i = posicao(chave, mascara);
+        while (valores[i] != 0) {
+            if (chaves[i] == chave) {
+                valores[i] = valor + 1;
+                return;
+            }
+            i = (i + 1) & mascara;
+        }
+        chaves[i] = chave;
+        valores[i] = valor + 1;
+        if (++tamanho * 2 > chaves.length) {
+            redimensionar(chaves.length * 2);
+        }
+    }
+
+    public void remove(long chave) {
+        int mascara = chaves.length - 1;
+        int i = posicao(chave, mascara);
+        while (valores[i] != 0 && chaves[i] != chave) {
+            i = (i + 1) & mascara;
+        }
+        if (valores[i] == 0) {
+            return;
+        }
+        // Puxa para o buraco cada entrada seguinte do agrupamento cuja posição ideal não fica entre o buraco e ela
+        int vazio = i;
+        for (int j = (i + 1) & mascara; valores[j] != 0; j = (j + 1) & mascara) {
+            int ideal = posicao(chaves[j], mascara);
+            if (((j - ideal) & mascara) >= ((j - vazio) & mascara)) {
+                chaves[vazio] = chaves[j];
+                valores[vazio] = valores[j];
+                vazio = j;
+            }
+        }
+        valores[vazio] = 0;
+        tamanho--;
+    }
+
+    private void redimensionar(int posicoes) {
+        long[] chavesAntigas = chaves;
+        int[] valoresAntigos = valores;
+        chaves = new long[posicoes];
+        valores = new int[posicoes];
+        int mascara = posicoes - 1;
+        for (int antiga = 0; antiga < chavesAntigas.length; antiga++) {
+            if (valoresAntigos[antiga] == 0) {
+                continue;
+            }
+            int i = posicao(chavesAntigas[antiga], mascara);
+            while (valores[i] != 0) {
+                i = (i + 1) & mascara;
+            }
+            chaves[i] = chavesAntigas[antiga];
+            valores[i] = valoresAntigos[antiga];
+        }
+    }
+
+    // Ids sequenciais espalhados pela tabela (hash multiplicativo de Fibonacci)
+    private static int posicao(long chave, int mascara) {
+        long h = chave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+}
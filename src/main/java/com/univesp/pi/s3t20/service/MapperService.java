@@ -2,6 +2,7 @@ package com.univesp.pi.s3t20.service;
 
 import com.univesp.pi.s3t20.dto.*;
 import com.univesp.pi.s3t20.model.*;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -9,6 +10,10 @@ import java.math.BigDecimal;
 @Service
 public class MapperService {
 
+    // Dimensões das vendas compartilhadas entre as linhas, com o JSON pronto
+    @Autowired
+    private DimensaoJsonCache dimensaoJsonCache;
+
     // Cliente mappings
     public ClienteDTO toClienteDTO(Cliente cliente) {
         if (cliente == null) return null;
@@ -170,23 +175,24 @@ public class MapperService {
         dto.setId(venda.getId());
         dto.setIdVenda(venda.getIdVenda());
         dto.setData(venda.getData());
-        dto.setProduto(toProdutoDTO(venda.getProduto()));
+        dto.setProduto(venda.getProduto() != null ? dimensaoJsonCache.produto(venda.getProduto(), this::toProdutoDTO) : null);
         dto.setQuantidade(venda.getQuantidade());
         dto.setPrecoUnitario(venda.getPrecoUnitario());
         dto.setReceitaTotal(venda.getReceitaTotal());
-        dto.setCliente(toClienteDTO(venda.getCliente()));
-        dto.setFormaPagamento(toFormaPagamentoDTO(venda.getFormaPagamento()));
+        dto.setCliente(venda.getCliente() != null ? dimensaoJsonCache.cliente(venda.getCliente(), this::toClienteDTO) : null);
+        dto.setFormaPagamento(venda.getFormaPagamento() != null
+                ? dimensaoJsonCache.formaPagamento(venda.getFormaPagamento(), this::toFormaPagamentoDTO) : null);
         dto.setIsActive(venda.getIsActive());
         dto.setCreatedAt(venda.getCreatedAt());
         dto.setUpdatedAt(venda.getUpdatedAt());
         return dto;
     }
 
-    // Método para calcular receita total
+    // Método para calcular receita total (em centavos, com verificação de overflow)
     public BigDecimal calcularReceitaTotal(Integer quantidade, BigDecimal precoUnitario) {
         if (quantidade == null || precoUnitario == null) {
             return BigDecimal.ZERO;
         }
-        return precoUnitario.multiply(BigDecimal.valueOf(quantidade));
+        return Centavos.paraBigDecimal(Centavos.multiplicar(Centavos.de(precoUnitario), quantidade));
     }
 }
@@ -0,0 +1,81 @@
+package com.univesp.pi.s3t20.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Contadores de entidades criadas, atualizadas e removidas (entidades.criadas, entidades.atualizadas,
+// entidades.removidas, tag entidade). Chamados pelos serviços em todos os caminhos de escrita, inclusive os lotes
+// JDBC e o COPY, que não passam pelos eventos do Hibernate. Dentro de uma transação, só contam após o commit.
+@Service
+public class MetricasEntidadesService {
+
+    public enum Entidade {
+        CLIENTE("cliente"), PRODUTO("produto"), FORMA_PAGAMENTO("forma_pagamento"), VENDA("venda");
+
+        private final String tag;
+
+        Entidade(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Entidade, Counter> criadas = new EnumMap<>(Entidade.class);
+    private final Map<Entidade, Counter> atualizadas = new EnumMap<>(Entidade.class);
+    private final Map<Entidade, Counter> removidas = new EnumMap<>(Entidade.class);
+
+    // Registrados de início para aparecerem zerados em /actuator/metrics e /actuator/prometheus
+    @PostConstruct
+    void registrar() {
+        for (Entidade entidade : Entidade.values()) {
+            criadas.put(entidade, contador("entidades.criadas", "Entidades incluídas", entidade));
+            atualizadas.put(entidade, contador("entidades.atualizadas", "Entidades alteradas", entidade));
+            removidas.put(entidade, contador("entidades.removidas", "Entidades excluídas", entidade));
+        }
+    }
+
+    public void criadas(Entidade entidade, long quantidade) {
+        incrementar(criadas.get(entidade), quantidade);
+    }
+
+    public void atualizadas(Entidade entidade, long quantidade) {
+        incrementar(atualizadas.get(entidade), quantidade);
+    }
+
+    public void removidas(Entidade entidade, long quantidade) {
+        incrementar(removidas.get(entidade), quantidade);
+    }
+
+    private Counter contador(String nome, String descricao, Entidade entidade) {
+        return Counter.builder(nome)
+                .description(descricao)
+                .tag("entidade", entidade.tag)
+                .register(meterRegistry);
+    }
+
+    private static void incrementar(Counter contador, long quantidade) {
+        if (quantidade <= 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    contador.increment(quantidade);
+                }
+            });
+        } else {
+            contador.increment(quantidade);
+        }
+    }
+}
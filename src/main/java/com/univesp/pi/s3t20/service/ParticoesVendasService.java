@@ -0,0 +1,78 @@
+package com.univesp.pi.s3t20.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Mantém as partições mensais de vendas (V10__Partition_Vendas) criadas com antecedência: ao iniciar e diariamente
+// (vendas.particoes.cron) garante o mês corrente e os vendas.particoes.meses-futuros seguintes, para que vendas novas
+// não caiam em vendas_padrao. A função vendas_criar_particao não faz nada quando a partição já existe, então várias
+// instâncias podem rodar o agendamento ao mesmo tempo. Em bancos sem partições (H2) o serviço fica inativo.
+@Service
+public class ParticoesVendasService {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticoesVendasService.class);
+
+    @Value("${vendas.particoes.meses-futuros:3}")
+    private int mesesFuturos;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Boolean ativa;
+
+    public boolean ativa() {
+        if (ativa == null) {
+            ativa = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices()
+                    .getDialect() instanceof PostgreSQLDialect
+                    && jdbcTemplate.queryForObject("SELECT to_regproc('vendas_criar_particao') IS NOT NULL", Boolean.class);
+        }
+        return ativa;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        manter();
+    }
+
+    @Scheduled(cron = "${vendas.particoes.cron:0 0 3 * * *}")
+    public void manter() {
+        if (!ativa()) {
+            return;
+        }
+        try {
+            List<String> particoes = criarParticoes(LocalDate.now());
+            log.debug("Partições de vendas garantidas: {}", particoes);
+        } catch (DataAccessException e) {
+            // Sem a partição, as vendas do mês vão para vendas_padrao e a próxima execução tenta de novo
+            log.warn("Falha ao criar partições de vendas", e);
+        }
+    }
+
+    // Cria as partições do mês de 'referencia' e dos meses seguintes que faltarem; retorna os nomes das partições
+    public List<String> criarParticoes(LocalDate referencia) {
+        List<String> particoes = new ArrayList<>();
+        LocalDate mes = referencia.withDayOfMonth(1);
+        for (int i = 0; i <= mesesFuturos; i++) {
+            particoes.add(jdbcTemplate.queryForObject("SELECT vendas_criar_particao(?)", String.class, mes.plusMonths(i)));
+        }
+        return particoes;
+    }
+}
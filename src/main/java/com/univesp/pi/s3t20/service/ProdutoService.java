@@ -1,56 +1,89 @@
 package com.univesp.pi.s3t20.service;
 
+import com.univesp.pi.s3t20.dto.Pagina;
 import com.univesp.pi.s3t20.model.Produto;
 import com.univesp.pi.s3t20.repository.ProdutoRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 @Transactional
+@Timed("servico.chamadas")
 public class ProdutoService {
 
     @Autowired
     private ProdutoRepository produtoRepository;
 
+    @Autowired
+    private VendaResumoDiarioService vendaResumoDiarioService;
+
+    @Autowired
+    private VendaCubeService vendaCubeService;
+
+    @Autowired
+    private DimensaoCacheService dimensaoCacheService;
+
+    @Autowired
+    private GeradorCodigoService geradorCodigoService;
+
+    @Autowired
+    private CargaPostgresService cargaPostgresService;
+
+    @Autowired
+    private MetricasEntidadesService metricasEntidadesService;
+
+    @Transactional(readOnly = true)
     public List<Produto> listarTodos() {
         return produtoRepository.findAll();
     }
 
+    // Listagem paginada por cursor: busca uma linha a mais que o limite para saber se há próxima página
+    @Transactional(readOnly = true)
+    public Pagina<Produto> listarPagina(Long apos, int limite) {
+        return Pagina.de(produtoRepository.findByIdGreaterThanOrderByIdAsc(apos != null ? apos : 0L, Limit.of(limite + 1)),
+                limite, Produto::getId);
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Produto> buscarPorId(Long id) {
         return produtoRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Produto> buscarPorCodigo(String codigo) {
         return produtoRepository.findByIdProduto(codigo);
     }
 
+    @Transactional(readOnly = true)
     public List<Produto> buscarPorCategoria(String categoria) {
         return produtoRepository.findByCategoria(categoria);
     }
 
     public Produto criar(Produto produto) {
-        // Gerar código único se não fornecido
+        // Gerar código único se não fornecido; a verificação de duplicidade salta códigos já cadastrados manualmente
         if (produto.getIdProduto() == null || produto.getIdProduto().trim().isEmpty()) {
-            produto.setIdProduto(gerarCodigoProduto());
-        }
-        
-        // Verificar se já existe um produto com o mesmo idProduto
-        if (buscarPorCodigo(produto.getIdProduto()).isPresent()) {
+            do {
+                produto.setIdProduto(geradorCodigoService.proximo(GeradorCodigoService.Sequencia.PRODUTO));
+            } while (buscarPorCodigo(produto.getIdProduto()).isPresent());
+        } else if (buscarPorCodigo(produto.getIdProduto()).isPresent()) {
+            // Já existe um produto com o mesmo idProduto
             return null;
         }
         
         produto.setCreatedAt(java.time.LocalDateTime.now());
         produto.setUpdatedAt(java.time.LocalDateTime.now());
-        return produtoRepository.save(produto);
-    }
-    
-    private String gerarCodigoProduto() {
-        long count = produtoRepository.count();
-        return String.format("PROD%03d", count + 1);
+        Produto produtoSalvo = produtoRepository.save(produto);
+        metricasEntidadesService.criadas(MetricasEntidadesService.Entidade.PRODUTO, 1);
+        return produtoSalvo;
     }
 
     public Optional<Produto> atualizar(Long id, Produto produtoAtualizado) {
@@ -72,22 +105,71 @@ public class ProdutoService {
         produto.setCentoPreco(produtoAtualizado.getCentoPreco());
         produto.setUpdatedAt(java.time.LocalDateTime.now());
         
+        dimensaoCacheService.invalidarProduto(id);
+        vendaCubeService.rotularProduto(id, produto.getCategoria());
+        metricasEntidadesService.atualizadas(MetricasEntidadesService.Entidade.PRODUTO, 1);
         return Optional.of(produtoRepository.save(produto));
     }
 
+    // Importação de planilha: inclui os produtos novos e atualiza os já cadastrados com o mesmo código.
+    // Devolve quantos foram atualizados
+    public int importarLote(List<Produto> produtos) {
+        int atualizados = cargaPostgresService.ativa()
+                ? cargaPostgresService.gravarProdutos(produtos) : gravarLote(produtos);
+        metricasEntidadesService.criadas(MetricasEntidadesService.Entidade.PRODUTO, produtos.size() - atualizados);
+        metricasEntidadesService.atualizadas(MetricasEntidadesService.Entidade.PRODUTO, atualizados);
+        return atualizados;
+    }
+
+    private int gravarLote(List<Produto> produtos) {
+        Map<String, Produto> cadastrados = new HashMap<>();
+        produtoRepository.findByIdProdutoIn(produtos.stream().map(Produto::getIdProduto).toList())
+                .forEach(produto -> cadastrados.put(produto.getIdProduto(), produto));
+
+        int atualizados = 0;
+        LocalDateTime agora = LocalDateTime.now();
+        for (Produto produto : produtos) {
+            Produto cadastrado = cadastrados.get(produto.getIdProduto());
+            if (cadastrado == null) {
+                produto.setCreatedAt(agora);
+                produto.setUpdatedAt(agora);
+                cadastrados.put(produto.getIdProduto(), produtoRepository.save(produto));
+            } else {
+                cadastrado.setProduto(produto.getProduto());
+                cadastrado.setCategoria(produto.getCategoria());
+                cadastrado.setPedidoMinimo(produto.getPedidoMinimo());
+                cadastrado.setCustoUnitario(produto.getCustoUnitario());
+                cadastrado.setPrecoSugerido(produto.getPrecoSugerido());
+                cadastrado.setCentoPreco(produto.getCentoPreco());
+                cadastrado.setUpdatedAt(agora);
+                dimensaoCacheService.invalidarProduto(cadastrado.getId());
+                vendaCubeService.rotularProduto(cadastrado.getId(), cadastrado.getCategoria());
+                atualizados++;
+            }
+        }
+        return atualizados;
+    }
+
     public boolean deletar(Long id) {
         if (!produtoRepository.existsById(id)) {
             return false;
         }
         
+        // As vendas são removidas em cascata; o rollup e o cubo não têm FK e precisam ser limpos explicitamente
+        vendaResumoDiarioService.removerPorProduto(id);
+        vendaCubeService.removerPorProduto(id);
+        dimensaoCacheService.invalidarProduto(id);
         produtoRepository.deleteById(id);
+        metricasEntidadesService.removidas(MetricasEntidadesService.Entidade.PRODUTO, 1);
         return true;
     }
 
+    @Transactional(readOnly = true)
     public Long contar() {
         return produtoRepository.count();
     }
 
+    @Transactional(readOnly = true)
     public List<String> listarCategorias() {
         return produtoRepository.findDistinctCategorias();
     }
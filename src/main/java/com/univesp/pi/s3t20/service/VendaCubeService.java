@@ -0,0 +1,605 @@
+package com.univesp.pi.s3t20.service;
+
+import com.univesp.pi.s3t20.dto.VendaAnaliseDTO;
+import com.univesp.pi.s3t20.model.Venda;
+import com.univesp.pi.s3t20.repository.VendaAnaliseRepository;
+import com.univesp.pi.s3t20.repository.VendaRepository;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// Motor de leitura opcional (cube.enabled=true): mantém a tabela de fatos vendas em memória como colunas
+// de tipos primitivos (struct-of-arrays). Dimensões viram índices de dicionário (int) e a receita é guardada
+// em centavos (long), de modo que resumos e análises percorrem arrays sem hidratar entidades nem criar BigDecimal.
+// Os dicionários guardam também os rótulos das dimensões (categoria, cidade, forma de pagamento), lidos na carga e
+// mantidos pelos ganchos dos serviços de dimensão, para as análises não consultarem o banco.
+// É carregado na inicialização e atualizado pelos ganchos do VendaService após o commit de cada transação.
+// Uma recarga monta colunas novas fora do lock (as consultas seguem nas atuais) e só a troca é exclusiva.
+@Service
+public class VendaCubeService {
+
+    private static final Logger log = LoggerFactory.getLogger(VendaCubeService.class);
+
+    private static final int CAPACIDADE_INICIAL = 1024;
+
+    // Acima deste número de combinações o agrupamento usa HashMap em vez de arrays densos
+    private static final long LIMITE_AGRUPAMENTO_DENSO = 1L << 16;
+
+    // Linhas inativas (vendas excluídas) acima desta fração do cubo disparam a compactação das colunas
+    private static final int FRACAO_INATIVAS_COMPACTACAO = 4;
+
+    @Value("${cube.enabled:false}")
+    private boolean habilitado;
+
+    @Autowired
+    private VendaRepository vendaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean carregado;
+
+    // Colunas em uso, lidas e alteradas sob o lock; uma recarga troca o objeto inteiro
+    private Colunas colunas = new Colunas();
+
+    // Alterações dos ganchos recebidas durante uma recarga, reaplicadas nas colunas novas antes da troca
+    private List<Consumer<Colunas>> pendentes;
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public boolean disponivel() {
+        return habilitado && carregado;
+    }
+
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return colunas.tamanho;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        if (habilitado) {
+            carregar();
+        }
+    }
+
+    // (Re)carrega o cubo a partir do banco em uma leitura escalar, sem entidades no contexto de persistência.
+    // A leitura preenche colunas novas sem o lock; os ganchos que chegam nesse meio tempo alteram as colunas em uso
+    // e ficam guardados para serem reaplicados nas novas (gravar é idempotente por id) antes da troca.
+    public synchronized void carregar() {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.setReadOnly(true);
+        long inicio = System.nanoTime();
+
+        Colunas novas = new Colunas();
+        escrever(() -> pendentes = new ArrayList<>());
+        boolean lida = false;
+        try {
+            transacao.executeWithoutResult(status -> {
+                try (Stream<Object[]> lancamentos = vendaRepository.streamLancamentos()) {
+                    lancamentos.forEach(l -> novas.gravar((Long) l[0], (LocalDate) l[1], (Long) l[2], (Long) l[3],
+                            (Long) l[4], (Integer) l[5], (Long) l[6], (String) l[7], (String) l[8], (String) l[9]));
+                }
+            });
+            lida = true;
+        } finally {
+            boolean trocar = lida;
+            escrever(() -> {
+                if (trocar) {
+                    pendentes.forEach(alteracao -> alteracao.accept(novas));
+                    colunas = novas;
+                    carregado = true;
+                }
+                pendentes = null;
+            });
+        }
+        log.info("Cubo de vendas carregado com {} linhas em {} ms", novas.tamanho, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    // Ganchos chamados pelos serviços; aplicados somente após o commit para não expor dados revertidos
+
+    public void registrar(Venda venda) {
+        if (!habilitado) {
+            return;
+        }
+        long vendaId = venda.getId();
+        LocalDate data = venda.getData();
+        long produtoId = venda.getProduto().getId();
+        long clienteId = venda.getCliente().getId();
+        long formaPagamentoId = venda.getFormaPagamento().getId();
+        int quantidade = venda.getQuantidade() != null ? venda.getQuantidade() : 0;
+        long receitaCentavos = Centavos.de(venda.getReceitaTotal());
+        // Rótulos só de associações já carregadas (sem consulta extra); null mantém o rótulo do dicionário
+        String categoria = Hibernate.isInitialized(venda.getProduto()) ? venda.getProduto().getCategoria() : null;
+        String cidade = Hibernate.isInitialized(venda.getCliente()) ? venda.getCliente().getCidade() : null;
+        String formaPagamento = Hibernate.isInitialized(venda.getFormaPagamento())
+                ? venda.getFormaPagamento().getFormaPagamento() : null;
+        aposCommit(() -> alterar(c -> c.gravar(vendaId, data, produtoId, clienteId, formaPagamentoId,
+                quantidade, receitaCentavos, categoria, cidade, formaPagamento)));
+    }
+
+    public void remover(Long vendaId) {
+        if (!habilitado) {
+            return;
+        }
+        aposCommit(() -> alterar(c -> {
+            int linha = c.linhaPorVenda.get(vendaId);
+            if (linha != MapaLongInt.AUSENTE) {
+                c.desativar(linha);
+                c.compactarSeNecessario();
+            }
+        }));
+    }
+
+    public void removerPorProduto(Long produtoId) {
+        removerPorDimensao(c -> c.dicionarioProdutos, c -> c.produtos, produtoId);
+    }
+
+    public void removerPorCliente(Long clienteId) {
+        removerPorDimensao(c -> c.dicionarioClientes, c -> c.clientes, clienteId);
+    }
+
+    public void removerPorFormaPagamento(Long formaPagamentoId) {
+        removerPorDimensao(c -> c.dicionarioFormasPagamento, c -> c.formasPagamento, formaPagamentoId);
+    }
+
+    // Rótulo alterado no cadastro da dimensão (atualização ou importação)
+
+    public void rotularProduto(Long produtoId, String categoria) {
+        rotular(c -> c.dicionarioProdutos, produtoId, categoria);
+    }
+
+    public void rotularCliente(Long clienteId, String cidade) {
+        rotular(c -> c.dicionarioClientes, clienteId, cidade);
+    }
+
+    public void rotularFormaPagamento(Long formaPagamentoId, String formaPagamento) {
+        rotular(c -> c.dicionarioFormasPagamento, formaPagamentoId, formaPagamento);
+    }
+
+    // Consultas
+
+    public VendaService.VendaResumo resumo(LocalDate dataInicio, LocalDate dataFim) {
+        int diaInicio = dataInicio != null ? (int) dataInicio.toEpochDay() : Integer.MIN_VALUE;
+        int diaFim = dataFim != null ? (int) dataFim.toEpochDay() : Integer.MAX_VALUE;
+
+        lock.readLock().lock();
+        try {
+            Colunas c = colunas;
+            long totalVendas = 0;
+            long quantidadeTotal = 0;
+            long receitaTotal = 0;
+            int quantidadeMinima = Integer.MAX_VALUE;
+            int quantidadeMaxima = Integer.MIN_VALUE;
+            long receitaMinima = Long.MAX_VALUE;
+            long receitaMaxima = Long.MIN_VALUE;
+            for (int i = 0; i < c.tamanho; i++) {
+                int dia = c.dias[i];
+                if (!c.ativas[i] || dia < diaInicio || dia > diaFim) {
+                    continue;
+                }
+                int quantidade = c.quantidades[i];
+                long receita = c.receitasCentavos[i];
+                totalVendas++;
+                quantidadeTotal += quantidade;
+                receitaTotal = Centavos.somar(receitaTotal, receita);
+                quantidadeMinima = Math.min(quantidadeMinima, quantidade);
+                quantidadeMaxima = Math.max(quantidadeMaxima, quantidade);
+                receitaMinima = Math.min(receitaMinima, receita);
+                receitaMaxima = Math.max(receitaMaxima, receita);
+            }
+
+            // Sem vendas no período os extremos (ainda nos valores sentinela) são descartados por emCentavos
+            return VendaService.VendaResumo.emCentavos(totalVendas, receitaTotal, receitaMinima, receitaMaxima,
+                    quantidadeTotal, quantidadeMinima, quantidadeMaxima);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<VendaAnaliseDTO> agrupar(List<VendaAnaliseRepository.Dimensao> dimensoes,
+                                         LocalDate dataInicio, LocalDate dataFim) {
+        int diaInicio = dataInicio != null ? (int) dataInicio.toEpochDay() : Integer.MIN_VALUE;
+        int diaFim = dataFim != null ? (int) dataFim.toEpochDay() : Integer.MAX_VALUE;
+
+        lock.readLock().lock();
+        try {
+            Colunas c = colunas;
+            int diaMinimo = Integer.MAX_VALUE;
+            int diaMaximo = Integer.MIN_VALUE;
+            for (int i = 0; i < c.tamanho; i++) {
+                if (c.ativas[i] && c.dias[i] >= diaInicio && c.dias[i] <= diaFim) {
+                    diaMinimo = Math.min(diaMinimo, c.dias[i]);
+                    diaMaximo = Math.max(diaMaximo, c.dias[i]);
+                }
+            }
+            if (diaMinimo > diaMaximo) {
+                return List.of();
+            }
+
+            // Cada dimensão vira um código inteiro por linha; a chave composta é um número em base mista
+            int quantidadeDimensoes = dimensoes.size();
+            int[][] codigoPorValor = new int[quantidadeDimensoes][];
+            int[] colunaDaDimensao = new int[quantidadeDimensoes];
+            long[] bases = new long[quantidadeDimensoes];
+            String[][] rotuloPorCodigo = new String[quantidadeDimensoes][];
+            int diasNoIntervalo = diaMaximo - diaMinimo + 1;
+            for (int d = 0; d < quantidadeDimensoes; d++) {
+                switch (dimensoes.get(d)) {
+                    case CATEGORIA -> configurarRotulos(d, c.dicionarioProdutos, codigoPorValor, rotuloPorCodigo, bases);
+                    case CIDADE -> configurarRotulos(d, c.dicionarioClientes, codigoPorValor, rotuloPorCodigo, bases);
+                    case FORMA_PAGAMENTO -> configurarRotulos(d, c.dicionarioFormasPagamento, codigoPorValor, rotuloPorCodigo, bases);
+                    case DIA, SEMANA, MES -> configurarTempo(d, dimensoes.get(d), diaMinimo, diasNoIntervalo,
+                            codigoPorValor, rotuloPorCodigo, bases);
+                }
+                colunaDaDimensao[d] = switch (dimensoes.get(d)) {
+                    case CATEGORIA -> 0;
+                    case CIDADE -> 1;
+                    case FORMA_PAGAMENTO -> 2;
+                    default -> 3;
+                };
+            }
+
+            long combinacoes = 1;
+            for (long base : bases) {
+                combinacoes = Math.multiplyExact(combinacoes, base);
+            }
+
+            Acumulador acumulador = combinacoes <= LIMITE_AGRUPAMENTO_DENSO
+                    ? new AcumuladorDenso((int) combinacoes) : new AcumuladorEsparso();
+            int[][] colunasDimensoes = {c.produtos, c.clientes, c.formasPagamento, c.dias};
+            for (int i = 0; i < c.tamanho; i++) {
+                int dia = c.dias[i];
+                if (!c.ativas[i] || dia < diaInicio || dia > diaFim) {
+                    continue;
+                }
+                long chave = 0;
+                for (int d = 0; d < quantidadeDimensoes; d++) {
+                    int valor = colunaDaDimensao[d] == 3 ? dia - diaMinimo : colunasDimensoes[colunaDaDimensao[d]][i];
+                    chave = chave * bases[d] + codigoPorValor[d][valor];
+                }
+                acumulador.somar(chave, c.quantidades[i], c.receitasCentavos[i]);
+            }
+
+            List<VendaAnaliseDTO> linhas = new ArrayList<>();
+            acumulador.paraCada((chave, totalVendas, quantidadeTotal, receitaCentavos) -> {
+                Map<String, String> chaves = new LinkedHashMap<>();
+                long restante = chave;
+                String[] valores = new String[quantidadeDimensoes];
+                for (int d = quantidadeDimensoes - 1; d >= 0; d--) {
+                    valores[d] = rotuloPorCodigo[d][(int) (restante % bases[d])];
+                    restante /= bases[d];
+                }
+                for (int d = 0; d < quantidadeDimensoes; d++) {
+                    chaves.put(dimensoes.get(d).getParametro(), valores[d]);
+                }
+                linhas.add(new VendaAnaliseDTO(chaves, totalVendas, quantidadeTotal, Centavos.paraBigDecimal(receitaCentavos)));
+            });
+            linhas.sort(VendaAnaliseRepository.ordemDasChaves());
+            return linhas;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void configurarRotulos(int d, Dicionario dicionario, int[][] codigoPorValor,
+                                   String[][] rotuloPorCodigo, long[] bases) {
+        // Índice do dicionário -> código do rótulo (produtos da mesma categoria compartilham o código)
+        Map<String, Integer> codigoPorRotulo = new HashMap<>();
+        List<String> rotulosPorCodigo = new ArrayList<>();
+        int[] codigos = new int[Math.max(dicionario.tamanho, 1)];
+        for (int indice = 0; indice < dicionario.tamanho; indice++) {
+            String rotulo = dicionario.rotulos[indice];
+            Integer codigo = codigoPorRotulo.get(rotulo);
+            if (codigo == null) {
+                codigo = rotulosPorCodigo.size();
+                codigoPorRotulo.put(rotulo, codigo);
+                rotulosPorCodigo.add(rotulo);
+            }
+            codigos[indice] = codigo;
+        }
+        codigoPorValor[d] = codigos;
+        rotuloPorCodigo[d] = rotulosPorCodigo.toArray(new String[0]);
+        bases[d] = Math.max(rotulosPorCodigo.size(), 1);
+    }
+
+    private void configurarTempo(int d, VendaAnaliseRepository.Dimensao dimensao, int diaMinimo, int diasNoIntervalo,
+                                 int[][] codigoPorValor, String[][] rotuloPorCodigo, long[] bases) {
+        // Mapeia cada dia do intervalo para o seu balde (dia, semana ISO ou mês) uma única vez
+        int[] codigos = new int[diasNoIntervalo];
+        List<String> rotulos = new ArrayList<>();
+        String rotuloAnterior = null;
+        for (int deslocamento = 0; deslocamento < diasNoIntervalo; deslocamento++) {
+            LocalDate data = LocalDate.ofEpochDay((long) diaMinimo + deslocamento);
+            String rotulo = switch (dimensao) {
+                case SEMANA -> String.format("%d-W%02d", data.get(IsoFields.WEEK_BASED_YEAR),
+                        data.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+                case MES -> String.format("%d-%02d", data.getYear(), data.getMonthValue());
+                default -> data.toString();
+            };
+            if (!rotulo.equals(rotuloAnterior)) {
+                rotulos.add(rotulo);
+                rotuloAnterior = rotulo;
+            }
+            codigos[deslocamento] = rotulos.size() - 1;
+        }
+        codigoPorValor[d] = codigos;
+        rotuloPorCodigo[d] = rotulos.toArray(new String[0]);
+        bases[d] = rotulos.size();
+    }
+
+    // A coluna é obtida já dentro do lock, pois os arrays são realocados quando o cubo cresce ou é compactado
+    private void removerPorDimensao(Function<Colunas, Dicionario> dicionario, Function<Colunas, int[]> coluna,
+                                    Long dimensaoId) {
+        if (!habilitado) {
+            return;
+        }
+        aposCommit(() -> alterar(c -> {
+            int indice = dicionario.apply(c).indices.get(dimensaoId);
+            if (indice == MapaLongInt.AUSENTE) {
+                return;
+            }
+            int[] colunaAtual = coluna.apply(c);
+            for (int i = 0; i < c.tamanho; i++) {
+                if (c.ativas[i] && colunaAtual[i] == indice) {
+                    c.desativar(i);
+                }
+            }
+            c.compactarSeNecessario();
+        }));
+    }
+
+    private void rotular(Function<Colunas, Dicionario> dicionario, Long dimensaoId, String rotulo) {
+        if (!habilitado) {
+            return;
+        }
+        aposCommit(() -> alterar(c -> dicionario.apply(c).rotular(dimensaoId, rotulo)));
+    }
+
+    // Alteração vinda dos ganchos: aplicada nas colunas em uso e, durante uma recarga, guardada para as novas
+    private void alterar(Consumer<Colunas> alteracao) {
+        escrever(() -> {
+            alteracao.accept(colunas);
+            if (pendentes != null) {
+                pendentes.add(alteracao);
+            }
+        });
+    }
+
+    private void escrever(Runnable alteracao) {
+        lock.writeLock().lock();
+        try {
+            alteracao.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void aposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+
+    // Colunas (uma posição por venda) e dicionários das dimensões; linhas excluídas ficam marcadas como inativas
+    // até a próxima compactação
+    private static final class Colunas {
+        private int tamanho;
+        private int inativas;
+        private long[] vendaIds = new long[CAPACIDADE_INICIAL];
+        private int[] dias = new int[CAPACIDADE_INICIAL];
+        private int[] produtos = new int[CAPACIDADE_INICIAL];
+        private int[] clientes = new int[CAPACIDADE_INICIAL];
+        private int[] formasPagamento = new int[CAPACIDADE_INICIAL];
+        private int[] quantidades = new int[CAPACIDADE_INICIAL];
+        private long[] receitasCentavos = new long[CAPACIDADE_INICIAL];
+        private boolean[] ativas = new boolean[CAPACIDADE_INICIAL];
+
+        private final MapaLongInt linhaPorVenda = new MapaLongInt(CAPACIDADE_INICIAL);
+        private final Dicionario dicionarioProdutos = new Dicionario();
+        private final Dicionario dicionarioClientes = new Dicionario();
+        private final Dicionario dicionarioFormasPagamento = new Dicionario();
+
+        // Inclui ou atualiza a venda (idempotente por id, o que torna seguros ganchos reaplicados após uma recarga)
+        void gravar(long vendaId, LocalDate data, long produtoId, long clienteId, long formaPagamentoId,
+                    int quantidade, long receitaCentavos, String categoria, String cidade, String formaPagamento) {
+            int linha = linhaPorVenda.get(vendaId);
+            if (linha == MapaLongInt.AUSENTE) {
+                garantirCapacidade(tamanho + 1);
+                linha = tamanho++;
+                linhaPorVenda.put(vendaId, linha);
+            }
+            vendaIds[linha] = vendaId;
+            dias[linha] = (int) data.toEpochDay();
+            produtos[linha] = dicionarioProdutos.indice(produtoId, categoria);
+            clientes[linha] = dicionarioClientes.indice(clienteId, cidade);
+            formasPagamento[linha] = dicionarioFormasPagamento.indice(formaPagamentoId, formaPagamento);
+            quantidades[linha] = quantidade;
+            receitasCentavos[linha] = receitaCentavos;
+            ativas[linha] = true;
+        }
+
+        void desativar(int linha) {
+            ativas[linha] = false;
+            linhaPorVenda.remove(vendaIds[linha]);
+            inativas++;
+        }
+
+        // Move as linhas ativas para o início (mesma ordem) e libera a capacidade excedente, para as varreduras
+        // não percorrerem vendas excluídas indefinidamente
+        void compactarSeNecessario() {
+            if (inativas == 0 || (long) inativas * FRACAO_INATIVAS_COMPACTACAO < tamanho) {
+                return;
+            }
+            int destino = 0;
+            for (int i = 0; i < tamanho; i++) {
+                if (!ativas[i]) {
+                    continue;
+                }
+                if (destino != i) {
+                    vendaIds[destino] = vendaIds[i];
+                    dias[destino] = dias[i];
+                    produtos[destino] = produtos[i];
+                    clientes[destino] = clientes[i];
+                    formasPagamento[destino] = formasPagamento[i];
+                    quantidades[destino] = quantidades[i];
+                    receitasCentavos[destino] = receitasCentavos[i];
+                    ativas[destino] = true;
+                    linhaPorVenda.put(vendaIds[destino], destino);
+                }
+                destino++;
+            }
+            Arrays.fill(ativas, destino, tamanho, false);
+            tamanho = destino;
+            inativas = 0;
+            if (vendaIds.length > CAPACIDADE_INICIAL && tamanho < vendaIds.length / 4) {
+                realocar(Math.max(CAPACIDADE_INICIAL, tamanho * 2));
+            }
+        }
+
+        private void garantirCapacidade(int capacidade) {
+            if (capacidade > vendaIds.length) {
+                realocar(Math.max(capacidade, vendaIds.length * 2));
+            }
+        }
+
+        private void realocar(int capacidade) {
+            vendaIds = Arrays.copyOf(vendaIds, capacidade);
+            dias = Arrays.copyOf(dias, capacidade);
+            produtos = Arrays.copyOf(produtos, capacidade);
+            clientes = Arrays.copyOf(clientes, capacidade);
+            formasPagamento = Arrays.copyOf(formasPagamento, capacidade);
+            quantidades = Arrays.copyOf(quantidades, capacidade);
+            receitasCentavos = Arrays.copyOf(receitasCentavos, capacidade);
+            ativas = Arrays.copyOf(ativas, capacidade);
+        }
+    }
+
+    // Dicionário id da dimensão -> índice denso usado nas colunas, com o rótulo agrupado de cada id
+    private static final class Dicionario {
+        private final MapaLongInt indices = new MapaLongInt();
+        private long[] ids = new long[64];
+        private String[] rotulos = new String[64];
+        private int tamanho;
+
+        // Rótulo null (associação não carregada) mantém o já conhecido
+        int indice(long id, String rotulo) {
+            int indice = indices.get(id);
+            if (indice == MapaLongInt.AUSENTE) {
+                if (tamanho == ids.length) {
+                    ids = Arrays.copyOf(ids, tamanho * 2);
+                    rotulos = Arrays.copyOf(rotulos, tamanho * 2);
+                }
+                ids[tamanho] = id;
+                indice = tamanho++;
+                indices.put(id, indice);
+            }
+            if (rotulo != null) {
+                rotulos[indice] = rotulo;
+            }
+            return indice;
+        }
+
+        // Ids sem vendas no cubo não entram: o rótulo chega com a primeira venda
+        void rotular(long id, String rotulo) {
+            int indice = indices.get(id);
+            if (indice != MapaLongInt.AUSENTE) {
+                rotulos[indice] = rotulo;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConsumidorGrupo {
+        void aceitar(long chave, long totalVendas, long quantidadeTotal, long receitaCentavos);
+    }
+
+    private interface Acumulador {
+        void somar(long chave, int quantidade, long receitaCentavos);
+
+        void paraCada(ConsumidorGrupo consumidor);
+    }
+
+    private static final class AcumuladorDenso implements Acumulador {
+        private final long[] totalVendas;
+        private final long[] quantidadeTotal;
+        private final long[] receitaCentavos;
+
+        AcumuladorDenso(int combinacoes) {
+            totalVendas = new long[combinacoes];
+            quantidadeTotal = new long[combinacoes];
+            receitaCentavos = new long[combinacoes];
+        }
+
+        @Override
+        public void somar(long chave, int quantidade, long receita) {
+            int posicao = (int) chave;
+            totalVendas[posicao]++;
+            quantidadeTotal[posicao] += quantidade;
+            receitaCentavos[posicao] = Centavos.somar(receitaCentavos[posicao], receita);
+        }
+
+        @Override
+        public void paraCada(ConsumidorGrupo consumidor) {
+            for (int posicao = 0; posicao < totalVendas.length; posicao++) {
+                if (totalVendas[posicao] > 0) {
+                    consumidor.aceitar(posicao, totalVendas[posicao], quantidadeTotal[posicao], receitaCentavos[posicao]);
+                }
+            }
+        }
+    }
+
+    private static final class AcumuladorEsparso implements Acumulador {
+        private final Map<Long, long[]> grupos = new HashMap<>();
+
+        @Override
+        public void somar(long chave, int quantidade, long receita) {
+            long[] grupo = grupos.computeIfAbsent(chave, c -> new long[3]);
+            grupo[0]++;
+            grupo[1] += quantidade;
+            grupo[2] = Centavos.somar(grupo[2], receita);
+        }
+
+        @Override
+        public void paraCada(ConsumidorGrupo consumidor) {
+            grupos.forEach((chave, grupo) -> consumidor.aceitar(chave, grupo[0], grupo[1], grupo[2]));
+        }
+    }
+}
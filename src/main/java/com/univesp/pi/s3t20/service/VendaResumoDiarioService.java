@@ -0,0 +1,288 @@
+package com.univesp.pi.s3t20.service;
+
+import com.univesp.pi.s3t20.dto.VendaAnaliseDTO;
+import com.univesp.pi.s3t20.model.Venda;
+import com.univesp.pi.s3t20.repository.VendaAnaliseRepository;
+import com.univesp.pi.s3t20.repository.VendaRepository;
+import com.univesp.pi.s3t20.repository.VendaResumoDiarioRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Savepoint;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Mantém a tabela vendas_resumo_diario em sincronia com vendas.
+// Os métodos participam da transação de quem os chama (VendaService e serviços de dimensão).
+@Service
+@Transactional
+public class VendaResumoDiarioService {
+
+    // Mesma operação de VendaResumoDiarioRepository.acumular, em SQL para os lotes JDBC, e a inclusão de uma chave nova
+    private static final String ACUMULAR = "UPDATE vendas_resumo_diario SET total_vendas = total_vendas + ?, " +
+            "quantidade_total = quantidade_total + ?, receita_total = receita_total + ?, " +
+            "quantidade_minima = LEAST(quantidade_minima, ?), quantidade_maxima = GREATEST(quantidade_maxima, ?), " +
+            "receita_minima = LEAST(receita_minima, ?), receita_maxima = GREATEST(receita_maxima, ?) " +
+            "WHERE data = ? AND produto_id = ? AND cliente_id = ? AND forma_pagamento_id = ?";
+    private static final String INSERIR = "INSERT INTO vendas_resumo_diario (data, produto_id, cliente_id, " +
+            "forma_pagamento_id, total_vendas, quantidade_total, receita_total, quantidade_minima, quantidade_maxima, " +
+            "receita_minima, receita_maxima) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // PostgreSQL: inclusão atômica; duas transações com a mesma chave nova não colidem no INSERT
+    private static final String INSERIR_OU_ACUMULAR = INSERIR + " ON CONFLICT (data, produto_id, cliente_id, " +
+            "forma_pagamento_id) DO UPDATE SET total_vendas = vendas_resumo_diario.total_vendas + EXCLUDED.total_vendas, " +
+            "quantidade_total = vendas_resumo_diario.quantidade_total + EXCLUDED.quantidade_total, " +
+            "receita_total = vendas_resumo_diario.receita_total + EXCLUDED.receita_total, " +
+            "quantidade_minima = LEAST(vendas_resumo_diario.quantidade_minima, EXCLUDED.quantidade_minima), " +
+            "quantidade_maxima = GREATEST(vendas_resumo_diario.quantidade_maxima, EXCLUDED.quantidade_maxima), " +
+            "receita_minima = LEAST(vendas_resumo_diario.receita_minima, EXCLUDED.receita_minima), " +
+            "receita_maxima = GREATEST(vendas_resumo_diario.receita_maxima, EXCLUDED.receita_maxima)";
+
+    @Autowired
+    private VendaResumoDiarioRepository vendaResumoDiarioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private boolean postgres;
+
+    @PostConstruct
+    void iniciar() {
+        postgres = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+    }
+
+    @Transactional(readOnly = true)
+    public VendaRepository.ResumoAgregado agregarResumo() {
+        return vendaResumoDiarioRepository.agregarResumo();
+    }
+
+    @Transactional(readOnly = true)
+    public VendaRepository.ResumoAgregado agregarResumoPorPeriodo(LocalDate dataInicio, LocalDate dataFim) {
+        return vendaResumoDiarioRepository.agregarResumoPorPeriodo(dataInicio, dataFim);
+    }
+
+    @Transactional(readOnly = true)
+    public List<VendaAnaliseDTO> agrupar(List<VendaAnaliseRepository.Dimensao> dimensoes,
+                                         LocalDate dataInicio, LocalDate dataFim) {
+        return vendaResumoDiarioRepository.agrupar(dimensoes, dataInicio, dataFim);
+    }
+
+    public void registrarInclusao(Venda venda) {
+        incluir(Lancamento.de(venda));
+    }
+
+    // Lotes: vendas da mesma chave são somadas em memória e as chaves vão ao banco em lotes JDBC (no PostgreSQL um
+    // único lote de INSERT ... ON CONFLICT; nos demais, UPDATE de todas e inclusão das que ainda não tinham linha).
+    // Pelo repositório, cada UPDATE dispararia um flush do contexto de persistência inteiro, com o custo crescendo
+    // com o tamanho do lote.
+    public void registrarInclusoes(List<Venda> vendas) {
+        Map<Lancamento.Chave, Acumulado> porChave = new LinkedHashMap<>();
+        for (Venda venda : vendas) {
+            Lancamento lancamento = Lancamento.de(venda);
+            porChave.computeIfAbsent(lancamento.chave(), chave -> new Acumulado(lancamento)).somar(lancamento);
+        }
+        if (porChave.size() == 1) {
+            porChave.values().forEach(this::incluir);
+            return;
+        }
+
+        // Vendas pendentes precisam estar no banco antes do SQL direto (mesma conexão e transação)
+        entityManager.flush();
+        List<Acumulado> acumulados = new ArrayList<>(porChave.values());
+        if (postgres) {
+            jdbcTemplate.batchUpdate(INSERIR_OU_ACUMULAR, acumulados.stream().map(Acumulado::linha).toList());
+            return;
+        }
+        int[] atualizados = jdbcTemplate.batchUpdate(ACUMULAR, acumulados.stream()
+                .map(acumulado -> new Object[]{acumulado.totalVendas, acumulado.quantidadeTotal, acumulado.receitaTotal,
+                        acumulado.quantidadeMinima, acumulado.quantidadeMaxima, acumulado.receitaMinima,
+                        acumulado.receitaMaxima, acumulado.chave.data(), acumulado.chave.produtoId(),
+                        acumulado.chave.clienteId(), acumulado.chave.formaPagamentoId()})
+                .toList());
+        List<Acumulado> novos = new ArrayList<>();
+        for (int i = 0; i < atualizados.length; i++) {
+            if (atualizados[i] == 0) {
+                novos.add(acumulados.get(i));
+            }
+        }
+        if (!novos.isEmpty()) {
+            inserir(novos);
+        }
+    }
+
+    public void registrarExclusao(Venda venda) {
+        retirar(Lancamento.de(venda));
+    }
+
+    // Quando a chave não muda grava apenas a diferença entre os valores antigos e os novos;
+    // se a venda mudou de dia (ou de dimensão) retira da chave antiga e inclui na nova
+    public void registrarAlteracao(Lancamento anterior, Venda vendaAtualizada) {
+        Lancamento atual = Lancamento.de(vendaAtualizada);
+        if (!anterior.mesmaChave(atual)) {
+            retirar(anterior);
+            incluir(atual);
+            return;
+        }
+
+        long deltaQuantidade = (long) atual.quantidade() - anterior.quantidade();
+        BigDecimal deltaReceita = atual.receita().subtract(anterior.receita());
+        if (deltaQuantidade == 0 && deltaReceita.signum() == 0) {
+            return;
+        }
+        vendaResumoDiarioRepository.aplicarDelta(atual.data(), atual.produtoId(), atual.clienteId(),
+                atual.formaPagamentoId(), 0L, deltaQuantidade, deltaReceita);
+        vendaResumoDiarioRepository.recalcularExtremos(atual.data(), atual.produtoId(), atual.clienteId(),
+                atual.formaPagamentoId());
+    }
+
+    public void removerPorProduto(Long produtoId) {
+        vendaResumoDiarioRepository.removerPorProduto(produtoId);
+    }
+
+    public void removerPorCliente(Long clienteId) {
+        vendaResumoDiarioRepository.removerPorCliente(clienteId);
+    }
+
+    public void removerPorFormaPagamento(Long formaPagamentoId) {
+        vendaResumoDiarioRepository.removerPorFormaPagamento(formaPagamentoId);
+    }
+
+    private void incluir(Lancamento lancamento) {
+        Acumulado acumulado = new Acumulado(lancamento);
+        acumulado.somar(lancamento);
+        incluir(acumulado);
+    }
+
+    private void incluir(Acumulado acumulado) {
+        if (postgres) {
+            entityManager.flush();
+            jdbcTemplate.update(INSERIR_OU_ACUMULAR, acumulado.linha());
+            return;
+        }
+        if (acumular(acumulado) == 0) {
+            inserir(acumulado);
+        }
+    }
+
+    // Sem ON CONFLICT (H2): se outra transação incluiu a mesma chave entre o UPDATE e o INSERT, o INSERT espera o
+    // commit dela e falha pela uk_vendas_resumo_diario_chave; a falha não desfaz a transação e o UPDATE já encontra a
+    // linha. JDBC direto para não deixar no contexto de persistência uma entidade que não foi gravada.
+    private void inserir(Acumulado acumulado) {
+        try {
+            jdbcTemplate.update(INSERIR, acumulado.linha());
+        } catch (DuplicateKeyException e) {
+            acumular(acumulado);
+        }
+    }
+
+    // Um lote de INSERT sob um savepoint da conexão da transação; se alguma chave colidir, volta ao savepoint
+    // (o lote pode ter gravado as outras) e inclui uma a uma
+    private void inserir(List<Acumulado> novos) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) conexao -> {
+            Savepoint savepoint = conexao.setSavepoint();
+            try {
+                jdbcTemplate.batchUpdate(INSERIR, novos.stream().map(Acumulado::linha).toList());
+                conexao.releaseSavepoint(savepoint);
+            } catch (DuplicateKeyException e) {
+                conexao.rollback(savepoint);
+                novos.forEach(this::inserir);
+            }
+            return null;
+        });
+    }
+
+    private int acumular(Acumulado acumulado) {
+        Lancamento chave = acumulado.chave;
+        return vendaResumoDiarioRepository.acumular(chave.data(), chave.produtoId(), chave.clienteId(),
+                chave.formaPagamentoId(), acumulado.totalVendas, acumulado.quantidadeTotal, acumulado.receitaTotal,
+                acumulado.quantidadeMinima, acumulado.quantidadeMaxima, acumulado.receitaMinima, acumulado.receitaMaxima);
+    }
+
+    private void retirar(Lancamento lancamento) {
+        vendaResumoDiarioRepository.aplicarDelta(lancamento.data(), lancamento.produtoId(), lancamento.clienteId(),
+                lancamento.formaPagamentoId(), -1L, -lancamento.quantidade(), lancamento.receita().negate());
+        if (vendaResumoDiarioRepository.removerSemVendas(lancamento.data(), lancamento.produtoId(),
+                lancamento.clienteId(), lancamento.formaPagamentoId()) == 0) {
+            vendaResumoDiarioRepository.recalcularExtremos(lancamento.data(), lancamento.produtoId(),
+                    lancamento.clienteId(), lancamento.formaPagamentoId());
+        }
+    }
+
+    // Fotografia dos valores de uma venda que compõem o rollup
+    public record Lancamento(LocalDate data, Long produtoId, Long clienteId, Long formaPagamentoId,
+                             int quantidade, BigDecimal receita) {
+
+        public static Lancamento de(Venda venda) {
+            return new Lancamento(
+                venda.getData(),
+                venda.getProduto().getId(),
+                venda.getCliente().getId(),
+                venda.getFormaPagamento().getId(),
+                venda.getQuantidade() != null ? venda.getQuantidade() : 0,
+                venda.getReceitaTotal() != null ? venda.getReceitaTotal() : BigDecimal.ZERO);
+        }
+
+        boolean mesmaChave(Lancamento outro) {
+            return chave().equals(outro.chave());
+        }
+
+        Chave chave() {
+            return new Chave(data, produtoId, clienteId, formaPagamentoId);
+        }
+
+        record Chave(LocalDate data, Long produtoId, Long clienteId, Long formaPagamentoId) {}
+    }
+
+    // Soma dos lançamentos de uma mesma chave, no formato da linha do rollup
+    private static final class Acumulado {
+        private final Lancamento chave;
+        private long totalVendas;
+        private long quantidadeTotal;
+        private BigDecimal receitaTotal = BigDecimal.ZERO;
+        private Integer quantidadeMinima;
+        private Integer quantidadeMaxima;
+        private BigDecimal receitaMinima;
+        private BigDecimal receitaMaxima;
+
+        Acumulado(Lancamento chave) {
+            this.chave = chave;
+        }
+
+        void somar(Lancamento lancamento) {
+            totalVendas++;
+            quantidadeTotal += lancamento.quantidade();
+            receitaTotal = receitaTotal.add(lancamento.receita());
+            quantidadeMinima = quantidadeMinima == null ? lancamento.quantidade() : Math.min(quantidadeMinima, lancamento.quantidade());
+            quantidadeMaxima = quantidadeMaxima == null ? lancamento.quantidade() : Math.max(quantidadeMaxima, lancamento.quantidade());
+            receitaMinima = receitaMinima == null ? lancamento.receita() : receitaMinima.min(lancamento.receita());
+            receitaMaxima = receitaMaxima == null ? lancamento.receita() : receitaMaxima.max(lancamento.receita());
+        }
+
+        // Parâmetros de INSERIR e INSERIR_OU_ACUMULAR
+        Object[] linha() {
+            return new Object[]{chave.data(), chave.produtoId(), chave.clienteId(), chave.formaPagamentoId(),
+                    totalVendas, quantidadeTotal, receitaTotal, quantidadeMinima, quantidadeMaxima,
+                    receitaMinima, receitaMaxima};
+        }
+    }
+}
@@ -1,79 +1,163 @@
 package com.univesp.pi.s3t20.service;
 
+import com.univesp.pi.s3t20.dto.Pagina;
+import com.univesp.pi.s3t20.dto.VendaAnaliseDTO;
+import com.univesp.pi.s3t20.dto.VendaExportacaoDTO;
 import com.univesp.pi.s3t20.model.Venda;
 import com.univesp.pi.s3t20.model.Produto;
 import com.univesp.pi.s3t20.model.Cliente;
 import com.univesp.pi.s3t20.model.FormaPagamento;
+import com.univesp.pi.s3t20.repository.VendaAnaliseRepository;
 import com.univesp.pi.s3t20.repository.VendaRepository;
-import com.univesp.pi.s3t20.repository.ProdutoRepository;
-import com.univesp.pi.s3t20.repository.ClienteRepository;
-import com.univesp.pi.s3t20.repository.FormaPagamentoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
+@Timed("servico.chamadas")
 public class VendaService {
 
     @Autowired
     private VendaRepository vendaRepository;
     
     @Autowired
-    private ProdutoRepository produtoRepository;
+    private VendaResumoDiarioService vendaResumoDiarioService;
     
     @Autowired
-    private ClienteRepository clienteRepository;
-    
+    private VendaCubeService vendaCubeService;
+
+    @Autowired
+    private DimensaoCacheService dimensaoCacheService;
+
+    @Autowired
+    private GeradorCodigoService geradorCodigoService;
+
     @Autowired
-    private FormaPagamentoRepository formaPagamentoRepository;
+    private CargaPostgresService cargaPostgresService;
 
+    @Autowired
+    private MetricasEntidadesService metricasEntidadesService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
     public List<Venda> listarTodos() {
         return vendaRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Optional<Venda> buscarPorId(Long id) {
         return vendaRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Venda> buscarPorCodigo(String codigo) {
         return vendaRepository.findByIdVenda(codigo);
     }
 
+    @Transactional(readOnly = true)
     public List<Venda> buscarPorData(LocalDate data) {
         return vendaRepository.findByData(data);
     }
 
+    @Transactional(readOnly = true)
     public List<Venda> buscarPorCliente(Long clienteId) {
         return vendaRepository.findByClienteId(clienteId);
     }
 
+    @Transactional(readOnly = true)
     public List<Venda> buscarPorProduto(Long produtoId) {
         return vendaRepository.findByProdutoId(produtoId);
     }
 
+    @Transactional(readOnly = true)
     public List<Venda> buscarPorPeriodo(LocalDate dataInicio, LocalDate dataFim) {
         return vendaRepository.findByDataBetween(dataInicio, dataFim);
     }
 
-    public Optional<Venda> criar(Venda venda) {
-        // Gerar código único se não fornecido
-        if (venda.getIdVenda() == null || venda.getIdVenda().trim().isEmpty()) {
-            venda.setIdVenda(gerarCodigoVenda());
+    // Listagens paginadas por cursor: busca uma linha a mais que o limite para saber se há próxima página
+    @Transactional(readOnly = true)
+    public Pagina<Venda> listarPagina(Long apos, int limite) {
+        return Pagina.de(vendaRepository.findByIdGreaterThanOrderByIdAsc(cursor(apos), Limit.of(limite + 1)),
+                limite, Venda::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public Pagina<Venda> buscarPorClientePagina(Long clienteId, Long apos, int limite) {
+        return Pagina.de(vendaRepository.findByClienteIdAndIdGreaterThanOrderByIdAsc(clienteId, cursor(apos),
+                Limit.of(limite + 1)), limite, Venda::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public Pagina<Venda> buscarPorProdutoPagina(Long produtoId, Long apos, int limite) {
+        return Pagina.de(vendaRepository.findByProdutoIdAndIdGreaterThanOrderByIdAsc(produtoId, cursor(apos),
+                Limit.of(limite + 1)), limite, Venda::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public Pagina<Venda> buscarPorPeriodoPagina(LocalDate dataInicio, LocalDate dataFim, Long apos, int limite) {
+        return Pagina.de(vendaRepository.findByDataBetweenAndIdGreaterThanOrderByIdAsc(dataInicio, dataFim,
+                cursor(apos), Limit.of(limite + 1)), limite, Venda::getId);
+    }
+
+    // Percorre as vendas em fluxo, desanexando cada uma após o consumo para o contexto de persistência
+    // não crescer com o tamanho do resultado
+    @Transactional(readOnly = true)
+    public void percorrerTodas(Consumer<Venda> consumidor) {
+        try (Stream<Venda> vendas = vendaRepository.streamTodas()) {
+            vendas.forEach(venda -> consumirEDesanexar(venda, consumidor));
         }
-        
-        // Calcular receita total se não fornecida
-        if (venda.getReceitaTotal() == null && venda.getQuantidade() != null && venda.getPrecoUnitario() != null) {
-            venda.setReceitaTotal(venda.getPrecoUnitario().multiply(java.math.BigDecimal.valueOf(venda.getQuantidade())));
+    }
+
+    @Transactional(readOnly = true)
+    public void percorrerPorPeriodo(LocalDate dataInicio, LocalDate dataFim, Consumer<Venda> consumidor) {
+        try (Stream<Venda> vendas = vendaRepository.streamPorPeriodo(dataInicio, dataFim)) {
+            vendas.forEach(venda -> consumirEDesanexar(venda, consumidor));
+        }
+    }
+
+    // Linhas de exportação do período em fluxo; projeção sem entidades, então nada se acumula no contexto de persistência
+    @Transactional(readOnly = true)
+    public void percorrerExportacao(LocalDate dataInicio, LocalDate dataFim, Consumer<VendaExportacaoDTO> consumidor) {
+        try (Stream<VendaExportacaoDTO> linhas = vendaRepository.streamExportacao(dataInicio, dataFim)) {
+            linhas.forEach(consumidor);
         }
+    }
+
+    private void consumirEDesanexar(Venda venda, Consumer<Venda> consumidor) {
+        consumidor.accept(venda);
+        entityManager.detach(venda);
+    }
+
+    private static Long cursor(Long apos) {
+        return apos != null ? apos : 0L;
+    }
+
+    public Optional<Venda> criar(Venda venda) {
+        prepararInclusao(venda);
         
-        // Validar se as entidades relacionadas existem
+        // Validar se as entidades relacionadas existem (consultando o cache de dimensões)
         if (venda.getProduto() != null && venda.getProduto().getId() != null) {
-            Optional<Produto> produtoOpt = produtoRepository.findById(venda.getProduto().getId());
+            Optional<Produto> produtoOpt = dimensaoCacheService.produto(venda.getProduto().getId());
             if (produtoOpt.isEmpty()) {
                 return Optional.empty();
             }
@@ -81,7 +165,7 @@ public class VendaService {
         }
 
         if (venda.getCliente() != null && venda.getCliente().getId() != null) {
-            Optional<Cliente> clienteOpt = clienteRepository.findById(venda.getCliente().getId());
+            Optional<Cliente> clienteOpt = dimensaoCacheService.cliente(venda.getCliente().getId());
             if (clienteOpt.isEmpty()) {
                 return Optional.empty();
             }
@@ -89,21 +173,98 @@ public class VendaService {
         }
 
         if (venda.getFormaPagamento() != null && venda.getFormaPagamento().getId() != null) {
-            Optional<FormaPagamento> formaPagamentoOpt = formaPagamentoRepository.findById(venda.getFormaPagamento().getId());
+            Optional<FormaPagamento> formaPagamentoOpt = dimensaoCacheService.formaPagamento(venda.getFormaPagamento().getId());
             if (formaPagamentoOpt.isEmpty()) {
                 return Optional.empty();
             }
             venda.setFormaPagamento(formaPagamentoOpt.get());
         }
 
+        Venda vendaSalva = vendaRepository.save(venda);
+        vendaResumoDiarioService.registrarInclusao(vendaSalva);
+        vendaCubeService.registrar(vendaSalva);
+        metricasEntidadesService.criadas(MetricasEntidadesService.Entidade.VENDA, 1);
+        return Optional.of(vendaSalva);
+    }
+
+    // Inclusão em lote: as dimensões referenciadas são resolvidas de uma vez (uma consulta IN por dimensão
+    // para o que não está em cache) e as vendas válidas são gravadas com um único flush, em lotes JDBC
+    // (ou por COPY no PostgreSQL, ver CargaPostgresService).
+    // Itens com referências inexistentes são recusados individualmente sem impedir os demais.
+    public List<ItemLote> criarLote(List<Venda> vendas) {
+        Map<Long, Produto> produtos = dimensaoCacheService.produtos(idsReferenciados(vendas, Venda::getProduto, Produto::getId));
+        Map<Long, Cliente> clientes = dimensaoCacheService.clientes(idsReferenciados(vendas, Venda::getCliente, Cliente::getId));
+        Map<Long, FormaPagamento> formasPagamento = dimensaoCacheService.formasPagamento(
+                idsReferenciados(vendas, Venda::getFormaPagamento, FormaPagamento::getId));
+
+        List<ItemLote> resultado = new ArrayList<>(vendas.size());
+        List<Venda> validas = new ArrayList<>(vendas.size());
+        for (Venda venda : vendas) {
+            Produto produto = venda.getProduto() != null ? produtos.get(venda.getProduto().getId()) : null;
+            Cliente cliente = venda.getCliente() != null ? clientes.get(venda.getCliente().getId()) : null;
+            FormaPagamento formaPagamento = venda.getFormaPagamento() != null
+                    ? formasPagamento.get(venda.getFormaPagamento().getId()) : null;
+            if (produto == null) {
+                resultado.add(ItemLote.recusado("Produto não encontrado"));
+            } else if (cliente == null) {
+                resultado.add(ItemLote.recusado("Cliente não encontrado"));
+            } else if (formaPagamento == null) {
+                resultado.add(ItemLote.recusado("Forma de pagamento não encontrada"));
+            } else {
+                venda.setProduto(produto);
+                venda.setCliente(cliente);
+                venda.setFormaPagamento(formaPagamento);
+                prepararInclusao(venda);
+                validas.add(venda);
+                resultado.add(ItemLote.criado(venda));
+            }
+        }
+
+        if (!validas.isEmpty()) {
+            if (cargaPostgresService.ativa()) {
+                cargaPostgresService.inserirVendas(validas);
+            } else {
+                vendaRepository.saveAll(validas);
+                entityManager.flush();
+            }
+            vendaResumoDiarioService.registrarInclusoes(validas);
+            validas.forEach(vendaCubeService::registrar);
+            metricasEntidadesService.criadas(MetricasEntidadesService.Entidade.VENDA, validas.size());
+        }
+        return resultado;
+    }
+
+    private static <T> Set<Long> idsReferenciados(List<Venda> vendas, Function<Venda, T> referencia, Function<T, Long> id) {
+        Set<Long> ids = new HashSet<>();
+        for (Venda venda : vendas) {
+            T entidade = referencia.apply(venda);
+            if (entidade != null && id.apply(entidade) != null) {
+                ids.add(id.apply(entidade));
+            }
+        }
+        return ids;
+    }
+
+    // Códigos de venda já cadastrados entre os informados
+    @Transactional(readOnly = true)
+    public Set<String> codigosExistentes(Collection<String> codigos) {
+        return new HashSet<>(vendaRepository.findCodigosExistentes(codigos));
+    }
+
+    // Código, receita e datas de uma venda nova (inclusão individual ou em lote)
+    private void prepararInclusao(Venda venda) {
+        // Gerar código único se não fornecido
+        if (venda.getIdVenda() == null || venda.getIdVenda().trim().isEmpty()) {
+            venda.setIdVenda(geradorCodigoService.proximo(GeradorCodigoService.Sequencia.VENDA));
+        }
+        
+        // Calcular receita total se não fornecida
+        if (venda.getReceitaTotal() == null && venda.getQuantidade() != null && venda.getPrecoUnitario() != null) {
+            venda.setReceitaTotal(Centavos.paraBigDecimal(Centavos.multiplicar(Centavos.de(venda.getPrecoUnitario()), venda.getQuantidade())));
+        }
+        
         venda.setCreatedAt(java.time.LocalDateTime.now());
         venda.setUpdatedAt(java.time.LocalDateTime.now());
-        return Optional.of(vendaRepository.save(venda));
-    }
-    
-    private String gerarCodigoVenda() {
-        long count = vendaRepository.count();
-        return String.format("VEN%03d", count + 1);
     }
 
     public Optional<Venda> atualizar(Long id, Venda vendaAtualizada) {
@@ -113,6 +274,7 @@ public class VendaService {
         }
         
         Venda venda = vendaOpt.get();
+        VendaResumoDiarioService.Lancamento lancamentoAnterior = VendaResumoDiarioService.Lancamento.de(venda);
         // Preservar o código único existente se não fornecido
         if (vendaAtualizada.getIdVenda() != null && !vendaAtualizada.getIdVenda().trim().isEmpty()) {
             venda.setIdVenda(vendaAtualizada.getIdVenda());
@@ -123,58 +285,142 @@ public class VendaService {
         
         // Calcular receita total se não fornecida
         if (vendaAtualizada.getReceitaTotal() == null && vendaAtualizada.getQuantidade() != null && vendaAtualizada.getPrecoUnitario() != null) {
-            venda.setReceitaTotal(vendaAtualizada.getPrecoUnitario().multiply(java.math.BigDecimal.valueOf(vendaAtualizada.getQuantidade())));
+            venda.setReceitaTotal(Centavos.paraBigDecimal(Centavos.multiplicar(Centavos.de(vendaAtualizada.getPrecoUnitario()), vendaAtualizada.getQuantidade())));
         } else {
             venda.setReceitaTotal(vendaAtualizada.getReceitaTotal());
         }
         
         venda.setUpdatedAt(java.time.LocalDateTime.now());
         
-        return Optional.of(vendaRepository.save(venda));
+        Venda vendaSalva = vendaRepository.save(venda);
+        vendaResumoDiarioService.registrarAlteracao(lancamentoAnterior, vendaSalva);
+        vendaCubeService.registrar(vendaSalva);
+        metricasEntidadesService.atualizadas(MetricasEntidadesService.Entidade.VENDA, 1);
+        return Optional.of(vendaSalva);
     }
 
     public boolean deletar(Long id) {
-        if (!vendaRepository.existsById(id)) {
+        Optional<Venda> vendaOpt = vendaRepository.findById(id);
+        if (vendaOpt.isEmpty()) {
             return false;
         }
         
-        vendaRepository.deleteById(id);
+        vendaRepository.delete(vendaOpt.get());
+        vendaResumoDiarioService.registrarExclusao(vendaOpt.get());
+        vendaCubeService.remover(id);
+        metricasEntidadesService.removidas(MetricasEntidadesService.Entidade.VENDA, 1);
         return true;
     }
 
+    @Transactional(readOnly = true)
     public Long contar() {
         return vendaRepository.count();
     }
 
+    // Os resumos leem o rollup diário: o custo depende do número de dias/chaves, não do número de vendas.
+    // Com cube.enabled=true (e o cubo já carregado) a leitura é feita nas colunas em memória.
+    @Transactional(readOnly = true)
     public VendaResumo obterResumo() {
-        Long totalVendas = vendaRepository.count();
-        List<Venda> vendas = vendaRepository.findAll();
-        
-        double receitaTotal = vendas.stream()
-            .mapToDouble(v -> v.getReceitaTotal().doubleValue())
-            .sum();
-        
-        return new VendaResumo(totalVendas, receitaTotal);
+        if (vendaCubeService.disponivel()) {
+            return vendaCubeService.resumo(null, null);
+        }
+        return VendaResumo.de(vendaResumoDiarioService.agregarResumo());
     }
 
+    @Transactional(readOnly = true)
     public VendaResumo obterResumoPorPeriodo(LocalDate dataInicio, LocalDate dataFim) {
-        List<Venda> vendas = buscarPorPeriodo(dataInicio, dataFim);
-        
-        Long totalVendas = (long) vendas.size();
-        double receitaTotal = vendas.stream()
-            .mapToDouble(v -> v.getReceitaTotal().doubleValue())
-            .sum();
-        
-        return new VendaResumo(totalVendas, receitaTotal);
+        if (vendaCubeService.disponivel()) {
+            return vendaCubeService.resumo(dataInicio, dataFim);
+        }
+        return VendaResumo.de(vendaResumoDiarioService.agregarResumoPorPeriodo(dataInicio, dataFim));
     }
 
+    // Validador de /vendas/periodo e /vendas/resumo/periodo (GET condicional): uma agregação, sem carregar as vendas
+    @Transactional(readOnly = true)
+    public VendaRepository.VersaoPeriodo versaoPorPeriodo(LocalDate dataInicio, LocalDate dataFim) {
+        return vendaRepository.versaoPorPeriodo(dataInicio, dataFim);
+    }
+
+    @Transactional(readOnly = true)
+    public List<VendaAnaliseDTO> analisar(List<VendaAnaliseRepository.Dimensao> dimensoes,
+                                          LocalDate dataInicio, LocalDate dataFim) {
+        if (vendaCubeService.disponivel()) {
+            return vendaCubeService.agrupar(dimensoes, dataInicio, dataFim);
+        }
+        return vendaResumoDiarioService.agrupar(dimensoes, dataInicio, dataFim);
+    }
+
+    // Resultado de um item do lote: a venda criada ou o motivo da recusa
+    public record ItemLote(Venda venda, String erro) {
+
+        static ItemLote criado(Venda venda) {
+            return new ItemLote(venda, null);
+        }
+
+        static ItemLote recusado(String erro) {
+            return new ItemLote(null, erro);
+        }
+
+        public boolean isCriado() {
+            return venda != null;
+        }
+    }
+
+    // Resposta dos endpoints de resumo: valores monetários exatos (BigDecimal com 2 casas), convertidos
+    // a partir de centavos uma única vez, na montagem da resposta
     public static class VendaResumo {
         public Long totalVendas;
-        public Double receitaTotal;
+        public BigDecimal receitaTotal;
+        public BigDecimal receitaMinima;
+        public BigDecimal receitaMaxima;
+        public BigDecimal receitaMedia;
+        public Long quantidadeTotal;
+        public Integer quantidadeMinima;
+        public Integer quantidadeMaxima;
+        public Double quantidadeMedia;
 
-        public VendaResumo(Long totalVendas, Double receitaTotal) {
+        public VendaResumo(Long totalVendas, BigDecimal receitaTotal, BigDecimal receitaMinima, BigDecimal receitaMaxima,
+                           BigDecimal receitaMedia, Long quantidadeTotal, Integer quantidadeMinima,
+                           Integer quantidadeMaxima, Double quantidadeMedia) {
             this.totalVendas = totalVendas;
             this.receitaTotal = receitaTotal;
+            this.receitaMinima = receitaMinima;
+            this.receitaMaxima = receitaMaxima;
+            this.receitaMedia = receitaMedia;
+            this.quantidadeTotal = quantidadeTotal;
+            this.quantidadeMinima = quantidadeMinima;
+            this.quantidadeMaxima = quantidadeMaxima;
+            this.quantidadeMedia = quantidadeMedia;
+        }
+
+        // Sem vendas os totais são zero e os demais valores permanecem nulos
+        public static VendaResumo emCentavos(long totalVendas, long receitaTotalCentavos, Long receitaMinimaCentavos,
+                                             Long receitaMaximaCentavos, long quantidadeTotal,
+                                             Integer quantidadeMinima, Integer quantidadeMaxima) {
+            if (totalVendas == 0) {
+                return new VendaResumo(0L, Centavos.paraBigDecimal(0L), null, null, null, 0L, null, null, null);
+            }
+            return new VendaResumo(
+                totalVendas,
+                Centavos.paraBigDecimal(receitaTotalCentavos),
+                Centavos.paraBigDecimal(receitaMinimaCentavos),
+                Centavos.paraBigDecimal(receitaMaximaCentavos),
+                Centavos.paraBigDecimal(Centavos.media(receitaTotalCentavos, totalVendas)),
+                quantidadeTotal,
+                quantidadeMinima,
+                quantidadeMaxima,
+                (double) quantidadeTotal / totalVendas);
+        }
+
+        static VendaResumo de(VendaRepository.ResumoAgregado agregado) {
+            return emCentavos(
+                agregado.getTotalVendas() != null ? agregado.getTotalVendas() : 0L,
+                agregado.getReceitaTotalCentavos() != null ? agregado.getReceitaTotalCentavos() : 0L,
+                agregado.getReceitaMinimaCentavos(),
+                agregado.getReceitaMaximaCentavos(),
+                agregado.getQuantidadeTotal() != null ? agregado.getQuantidadeTotal() : 0L,
+                agregado.getQuantidadeMinima(),
+                agregado.getQuantidadeMaxima());
         }
     }
 }
@@ -0,0 +1,56 @@
+package com.univesp.pi.s3t20.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+// Versão de produtos, clientes e formas de pagamento lida do banco: última alteração (updated_at) e quantidade de
+// registros de cada tabela, como o validador dos períodos de vendas (a quantidade denuncia exclusões, que não deixam
+// rastro em updated_at). Serve de validador dos GETs condicionais (ETag e Last-Modified) e vale igual em todas as
+// instâncias, inclusive para gravações feitas por fora da API (cargas via COPY, outra instância). Uma consulta só,
+// com uma subconsulta por tabela.
+@Service
+public class VersaoRecursoService {
+
+    public enum Recurso {
+        PRODUTOS("produtos"), CLIENTES("clientes"), FORMAS_PAGAMENTO("formas_pagamento");
+
+        private final String tabela;
+
+        Recurso(String tabela) {
+            this.tabela = tabela;
+        }
+    }
+
+    // ultimaAlteracao é null quando a tabela está vazia
+    public record Versao(LocalDateTime ultimaAlteracao, long quantidade) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Transactional(readOnly = true)
+    public List<Versao> atuais(Recurso... recursos) {
+        if (recursos.length == 0) {
+            return List.of();
+        }
+        StringJoiner colunas = new StringJoiner(", ", "SELECT ", "");
+        for (Recurso recurso : recursos) {
+            colunas.add("(SELECT MAX(updated_at) FROM " + recurso.tabela + ")")
+                    .add("(SELECT COUNT(*) FROM " + recurso.tabela + ")");
+        }
+        return jdbcTemplate.queryForObject(colunas.toString(), (rs, linha) -> {
+            List<Versao> versoes = new ArrayList<>(recursos.length);
+            for (int i = 0; i < recursos.length; i++) {
+                versoes.add(new Versao(rs.getObject(2 * i + 1, LocalDateTime.class), rs.getLong(2 * i + 2)));
+            }
+            return versoes;
+        });
+    }
+}
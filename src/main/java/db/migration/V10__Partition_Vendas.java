@@ -0,0 +1,76 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+
+// Particiona vendas por mês (RANGE em data) no PostgreSQL: as consultas por período só leem as partições dos meses
+// pedidos e um mês antigo sai com DETACH PARTITION, sem DELETE. Em outros bancos (H2 em dev e nos testes) a tabela
+// continua sem partições e esta migration não faz nada.
+// Consequências do particionamento: a chave primária passa a ser (id, data) e o código id_venda só é único dentro
+// do mesmo dia (UNIQUE (id_venda, data)), porque restrições únicas precisam conter a chave de partição; a unicidade
+// entre datas volta com vendas_codigos (V12).
+public class V10__Partition_Vendas extends BaseJavaMigration {
+
+    // Meses criados à frente do mês corrente; depois disso, ParticoesVendasService mantém a folga
+    private static final int MESES_FUTUROS = 3;
+
+    // Cria (se faltar) a partição do mês de 'mes'. Linhas desse mês que já estejam na partição padrão são movidas
+    // para a nova antes do ATTACH, que falharia com elas lá. O advisory lock serializa instâncias concorrentes.
+    // Substituída em V13 (cópia e exclusão num comando só).
+    private static final String FUNCAO_CRIAR_PARTICAO = """
+            CREATE OR REPLACE FUNCTION vendas_criar_particao(mes DATE) RETURNS TEXT AS $$
+            DECLARE
+                inicio DATE := date_trunc('month', mes)::date;
+                fim DATE := (date_trunc('month', mes) + INTERVAL '1 month')::date;
+                nome TEXT := 'vendas_' || to_char(date_trunc('month', mes), 'YYYY_MM');
+            BEGIN
+                PERFORM pg_advisory_xact_lock(hashtext('vendas_criar_particao'));
+                IF to_regclass(nome) IS NOT NULL THEN
+                    RETURN nome;
+                END IF;
+                EXECUTE format('CREATE TABLE %I (LIKE vendas INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', nome);
+                EXECUTE format('INSERT INTO %I SELECT * FROM vendas_padrao WHERE data >= %L AND data < %L', nome, inicio, fim);
+                DELETE FROM vendas_padrao WHERE data >= inicio AND data < fim;
+                EXECUTE format('ALTER TABLE vendas ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', nome, inicio, fim);
+                RETURN nome;
+            END;
+            $$ LANGUAGE plpgsql""";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        if (!context.getConnection().getMetaData().getDatabaseProductName().toLowerCase().contains("postgres")) {
+            return;
+        }
+        try (Statement statement = context.getConnection().createStatement()) {
+            // A sequência de ids (V9) pertence à coluna: sem isso, o DROP da tabela antiga a levaria junto
+            statement.execute("ALTER SEQUENCE vendas_id_seq OWNED BY NONE");
+            statement.execute("ALTER TABLE vendas RENAME TO vendas_sem_particao");
+            statement.execute("CREATE TABLE vendas (LIKE vendas_sem_particao INCLUDING DEFAULTS) PARTITION BY RANGE (data)");
+            // Datas fora dos meses criados (muito antigas ou além da folga) caem aqui até o mês ganhar partição
+            statement.execute("CREATE TABLE vendas_padrao PARTITION OF vendas DEFAULT");
+            statement.execute(FUNCAO_CRIAR_PARTICAO);
+            statement.execute("SELECT vendas_criar_particao(mes::date) FROM generate_series(" +
+                    "date_trunc('month', COALESCE((SELECT MIN(data) FROM vendas_sem_particao), CURRENT_DATE)), " +
+                    "date_trunc('month', GREATEST(COALESCE((SELECT MAX(data) FROM vendas_sem_particao), CURRENT_DATE), CURRENT_DATE)) " +
+                    "+ INTERVAL '" + MESES_FUTUROS + " months', INTERVAL '1 month') AS mes");
+            statement.execute("INSERT INTO vendas SELECT * FROM vendas_sem_particao");
+            statement.execute("DROP TABLE vendas_sem_particao");
+
+            // Índices e restrições no pai valem para todas as partições, atuais e futuras (mesmos nomes de V1 e V7;
+            // as buscas por id_venda usam o índice da restrição única)
+            statement.execute("ALTER TABLE vendas ADD CONSTRAINT vendas_pkey PRIMARY KEY (id, data)");
+            statement.execute("ALTER TABLE vendas ADD CONSTRAINT vendas_id_venda_data_key UNIQUE (id_venda, data)");
+            statement.execute("ALTER TABLE vendas ADD FOREIGN KEY (produto_id) REFERENCES produtos(id)");
+            statement.execute("ALTER TABLE vendas ADD FOREIGN KEY (cliente_id) REFERENCES clientes(id)");
+            statement.execute("ALTER TABLE vendas ADD FOREIGN KEY (forma_pagamento_id) REFERENCES formas_pagamento(id)");
+            statement.execute("CREATE INDEX idx_vendas_data ON vendas(data)");
+            statement.execute("CREATE INDEX idx_vendas_cliente ON vendas(cliente_id)");
+            statement.execute("CREATE INDEX idx_vendas_produto ON vendas(produto_id)");
+            statement.execute("CREATE INDEX idx_vendas_cliente_id ON vendas(cliente_id, id)");
+            statement.execute("CREATE INDEX idx_vendas_produto_id ON vendas(produto_id, id)");
+            statement.execute("ALTER SEQUENCE vendas_id_seq OWNED BY vendas.id");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.Set;
+
+// Índices ajustados às consultas de VendaRepository e ClienteRepository (ver IndicesPostgresIntegrationTest).
+// Em Java porque parte deles só existe no PostgreSQL: INCLUDE (índice de cobertura), BRIN e trigramas. No H2 as
+// colunas incluídas entram como colunas comuns do índice.
+public class V11__Create_Query_Indexes extends BaseJavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(V11__Create_Query_Indexes.class);
+
+    // SQLSTATE de CREATE EXTENSION sem permissão (insufficient_privilege) ou sem a extensão instalada no servidor
+    // (feature_not_supported a partir do PostgreSQL 15, undefined_file antes)
+    private static final Set<String> EXTENSAO_INDISPONIVEL = Set.of("42501", "0A000", "58P01");
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection conexao = context.getConnection();
+        boolean postgres = conexao.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+        try (Statement statement = conexao.createStatement()) {
+            // Duplicatas dos índices das restrições UNIQUE (id_venda, id_cliente, id_produto) e prefixos dos índices
+            // (dimensão, id) da V7, que já atendem às buscas por cliente/produto e às verificações das chaves estrangeiras
+            statement.execute("DROP INDEX IF EXISTS idx_vendas_id_venda");
+            statement.execute("DROP INDEX IF EXISTS idx_clientes_id_cliente");
+            statement.execute("DROP INDEX IF EXISTS idx_produtos_id_produto");
+            statement.execute("DROP INDEX IF EXISTS idx_vendas_cliente");
+            statement.execute("DROP INDEX IF EXISTS idx_vendas_produto");
+
+            // Vendas por forma de pagamento e verificação da chave estrangeira ao excluir uma forma de pagamento
+            statement.execute("CREATE INDEX idx_vendas_forma_pagamento_id ON vendas(forma_pagamento_id, id)");
+
+            // Período: filtra por data e devolve id (cursor e ORDER BY id) e as colunas dos resumos e do validador do
+            // GET condicional, sem ler a tabela (index-only scan). Substitui idx_vendas_data.
+            statement.execute("DROP INDEX IF EXISTS idx_vendas_data");
+            if (postgres) {
+                statement.execute("CREATE INDEX idx_vendas_periodo ON vendas(data, id) " +
+                        "INCLUDE (quantidade, receita_total, updated_at)");
+                // As vendas entram em ordem de data: o BRIN guarda só o intervalo de datas de cada bloco de páginas e
+                // atende aos períodos longos (trimestre, ano) com poucos KB
+                statement.execute("CREATE INDEX idx_vendas_data_brin ON vendas USING brin (data) WITH (pages_per_range = 32)");
+            } else {
+                statement.execute("CREATE INDEX idx_vendas_periodo ON vendas(data, id, quantidade, receita_total, updated_at)");
+            }
+
+            // findByClienteCidade e findByProdutoCategoria: os ids das dimensões saem do próprio índice para o
+            // JOIN com (cliente_id, id) e (produto_id, id). Substituem os índices só de cidade e de categoria.
+            statement.execute("DROP INDEX IF EXISTS idx_clientes_cidade");
+            statement.execute("CREATE INDEX idx_clientes_cidade_id ON clientes(cidade, id)");
+            statement.execute("DROP INDEX IF EXISTS idx_produtos_categoria");
+            statement.execute("CREATE INDEX idx_produtos_categoria_id ON produtos(categoria, id)");
+            statement.execute("CREATE INDEX idx_clientes_bairro ON clientes(bairro)");
+
+            if (postgres) {
+                criarIndiceNome(conexao, statement);
+            }
+        }
+    }
+
+    // findByNomeClienteContainingIgnoreCase gera upper(nome_cliente) LIKE upper('%...%'): só um índice de trigramas
+    // atende a LIKE com % no início. Sem permissão para criar a extensão pg_trgm (ou sem o pacote contrib no
+    // servidor), a busca segue sem índice; qualquer outra falha interrompe a migration.
+    private static void criarIndiceNome(Connection conexao, Statement statement) throws SQLException {
+        Savepoint savepoint = conexao.setSavepoint();
+        try {
+            statement.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            conexao.releaseSavepoint(savepoint);
+        } catch (SQLException e) {
+            if (!EXTENSAO_INDISPONIVEL.contains(e.getSQLState())) {
+                throw e;
+            }
+            conexao.rollback(savepoint);
+            log.warn("Extensão pg_trgm indisponível ({}): idx_clientes_nome_trgm não foi criado e a busca de " +
+                    "clientes por nome segue sem índice", e.getMessage());
+            return;
+        }
+
+        String schema;
+        try (ResultSet resultado = statement.executeQuery("SELECT n.nspname FROM pg_extension e " +
+                "JOIN pg_namespace n ON n.oid = e.extnamespace WHERE e.extname = 'pg_trgm'")) {
+            resultado.next();
+            schema = resultado.getString(1);
+        }
+        statement.execute("CREATE INDEX idx_clientes_nome_trgm ON clientes " +
+                "USING gin (upper(nome_cliente) \"" + schema + "\".gin_trgm_ops)");
+    }
+}
@@ -0,0 +1,81 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// Código id_venda único entre todas as datas no PostgreSQL. Com vendas particionada (V10), a restrição única precisa
+// conter a data e UNIQUE (id_venda, data) aceita o mesmo código em dias diferentes; os códigos passam a ficar também
+// em vendas_codigos (chave primária id_venda, sem partições), mantida na mesma transação por triggers de comando em
+// vendas com tabelas de transição (um INSERT por comando, inclusive no COPY). Um código repetido falha com
+// unique_violation, como no H2. Os triggers são do pai: mover linhas direto entre partições (vendas_criar_particao)
+// não mexe nos códigos, e os de uma partição retirada com DETACH continuam reservados. TRUNCATE não passa por eles.
+public class V12__Unique_Venda_Codes extends BaseJavaMigration {
+
+    private static final String FUNCAO_INCLUIR = """
+            CREATE FUNCTION vendas_codigos_incluir() RETURNS trigger AS $$
+            BEGIN
+                INSERT INTO vendas_codigos (id_venda) SELECT id_venda FROM novas;
+                RETURN NULL;
+            END;
+            $$ LANGUAGE plpgsql""";
+
+    // EXCEPT ALL: só os códigos que mudaram, sem juntar repetidos (dois códigos novos iguais ainda colidem); excluir
+    // antes de incluir permite trocar códigos entre vendas no mesmo comando
+    private static final String FUNCAO_ALTERAR = """
+            CREATE FUNCTION vendas_codigos_alterar() RETURNS trigger AS $$
+            BEGIN
+                DELETE FROM vendas_codigos WHERE id_venda IN
+                    (SELECT id_venda FROM antigas EXCEPT ALL SELECT id_venda FROM novas);
+                INSERT INTO vendas_codigos (id_venda)
+                    SELECT id_venda FROM novas EXCEPT ALL SELECT id_venda FROM antigas;
+                RETURN NULL;
+            END;
+            $$ LANGUAGE plpgsql""";
+
+    private static final String FUNCAO_EXCLUIR = """
+            CREATE FUNCTION vendas_codigos_excluir() RETURNS trigger AS $$
+            BEGIN
+                DELETE FROM vendas_codigos c USING antigas a WHERE c.id_venda = a.id_venda;
+                RETURN NULL;
+            END;
+            $$ LANGUAGE plpgsql""";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        if (!context.getConnection().getMetaData().getDatabaseProductName().toLowerCase().contains("postgres")) {
+            return;
+        }
+        try (Statement statement = context.getConnection().createStatement()) {
+            // Sem gravações em vendas até o fim da migration: a cópia dos códigos e os triggers valem juntos
+            statement.execute("LOCK TABLE vendas IN SHARE ROW EXCLUSIVE MODE");
+            List<String> repetidos = new ArrayList<>();
+            try (ResultSet resultado = statement.executeQuery(
+                    "SELECT id_venda FROM vendas GROUP BY id_venda HAVING COUNT(*) > 1 ORDER BY id_venda LIMIT 10")) {
+                while (resultado.next()) {
+                    repetidos.add(resultado.getString(1));
+                }
+            }
+            if (!repetidos.isEmpty()) {
+                throw new IllegalStateException("Códigos de venda repetidos em datas diferentes (corrija antes de migrar): "
+                        + repetidos);
+            }
+
+            statement.execute("CREATE TABLE vendas_codigos (id_venda VARCHAR(10) PRIMARY KEY)");
+            statement.execute("INSERT INTO vendas_codigos (id_venda) SELECT id_venda FROM vendas");
+            statement.execute(FUNCAO_INCLUIR);
+            statement.execute(FUNCAO_ALTERAR);
+            statement.execute(FUNCAO_EXCLUIR);
+            statement.execute("CREATE TRIGGER vendas_codigos_incluir AFTER INSERT ON vendas " +
+                    "REFERENCING NEW TABLE AS novas FOR EACH STATEMENT EXECUTE FUNCTION vendas_codigos_incluir()");
+            statement.execute("CREATE TRIGGER vendas_codigos_alterar AFTER UPDATE ON vendas " +
+                    "REFERENCING OLD TABLE AS antigas NEW TABLE AS novas FOR EACH STATEMENT EXECUTE FUNCTION vendas_codigos_alterar()");
+            statement.execute("CREATE TRIGGER vendas_codigos_excluir AFTER DELETE ON vendas " +
+                    "REFERENCING OLD TABLE AS antigas FOR EACH STATEMENT EXECUTE FUNCTION vendas_codigos_excluir()");
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+
+// Nova versão de vendas_criar_particao (V10): as linhas do mês saem de vendas_padrao com DELETE ... RETURNING e entram
+// na partição nova no mesmo comando. Com INSERT ... SELECT e DELETE separados, cada um com o seu snapshot, uma venda
+// gravada na padrão entre os dois era excluída sem ter sido copiada. O LOCK segura as gravações na padrão até o fim
+// da transação, para nenhuma linha do mês chegar depois da cópia e impedir o ATTACH.
+public class V13__Move_Default_Partition_Rows_Atomically extends BaseJavaMigration {
+
+    private static final String FUNCAO_CRIAR_PARTICAO = """
+            CREATE OR REPLACE FUNCTION vendas_criar_particao(mes DATE) RETURNS TEXT AS $$
+            DECLARE
+                inicio DATE := date_trunc('month', mes)::date;
+                fim DATE := (date_trunc('month', mes) + INTERVAL '1 month')::date;
+                nome TEXT := 'vendas_' || to_char(date_trunc('month', mes), 'YYYY_MM');
+            BEGIN
+                PERFORM pg_advisory_xact_lock(hashtext('vendas_criar_particao'));
+                IF to_regclass(nome) IS NOT NULL THEN
+                    RETURN nome;
+                END IF;
+                LOCK TABLE vendas_padrao IN SHARE ROW EXCLUSIVE MODE;
+                EXECUTE format('CREATE TABLE %I (LIKE vendas INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', nome);
+                EXECUTE format('WITH movidas AS (DELETE FROM vendas_padrao WHERE data >= %L AND data < %L RETURNING *) ' ||
+                    'INSERT INTO %I SELECT * FROM movidas', inicio, fim, nome);
+                EXECUTE format('ALTER TABLE vendas ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', nome, inicio, fim);
+                RETURN nome;
+            END;
+            $$ LANGUAGE plpgsql""";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        if (!context.getConnection().getMetaData().getDatabaseProductName().toLowerCase().contains("postgres")) {
+            return;
+        }
+        try (Statement statement = context.getConnection().createStatement()) {
+            statement.execute(FUNCAO_CRIAR_PARTICAO);
+        }
+    }
+}
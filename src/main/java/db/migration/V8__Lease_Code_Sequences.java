@@ -0,0 +1,47 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Prepara as sequências *_seq (criadas na V1 e nunca usadas) para o GeradorCodigoService:
+// incremento de 50 (cada nextval reserva um bloco de códigos) e reinício após o maior código já
+// gerado pela contagem antiga (VEN/PROD/CLI/PAG + número). Em Java porque o valor de reinício depende
+// dos dados e ALTER SEQUENCE ... RESTART WITH só aceita constante, tanto no H2 quanto no PostgreSQL.
+public class V8__Lease_Code_Sequences extends BaseJavaMigration {
+
+    // Deve ser igual a GeradorCodigoService.TAMANHO_BLOCO
+    private static final int TAMANHO_BLOCO = 50;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            reiniciar(statement, "vendas_seq", "vendas", "id_venda", "VEN");
+            reiniciar(statement, "produtos_seq", "produtos", "id_produto", "PROD");
+            reiniciar(statement, "clientes_seq", "clientes", "id_cliente", "CLI");
+            reiniciar(statement, "formas_pagamento_seq", "formas_pagamento", "id_pagamento", "PAG");
+        }
+    }
+
+    private static void reiniciar(Statement statement, String sequencia, String tabela, String coluna,
+                                  String prefixo) throws SQLException {
+        Pattern codigoGerado = Pattern.compile(prefixo + "(\\d+)");
+        long maior = 0;
+        try (ResultSet codigos = statement.executeQuery(
+                "SELECT " + coluna + " FROM " + tabela + " WHERE " + coluna + " LIKE '" + prefixo + "%'")) {
+            while (codigos.next()) {
+                Matcher matcher = codigoGerado.matcher(codigos.getString(1));
+                if (matcher.matches()) {
+                    maior = Math.max(maior, Long.parseLong(matcher.group(1)));
+                }
+            }
+        }
+        statement.execute("ALTER SEQUENCE " + sequencia + " RESTART WITH " + (maior + 1)
+                + " INCREMENT BY " + TAMANHO_BLOCO);
+    }
+}
@@ -0,0 +1,38 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+// Troca o IDENTITY de vendas.id pela sequência vendas_id_seq (incremento 50, otimizador pooled-lo no Hibernate):
+// os ids passam a ser reservados em blocos e os INSERTs de vendas podem ir ao banco em lotes JDBC.
+// O DEFAULT da coluna também passa a usar a sequência, para INSERTs fora do JPA não colidirem com os blocos.
+public class V9__Create_Vendas_Id_Sequence extends BaseJavaMigration {
+
+    // Deve ser igual ao allocationSize de Venda.id
+    private static final int TAMANHO_BLOCO = 50;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        boolean postgres = context.getConnection().getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+        try (Statement statement = context.getConnection().createStatement()) {
+            long maior;
+            try (ResultSet resultado = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM vendas")) {
+                resultado.next();
+                maior = resultado.getLong(1);
+            }
+
+            // Primeiro o DROP IDENTITY: no PostgreSQL a coluna identity já tem uma sequência implícita chamada vendas_id_seq
+            statement.execute("ALTER TABLE vendas ALTER COLUMN id DROP IDENTITY");
+            statement.execute("CREATE SEQUENCE vendas_id_seq START WITH " + (maior + 1) + " INCREMENT BY " + TAMANHO_BLOCO);
+            if (postgres) {
+                statement.execute("ALTER TABLE vendas ALTER COLUMN id SET DEFAULT nextval('vendas_id_seq')");
+                statement.execute("ALTER SEQUENCE vendas_id_seq OWNED BY vendas.id");
+            } else {
+                statement.execute("ALTER TABLE vendas ALTER COLUMN id SET DEFAULT NEXT VALUE FOR vendas_id_seq");
+            }
+        }
+    }
+}
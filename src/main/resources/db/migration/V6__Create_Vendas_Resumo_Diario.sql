@@ -0,0 +1,38 @@
+-- Rollup diário de vendas
+-- V6__Create_Vendas_Resumo_Diario.sql
+-- Mantido pelo VendaService na mesma transação de criar/atualizar/deletar; os endpoints de resumo
+-- leem esta tabela em vez de varrer vendas.
+
+CREATE TABLE IF NOT EXISTS vendas_resumo_diario (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    data DATE NOT NULL,
+    produto_id BIGINT NOT NULL,
+    cliente_id BIGINT NOT NULL,
+    forma_pagamento_id BIGINT NOT NULL,
+    total_vendas BIGINT NOT NULL,
+    quantidade_total BIGINT NOT NULL,
+    receita_total DECIMAL(19,2) NOT NULL,
+    quantidade_minima INTEGER,
+    quantidade_maxima INTEGER,
+    receita_minima DECIMAL(10,2),
+    receita_maxima DECIMAL(10,2),
+    CONSTRAINT uk_vendas_resumo_diario_chave UNIQUE (data, produto_id, cliente_id, forma_pagamento_id)
+);
+
+-- Carga inicial a partir das vendas existentes
+INSERT INTO vendas_resumo_diario (data, produto_id, cliente_id, forma_pagamento_id, total_vendas, quantidade_total,
+                                  receita_total, quantidade_minima, quantidade_maxima, receita_minima, receita_maxima)
+SELECT
+    v.data,
+    v.produto_id,
+    v.cliente_id,
+    v.forma_pagamento_id,
+    COUNT(*),
+    SUM(v.quantidade),
+    SUM(v.receita_total),
+    MIN(v.quantidade),
+    MAX(v.quantidade),
+    MIN(v.receita_total),
+    MAX(v.receita_total)
+FROM vendas v
+GROUP BY v.data, v.produto_id, v.cliente_id, v.forma_pagamento_id;
@@ -0,0 +1,7 @@
+-- Índices para a paginação por cursor (keyset em id)
+-- V7__Create_Vendas_Keyset_Indexes.sql
+-- As listagens de vendas por cliente/produto filtram pela dimensão e ordenam por id a partir do cursor;
+-- com (dimensão, id) o banco lê apenas as linhas da página, sem ordenar todas as vendas da dimensão.
+
+CREATE INDEX IF NOT EXISTS idx_vendas_cliente_id ON vendas(cliente_id, id);
+CREATE INDEX IF NOT EXISTS idx_vendas_produto_id ON vendas(produto_id, id);
@@ -0,0 +1,108 @@
+package com.univesp.pi.s3t20.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compara o resultado JSON do JMH (-rf json) com a baseline versionada e encerra com código 1 se algum
+// benchmark piorou além da tolerância. Chamado pelo perfil "benchmarks" logo depois do JMH; também pode ser
+// executado à parte: ComparadorBaseline <resultado.json> <baseline.json> [tolerancia, ex.: 0.15]
+public class ComparadorBaseline {
+
+    private static final String ALOCACAO = "gc.alloc.rate.norm";
+    // Diferenças de alocação abaixo disso (bytes por operação) são ruído do profiler
+    private static final double ALOCACAO_MINIMA = 64;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: ComparadorBaseline <resultado.json> <baseline.json> [tolerancia]");
+            System.exit(2);
+        }
+        File resultado = new File(args[0]);
+        File baseline = new File(args[1]);
+        double tolerancia = args.length > 2 ? Double.parseDouble(args[2]) : 0.15;
+        if (!baseline.exists()) {
+            System.out.println("Baseline não encontrada em " + baseline + "; copie " + resultado + " para criá-la.");
+            return;
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, JsonNode> anteriores = indexar(objectMapper.readTree(baseline));
+        List<String> regressoes = new ArrayList<>();
+        for (Map.Entry<String, JsonNode> atual : indexar(objectMapper.readTree(resultado)).entrySet()) {
+            JsonNode anterior = anteriores.get(atual.getKey());
+            if (anterior == null) {
+                System.out.printf("%-70s sem baseline%n", atual.getKey());
+                continue;
+            }
+            comparar(atual.getKey(), anterior, atual.getValue(), tolerancia, regressoes);
+        }
+
+        if (!regressoes.isEmpty()) {
+            System.err.println();
+            System.err.println(regressoes.size() + " regressão(ões) acima de " + Math.round(tolerancia * 100) + "%:");
+            regressoes.forEach(regressao -> System.err.println("  " + regressao));
+            System.exit(1);
+        }
+    }
+
+    private static void comparar(String nome, JsonNode anterior, JsonNode atual, double tolerancia, List<String> regressoes) {
+        JsonNode metricaAnterior = anterior.get("primaryMetric");
+        JsonNode metricaAtual = atual.get("primaryMetric");
+        double antes = metricaAnterior.get("score").asDouble();
+        double depois = metricaAtual.get("score").asDouble();
+        // Em thrpt maior é melhor; nos modos de tempo (avgt, sample, ss), menor
+        boolean maiorMelhor = "thrpt".equals(atual.get("mode").asText());
+        double variacao = antes == 0 ? 0 : (depois - antes) / antes;
+        double piora = maiorMelhor ? -variacao : variacao;
+        // Só é regressão se a diferença também passar da margem de erro das duas medições
+        double margem = erro(metricaAnterior) + erro(metricaAtual);
+        boolean regrediu = piora > tolerancia && Math.abs(depois - antes) > margem;
+        String unidade = metricaAtual.get("scoreUnit").asText();
+        System.out.printf("%-70s %12.3f -> %12.3f %-10s %+7.1f%%%s%n", nome, antes, depois, unidade, variacao * 100,
+                regrediu ? "  REGRESSÃO" : "");
+        if (regrediu) {
+            regressoes.add(String.format("%s: %.3f -> %.3f %s", nome, antes, depois, unidade));
+        }
+
+        JsonNode alocacaoAnterior = anterior.path("secondaryMetrics").path(ALOCACAO).path("score");
+        JsonNode alocacaoAtual = atual.path("secondaryMetrics").path(ALOCACAO).path("score");
+        if (alocacaoAnterior.isNumber() && alocacaoAtual.isNumber()) {
+            double bytesAntes = alocacaoAnterior.asDouble();
+            double bytesDepois = alocacaoAtual.asDouble();
+            if (bytesDepois - bytesAntes > Math.max(ALOCACAO_MINIMA, bytesAntes * tolerancia)) {
+                System.out.printf("%-70s %12.0f -> %12.0f B/op       REGRESSÃO%n", "  " + ALOCACAO, bytesAntes, bytesDepois);
+                regressoes.add(String.format("%s: %.0f -> %.0f B/op alocados", nome, bytesAntes, bytesDepois));
+            }
+        }
+    }
+
+    private static double erro(JsonNode metrica) {
+        double erro = metrica.path("scoreError").asDouble(0);
+        return Double.isNaN(erro) ? 0 : erro;
+    }
+
+    // Chave: benchmark, modo e parâmetros (ex.: ...ResumoBenchmark.resumo thrpt vendas=10000)
+    private static Map<String, JsonNode> indexar(JsonNode resultados) {
+        Map<String, JsonNode> indice = new LinkedHashMap<>();
+        for (JsonNode resultado : resultados) {
+            StringBuilder chave = new StringBuilder(resultado.get("benchmark").asText()
+                    .replace("com.univesp.pi.s3t20.benchmark.", ""))
+                    .append(' ').append(resultado.get("mode").asText());
+            Iterator<Map.Entry<String, JsonNode>> parametros = resultado.path("params").fields();
+            while (parametros.hasNext()) {
+                Map.Entry<String, JsonNode> parametro = parametros.next();
+                chave.append(' ').append(parametro.getKey()).append('=').append(parametro.getValue().asText());
+            }
+            indice.put(chave.toString(), resultado);
+        }
+        return indice;
+    }
+}
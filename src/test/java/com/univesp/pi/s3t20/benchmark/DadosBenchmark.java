@@ -0,0 +1,40 @@
+package com.univesp.pi.s3t20.benchmark;
+
+import com.univesp.pi.s3t20.PiUnivespApplication;
+import com.univesp.pi.s3t20.service.GeradorDadosService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Infraestrutura comum dos benchmarks que sobem a aplicação
+final class DadosBenchmark {
+
+    // Vendas sintéticas distribuídas em dois anos a partir desta data
+    static final LocalDate INICIO = LocalDate.of(2024, 1, 1);
+    static final int DIAS = 730;
+
+    private DadosBenchmark() {
+    }
+
+    // Banco isolado por execução, sem servidor web (argumentos têm precedência sobre application.properties)
+    static ConfigurableApplicationContext contexto(String... argumentos) {
+        List<String> todos = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"));
+        todos.addAll(List.of(argumentos));
+        return new SpringApplicationBuilder(PiUnivespApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(todos.toArray(String[]::new));
+    }
+
+    // Vendas com o perfil das planilhas de origem (GeradorDadosService), um cliente novo para cada 100 vendas
+    static void popularVendas(ConfigurableApplicationContext contexto, int vendas) {
+        contexto.getBean(GeradorDadosService.class)
+                .gerar(vendas / 100, vendas, INICIO, INICIO.plusDays(DIAS - 1), 42);
+    }
+}
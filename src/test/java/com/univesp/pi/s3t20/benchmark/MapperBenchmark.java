@@ -0,0 +1,215 @@
+package com.univesp.pi.s3t20.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.univesp.pi.s3t20.config.DimensaoJsonModule;
+import com.univesp.pi.s3t20.dto.VendaDTO;
+import com.univesp.pi.s3t20.dto.VendaResponseDTO;
+import com.univesp.pi.s3t20.model.Cliente;
+import com.univesp.pi.s3t20.model.FormaPagamento;
+import com.univesp.pi.s3t20.model.Produto;
+import com.univesp.pi.s3t20.model.Venda;
+import com.univesp.pi.s3t20.service.DimensaoJsonCache;
+import com.univesp.pi.s3t20.service.MapperService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Caminho de resposta das listagens sem banco: Venda -> VendaResponseDTO, VendaDTO -> Venda, a serialização
+// Jackson de uma página de DTOs e a resposta de /vendas com e sem as dimensões pré-serializadas. Ver gc.alloc.rate.norm (bytes por operação) junto com a vazão.
+// Executar com: ./mvnw -Pbenchmarks test -Djmh.include=MapperBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private final MapperService mapperService = mapperService(new DimensaoJsonCache(0));
+    private Venda venda;
+    private VendaDTO vendaDTO;
+
+    @Setup
+    public void iniciar() {
+        venda = novaVenda(0, new Random(42));
+        vendaDTO = mapperService.toVendaDTO(venda);
+    }
+
+    // Só a serialização varia com o tamanho da página: uma venda, a página padrão e a máxima
+    @State(Scope.Benchmark)
+    public static class Pagina {
+
+        @Param({"1", "100", "1000"})
+        public int tamanho;
+
+        private ObjectMapper objectMapper;
+        private List<VendaResponseDTO> vendas;
+
+        @Setup
+        public void iniciar() {
+            // Mesma configuração base do ObjectMapper do Spring Boot (JavaTimeModule, datas ISO)
+            objectMapper = Jackson2ObjectMapperBuilder.json().build();
+            MapperService mapperService = mapperService(new DimensaoJsonCache(0));
+            Random random = new Random(42);
+            vendas = new ArrayList<>(tamanho);
+            for (int i = 0; i < tamanho; i++) {
+                vendas.add(mapperService.toVendaResponseDTO(novaVenda(i, random)));
+            }
+        }
+    }
+
+    // Resposta de /vendas a partir das entidades: Venda -> VendaResponseDTO e serialização. Antes (false), cada linha
+    // copia e serializa as três dimensões; depois (true), os DTOs são compartilhados (DimensaoJsonCache) e o JSON
+    // deles é copiado pronto (DimensaoJsonModule). Ver bytes (vazão em bytes/ms) e gc.alloc.rate.norm (por resposta).
+    @State(Scope.Benchmark)
+    public static class Resposta {
+
+        @Param({"100", "1000"})
+        public int tamanho;
+
+        @Param({"false", "true"})
+        public boolean dimensoesPreSerializadas;
+
+        private MapperService mapperService;
+        private ObjectMapper objectMapper;
+        private List<Venda> vendas;
+
+        @Setup
+        public void iniciar() {
+            DimensaoJsonCache cache = new DimensaoJsonCache(dimensoesPreSerializadas ? 10000 : 0);
+            mapperService = mapperService(cache);
+            objectMapper = dimensoesPreSerializadas
+                    ? Jackson2ObjectMapperBuilder.json().modulesToInstall(new DimensaoJsonModule(cache)).build()
+                    : Jackson2ObjectMapperBuilder.json().build();
+            Random random = new Random(42);
+            vendas = new ArrayList<>(tamanho);
+            for (int i = 0; i < tamanho; i++) {
+                vendas.add(novaVenda(i, random));
+            }
+        }
+    }
+
+    // Bytes escritos, somados pelo JMH como vazão (bytes/ms)
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Saida {
+
+        public long bytes;
+    }
+
+    @Benchmark
+    public long respostaListagem(Resposta resposta, Saida saida) throws Exception {
+        List<VendaResponseDTO> pagina = new ArrayList<>(resposta.vendas.size());
+        for (Venda venda : resposta.vendas) {
+            pagina.add(resposta.mapperService.toVendaResponseDTO(venda));
+        }
+        ContadorBytes corpo = new ContadorBytes();
+        resposta.objectMapper.writeValue(corpo, pagina);
+        saida.bytes += corpo.total;
+        return corpo.total;
+    }
+
+    @Benchmark
+    public VendaResponseDTO toVendaResponseDTO() {
+        return mapperService.toVendaResponseDTO(venda);
+    }
+
+    @Benchmark
+    public Venda toVenda() {
+        return mapperService.toVenda(vendaDTO);
+    }
+
+    // Corpo de uma página de /vendas escrito num stream descartável, como na resposta HTTP
+    @Benchmark
+    public OutputStream serializarPagina(Pagina pagina) throws Exception {
+        OutputStream saida = OutputStream.nullOutputStream();
+        pagina.objectMapper.writeValue(saida, pagina.vendas);
+        return saida;
+    }
+
+    private static final class ContadorBytes extends OutputStream {
+
+        private long total;
+
+        @Override
+        public void write(int b) {
+            total++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            total += len;
+        }
+    }
+
+    // Fora do Spring: o cache de dimensões entra no campo injetado de MapperService (com 0, uma cópia por linha)
+    private static MapperService mapperService(DimensaoJsonCache cache) {
+        MapperService mapperService = new MapperService();
+        ReflectionTestUtils.setField(mapperService, "dimensaoJsonCache", cache);
+        return mapperService;
+    }
+
+    private static Venda novaVenda(int i, Random random) {
+        Produto produto = new Produto();
+        produto.setId((long) random.nextInt(80));
+        produto.setIdProduto(String.format("P%03d", produto.getId()));
+        produto.setProduto("Coxinha de frango");
+        produto.setCategoria("Salgados");
+        produto.setPedidoMinimo(25);
+        produto.setPrecoSugerido(new BigDecimal("0.80"));
+        produto.setCentoPreco(new BigDecimal("80.00"));
+        produto.setIsActive(true);
+
+        Cliente cliente = new Cliente();
+        cliente.setId((long) random.nextInt(50));
+        cliente.setIdCliente(String.format("C%03d", cliente.getId()));
+        cliente.setNomeCliente("João Pereira");
+        cliente.setBairro("Centro");
+        cliente.setCidade("São Paulo");
+        cliente.setTipoCliente("Pessoa Física");
+        cliente.setIsActive(true);
+
+        FormaPagamento formaPagamento = new FormaPagamento();
+        formaPagamento.setId((long) random.nextInt(4));
+        formaPagamento.setIdPagamento("FP0" + formaPagamento.getId());
+        formaPagamento.setFormaPagamento("Pix");
+        formaPagamento.setIsActive(true);
+
+        int quantidade = 1 + random.nextInt(200);
+        BigDecimal preco = BigDecimal.valueOf(50 + random.nextInt(500), 2);
+        Venda venda = new Venda();
+        venda.setId((long) i);
+        venda.setIdVenda(String.format("V%05d", i));
+        venda.setData(LocalDate.of(2025, 9, 1).plusDays(random.nextInt(30)));
+        venda.setQuantidade(quantidade);
+        venda.setPrecoUnitario(preco);
+        venda.setReceitaTotal(preco.multiply(BigDecimal.valueOf(quantidade)));
+        venda.setProduto(produto);
+        venda.setCliente(cliente);
+        venda.setFormaPagamento(formaPagamento);
+        venda.setIsActive(true);
+        venda.setCreatedAt(LocalDateTime.of(2025, 9, 1, 12, 0));
+        venda.setUpdatedAt(LocalDateTime.of(2025, 9, 1, 12, 0));
+        return venda;
+    }
+}
@@ -0,0 +1,146 @@
+package com.univesp.pi.s3t20.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Consultas por período numa tabela de vendas comum (índice em data) contra a mesma tabela particionada por mês,
+// como em V10__Partition_Vendas: o resumo de um mês (COUNT/SUM, como obterResumoPorPeriodo) e a primeira página de
+// /vendas/periodo (data BETWEEN e id > cursor, ORDER BY id LIMIT 100). Cada chamada sorteia um mês dos dois anos.
+// Precisa de um PostgreSQL; as tabelas ficam no schema benchmark_particoes, recriado a cada execução.
+// Executar com: ./mvnw -Pbenchmarks test -Djmh.include=ParticionamentoBenchmark -Dpostgres.url=jdbc:postgresql://localhost:5432/postgres
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParticionamentoBenchmark {
+
+    private static final String SCHEMA = "benchmark_particoes";
+    private static final int MESES = DadosBenchmark.DIAS / 30;
+    private static final int PAGINA = 100;
+
+    @Param({"1000000"})
+    public int vendas;
+
+    private Connection conexao;
+    private PreparedStatement resumoComum;
+    private PreparedStatement resumoParticionada;
+    private PreparedStatement paginaComum;
+    private PreparedStatement paginaParticionada;
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void iniciar() throws SQLException {
+        String url = System.getProperty("postgres.url", "");
+        if (url.isBlank()) {
+            throw new IllegalStateException("ParticionamentoBenchmark precisa de -Dpostgres.url");
+        }
+        conexao = DriverManager.getConnection(url, System.getProperty("postgres.username", "postgres"),
+                System.getProperty("postgres.password", ""));
+        try (Statement statement = conexao.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+            statement.execute("SET search_path TO " + SCHEMA);
+            String colunas = "(id BIGINT NOT NULL, data DATE NOT NULL, produto_id BIGINT NOT NULL, " +
+                    "cliente_id BIGINT NOT NULL, quantidade INTEGER NOT NULL, receita_total NUMERIC(12,2) NOT NULL)";
+            statement.execute("CREATE TABLE vendas_comum " + colunas);
+            statement.execute("CREATE TABLE vendas_particionada " + colunas + " PARTITION BY RANGE (data)");
+            for (int i = 0; i <= MESES; i++) {
+                LocalDate mes = DadosBenchmark.INICIO.plusMonths(i);
+                statement.execute(String.format("CREATE TABLE vendas_particionada_%d PARTITION OF vendas_particionada " +
+                        "FOR VALUES FROM ('%s') TO ('%s')", i, mes, mes.plusMonths(1)));
+            }
+            // Mesmas linhas nas duas tabelas, distribuídas nos dois anos a partir de DadosBenchmark.INICIO
+            statement.execute("SELECT setseed(0.42)");
+            statement.execute("INSERT INTO vendas_comum SELECT i, DATE '" + DadosBenchmark.INICIO + "' + (random() * "
+                    + (DadosBenchmark.DIAS - 1) + ")::int, 1 + (random() * 49)::int, 1 + (random() * 9999)::int, "
+                    + "1 + (random() * 199)::int, round((random() * 500)::numeric, 2) FROM generate_series(1, " + vendas + ") i");
+            statement.execute("INSERT INTO vendas_particionada SELECT * FROM vendas_comum");
+            for (String tabela : new String[]{"vendas_comum", "vendas_particionada"}) {
+                statement.execute("ALTER TABLE " + tabela + " ADD PRIMARY KEY (id, data)");
+                statement.execute("CREATE INDEX ON " + tabela + " (data)");
+                statement.execute("ANALYZE " + tabela);
+            }
+        }
+        resumoComum = conexao.prepareStatement(resumo("vendas_comum"));
+        resumoParticionada = conexao.prepareStatement(resumo("vendas_particionada"));
+        paginaComum = conexao.prepareStatement(pagina("vendas_comum"));
+        paginaParticionada = conexao.prepareStatement(pagina("vendas_particionada"));
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws SQLException {
+        try (Statement statement = conexao.createStatement()) {
+            statement.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+        }
+        conexao.close();
+    }
+
+    @Benchmark
+    public long resumoMesComum() throws SQLException {
+        return consultar(resumoComum);
+    }
+
+    @Benchmark
+    public long resumoMesParticionada() throws SQLException {
+        return consultar(resumoParticionada);
+    }
+
+    @Benchmark
+    public long paginaPeriodoComum() throws SQLException {
+        return consultar(paginaComum);
+    }
+
+    @Benchmark
+    public long paginaPeriodoParticionada() throws SQLException {
+        return consultar(paginaParticionada);
+    }
+
+    private static String resumo(String tabela) {
+        return "SELECT COUNT(*), SUM(receita_total), SUM(quantidade) FROM " + tabela + " WHERE data BETWEEN ? AND ?";
+    }
+
+    private static String pagina(String tabela) {
+        return "SELECT * FROM " + tabela + " WHERE data BETWEEN ? AND ? AND id > 0 ORDER BY id LIMIT " + PAGINA;
+    }
+
+    // Executa a consulta para um mês sorteado e lê todas as colunas de todas as linhas
+    private long consultar(PreparedStatement consulta) throws SQLException {
+        LocalDate inicio = DadosBenchmark.INICIO.plusMonths(random.nextInt(MESES));
+        consulta.setDate(1, Date.valueOf(inicio));
+        consulta.setDate(2, Date.valueOf(inicio.plusMonths(1).minusDays(1)));
+        long soma = 0;
+        try (ResultSet resultado = consulta.executeQuery()) {
+            int colunas = resultado.getMetaData().getColumnCount();
+            while (resultado.next()) {
+                for (int i = 1; i <= colunas; i++) {
+                    soma += resultado.getString(i) == null ? 0 : 1;
+                }
+            }
+        }
+        return soma;
+    }
+}
@@ -0,0 +1,77 @@
+package com.univesp.pi.s3t20.benchmark;
+
+import com.univesp.pi.s3t20.service.Centavos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Acumulação de receita: caminho antigo (BigDecimal.doubleValue() por linha, total em Double), soma em BigDecimal
+// e soma em centavos (long). Rodar com o profiler de GC (já incluído no perfil "benchmarks") e comparar
+// gc.alloc.rate.norm, que mostra os bytes alocados por operação.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReceitaBenchmark {
+
+    @Param({"100000"})
+    public int vendas;
+
+    private List<BigDecimal> receitas;
+    private long[] receitasCentavos;
+
+    @Setup
+    public void iniciar() {
+        Random random = new Random(42);
+        receitas = new ArrayList<>(vendas);
+        receitasCentavos = new long[vendas];
+        for (int i = 0; i < vendas; i++) {
+            long centavos = 100 + random.nextInt(100_000);
+            receitas.add(BigDecimal.valueOf(centavos, 2));
+            receitasCentavos[i] = centavos;
+        }
+    }
+
+    // Como o resumo era calculado antes: double por linha e total boxed na resposta
+    @Benchmark
+    public Double somaDouble() {
+        return receitas.stream()
+            .mapToDouble(BigDecimal::doubleValue)
+            .sum();
+    }
+
+    @Benchmark
+    public BigDecimal somaBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal receita : receitas) {
+            total = total.add(receita);
+        }
+        return total;
+    }
+
+    // Caminho atual: centavos já carregados como long, BigDecimal criado uma única vez no final
+    @Benchmark
+    public BigDecimal somaCentavos() {
+        long total = 0;
+        for (long centavos : receitasCentavos) {
+            total = Centavos.somar(total, centavos);
+        }
+        return Centavos.paraBigDecimal(total);
+    }
+}
@@ -0,0 +1,67 @@
+package com.univesp.pi.s3t20.benchmark;
+
+import com.univesp.pi.s3t20.service.VendaService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// VendaService.obterResumo e obterResumoPorPeriodo como chamados pelo VendaResource (rollup diário no H2,
+// sem cubo), em volumes diferentes: o custo deve acompanhar o número de chaves do rollup, não o de vendas.
+// Executar com: ./mvnw -Pbenchmarks test -Djmh.include=ResumoBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResumoBenchmark {
+
+    private static final LocalDate INICIO_MES = DadosBenchmark.INICIO.plusMonths(6);
+
+    @Param({"10000", "100000"})
+    public int vendas;
+
+    private ConfigurableApplicationContext contexto;
+    private VendaService vendaService;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = DadosBenchmark.contexto();
+        vendaService = contexto.getBean(VendaService.class);
+        DadosBenchmark.popularVendas(contexto, vendas);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public VendaService.VendaResumo resumo() {
+        return vendaService.obterResumo();
+    }
+
+    @Benchmark
+    public VendaService.VendaResumo resumoMes() {
+        return vendaService.obterResumoPorPeriodo(INICIO_MES, INICIO_MES.plusMonths(1).minusDays(1));
+    }
+
+    @Benchmark
+    public VendaService.VendaResumo resumoAno() {
+        return vendaService.obterResumoPorPeriodo(DadosBenchmark.INICIO, DadosBenchmark.INICIO.plusYears(1).minusDays(1));
+    }
+}
@@ -0,0 +1,106 @@
+package com.univesp.pi.s3t20.benchmark;
+
+import com.univesp.pi.s3t20.dto.VendaAnaliseDTO;
+import com.univesp.pi.s3t20.model.Venda;
+import com.univesp.pi.s3t20.repository.VendaAnaliseRepository.Dimensao;
+import com.univesp.pi.s3t20.repository.VendaRepository;
+import com.univesp.pi.s3t20.service.VendaCubeService;
+import com.univesp.pi.s3t20.service.VendaResumoDiarioService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Compara o caminho JPA (entidades e agregado sobre vendas), o rollup diário e o cubo em memória
+// para o resumo e a análise por categoria/mês. Executar com: ./mvnw -Pbenchmarks test
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VendaCubeBenchmark {
+
+    private static final List<Dimensao> CATEGORIA_MES = List.of(Dimensao.CATEGORIA, Dimensao.MES);
+
+    @Param({"100000"})
+    public int vendas;
+
+    private ConfigurableApplicationContext contexto;
+    private TransactionTemplate transacao;
+    private VendaRepository vendaRepository;
+    private VendaResumoDiarioService vendaResumoDiarioService;
+    private VendaCubeService vendaCubeService;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = DadosBenchmark.contexto("--cube.enabled=true");
+
+        vendaRepository = contexto.getBean(VendaRepository.class);
+        vendaResumoDiarioService = contexto.getBean(VendaResumoDiarioService.class);
+        vendaCubeService = contexto.getBean(VendaCubeService.class);
+        transacao = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+        transacao.setReadOnly(true);
+
+        DadosBenchmark.popularVendas(contexto, vendas);
+        vendaCubeService.carregar();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    // Caminho original: hidrata todas as entidades e soma em Java
+    @Benchmark
+    public BigDecimal resumoJpaEntidades() {
+        return transacao.execute(status -> {
+            BigDecimal total = BigDecimal.ZERO;
+            for (Venda venda : vendaRepository.findAll()) {
+                total = total.add(venda.getReceitaTotal());
+            }
+            return total;
+        });
+    }
+
+    @Benchmark
+    public VendaRepository.ResumoAgregado resumoJpaAgregado() {
+        return transacao.execute(status -> vendaRepository.agregarResumo());
+    }
+
+    @Benchmark
+    public VendaRepository.ResumoAgregado resumoRollup() {
+        return transacao.execute(status -> vendaResumoDiarioService.agregarResumo());
+    }
+
+    @Benchmark
+    public Object resumoCubo() {
+        return vendaCubeService.resumo(null, null);
+    }
+
+    @Benchmark
+    public List<VendaAnaliseDTO> analiseRollup() {
+        return transacao.execute(status -> vendaResumoDiarioService.agrupar(CATEGORIA_MES, null, null));
+    }
+
+    @Benchmark
+    public List<VendaAnaliseDTO> analiseCubo() {
+        return vendaCubeService.agrupar(CATEGORIA_MES, null, null);
+    }
+}
@@ -0,0 +1,115 @@
+package com.univesp.pi.s3t20.benchmark;
+
+import com.univesp.pi.s3t20.model.Cliente;
+import com.univesp.pi.s3t20.model.FormaPagamento;
+import com.univesp.pi.s3t20.model.Produto;
+import com.univesp.pi.s3t20.model.Venda;
+import com.univesp.pi.s3t20.service.VendaService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+// Vazão de criação de vendas: uma chamada de VendaService.criar por venda (o caminho do POST /vendas)
+// contra VendaService.criarLote (POST /vendas/batch). Resultado em vendas por segundo.
+// Executar com: ./mvnw -Pbenchmarks test
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VendaLoteBenchmark {
+
+    private static final int LOTE = 500;
+
+    private ConfigurableApplicationContext contexto;
+    private VendaService vendaService;
+    private List<Produto> produtos;
+    private List<Cliente> clientes;
+    private List<FormaPagamento> formas;
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = DadosBenchmark.contexto();
+
+        vendaService = contexto.getBean(VendaService.class);
+        JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+        produtos = referencias(jdbc.queryForList("SELECT id FROM produtos", Long.class), Produto::new, Produto::setId);
+        clientes = referencias(jdbc.queryForList("SELECT id FROM clientes", Long.class), Cliente::new, Cliente::setId);
+        formas = referencias(jdbc.queryForList("SELECT id FROM formas_pagamento", Long.class), FormaPagamento::new, FormaPagamento::setId);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public int criarUmaAUma() {
+        int criadas = 0;
+        for (Venda venda : novasVendas()) {
+            if (vendaService.criar(venda).isPresent()) {
+                criadas++;
+            }
+        }
+        return criadas;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public int criarEmLote() {
+        return vendaService.criarLote(novasVendas()).size();
+    }
+
+    // Vendas como chegam do VendaResource: dimensões só com o id preenchido
+    private List<Venda> novasVendas() {
+        LocalDate inicio = LocalDate.of(2024, 1, 1);
+        List<Venda> vendas = new ArrayList<>(LOTE);
+        for (int i = 0; i < LOTE; i++) {
+            Venda venda = new Venda();
+            venda.setData(inicio.plusDays(random.nextInt(730)));
+            venda.setQuantidade(1 + random.nextInt(200));
+            venda.setPrecoUnitario(BigDecimal.valueOf(50 + random.nextInt(500), 2));
+            venda.setProduto(produtos.get(random.nextInt(produtos.size())));
+            venda.setCliente(clientes.get(random.nextInt(clientes.size())));
+            venda.setFormaPagamento(formas.get(random.nextInt(formas.size())));
+            vendas.add(venda);
+        }
+        return vendas;
+    }
+
+    private static <T> List<T> referencias(List<Long> ids, Supplier<T> nova,
+                                           BiConsumer<T, Long> definirId) {
+        List<T> referencias = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T referencia = nova.get();
+            definirId.accept(referencia, id);
+            referencias.add(referencia);
+        }
+        return referencias;
+    }
+}
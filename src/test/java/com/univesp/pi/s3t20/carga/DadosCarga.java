@@ -0,0 +1,32 @@
+package com.univesp.pi.s3t20.carga;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// Ids e faixas existentes no banco após a geração, sorteados pelas requisições do mix
+record DadosCarga(long[] vendas, long[] clientes, long[] produtos, BigDecimal[] precos, long[] formasPagamento,
+                  String[] categorias, LocalDate inicio, int dias) {
+
+    static DadosCarga carregar(JdbcTemplate jdbcTemplate, LocalDate inicio, LocalDate fim) {
+        List<Map<String, Object>> produtos = jdbcTemplate.queryForList(
+                "SELECT id, COALESCE(preco_sugerido, custo_unitario, 1.00) AS preco FROM produtos ORDER BY id");
+        return new DadosCarga(
+                ids(jdbcTemplate, "SELECT id FROM vendas ORDER BY id"),
+                ids(jdbcTemplate, "SELECT id FROM clientes ORDER BY id"),
+                produtos.stream().mapToLong(produto -> ((Number) produto.get("id")).longValue()).toArray(),
+                produtos.stream().map(produto -> (BigDecimal) produto.get("preco")).toArray(BigDecimal[]::new),
+                ids(jdbcTemplate, "SELECT id FROM formas_pagamento ORDER BY id"),
+                jdbcTemplate.queryForList("SELECT DISTINCT categoria FROM produtos ORDER BY categoria", String.class)
+                        .toArray(String[]::new),
+                inicio,
+                (int) (fim.toEpochDay() - inicio.toEpochDay()) + 1);
+    }
+
+    private static long[] ids(JdbcTemplate jdbcTemplate, String sql) {
+        return jdbcTemplate.queryForList(sql, Long.class).stream().mapToLong(Long::longValue).toArray();
+    }
+}
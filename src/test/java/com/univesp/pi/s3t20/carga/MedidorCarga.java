@@ -0,0 +1,69 @@
+package com.univesp.pi.s3t20.carga;
+
+import com.univesp.pi.s3t20.carga.RelatorioCarga.Etapa;
+import com.univesp.pi.s3t20.carga.RelatorioCarga.ResultadoOperacao;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latências em microssegundos num Recorder do HdrHistogram por operação: as threads gravam sem bloqueio e cada
+// etapa lê o intervalo acumulado desde a anterior
+final class MedidorCarga {
+
+    // Três dígitos significativos: erro máximo de 0,1% em qualquer percentil
+    private static final int DIGITOS = 3;
+
+    private final Map<String, Recorder> gravadores = new LinkedHashMap<>();
+    private final Map<String, LongAdder> erros = new LinkedHashMap<>();
+
+    MedidorCarga(List<MixCarga.Operacao> operacoes) {
+        for (MixCarga.Operacao operacao : operacoes) {
+            gravadores.put(operacao.nome, new Recorder(DIGITOS));
+            erros.put(operacao.nome, new LongAdder());
+        }
+    }
+
+    void registrar(MixCarga.Operacao operacao, long nanos, boolean sucesso) {
+        gravadores.get(operacao.nome).recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        if (!sucesso) {
+            erros.get(operacao.nome).increment();
+        }
+    }
+
+    // Descarta o que foi gravado até aqui (aquecimento)
+    void descartar() {
+        gravadores.values().forEach(Recorder::reset);
+        erros.values().forEach(LongAdder::reset);
+    }
+
+    Etapa fechar(int concorrencia, double segundos) {
+        List<ResultadoOperacao> operacoes = new ArrayList<>();
+        Histogram total = new Histogram(DIGITOS);
+        long errosTotal = 0;
+        for (Map.Entry<String, Recorder> gravador : gravadores.entrySet()) {
+            Histogram intervalo = gravador.getValue().getIntervalHistogram();
+            long errosOperacao = erros.get(gravador.getKey()).sumThenReset();
+            total.add(intervalo);
+            errosTotal += errosOperacao;
+            operacoes.add(resultado(gravador.getKey(), intervalo, errosOperacao, segundos));
+        }
+        return new Etapa(concorrencia, segundos, resultado("total", total, errosTotal, segundos), operacoes);
+    }
+
+    private static ResultadoOperacao resultado(String nome, Histogram histograma, long erros, double segundos) {
+        long requisicoes = histograma.getTotalCount();
+        return new ResultadoOperacao(nome, requisicoes, erros, requisicoes / segundos,
+                milissegundos(histograma, 50), milissegundos(histograma, 99), milissegundos(histograma, 99.9),
+                requisicoes == 0 ? 0 : histograma.getMaxValue() / 1000.0);
+    }
+
+    private static double milissegundos(Histogram histograma, double percentil) {
+        return histograma.getTotalCount() == 0 ? 0 : histograma.getValueAtPercentile(percentil) / 1000.0;
+    }
+}
@@ -0,0 +1,160 @@
+package com.univesp.pi.s3t20.carga;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Mix ponderado de requisições contra VendaResource, ClienteResource e ProdutoResource: leituras por id e
+// paginadas, buscas por cliente, produto, categoria e período, resumos e criação de vendas
+final class MixCarga {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    // Janela das buscas e resumos por período
+    private static final int DIAS_PERIODO = 30;
+
+    // Pesos padrão (somam 100); sobrescritos por -Dcarga.mix=vendas-criar=0,vendas-resumo=20
+    private static final Map<String, Integer> PESOS = new LinkedHashMap<>();
+
+    static {
+        PESOS.put("vendas-listar", 10);
+        PESOS.put("vendas-buscar", 20);
+        PESOS.put("clientes-buscar", 10);
+        PESOS.put("produtos-buscar", 10);
+        PESOS.put("vendas-cliente", 10);
+        PESOS.put("vendas-produto", 5);
+        PESOS.put("vendas-periodo", 10);
+        PESOS.put("produtos-categoria", 5);
+        PESOS.put("vendas-resumo", 5);
+        PESOS.put("vendas-resumo-periodo", 5);
+        PESOS.put("vendas-criar", 10);
+    }
+
+    private final String baseUrl;
+    private final DadosCarga dados;
+    private final List<Operacao> operacoes = new ArrayList<>();
+    private final int[] acumulados;
+    private final int total;
+
+    MixCarga(String baseUrl, DadosCarga dados, String sobrescritas) {
+        this.baseUrl = baseUrl;
+        this.dados = dados;
+        Map<String, Integer> pesos = new LinkedHashMap<>(PESOS);
+        if (sobrescritas != null && !sobrescritas.isBlank()) {
+            for (String item : sobrescritas.split(",")) {
+                String[] partes = item.trim().split("=");
+                if (partes.length != 2 || !pesos.containsKey(partes[0])) {
+                    throw new IllegalArgumentException("Item inválido em carga.mix: " + item + " (operações: " + PESOS.keySet() + ")");
+                }
+                pesos.put(partes[0], Integer.parseInt(partes[1]));
+            }
+        }
+        for (Map.Entry<String, Integer> peso : pesos.entrySet()) {
+            if (peso.getValue() > 0) {
+                operacoes.add(new Operacao(peso.getKey(), peso.getValue()));
+            }
+        }
+        if (operacoes.isEmpty()) {
+            throw new IllegalArgumentException("carga.mix sem nenhuma operação com peso positivo");
+        }
+        acumulados = new int[operacoes.size()];
+        int soma = 0;
+        for (int i = 0; i < operacoes.size(); i++) {
+            soma += operacoes.get(i).peso;
+            acumulados[i] = soma;
+        }
+        total = soma;
+    }
+
+    List<Operacao> operacoes() {
+        return operacoes;
+    }
+
+    Operacao sortear(Random random) {
+        int sorteio = random.nextInt(total);
+        for (int i = 0; i < acumulados.length; i++) {
+            if (sorteio < acumulados[i]) {
+                return operacoes.get(i);
+            }
+        }
+        return operacoes.get(operacoes.size() - 1);
+    }
+
+    HttpRequest requisicao(Operacao operacao, Random random) {
+        return switch (operacao.nome) {
+            case "vendas-listar" -> get("/vendas?limit=100");
+            case "vendas-buscar" -> get("/vendas/" + sortear(dados.vendas(), random));
+            case "clientes-buscar" -> get("/clientes/" + sortear(dados.clientes(), random));
+            case "produtos-buscar" -> get("/produtos/" + sortear(dados.produtos(), random));
+            case "vendas-cliente" -> get("/vendas/cliente/" + sortear(dados.clientes(), random) + "?limit=100");
+            case "vendas-produto" -> get("/vendas/produto/" + sortear(dados.produtos(), random) + "?limit=100");
+            case "vendas-periodo" -> {
+                LocalDate inicio = dia(random);
+                yield get("/vendas/periodo?dataInicio=" + inicio + "&dataFim=" + inicio.plusDays(DIAS_PERIODO - 1) + "&limit=100");
+            }
+            case "produtos-categoria" -> get("/produtos/categoria/"
+                    + URLEncoder.encode(dados.categorias()[random.nextInt(dados.categorias().length)], StandardCharsets.UTF_8)
+                    .replace("+", "%20"));
+            case "vendas-resumo" -> get("/vendas/resumo");
+            case "vendas-resumo-periodo" -> {
+                LocalDate inicio = dia(random);
+                yield get("/vendas/resumo/periodo?dataInicio=" + inicio + "&dataFim=" + inicio.plusDays(DIAS_PERIODO - 1));
+            }
+            case "vendas-criar" -> post("/vendas", novaVenda(random));
+            default -> throw new IllegalStateException("Operação desconhecida: " + operacao.nome);
+        };
+    }
+
+    // Mesmo corpo aceito por POST /vendas nos testes de integração; o preço vem do cadastro do produto sorteado
+    private String novaVenda(Random random) {
+        int produto = random.nextInt(dados.produtos().length);
+        return "{\"data\":\"" + dia(random) + "\""
+                + ",\"produtoId\":" + dados.produtos()[produto]
+                + ",\"quantidade\":" + (1 + random.nextInt(10)) * 25
+                + ",\"precoUnitario\":" + dados.precos()[produto].toPlainString()
+                + ",\"clienteId\":" + sortear(dados.clientes(), random)
+                + ",\"formaPagamentoId\":" + sortear(dados.formasPagamento(), random) + "}";
+    }
+
+    private LocalDate dia(Random random) {
+        return dados.inicio().plusDays(random.nextInt(dados.dias()));
+    }
+
+    private HttpRequest get(String caminho) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + caminho))
+                .timeout(TIMEOUT)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String caminho, String corpo) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + caminho))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                .build();
+    }
+
+    private static long sortear(long[] ids, Random random) {
+        return ids[random.nextInt(ids.length)];
+    }
+
+    static final class Operacao {
+
+        final String nome;
+        final int peso;
+
+        Operacao(String nome, int peso) {
+            this.nome = nome;
+            this.peso = peso;
+        }
+    }
+}
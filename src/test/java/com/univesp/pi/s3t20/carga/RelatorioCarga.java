@@ -0,0 +1,111 @@
+package com.univesp.pi.s3t20.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+// Relatório do teste de carga: uma linha por etapa de concorrência, o detalhe por endpoint e o ponto de saturação,
+// impresso no console e gravado em Markdown (leitura) e JSON (comparação entre execuções)
+final class RelatorioCarga {
+
+    // Dobrar a concorrência e ganhar menos que isso em vazão indica que o servidor saturou
+    static final double GANHO_MINIMO = 0.10;
+
+    private RelatorioCarga() {
+    }
+
+    record ResultadoOperacao(String operacao, long requisicoes, long erros, double vazao, double p50, double p99,
+                             double p999, double maximo) {
+    }
+
+    record Etapa(int concorrencia, double segundos, ResultadoOperacao total, List<ResultadoOperacao> operacoes) {
+    }
+
+    // Primeira etapa em que a vazão deixou de crescer pelo menos GANHO_MINIMO em relação à anterior
+    static Optional<Etapa> saturacao(List<Etapa> etapas) {
+        for (int i = 1; i < etapas.size(); i++) {
+            if (etapas.get(i).total().vazao() < etapas.get(i - 1).total().vazao() * (1 + GANHO_MINIMO)) {
+                return Optional.of(etapas.get(i));
+            }
+        }
+        return Optional.empty();
+    }
+
+    static void imprimir(Etapa etapa, PrintStream saida) {
+        saida.printf(Locale.ROOT, "%nConcorrência %d: %.1f req/s, p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, erros %d%n",
+                etapa.concorrencia(), etapa.total().vazao(), etapa.total().p50(), etapa.total().p99(),
+                etapa.total().p999(), etapa.total().erros());
+        for (ResultadoOperacao operacao : etapa.operacoes()) {
+            saida.printf(Locale.ROOT, "  %-22s %9.1f req/s  p50 %8.2f  p99 %8.2f  p99.9 %8.2f  máx %8.2f ms  erros %d%n",
+                    operacao.operacao(), operacao.vazao(), operacao.p50(), operacao.p99(), operacao.p999(),
+                    operacao.maximo(), operacao.erros());
+        }
+    }
+
+    static String markdown(Map<String, Object> parametros, List<Etapa> etapas) {
+        StringBuilder md = new StringBuilder("# Teste de carga\n\n");
+        parametros.forEach((chave, valor) -> md.append("- ").append(chave).append(": ").append(valor).append('\n'));
+        md.append("\nLatências em ms medidas pelo cliente (modelo fechado: cada usuário espera a resposta antes da próxima requisição).\n\n");
+        md.append("| Concorrência | Req/s | p50 | p99 | p99.9 | Máx | Erros |\n");
+        md.append("|---:|---:|---:|---:|---:|---:|---:|\n");
+        for (Etapa etapa : etapas) {
+            linha(md, String.valueOf(etapa.concorrencia()), etapa.total());
+        }
+        Optional<Etapa> saturacao = saturacao(etapas);
+        md.append('\n');
+        if (saturacao.isPresent()) {
+            md.append(String.format(Locale.ROOT,
+                    "**Saturação:** a vazão cresce menos de %d%% a partir de %d usuários simultâneos (%.1f req/s, p99 de %.2f ms).%n",
+                    Math.round(GANHO_MINIMO * 100), saturacao.get().concorrencia(), saturacao.get().total().vazao(),
+                    saturacao.get().total().p99()));
+        } else {
+            md.append("**Saturação:** não atingida; a vazão ainda cresce na maior concorrência testada.\n");
+        }
+        for (Etapa etapa : etapas) {
+            md.append("\n## Concorrência ").append(etapa.concorrencia()).append("\n\n");
+            md.append("| Operação | Req/s | p50 | p99 | p99.9 | Máx | Erros |\n");
+            md.append("|---|---:|---:|---:|---:|---:|---:|\n");
+            for (ResultadoOperacao operacao : etapa.operacoes()) {
+                linha(md, operacao.operacao(), operacao);
+            }
+        }
+        return md.toString();
+    }
+
+    // Grava relatorio.md e relatorio.json no diretório informado e devolve o caminho do Markdown
+    static Path gravar(Path diretorio, Map<String, Object> parametros, List<Etapa> etapas) throws IOException {
+        Files.createDirectories(diretorio);
+        Path markdown = diretorio.resolve("relatorio.md");
+        Files.writeString(markdown, markdown(parametros, etapas), StandardCharsets.UTF_8);
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT);
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("geradoEm", LocalDateTime.now());
+        json.put("parametros", parametros);
+        // Concorrência em que a vazão parou de crescer; nulo se não saturou
+        json.put("saturacao", saturacao(etapas).map(Etapa::concorrencia).orElse(null));
+        json.put("etapas", etapas);
+        objectMapper.writeValue(diretorio.resolve("relatorio.json").toFile(), json);
+        return markdown;
+    }
+
+    private static void linha(StringBuilder md, String rotulo, ResultadoOperacao resultado) {
+        md.append(String.format(Locale.ROOT, "| %s | %.1f | %.2f | %.2f | %.2f | %.2f | %d |%n", rotulo,
+                resultado.vazao(), resultado.p50(), resultado.p99(), resultado.p999(), resultado.maximo(),
+                resultado.erros()));
+    }
+}
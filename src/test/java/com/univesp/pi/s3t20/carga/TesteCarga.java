@@ -0,0 +1,142 @@
+package com.univesp.pi.s3t20.carga;
+
+import com.univesp.pi.s3t20.PiUnivespApplication;
+import com.univesp.pi.s3t20.carga.RelatorioCarga.Etapa;
+import com.univesp.pi.s3t20.service.GeradorDadosService;
+import com.univesp.pi.s3t20.service.GeradorDadosService.ResultadoGeracao;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Teste de carga: sobe a aplicação completa (Tomcat numa porta livre e H2 em memória novo), gera a massa de dados
+// com o GeradorDadosService e dispara o mix de MixCarga com concorrência crescente, medindo latência e vazão por
+// endpoint. Executado pelo perfil "carga" (./mvnw -Pcarga test); argumentos de linha de comando são repassados à
+// aplicação (ex.: -Dcarga.argumentos="--spring.profiles.active=prd").
+public class TesteCarga {
+
+    public static void main(String[] args) throws Exception {
+        int[] concorrencias = Arrays.stream(System.getProperty("carga.concorrencia", "1,2,4,8,16,32,64").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        int duracao = Integer.getInteger("carga.duracao", 20);
+        int aquecimento = Integer.getInteger("carga.aquecimento", 10);
+        int vendas = Integer.getInteger("carga.vendas", 100_000);
+        int clientes = Integer.getInteger("carga.clientes", Math.max(1, vendas / 100));
+        String mix = System.getProperty("carga.mix", "");
+        Path saida = Path.of(System.getProperty("carga.saida", "target/carga"));
+        LocalDate fim = LocalDate.now();
+        LocalDate inicio = fim.minusYears(1).plusDays(1);
+
+        List<String> argumentos = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:carga-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"));
+        // O perfil Maven repassa carga.argumentos como um único argumento, possivelmente vazio
+        List<String> repassados = Arrays.stream(args).flatMap(argumento -> Arrays.stream(argumento.trim().split("\\s+")))
+                .filter(argumento -> !argumento.isEmpty()).toList();
+        argumentos.addAll(repassados);
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(PiUnivespApplication.class)
+                .run(argumentos.toArray(String[]::new));
+        try {
+            System.out.printf("Gerando %d clientes e %d vendas...%n", clientes, vendas);
+            ResultadoGeracao geracao = contexto.getBean(GeradorDadosService.class)
+                    .gerar(clientes, vendas, inicio, fim, 42);
+            System.out.printf("Massa gerada em %d ms%n", geracao.milissegundos);
+
+            String baseUrl = "http://localhost:" + contexto.getEnvironment().getRequiredProperty("local.server.port");
+            DadosCarga dados = DadosCarga.carregar(contexto.getBean(JdbcTemplate.class), inicio, fim);
+            MixCarga mixCarga = new MixCarga(baseUrl, dados, mix);
+            MedidorCarga medidor = new MedidorCarga(mixCarga.operacoes());
+            HttpClient cliente = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            int maxima = Arrays.stream(concorrencias).max().orElse(1);
+            System.out.printf("Aquecimento: %d s com %d usuários%n", aquecimento, maxima);
+            executar(cliente, mixCarga, medidor, maxima, aquecimento);
+            medidor.descartar();
+
+            List<Etapa> etapas = new ArrayList<>();
+            for (int concorrencia : concorrencias) {
+                long inicioEtapa = System.nanoTime();
+                executar(cliente, mixCarga, medidor, concorrencia, duracao);
+                Etapa etapa = medidor.fechar(concorrencia, (System.nanoTime() - inicioEtapa) / 1e9);
+                RelatorioCarga.imprimir(etapa, System.out);
+                etapas.add(etapa);
+            }
+
+            Map<String, Object> parametros = new LinkedHashMap<>();
+            parametros.put("vendas", vendas);
+            parametros.put("clientes", clientes);
+            parametros.put("duracaoEtapaSegundos", duracao);
+            parametros.put("aquecimentoSegundos", aquecimento);
+            parametros.put("mix", mixCarga.operacoes().stream().map(operacao -> operacao.nome + "=" + operacao.peso).toList());
+            parametros.put("argumentos", repassados);
+            Path relatorio = RelatorioCarga.gravar(saida, parametros, etapas);
+            RelatorioCarga.saturacao(etapas).ifPresentOrElse(
+                    etapa -> System.out.printf("%nSaturação a partir de %d usuários simultâneos (%.1f req/s)%n",
+                            etapa.concorrencia(), etapa.total().vazao()),
+                    () -> System.out.printf("%nSaturação não atingida até %d usuários simultâneos%n", maxima));
+            System.out.println("Relatório em " + relatorio.toAbsolutePath());
+        } finally {
+            contexto.close();
+        }
+    }
+
+    // Modelo fechado: cada usuário é uma thread que envia a próxima requisição assim que recebe a resposta.
+    // Java 17 não tem virtual threads; até algumas centenas de usuários, threads de plataforma bastam.
+    private static void executar(HttpClient cliente, MixCarga mix, MedidorCarga medidor, int concorrencia, int segundos)
+            throws Exception {
+        long prazo = System.nanoTime() + segundos * 1_000_000_000L;
+        ExecutorService usuarios = Executors.newFixedThreadPool(concorrencia);
+        try {
+            List<Future<?>> execucoes = new ArrayList<>();
+            for (int i = 0; i < concorrencia; i++) {
+                execucoes.add(usuarios.submit(() -> usuario(cliente, mix, medidor, prazo)));
+            }
+            for (Future<?> execucao : execucoes) {
+                execucao.get();
+            }
+        } finally {
+            usuarios.shutdownNow();
+        }
+    }
+
+    private static Void usuario(HttpClient cliente, MixCarga mix, MedidorCarga medidor, long prazo)
+            throws InterruptedException {
+        Random random = new Random(ThreadLocalRandom.current().nextLong());
+        while (System.nanoTime() < prazo) {
+            MixCarga.Operacao operacao = mix.sortear(random);
+            HttpRequest requisicao = mix.requisicao(operacao, random);
+            long inicio = System.nanoTime();
+            boolean sucesso;
+            try {
+                HttpResponse<Void> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.discarding());
+                sucesso = resposta.statusCode() < 400;
+            } catch (IOException e) {
+                sucesso = false;
+            }
+            medidor.registrar(operacao, System.nanoTime() - inicio, sucesso);
+        }
+        return null;
+    }
+}
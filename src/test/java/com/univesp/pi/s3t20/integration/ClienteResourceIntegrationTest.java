@@ -17,6 +17,7 @@ import java.util.Map;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @ActiveProfiles("test")
+@MaxQueries(2)
 public class ClienteResourceIntegrationTest {
 
     @LocalServerPort
@@ -63,6 +64,7 @@ public class ClienteResourceIntegrationTest {
     }
 
     @Test
+    @MaxQueries(3)
     void testCriarCliente() {
         // Criar DTO para o cliente
         Map<String, Object> clienteDTO = new HashMap<>();
@@ -17,6 +17,7 @@ import java.util.Map;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @ActiveProfiles("test")
+@MaxQueries(2)
 public class FormaPagamentoResourceIntegrationTest {
 
     @LocalServerPort
@@ -73,6 +74,7 @@ public class FormaPagamentoResourceIntegrationTest {
     }
 
     @Test
+    @MaxQueries(4)
     void testCriarFormaPagamentoComCodigoDuplicado() {
         // Criar forma de pagamento existente
         FormaPagamento formaExistente = new FormaPagamento();
@@ -186,6 +188,7 @@ public class FormaPagamentoResourceIntegrationTest {
     }
 
     @Test
+    @MaxQueries(5)
     void testDeletarFormaPagamento() {
         FormaPagamento forma = new FormaPagamento();
         forma.setIdPagamento("PAG001");
@@ -0,0 +1,264 @@
+package com.univesp.pi.s3t20.integration;
+
+import com.univesp.pi.s3t20.model.Venda;
+import com.univesp.pi.s3t20.repository.ClienteRepository;
+import com.univesp.pi.s3t20.repository.FormaPagamentoRepository;
+import com.univesp.pi.s3t20.repository.ProdutoRepository;
+import com.univesp.pi.s3t20.repository.VendaRepository;
+import com.univesp.pi.s3t20.service.CargaPostgresService;
+import com.univesp.pi.s3t20.service.ParticoesVendasService;
+import com.univesp.pi.s3t20.service.VendaService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Os mesmos cenários de ImportacaoResourceIntegrationTest num PostgreSQL local, passando pelo COPY.
+// Executar com: ./mvnw test -Dtest=ImportacaoPostgresIntegrationTest -Dpostgres.url=jdbc:postgresql://localhost:5432/postgres
+// (opcionais: -Dpostgres.username, -Dpostgres.password). As migrations rodam no schema importacao_teste.
+@EnabledIfSystemProperty(named = "postgres.url", matches = ".+")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "importacao.lote.tamanho=100")
+@ActiveProfiles("test")
+public class ImportacaoPostgresIntegrationTest extends ImportacaoResourceIntegrationTest {
+
+    private static final String SCHEMA = "importacao_teste";
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("postgres.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("postgres.username", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty("postgres.password", ""));
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.datasource.hikari.schema", () -> SCHEMA);
+        registry.add("spring.flyway.schemas", () -> SCHEMA);
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        // Esquema só pelas migrations, como no perfil prd (V9 configura vendas_id_seq para o COPY)
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("carga.copy.enabled", () -> "true");
+    }
+
+    @Autowired
+    private CargaPostgresService cargaPostgresService;
+
+    @Autowired
+    private VendaRepository vendaRepository;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private FormaPagamentoRepository formaPagamentoRepository;
+
+    @Autowired
+    private ParticoesVendasService particoesVendasService;
+
+    @Autowired
+    private VendaService vendaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testCopyAtivoNoPostgres() {
+        assertTrue(cargaPostgresService.ativa());
+    }
+
+    @Test
+    void testLoteDeVendasPorCopyConviveComIdsDoHibernate() throws IOException {
+        importar("/formas-pagamento", planilha("DimFormaPagamento.csv"));
+        importar("/produtos", planilha("DimProduto.csv"));
+        importar("/clientes", planilha("DimCliente.csv"));
+        Long produtoId = produtoRepository.findByIdProduto("P001").orElseThrow().getId();
+        Long clienteId = clienteRepository.findByIdCliente("C001").orElseThrow().getId();
+        Long formaPagamentoId = formaPagamentoRepository.findByIdPagamento("FP01").orElseThrow().getId();
+
+        List<Map<String, Object>> lote = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            lote.add(vendaDTO(produtoId, clienteId, formaPagamentoId));
+        }
+        lote.add(vendaDTO(-1L, clienteId, formaPagamentoId));
+        ResponseEntity<List> response = restTemplate.postForEntity(baseUrl + "/vendas/batch", lote, List.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<Map<String, Object>> itens = response.getBody();
+        assertEquals("Produto não encontrado", itens.get(120).get("erro"));
+
+        // Ids reservados pelo COPY e pelo Hibernate (POST /vendas) vêm dos mesmos blocos de vendas_id_seq
+        Set<Long> ids = new HashSet<>();
+        for (Map<String, Object> item : itens.subList(0, 120)) {
+            ids.add(((Number) ((Map) item.get("venda")).get("id")).longValue());
+        }
+        for (int i = 0; i < 60; i++) {
+            ResponseEntity<Map> criada = restTemplate.postForEntity(baseUrl + "/vendas",
+                    vendaDTO(produtoId, clienteId, formaPagamentoId), Map.class);
+            assertEquals(HttpStatus.CREATED, criada.getStatusCode());
+            ids.add(((Number) criada.getBody().get("id")).longValue());
+        }
+        assertEquals(180, ids.size());
+        assertEquals(180L, vendaRepository.count());
+    }
+
+    @Test
+    void testCargaPorCopyInvalidaCacheSegundoNivel() throws IOException {
+        importar("/produtos", planilha("DimProduto.csv"));
+        restTemplate.getForEntity(baseUrl + "/produtos/categorias", String[].class);
+        restTemplate.getForEntity(baseUrl + "/produtos/codigo/P001", Map.class);
+
+        // O COPY altera produtos por fora do Hibernate: os resultados em cache não podem sobreviver a ele
+        String csv = "ID_Produto;Produto;Categoria;Pedido Mínimo; Custo_Unitario ;Preco_Sugerido; Cento_Preco \n" +
+                "P001;Coxinha de Frango;Recarregado;25;; R$ 0.80 ; R$ 80.00 \n";
+        importar("/produtos", csv.getBytes(StandardCharsets.ISO_8859_1));
+
+        String[] categorias = restTemplate.getForEntity(baseUrl + "/produtos/categorias", String[].class).getBody();
+        assertTrue(List.of(categorias).contains("Recarregado"));
+        assertEquals("Recarregado",
+                restTemplate.getForEntity(baseUrl + "/produtos/codigo/P001", Map.class).getBody().get("categoria"));
+        Long id = produtoRepository.findByIdProduto("P001").orElseThrow().getId();
+        assertEquals("Recarregado",
+                restTemplate.getForEntity(baseUrl + "/produtos/" + id, Map.class).getBody().get("categoria"));
+    }
+
+    @Test
+    void testVendasParticionadasPorMes() throws IOException {
+        assertTrue(particoesVendasService.ativa());
+        LocalDate mes = LocalDate.now().withDayOfMonth(1);
+        List<String> particoes = jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'vendas'::regclass", String.class);
+        for (int i = 0; i <= 3; i++) {
+            assertTrue(particoes.contains(particao(mes.plusMonths(i))), particoes.toString());
+        }
+
+        importar("/formas-pagamento", planilha("DimFormaPagamento.csv"));
+        importar("/produtos", planilha("DimProduto.csv"));
+        importar("/clientes", planilha("DimCliente.csv"));
+        Long produtoId = produtoRepository.findByIdProduto("P001").orElseThrow().getId();
+        Long clienteId = clienteRepository.findByIdCliente("C001").orElseThrow().getId();
+        Long formaPagamentoId = formaPagamentoRepository.findByIdPagamento("FP01").orElseThrow().getId();
+        Map<String, Object> vendaDoMes = vendaDTO(produtoId, clienteId, formaPagamentoId);
+        vendaDoMes.put("data", mes.plusDays(4).toString());
+        assertEquals(HttpStatus.CREATED, restTemplate.postForEntity(baseUrl + "/vendas", vendaDoMes, Map.class).getStatusCode());
+        // Janeiro de 2000 fica antes das partições criadas pela migration: cai na partição padrão
+        jdbcTemplate.execute("DROP TABLE IF EXISTS vendas_2000_01, vendas_2000_02, vendas_2000_03, vendas_2000_04");
+        Map<String, Object> vendaAntiga = vendaDTO(produtoId, clienteId, formaPagamentoId);
+        vendaAntiga.put("data", "2000-01-10");
+        ResponseEntity<Map> antiga = restTemplate.postForEntity(baseUrl + "/vendas", vendaAntiga, Map.class);
+        assertEquals(HttpStatus.CREATED, antiga.getStatusCode());
+        assertEquals(List.of(particao(mes)), jdbcTemplate.queryForList(
+                "SELECT tableoid::regclass::text FROM vendas WHERE data >= ?", String.class, mes));
+        assertEquals(List.of("vendas_padrao"), jdbcTemplate.queryForList(
+                "SELECT tableoid::regclass::text FROM vendas WHERE data < ?", String.class, mes));
+
+        // Criar a partição de um mês que está na padrão move as linhas para ela
+        particoesVendasService.criarParticoes(LocalDate.of(2000, 1, 1));
+        assertEquals(List.of("vendas_2000_01"), jdbcTemplate.queryForList(
+                "SELECT tableoid::regclass::text FROM vendas WHERE data < ?", String.class, mes));
+        // A mudança de partição não passa pelos triggers de vendas: o código continua reservado
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vendas_codigos WHERE id_venda = ?",
+                Integer.class, antiga.getBody().get("idVenda")));
+
+        // Consulta por período: o plano só lê a partição do mês pedido
+        String plano = String.join("\n", jdbcTemplate.queryForList("EXPLAIN SELECT * FROM vendas WHERE data BETWEEN ? AND ?",
+                String.class, mes, mes.plusDays(9)));
+        assertTrue(plano.contains(particao(mes)), plano);
+        assertFalse(plano.contains(particao(mes.plusMonths(1))), plano);
+        assertFalse(plano.contains("vendas_padrao"), plano);
+        assertFalse(plano.contains("vendas_2000_01"), plano);
+        assertEquals(1, restTemplate.getForEntity(baseUrl + "/vendas/periodo?dataInicio=" + mes + "&dataFim="
+                + mes.plusDays(9), List.class).getBody().size());
+    }
+
+    @Test
+    void testCodigoDeVendaUnicoEntreDatas() throws IOException {
+        importar("/formas-pagamento", planilha("DimFormaPagamento.csv"));
+        importar("/produtos", planilha("DimProduto.csv"));
+        importar("/clientes", planilha("DimCliente.csv"));
+        LocalDate mes = LocalDate.now().withDayOfMonth(1);
+        Venda primeira = vendaService.criar(venda("VDUP01", mes)).orElseThrow();
+
+        // Mesmo código em outra data (e outra partição): UNIQUE (id_venda, data) não pega, vendas_codigos sim
+        assertCodigoRepetido(() -> vendaService.criar(venda("VDUP01", mes.plusMonths(1))));
+        assertCodigoRepetido(() -> vendaService.criarLote(List.of(venda("VDUP01", mes.plusMonths(1)))));
+        assertCodigoRepetido(() -> jdbcTemplate.update("INSERT INTO vendas (id_venda, data, produto_id, quantidade, " +
+                "preco_unitario, receita_total, cliente_id, forma_pagamento_id) SELECT id_venda, data + 40, produto_id, " +
+                "quantidade, preco_unitario, receita_total, cliente_id, forma_pagamento_id FROM vendas WHERE id = ?",
+                primeira.getId()));
+        Venda segunda = vendaService.criar(venda("VDUP02", mes.plusMonths(1))).orElseThrow();
+        assertCodigoRepetido(() -> vendaService.atualizar(segunda.getId(), venda("VDUP01", mes.plusMonths(1))));
+
+        // A busca por código acha uma venda só
+        assertEquals(mes, vendaRepository.findByIdVenda("VDUP01").orElseThrow().getData());
+        assertEquals(mes.plusMonths(1), vendaRepository.findByIdVenda("VDUP02").orElseThrow().getData());
+
+        // Códigos liberados ao alterar ou excluir a venda podem ser usados de novo
+        vendaService.atualizar(segunda.getId(), venda("VDUP03", mes.plusMonths(1)));
+        vendaService.deletar(primeira.getId());
+        assertTrue(vendaService.criar(venda("VDUP01", mes.plusMonths(2))).isPresent());
+        assertTrue(vendaService.criar(venda("VDUP02", mes)).isPresent());
+        assertEquals(List.of("VDUP01", "VDUP02", "VDUP03"), jdbcTemplate.queryForList(
+                "SELECT id_venda FROM vendas_codigos WHERE id_venda LIKE 'VDUP%' ORDER BY id_venda", String.class));
+    }
+
+    // Recusado pela chave primária de vendas_codigos (V12); a exceção depende de onde sai o flush (JDBC, Hibernate)
+    private static void assertCodigoRepetido(Executable gravacao) {
+        Throwable causa = assertThrows(RuntimeException.class, gravacao);
+        // Num lote JDBC, o erro do PostgreSQL vem em getNextException
+        while (causa != null && !(causa instanceof SQLException erro && erro.getSQLState() != null)) {
+            causa = causa instanceof SQLException erro && erro.getNextException() != null
+                    ? erro.getNextException() : causa.getCause();
+        }
+        assertNotNull(causa);
+        assertEquals("23505", ((SQLException) causa).getSQLState());
+        assertTrue(causa.getMessage().contains("vendas_codigos_pkey"), causa.getMessage());
+    }
+
+    private Venda venda(String codigo, LocalDate data) {
+        Venda venda = new Venda();
+        venda.setIdVenda(codigo);
+        venda.setData(data);
+        venda.setQuantidade(2);
+        venda.setPrecoUnitario(new BigDecimal("0.80"));
+        venda.setProduto(produtoRepository.findByIdProduto("P001").orElseThrow());
+        venda.setCliente(clienteRepository.findByIdCliente("C001").orElseThrow());
+        venda.setFormaPagamento(formaPagamentoRepository.findByIdPagamento("FP01").orElseThrow());
+        return venda;
+    }
+
+    private static String particao(LocalDate mes) {
+        return String.format("vendas_%d_%02d", mes.getYear(), mes.getMonthValue());
+    }
+
+    private static Map<String, Object> vendaDTO(Long produtoId, Long clienteId, Long formaPagamentoId) {
+        Map<String, Object> vendaDTO = new HashMap<>();
+        vendaDTO.put("data", "2025-09-10");
+        vendaDTO.put("produtoId", produtoId);
+        vendaDTO.put("quantidade", 2);
+        vendaDTO.put("precoUnitario", new BigDecimal("0.80"));
+        vendaDTO.put("clienteId", clienteId);
+        vendaDTO.put("formaPagamentoId", formaPagamentoId);
+        return vendaDTO;
+    }
+}
@@ -0,0 +1,210 @@
+package com.univesp.pi.s3t20.integration;
+
+import com.univesp.pi.s3t20.model.Cliente;
+import com.univesp.pi.s3t20.model.Produto;
+import com.univesp.pi.s3t20.model.Venda;
+import com.univesp.pi.s3t20.repository.ClienteRepository;
+import com.univesp.pi.s3t20.repository.FormaPagamentoRepository;
+import com.univesp.pi.s3t20.repository.ProdutoRepository;
+import com.univesp.pi.s3t20.repository.VendaRepository;
+import com.univesp.pi.s3t20.repository.VendaResumoDiarioRepository;
+import com.univesp.pi.s3t20.service.ImportacaoService.ResultadoImportacao;
+import com.univesp.pi.s3t20.service.VendaService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Lote pequeno para os 473 registros de FatoVendas.csv passarem por vários lotes (uma transação cada)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "importacao.lote.tamanho=100")
+@ActiveProfiles("test")
+public class ImportacaoResourceIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    protected TestRestTemplate restTemplate;
+
+    @Autowired
+    private VendaRepository vendaRepository;
+
+    @Autowired
+    private VendaResumoDiarioRepository vendaResumoDiarioRepository;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private FormaPagamentoRepository formaPagamentoRepository;
+
+    @Autowired
+    private VendaService vendaService;
+
+    protected String baseUrl;
+
+    @BeforeEach
+    void setUp() {
+        limparDados();
+        baseUrl = "http://localhost:" + port;
+    }
+
+    @AfterEach
+    void tearDown() {
+        limparDados();
+    }
+
+    @Test
+    void testImportarPlanilhasDeOrigem() throws IOException {
+        assertImportacao(importar("/formas-pagamento", planilha("DimFormaPagamento.csv")), 4, 4, 0, 0);
+        assertImportacao(importar("/produtos", planilha("DimProduto.csv")), 79, 79, 0, 0);
+        assertImportacao(importar("/clientes", planilha("DimCliente.csv")), 49, 49, 0, 0);
+        // As 12 linhas só com ';' no fim do arquivo não contam
+        assertImportacao(importar("/vendas", planilha("FatoVendas.csv")), 473, 473, 0, 0);
+
+        // Planilhas em ISO-8859-1: acentos preservados
+        Cliente cliente = clienteRepository.findByIdCliente("C002").orElseThrow();
+        assertEquals("João Pereira", cliente.getNomeCliente());
+        assertEquals("Pessoa Física", cliente.getTipoCliente());
+
+        Produto produto = produtoRepository.findByIdProduto("P001").orElseThrow();
+        assertNull(produto.getCustoUnitario());
+        assertEquals(new BigDecimal("0.80"), produto.getPrecoSugerido());
+        assertEquals(new BigDecimal("80.00"), produto.getCentoPreco());
+
+        Venda venda = vendaRepository.findByIdVenda("V00002").orElseThrow();
+        assertEquals(LocalDate.of(2025, 9, 27), venda.getData());
+        assertEquals("P001", venda.getProduto().getIdProduto());
+        assertEquals("C015", venda.getCliente().getIdCliente());
+        assertEquals("FP02", venda.getFormaPagamento().getIdPagamento());
+        assertEquals(50, venda.getQuantidade());
+        assertEquals(new BigDecimal("40.00"), venda.getReceitaTotal());
+
+        VendaService.VendaResumo resumo = vendaService.obterResumo();
+        assertEquals(473L, resumo.totalVendas);
+        assertEquals(57200L, resumo.quantidadeTotal);
+        assertEquals(new BigDecimal("61222.50"), resumo.receitaTotal);
+    }
+
+    @Test
+    void testReimportacaoAtualizaDimensoesEIgnoraVendasExistentes() throws IOException {
+        importar("/formas-pagamento", planilha("DimFormaPagamento.csv"));
+        importar("/produtos", planilha("DimProduto.csv"));
+        importar("/clientes", planilha("DimCliente.csv"));
+        importar("/vendas", planilha("FatoVendas.csv"));
+
+        assertImportacao(importar("/produtos", planilha("DimProduto.csv")), 79, 0, 79, 0);
+        ResultadoImportacao vendas = importar("/vendas", planilha("FatoVendas.csv")).getBody();
+        assertEquals(0L, vendas.incluidas);
+        assertEquals(473L, vendas.ignoradas);
+        assertEquals(473L, vendaRepository.count());
+        assertEquals(79L, produtoRepository.count());
+    }
+
+    @Test
+    void testLinhasInvalidasSaoRejeitadasSemInterromperAImportacao() throws IOException {
+        importar("/formas-pagamento", planilha("DimFormaPagamento.csv"));
+        importar("/produtos", planilha("DimProduto.csv"));
+        importar("/clientes", planilha("DimCliente.csv"));
+
+        String csv = "ID_Venda;Data;ID_Produto;Quantidade; Preco_Unitario ; Receita_Total ;ID_Cliente;ID_Pagamento;;;\n" +
+                "X001;2025-09-13;P001;100; R$ 0.80 ; R$ 80.00 ;C001;FP03;;;\n" +
+                "X002;2025-09-13;P999;100; R$ 0.80 ; R$ 80.00 ;C001;FP03;;;\n" +
+                "X003;2025-09-13;P001;100; R$ 0,8O ; R$ 80.00 ;C001;FP03;;;\n" +
+                "X004;2025-02-30;P001;100; R$ 0.80 ; R$ 80.00 ;C001;FP03;;;\n" +
+                "X005;2025-09-13;P001;;  R$ 0.80 ; R$ 80.00 ;C001;FP03;;;\n" +
+                "X001;2025-09-14;P002;10; R$ 0.80 ; R$ 8.00 ;C002;FP01;;;\n" +
+                "X006;2025-09-14;P002;10; R$ 0.80 ; ;C002;FP01;;;\n";
+
+        ResultadoImportacao resultado = importar("/vendas", csv.getBytes(StandardCharsets.ISO_8859_1)).getBody();
+
+        assertEquals(7L, resultado.linhas);
+        assertEquals(2L, resultado.incluidas);
+        assertEquals(1L, resultado.ignoradas);
+        assertEquals(4L, resultado.rejeitadas);
+        assertEquals("linha 3: P999 não cadastrado", resultado.erros.get(0));
+        assertEquals("linha 4: Preco_Unitario inválido: 'R$ 0,8O'", resultado.erros.get(1));
+        assertEquals("linha 5: Data inválido: '2025-02-30'", resultado.erros.get(2));
+        assertEquals("linha 6: Quantidade não informado", resultado.erros.get(3));
+
+        // Sem Receita_Total a receita é calculada como na API
+        assertEquals(new BigDecimal("8.00"), vendaRepository.findByIdVenda("X006").orElseThrow().getReceitaTotal());
+        assertEquals(LocalDate.of(2025, 9, 13), vendaRepository.findByIdVenda("X001").orElseThrow().getData());
+    }
+
+    @Test
+    void testCharsetDoContentTypeTemPrecedencia() {
+        String csv = "ID_Pagamento;Forma_Pagamento\nFP09;Cartão Refeição\n";
+
+        ResponseEntity<ResultadoImportacao> response = importar("/formas-pagamento",
+                csv.getBytes(StandardCharsets.UTF_8), new MediaType("text", "csv", StandardCharsets.UTF_8));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Cartão Refeição", formaPagamentoRepository.findByIdPagamento("FP09").orElseThrow().getFormaPagamento());
+    }
+
+    @Test
+    void testCabecalhoDiferenteRetornaBadRequest() throws IOException {
+        ResponseEntity<ResultadoImportacao> response = importar("/vendas", planilha("DimProduto.csv"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(0L, vendaRepository.count());
+    }
+
+    protected ResponseEntity<ResultadoImportacao> importar(String caminho, byte[] arquivo) {
+        return importar(caminho, arquivo, MediaType.parseMediaType("text/csv"));
+    }
+
+    protected ResponseEntity<ResultadoImportacao> importar(String caminho, byte[] arquivo, MediaType tipo) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(tipo);
+        return restTemplate.postForEntity(baseUrl + "/importacao" + caminho, new HttpEntity<>(arquivo, headers),
+                ResultadoImportacao.class);
+    }
+
+    private void assertImportacao(ResponseEntity<ResultadoImportacao> response, long linhas, long incluidas,
+                                  long atualizadas, long rejeitadas) {
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        ResultadoImportacao resultado = response.getBody();
+        assertEquals(linhas, resultado.linhas);
+        assertEquals(incluidas, resultado.incluidas);
+        assertEquals(atualizadas, resultado.atualizadas);
+        assertEquals(rejeitadas, resultado.rejeitadas, () -> String.join("\n", resultado.erros));
+    }
+
+    protected static byte[] planilha(String nome) throws IOException {
+        try (InputStream arquivo = new ClassPathResource("docs/" + nome).getInputStream()) {
+            return arquivo.readAllBytes();
+        }
+    }
+
+    private void limparDados() {
+        vendaRepository.deleteAll();
+        vendaResumoDiarioRepository.deleteAll();
+        produtoRepository.deleteAll();
+        clienteRepository.deleteAll();
+        formaPagamentoRepository.deleteAll();
+    }
+}
@@ -0,0 +1,216 @@
+package com.univesp.pi.s3t20.integration;
+
+import com.univesp.pi.s3t20.repository.ClienteRepository;
+import com.univesp.pi.s3t20.repository.VendaRepository;
+import com.univesp.pi.s3t20.service.GeradorDadosService;
+import com.univesp.pi.s3t20.service.ParticoesVendasService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Planos (EXPLAIN) das consultas de VendaRepository e ClienteRepository num PostgreSQL com 200 mil vendas e 5 mil
+// clientes: falha se alguma consulta filtrar clientes com Seq Scan ou ler mais de uma partição grande de vendas com
+// Seq Scan, ou seja, se deixar de usar os índices da V11 (ou das anteriores). O SQL é o gerado pelo Hibernate,
+// capturado na chamada do repositório; os parâmetros do EXPLAIN repetem os da chamada.
+// Ficam de fora as consultas que leem a tabela toda por definição (findAll, streamTodas, streamLancamentos,
+// agregarResumo, findCodigos, findDistinctCidades/Bairros) e os filtros de baixa seletividade (findByTipoCliente e
+// countByTipoCliente, com dois tipos; findByFormaPagamentoId, com quatro formas), em que o Seq Scan é o plano certo.
+// Executar com: ./mvnw test -Dtest=IndicesPostgresIntegrationTest -Dpostgres.url=jdbc:postgresql://localhost:5432/postgres
+// (opcionais: -Dpostgres.username, -Dpostgres.password). As migrations rodam no schema indices_teste, populado uma vez.
+@EnabledIfSystemProperty(named = "postgres.url", matches = ".+")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.univesp.pi.s3t20.integration.IndicesPostgresIntegrationTest$CapturaSql")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class IndicesPostgresIntegrationTest {
+
+    private static final String SCHEMA = "indices_teste";
+    private static final int VENDAS = 200_000;
+    private static final int CLIENTES = 5_000;
+    // Partições menores que isso (os meses das planilhas de origem) são lidas inteiras mais rápido que por índice
+    private static final int MINIMO_LINHAS = 1_000;
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+    // Com sete cidades, a menor ainda tem 4% das vendas, espalhadas por quase todas as páginas: ler vendas inteira é o
+    // plano certo. O filtro em clientes continua obrigado a usar idx_clientes_cidade_id.
+    private static final Set<String> LEEM_VENDAS_INTEIRA = Set.of("Venda.findByClienteCidade");
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("postgres.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("postgres.username", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty("postgres.password", ""));
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.datasource.hikari.schema", () -> SCHEMA);
+        registry.add("spring.flyway.schemas", () -> SCHEMA);
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("carga.copy.enabled", () -> "true");
+    }
+
+    // Guarda o SQL de cada comando preparado pelo Hibernate
+    public static class CapturaSql implements StatementInspector {
+
+        static final List<String> COMANDOS = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            COMANDOS.add(sql);
+            return sql;
+        }
+    }
+
+    record Consulta(String nome, Runnable chamada, Object... parametros) {
+
+        @Override
+        public String toString() {
+            return nome;
+        }
+    }
+
+    @Autowired
+    private VendaRepository vendaRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private GeradorDadosService geradorDadosService;
+
+    @Autowired
+    private ParticoesVendasService particoesVendasService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    void popular() {
+        if (vendaRepository.count() < VENDAS) {
+            LocalDate inicio = LocalDate.now().minusMonths(12).withDayOfMonth(1);
+            for (LocalDate mes = inicio; !mes.isAfter(LocalDate.now()); mes = mes.plusMonths(1)) {
+                particoesVendasService.criarParticoes(mes);
+            }
+            geradorDadosService.gerar(CLIENTES, VENDAS, inicio, LocalDate.now(), 42);
+        }
+        // Estatísticas e mapa de visibilidade atualizados, como depois do autovacuum
+        jdbcTemplate.execute("VACUUM ANALYZE vendas, clientes, produtos, formas_pagamento");
+    }
+
+    Stream<Consulta> consultas() {
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM vendas ORDER BY id OFFSET " + VENDAS / 2 + " LIMIT 1", Long.class);
+        String idVenda = jdbcTemplate.queryForObject("SELECT id_venda FROM vendas WHERE id = ?", String.class, id);
+        List<String> codigos = jdbcTemplate.queryForList("SELECT id_venda FROM vendas ORDER BY id LIMIT 5", String.class);
+        LocalDate dia = LocalDate.now().minusMonths(6).withDayOfMonth(10);
+        LocalDate fimSemana = dia.plusDays(6);
+        Long clienteId = jdbcTemplate.queryForObject("SELECT cliente_id FROM vendas GROUP BY cliente_id " +
+                "ORDER BY COUNT(*) DESC LIMIT 1", Long.class);
+        Long produtoId = jdbcTemplate.queryForObject("SELECT produto_id FROM vendas GROUP BY produto_id " +
+                "ORDER BY COUNT(*), produto_id LIMIT 1", Long.class);
+        String categoria = jdbcTemplate.queryForObject("SELECT p.categoria FROM vendas v JOIN produtos p ON p.id = v.produto_id " +
+                "GROUP BY p.categoria ORDER BY COUNT(*), p.categoria LIMIT 1", String.class);
+        String cidade = jdbcTemplate.queryForObject("SELECT cidade FROM clientes GROUP BY cidade " +
+                "ORDER BY COUNT(*), cidade LIMIT 1", String.class);
+        String bairro = jdbcTemplate.queryForObject("SELECT bairro FROM clientes GROUP BY bairro " +
+                "ORDER BY COUNT(*), bairro LIMIT 1", String.class);
+        String idCliente = jdbcTemplate.queryForObject("SELECT id_cliente FROM clientes ORDER BY id DESC LIMIT 1", String.class);
+        Long clienteMeio = jdbcTemplate.queryForObject("SELECT id FROM clientes ORDER BY id OFFSET " + CLIENTES / 2 + " LIMIT 1", Long.class);
+        String nome = jdbcTemplate.queryForObject("SELECT nome_cliente FROM clientes WHERE id = ?", String.class, clienteMeio);
+
+        return Stream.of(
+                new Consulta("Venda.findById", () -> vendaRepository.findById(id), id),
+                new Consulta("Venda.findByIdVenda", () -> vendaRepository.findByIdVenda(idVenda), idVenda),
+                new Consulta("Venda.findCodigosExistentes", () -> vendaRepository.findCodigosExistentes(codigos),
+                        codigos.toArray()),
+                new Consulta("Venda.findByData", () -> vendaRepository.findByData(dia), dia),
+                new Consulta("Venda.findByDataBetween", () -> vendaRepository.findByDataBetween(dia, fimSemana),
+                        dia, fimSemana),
+                new Consulta("Venda.findByClienteId", () -> vendaRepository.findByClienteId(clienteId), clienteId),
+                new Consulta("Venda.findByProdutoId", () -> vendaRepository.findByProdutoId(produtoId), produtoId),
+                new Consulta("Venda.findByIdGreaterThanOrderByIdAsc",
+                        () -> vendaRepository.findByIdGreaterThanOrderByIdAsc(id, Limit.of(100)), id, 0, 100),
+                new Consulta("Venda.findByDataBetweenAndIdGreaterThanOrderByIdAsc",
+                        () -> vendaRepository.findByDataBetweenAndIdGreaterThanOrderByIdAsc(dia, fimSemana, 0L, Limit.of(100)),
+                        dia, fimSemana, 0L, 0, 100),
+                new Consulta("Venda.findByClienteIdAndIdGreaterThanOrderByIdAsc",
+                        () -> vendaRepository.findByClienteIdAndIdGreaterThanOrderByIdAsc(clienteId, 0L, Limit.of(100)),
+                        clienteId, 0L, 0, 100),
+                new Consulta("Venda.findByProdutoIdAndIdGreaterThanOrderByIdAsc",
+                        () -> vendaRepository.findByProdutoIdAndIdGreaterThanOrderByIdAsc(produtoId, 0L, Limit.of(100)),
+                        produtoId, 0L, 0, 100),
+                new Consulta("Venda.findByClienteCidade", () -> vendaRepository.findByClienteCidade(cidade), cidade),
+                new Consulta("Venda.findByProdutoCategoria", () -> vendaRepository.findByProdutoCategoria(categoria), categoria),
+                new Consulta("Venda.agregarResumoPorPeriodo", () -> vendaRepository.agregarResumoPorPeriodo(dia, fimSemana),
+                        dia, fimSemana),
+                new Consulta("Venda.streamPorPeriodo", () -> vendaRepository.streamPorPeriodo(dia, fimSemana).count(),
+                        dia, fimSemana),
+                new Consulta("Venda.streamExportacao", () -> vendaRepository.streamExportacao(dia, fimSemana).count(),
+                        dia, fimSemana),
+                new Consulta("Venda.versaoPorPeriodo", () -> vendaRepository.versaoPorPeriodo(dia, fimSemana),
+                        dia, fimSemana),
+                new Consulta("Cliente.findByIdCliente", () -> clienteRepository.findByIdCliente(idCliente), idCliente),
+                new Consulta("Cliente.findByIdClienteIn", () -> clienteRepository.findByIdClienteIn(List.of(idCliente)),
+                        idCliente),
+                new Consulta("Cliente.findByIdGreaterThanOrderByIdAsc",
+                        () -> clienteRepository.findByIdGreaterThanOrderByIdAsc(clienteMeio, Limit.of(100)), clienteMeio, 0, 100),
+                new Consulta("Cliente.findByCidade", () -> clienteRepository.findByCidade(cidade), cidade),
+                new Consulta("Cliente.findByBairro", () -> clienteRepository.findByBairro(bairro), bairro),
+                new Consulta("Cliente.findByNomeClienteContainingIgnoreCase",
+                        () -> clienteRepository.findByNomeClienteContainingIgnoreCase(nome), "%" + nome + "%"));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("consultas")
+    void testConsultaNaoLeTabelaInteira(Consulta consulta) {
+        CapturaSql.COMANDOS.clear();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> consulta.chamada().run());
+        List<String> selects = CapturaSql.COMANDOS.stream().filter(sql -> sql.startsWith("select")).toList();
+        assertEquals(1, selects.size(), selects.toString());
+
+        List<String> plano = jdbcTemplate.queryForList("EXPLAIN " + selects.get(0), String.class, consulta.parametros());
+        Set<String> particoesGrandes = new HashSet<>(jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'vendas'::regclass AND c.reltuples >= ?",
+                String.class, MINIMO_LINHAS));
+        Set<String> particoesLidas = new HashSet<>();
+        for (int i = 0; i < plano.size(); i++) {
+            Matcher matcher = SEQ_SCAN.matcher(plano.get(i));
+            if (!matcher.find()) {
+                continue;
+            }
+            String tabela = matcher.group(1);
+            // Ler clientes inteira para um hash join é aceitável; filtrá-la linha a linha, não
+            boolean filtrada = i + 1 < plano.size() && plano.get(i + 1).trim().startsWith("Filter:");
+            assertFalse(tabela.equals("clientes") && filtrada, String.join("\n", plano));
+            if (particoesGrandes.contains(tabela)) {
+                particoesLidas.add(tabela);
+            }
+        }
+        // Um período dentro de um mês pode ler a partição inteira daquele mês
+        assertTrue(particoesLidas.size() <= 1 || LEEM_VENDAS_INTEIRA.contains(consulta.nome()), String.join("\n", plano));
+    }
+}
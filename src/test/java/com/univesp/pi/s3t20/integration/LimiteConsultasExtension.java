@@ -0,0 +1,66 @@
+package com.univesp.pi.s3t20.integration;
+
+import com.univesp.pi.s3t20.config.ContagemSqlFilter;
+import com.univesp.pi.s3t20.config.ContagemSqlFilter.RequisicaoSql;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Registra as requisições atendidas durante o corpo do teste (sem @BeforeEach/@AfterEach) e confere o limite de
+// @MaxQueries no fim
+class LimiteConsultasExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(LimiteConsultasExtension.class);
+    // Tempo para a aplicação publicar requisições cuja resposta o cliente já recebeu
+    private static final long ESPERA_MAXIMA_MS = 5000;
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        ContagemSqlFilter filtro = SpringExtension.getApplicationContext(context).getBean(ContagemSqlFilter.class);
+        List<RequisicaoSql> requisicoes = new CopyOnWriteArrayList<>();
+        Consumer<RequisicaoSql> observador = requisicoes::add;
+        filtro.observar(observador);
+        context.getStore(NAMESPACE).put("filtro", filtro);
+        context.getStore(NAMESPACE).put("observador", observador);
+        context.getStore(NAMESPACE).put("requisicoes", requisicoes);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void afterTestExecution(ExtensionContext context) throws InterruptedException {
+        ContagemSqlFilter filtro = context.getStore(NAMESPACE).remove("filtro", ContagemSqlFilter.class);
+        Consumer<RequisicaoSql> observador = context.getStore(NAMESPACE).remove("observador", Consumer.class);
+        List<RequisicaoSql> requisicoes = context.getStore(NAMESPACE).remove("requisicoes", List.class);
+        long prazo = System.currentTimeMillis() + ESPERA_MAXIMA_MS;
+        while (filtro.emAndamento() > 0 && System.currentTimeMillis() < prazo) {
+            Thread.sleep(5);
+        }
+        filtro.removerObservador(observador);
+
+        int limite = limite(context);
+        List<String> excedentes = requisicoes.stream()
+                .filter(requisicao -> requisicao.contagem().comandos() > limite)
+                .map(requisicao -> requisicao.metodo() + " " + requisicao.uri() + ": "
+                        + requisicao.contagem().comandos() + " comandos")
+                .toList();
+        if (!excedentes.isEmpty()) {
+            fail("Requisições acima de @MaxQueries(" + limite + "): " + String.join(", ", excedentes));
+        }
+    }
+
+    private static int limite(ExtensionContext context) {
+        Optional<MaxQueries> metodo = AnnotationSupport.findAnnotation(context.getElement(), MaxQueries.class);
+        return metodo.or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), MaxQueries.class))
+                .orElseThrow()
+                .value();
+    }
+}
@@ -0,0 +1,19 @@
+package com.univesp.pi.s3t20.integration;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Limite de comandos SQL por requisição HTTP feita durante o teste (contados pelo ContagemSqlFilter da aplicação
+// embarcada). Falha o teste se alguma requisição passar do limite, o que denuncia consultas N+1 reintroduzidas.
+// Na classe, vale para todos os testes; no método, substitui o da classe.
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(LimiteConsultasExtension.class)
+public @interface MaxQueries {
+
+    int value();
+}
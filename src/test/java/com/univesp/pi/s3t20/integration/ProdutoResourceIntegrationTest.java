@@ -1,23 +1,31 @@
 package com.univesp.pi.s3t20.integration;
 
+import com.univesp.pi.s3t20.config.ContagemSqlFilter;
 import com.univesp.pi.s3t20.model.Produto;
 import com.univesp.pi.s3t20.repository.ProdutoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 import static org.junit.jupiter.api.Assertions.*;
 import java.math.BigDecimal;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @ActiveProfiles("test")
+@MaxQueries(2)
 public class ProdutoResourceIntegrationTest {
 
     @LocalServerPort
@@ -29,6 +37,9 @@ public class ProdutoResourceIntegrationTest {
     @Autowired
     private ProdutoRepository produtoRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private String baseUrl;
 
     @BeforeEach
@@ -67,6 +78,32 @@ public class ProdutoResourceIntegrationTest {
         assertEquals(2, response.getBody().length);
     }
 
+    @Test
+    void testListarProdutosPaginados() {
+        for (int i = 1; i <= 3; i++) {
+            Produto produto = new Produto();
+            produto.setIdProduto("PROD00" + i);
+            produto.setProduto("Produto " + i);
+            produto.setCategoria("Eletrônicos");
+            produto.setPedidoMinimo(10);
+            produto.setCustoUnitario(new BigDecimal("50.00"));
+            produto.setPrecoSugerido(new BigDecimal("80.00"));
+            produto.setCentoPreco(new BigDecimal("75.00"));
+            produtoRepository.save(produto);
+        }
+
+        ResponseEntity<Produto[]> response = restTemplate.getForEntity(baseUrl + "/produtos?limit=2", Produto[].class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().length);
+        String proximo = response.getHeaders().getFirst("X-Next-Cursor");
+        assertEquals(String.valueOf(response.getBody()[1].getId()), proximo);
+
+        response = restTemplate.getForEntity(baseUrl + "/produtos?limit=2&after=" + proximo, Produto[].class);
+        assertEquals(1, response.getBody().length);
+        assertEquals("PROD003", response.getBody()[0].getIdProduto());
+        assertNull(response.getHeaders().getFirst("X-Next-Cursor"));
+    }
+
     @Test
     void testCriarProduto() {
         Map<String, Object> produtoDTO = new HashMap<>();
@@ -86,6 +123,7 @@ public class ProdutoResourceIntegrationTest {
     }
 
     @Test
+    @MaxQueries(4)
     void testCriarProdutoComCodigoDuplicado() {
         // Criar produto existente
         Produto produtoExistente = new Produto();
@@ -243,6 +281,100 @@ public class ProdutoResourceIntegrationTest {
         assertTrue(java.util.Arrays.asList(response.getBody()).contains("Roupas"));
     }
 
+    @Test
+    void testListagensComGetCondicional() {
+        restTemplate.postForEntity(baseUrl + "/produtos", novoProdutoDTO("Pizza"), Map.class);
+
+        for (String url : List.of(baseUrl + "/produtos", baseUrl + "/produtos/categorias", baseUrl + "/produtos/categoria/Pizza")) {
+            ResponseEntity<String> primeira = restTemplate.getForEntity(url, String.class);
+            assertEquals(HttpStatus.OK, primeira.getStatusCode());
+            String etag = primeira.getHeaders().getETag();
+            assertNotNull(etag);
+            assertTrue(primeira.getHeaders().getLastModified() > 0);
+
+            // Só o validador é consultado: nada é lido nem serializado
+            HttpHeaders porEtag = new HttpHeaders();
+            porEtag.setIfNoneMatch(etag);
+            ResponseEntity<String> naoModificada = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(porEtag), String.class);
+            assertEquals(HttpStatus.NOT_MODIFIED, naoModificada.getStatusCode());
+            assertNull(naoModificada.getBody());
+            assertEquals("1", naoModificada.getHeaders().getFirst(ContagemSqlFilter.CABECALHO_COMANDOS));
+
+            HttpHeaders porData = new HttpHeaders();
+            porData.setIfModifiedSince(primeira.getHeaders().getLastModified());
+            assertEquals(HttpStatus.NOT_MODIFIED,
+                    restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(porData), String.class).getStatusCode());
+        }
+        String etag = restTemplate.getForEntity(baseUrl + "/produtos/categorias", String.class).getHeaders().getETag();
+
+        restTemplate.postForEntity(baseUrl + "/produtos", novoProdutoDTO("Bebida"), Map.class);
+
+        HttpHeaders cabecalhos = new HttpHeaders();
+        cabecalhos.setIfNoneMatch(etag);
+        ResponseEntity<String[]> response = restTemplate.exchange(baseUrl + "/produtos/categorias", HttpMethod.GET,
+                new HttpEntity<>(cabecalhos), String[].class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().length);
+        assertNotEquals(etag, response.getHeaders().getETag());
+    }
+
+    @Test
+    @MaxQueries(3)
+    void testGetCondicionalEnxergaGravacaoPorFora() {
+        ResponseEntity<Map> criado = restTemplate.postForEntity(baseUrl + "/produtos", novoProdutoDTO("Pizza"), Map.class);
+        String etag = restTemplate.getForEntity(baseUrl + "/produtos", String.class).getHeaders().getETag();
+
+        // Exclusão sem passar pelo serviço, como a de outra instância ou de uma carga direto no banco
+        produtoRepository.deleteById(((Number) criado.getBody().get("id")).longValue());
+
+        HttpHeaders cabecalhos = new HttpHeaders();
+        cabecalhos.setIfNoneMatch(etag);
+        ResponseEntity<String> response = restTemplate.exchange(baseUrl + "/produtos", HttpMethod.GET,
+                new HttpEntity<>(cabecalhos), String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotEquals(etag, response.getHeaders().getETag());
+    }
+
+    @Test
+    void testCacheSegundoNivel() {
+        ResponseEntity<Map> criado = restTemplate.postForEntity(baseUrl + "/produtos", novoProdutoDTO("Pizza"), Map.class);
+        String codigo = (String) criado.getBody().get("idProduto");
+        Number id = (Number) criado.getBody().get("id");
+
+        // Segunda leitura sai do cache de consultas e do cache de entidades; nas categorias, só o validador do
+        // GET condicional vai ao banco
+        for (String url : List.of(baseUrl + "/produtos/categorias", baseUrl + "/produtos/codigo/" + codigo)) {
+            assertEquals(HttpStatus.OK, restTemplate.getForEntity(url, String.class).getStatusCode());
+            ResponseEntity<String> segunda = restTemplate.getForEntity(url, String.class);
+            assertEquals(HttpStatus.OK, segunda.getStatusCode());
+            assertEquals(url.endsWith("/categorias") ? "1" : "0",
+                    segunda.getHeaders().getFirst(ContagemSqlFilter.CABECALHO_COMANDOS));
+        }
+
+        // Uma alteração pela API invalida os resultados guardados
+        Map<String, Object> produtoDTO = novoProdutoDTO("Bebida");
+        restTemplate.exchange(baseUrl + "/produtos/" + id, HttpMethod.PUT, new HttpEntity<>(produtoDTO), Map.class);
+        ResponseEntity<String[]> categorias = restTemplate.getForEntity(baseUrl + "/produtos/categorias", String[].class);
+        assertEquals(List.of("Bebida"), List.of(categorias.getBody()));
+        ResponseEntity<Map> porCodigo = restTemplate.getForEntity(baseUrl + "/produtos/codigo/" + codigo, Map.class);
+        assertEquals("Bebida", porCodigo.getBody().get("categoria"));
+
+        Gauge taxaAcerto = meterRegistry.find("hibernate.cache.hit.ratio").tag("region", Produto.REGIAO_CONSULTAS).gauge();
+        assertNotNull(taxaAcerto);
+        assertTrue(taxaAcerto.value() > 0);
+    }
+
+    private Map<String, Object> novoProdutoDTO(String categoria) {
+        Map<String, Object> produtoDTO = new HashMap<>();
+        produtoDTO.put("produto", "Produto " + categoria);
+        produtoDTO.put("categoria", categoria);
+        produtoDTO.put("pedidoMinimo", 1);
+        produtoDTO.put("custoUnitario", 10.00);
+        produtoDTO.put("precoSugerido", 20.00);
+        produtoDTO.put("centoPreco", 18.00);
+        return produtoDTO;
+    }
+
     @Test
     void testAtualizarProduto() {
         Produto produto = new Produto();
@@ -298,6 +430,7 @@ public class ProdutoResourceIntegrationTest {
     }
 
     @Test
+    @MaxQueries(5)
     void testDeletarProduto() {
         Produto produto = new Produto();
         produto.setIdProduto("PROD001");
@@ -0,0 +1,132 @@
+package com.univesp.pi.s3t20.integration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Roteamento de leitura com dois H2 em memória: o primário (testdb, do perfil test) e uma réplica migrada à parte.
+// Uma linha gravada só na réplica aparece nas leituras; o que a API grava vai só para o primário. Sem replicação
+// entre os dois, o primário fica à frente da réplica como numa réplica atrasada.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "datasource.replica.enabled=true",
+        "datasource.replica.url=" + ReplicaLeituraIntegrationTest.URL_REPLICA})
+@ActiveProfiles("test")
+public class ReplicaLeituraIntegrationTest {
+
+    static final String URL_REPLICA = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+    private static final String URL_PRIMARIO = "jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(URL_REPLICA, "sa", ""));
+    private final JdbcTemplate primario = new JdbcTemplate(new DriverManagerDataSource(URL_PRIMARIO, "sa", ""));
+
+    private String baseUrl;
+
+    @BeforeAll
+    static void migrarReplica() {
+        Flyway.configure().dataSource(URL_REPLICA, "sa", "").load().migrate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port;
+        replica.update("INSERT INTO produtos (id_produto, produto, categoria, pedido_minimo, custo_unitario, " +
+                "preco_sugerido, cento_preco) VALUES ('REPLICA1', 'Só na réplica', 'Réplica', 1, 1.00, 2.00, 1.50)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        replica.update("DELETE FROM produtos WHERE id_produto = 'REPLICA1' OR categoria = 'Primário'");
+        primario.update("DELETE FROM produtos WHERE categoria = 'Primário'");
+    }
+
+    @Test
+    void testLeiturasVaoParaAReplica() {
+        ResponseEntity<Map> response = restTemplate.getForEntity(baseUrl + "/produtos/codigo/REPLICA1", Map.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Só na réplica", response.getBody().get("produto"));
+        ResponseEntity<String[]> categorias = restTemplate.getForEntity(baseUrl + "/produtos/categorias", String[].class);
+        assertTrue(List.of(categorias.getBody()).contains("Réplica"));
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "replica").gauge());
+    }
+
+    @Test
+    void testEscritasVaoParaOPrimario() {
+        ResponseEntity<Map> response = restTemplate.postForEntity(baseUrl + "/produtos", produtoDTO(), Map.class);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        String codigo = (String) response.getBody().get("idProduto");
+        assertEquals(1, primario.queryForObject("SELECT COUNT(*) FROM produtos WHERE id_produto = ?", Integer.class, codigo));
+        assertEquals(0, replica.queryForObject("SELECT COUNT(*) FROM produtos WHERE id_produto = ?", Integer.class, codigo));
+        // Sem replicação entre os dois bancos, a leitura (na réplica) não enxerga a gravação
+        assertEquals(HttpStatus.NOT_FOUND,
+                restTemplate.getForEntity(baseUrl + "/produtos/codigo/" + codigo, Map.class).getStatusCode());
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "primario").gauge());
+    }
+
+    @Test
+    void testGetCondicionalComReplicaAtrasada() {
+        String url = baseUrl + "/produtos?limit=1000";
+        String etag = restTemplate.getForEntity(url, String.class).getHeaders().getETag();
+
+        // Gravação que a réplica ainda não recebeu: validador e listagem continuam os da réplica
+        ResponseEntity<Map> criado = restTemplate.postForEntity(baseUrl + "/produtos", produtoDTO(), Map.class);
+        assertEquals(HttpStatus.NOT_MODIFIED, getCondicional(url, etag).getStatusCode());
+
+        // A réplica alcança o primário: o ETag antigo deixa de valer e a listagem traz a gravação
+        replica.update("INSERT INTO produtos (id_produto, produto, categoria, pedido_minimo, custo_unitario, " +
+                "preco_sugerido, cento_preco, updated_at) VALUES (?, 'Gravado no primário', 'Primário', 1, 10.00, " +
+                "20.00, 18.00, CURRENT_TIMESTAMP)", criado.getBody().get("idProduto"));
+        ResponseEntity<String> alcancada = getCondicional(url, etag);
+        assertEquals(HttpStatus.OK, alcancada.getStatusCode());
+        assertTrue(alcancada.getBody().contains("Gravado no primário"));
+        assertNotEquals(etag, alcancada.getHeaders().getETag());
+    }
+
+    private ResponseEntity<String> getCondicional(String url, String etag) {
+        HttpHeaders cabecalhos = new HttpHeaders();
+        cabecalhos.setIfNoneMatch(etag);
+        return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(cabecalhos), String.class);
+    }
+
+    private Map<String, Object> produtoDTO() {
+        Map<String, Object> produtoDTO = new HashMap<>();
+        produtoDTO.put("produto", "Gravado no primário");
+        produtoDTO.put("categoria", "Primário");
+        produtoDTO.put("pedidoMinimo", 1);
+        produtoDTO.put("custoUnitario", 10.00);
+        produtoDTO.put("precoSugerido", 20.00);
+        produtoDTO.put("centoPreco", 18.00);
+        return produtoDTO;
+    }
+}
@@ -1,5 +1,6 @@
 package com.univesp.pi.s3t20.integration;
 
+import com.univesp.pi.s3t20.config.ContagemSqlFilter;
 import com.univesp.pi.s3t20.model.Venda;
 import com.univesp.pi.s3t20.model.Produto;
 import com.univesp.pi.s3t20.model.Cliente;
@@ -8,24 +9,47 @@ import com.univesp.pi.s3t20.repository.VendaRepository;
 import com.univesp.pi.s3t20.repository.ProdutoRepository;
 import com.univesp.pi.s3t20.repository.ClienteRepository;
 import com.univesp.pi.s3t20.repository.FormaPagamentoRepository;
+import com.univesp.pi.s3t20.repository.VendaResumoDiarioRepository;
 import com.univesp.pi.s3t20.service.VendaService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @ActiveProfiles("test")
+@MaxQueries(2)
 public class VendaResourceIntegrationTest {
 
     @LocalServerPort
@@ -45,6 +69,21 @@ public class VendaResourceIntegrationTest {
     
     @Autowired
     private FormaPagamentoRepository formaPagamentoRepository;
+    
+    @Autowired
+    private VendaResumoDiarioRepository vendaResumoDiarioRepository;
+    
+    @Autowired
+    private VendaService vendaService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     private String baseUrl;
     private Produto produtoTeste;
@@ -54,6 +93,7 @@ public class VendaResourceIntegrationTest {
     @BeforeEach
     void setUp() {
         vendaRepository.deleteAll();
+        vendaResumoDiarioRepository.deleteAll();
         produtoRepository.deleteAll();
         clienteRepository.deleteAll();
         formaPagamentoRepository.deleteAll();
@@ -118,6 +158,7 @@ public class VendaResourceIntegrationTest {
     }
 
     @Test
+    @MaxQueries(6)
     void testCriarVenda() {
         Map<String, Object> vendaDTO = new HashMap<>();
         vendaDTO.put("data", LocalDate.now().toString());
@@ -134,6 +175,37 @@ public class VendaResourceIntegrationTest {
         assertEquals(3, response.getBody().get("quantidade"));
     }
 
+    @Test
+    @MaxQueries(6)
+    void testMetricasDeServicosRepositoriosEEntidades() {
+        Counter criadas = meterRegistry.get("entidades.criadas").tag("entidade", "venda").counter();
+        double criadasAntes = criadas.count();
+        Map<String, Object> vendaDTO = new HashMap<>();
+        vendaDTO.put("data", LocalDate.now().toString());
+        vendaDTO.put("produtoId", produtoTeste.getId());
+        vendaDTO.put("quantidade", 1);
+        vendaDTO.put("precoUnitario", 90.00);
+        vendaDTO.put("clienteId", clienteTeste.getId());
+        vendaDTO.put("formaPagamentoId", formaPagamentoTeste.getId());
+
+        ResponseEntity<Map> response = restTemplate.postForEntity(baseUrl + "/vendas", vendaDTO, Map.class);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(criadasAntes + 1, criadas.count());
+        Timer servico = meterRegistry.find("servico.chamadas")
+                .tags("class", VendaService.class.getName(), "method", "criar").timer();
+        assertNotNull(servico);
+        assertTrue(servico.count() >= 1);
+        // Histograma com percentis publicados (management.metrics.distribution.*)
+        assertTrue(servico.takeSnapshot().percentileValues().length > 0);
+        Timer repositorio = meterRegistry.find("spring.data.repository.invocations")
+                .tags("repository", "VendaRepository", "method", "save").timer();
+        assertNotNull(repositorio);
+        assertTrue(repositorio.count() >= 1);
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").gauge());
+        assertNotNull(meterRegistry.find("hibernate.statements").functionCounter());
+    }
+
     @Test
     void testCriarVendaComProdutoInexistente() {
         Venda vendaComProdutoInexistente = new Venda();
@@ -188,6 +260,37 @@ public class VendaResourceIntegrationTest {
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
+    @Test
+    void testContagemDeConsultasNoCabecalhoENasMetricas() {
+        Venda venda = new Venda();
+        venda.setIdVenda("VENDA001");
+        venda.setData(LocalDate.now());
+        venda.setQuantidade(2);
+        venda.setPrecoUnitario(new BigDecimal("80.00"));
+        venda.setReceitaTotal(new BigDecimal("160.00"));
+        venda.setProduto(produtoTeste);
+        venda.setCliente(clienteTeste);
+        venda.setFormaPagamento(formaPagamentoTeste);
+        venda = vendaRepository.save(venda);
+
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/vendas/" + venda.getId(), String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        // Venda com produto, cliente e forma de pagamento numa única consulta
+        assertEquals("1", response.getHeaders().getFirst(ContagemSqlFilter.CABECALHO_COMANDOS));
+        assertEquals("1", response.getHeaders().getFirst(ContagemSqlFilter.CABECALHO_LINHAS));
+        assertNotNull(response.getHeaders().getFirst(ContagemSqlFilter.CABECALHO_TEMPO));
+
+        DistributionSummary porRequisicao = meterRegistry.find("sql.requisicao.comandos")
+                .tags("method", "GET", "uri", "/vendas/{id}").summary();
+        assertNotNull(porRequisicao);
+        assertTrue(porRequisicao.count() >= 1);
+        DistributionSummary porServico = meterRegistry.find("sql.servico.comandos")
+                .tags("classe", "VendaService", "metodo", "buscarPorId").summary();
+        assertNotNull(porServico);
+        assertTrue(porServico.count() >= 1);
+    }
+
     @Test
     void testBuscarVendasPorData() {
         LocalDate dataTeste = LocalDate.now();
@@ -265,6 +368,7 @@ public class VendaResourceIntegrationTest {
     }
 
     @Test
+    @MaxQueries(3)
     void testBuscarVendasPorPeriodo() {
         LocalDate dataInicio = LocalDate.now();
         LocalDate dataFim = LocalDate.now().plusDays(2);
@@ -300,6 +404,7 @@ public class VendaResourceIntegrationTest {
     }
 
     @Test
+    @MaxQueries(4)
     void testAtualizarVenda() {
         Venda venda = new Venda();
         venda.setIdVenda("VENDA001");
@@ -352,6 +457,7 @@ public class VendaResourceIntegrationTest {
     }
 
     @Test
+    @MaxQueries(5)
     void testDeletarVenda() {
         Venda venda = new Venda();
         venda.setIdVenda("VENDA001");
@@ -402,7 +508,7 @@ public class VendaResourceIntegrationTest {
         venda1.setProduto(produtoTeste);
         venda1.setCliente(clienteTeste);
         venda1.setFormaPagamento(formaPagamentoTeste);
-        vendaRepository.save(venda1);
+        vendaService.criar(venda1);
 
         Venda venda2 = new Venda();
         venda2.setIdVenda("VENDA002");
@@ -413,14 +519,14 @@ public class VendaResourceIntegrationTest {
         venda2.setProduto(produtoTeste);
         venda2.setCliente(clienteTeste);
         venda2.setFormaPagamento(formaPagamentoTeste);
-        vendaRepository.save(venda2);
+        vendaService.criar(venda2);
 
         ResponseEntity<VendaService.VendaResumo> response = restTemplate.getForEntity(baseUrl + "/vendas/resumo", VendaService.VendaResumo.class);
         
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(2L, response.getBody().totalVendas);
-        assertEquals(260.0, response.getBody().receitaTotal);
+        assertEquals(0, new BigDecimal("260.00").compareTo(response.getBody().receitaTotal));
     }
 
     @Test
@@ -437,7 +543,7 @@ public class VendaResourceIntegrationTest {
         venda1.setProduto(produtoTeste);
         venda1.setCliente(clienteTeste);
         venda1.setFormaPagamento(formaPagamentoTeste);
-        vendaRepository.save(venda1);
+        vendaService.criar(venda1);
 
         String url = baseUrl + "/vendas/resumo/periodo?dataInicio=" + dataInicio + "&dataFim=" + dataFim;
         ResponseEntity<VendaService.VendaResumo> response = restTemplate.getForEntity(url, VendaService.VendaResumo.class);
@@ -445,7 +551,428 @@ public class VendaResourceIntegrationTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(1L, response.getBody().totalVendas);
-        assertEquals(160.0, response.getBody().receitaTotal);
+        assertEquals(0, new BigDecimal("160.00").compareTo(response.getBody().receitaTotal));
+    }
+
+    @Test
+    @MaxQueries(5)
+    void testPeriodoComGetCondicional() {
+        LocalDate data = LocalDate.of(2025, 9, 10);
+        Venda venda = criarVenda(data, 2, "80.00");
+        String periodo = "?dataInicio=2025-09-01&dataFim=2025-09-30";
+
+        for (String url : List.of(baseUrl + "/vendas/periodo" + periodo, baseUrl + "/vendas/resumo/periodo" + periodo)) {
+            ResponseEntity<String> primeira = restTemplate.getForEntity(url, String.class);
+            assertEquals(HttpStatus.OK, primeira.getStatusCode());
+            String etag = primeira.getHeaders().getETag();
+            assertNotNull(etag);
+            assertTrue(primeira.getHeaders().getLastModified() > 0);
+
+            // Só os validadores são consultados (o da listagem inclui o das dimensões); nada é lido nem serializado
+            ResponseEntity<String> naoModificada = getCondicional(url, etag);
+            assertEquals(HttpStatus.NOT_MODIFIED, naoModificada.getStatusCode());
+            assertNull(naoModificada.getBody());
+            assertEquals(url.contains("/resumo/") ? "1" : "2",
+                    naoModificada.getHeaders().getFirst(ContagemSqlFilter.CABECALHO_COMANDOS));
+            assertEquals(etag, naoModificada.getHeaders().getETag());
+        }
+        String etagListagem = restTemplate.getForEntity(baseUrl + "/vendas/periodo" + periodo, String.class).getHeaders().getETag();
+        String etagResumo = restTemplate.getForEntity(baseUrl + "/vendas/resumo/periodo" + periodo, String.class).getHeaders().getETag();
+
+        Map<String, Object> vendaDTO = new HashMap<>();
+        vendaDTO.put("data", data.toString());
+        vendaDTO.put("produtoId", produtoTeste.getId());
+        vendaDTO.put("quantidade", 5);
+        vendaDTO.put("precoUnitario", 80.00);
+        vendaDTO.put("clienteId", clienteTeste.getId());
+        vendaDTO.put("formaPagamentoId", formaPagamentoTeste.getId());
+        restTemplate.put(baseUrl + "/vendas/" + venda.getId(), vendaDTO);
+
+        ResponseEntity<String> listagem = getCondicional(baseUrl + "/vendas/periodo" + periodo, etagListagem);
+        assertEquals(HttpStatus.OK, listagem.getStatusCode());
+        assertNotEquals(etagListagem, listagem.getHeaders().getETag());
+        ResponseEntity<String> resumo = getCondicional(baseUrl + "/vendas/resumo/periodo" + periodo, etagResumo);
+        assertEquals(HttpStatus.OK, resumo.getStatusCode());
+        assertNotEquals(etagResumo, resumo.getHeaders().getETag());
+
+        // Exclusões não alteram o updated_at máximo, mas mudam a quantidade de vendas do período
+        Venda outra = criarVenda(data, 1, "10.00");
+        etagResumo = restTemplate.getForEntity(baseUrl + "/vendas/resumo/periodo" + periodo, String.class).getHeaders().getETag();
+        restTemplate.delete(baseUrl + "/vendas/" + outra.getId());
+        assertEquals(HttpStatus.OK, getCondicional(baseUrl + "/vendas/resumo/periodo" + periodo, etagResumo).getStatusCode());
+    }
+
+    private ResponseEntity<String> getCondicional(String url, String etag) {
+        HttpHeaders cabecalhos = new HttpHeaders();
+        cabecalhos.setIfNoneMatch(etag);
+        return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(cabecalhos), String.class);
+    }
+
+    @Test
+    void testAnalisarVendasPorCategoriaEMes() {
+        LocalDate setembro = LocalDate.of(2025, 9, 10);
+        LocalDate outubro = LocalDate.of(2025, 10, 2);
+        criarVenda(setembro, 2, "80.00");
+        criarVenda(setembro.plusDays(1), 3, "10.00");
+        criarVenda(outubro, 1, "100.00");
+
+        String url = baseUrl + "/vendas/analytics?groupBy=categoria,mes&dataInicio=2025-09-01&dataFim=2025-10-31";
+        ResponseEntity<List> response = restTemplate.getForEntity(url, List.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(2, response.getBody().size());
+        Map<?, ?> primeira = (Map<?, ?>) response.getBody().get(0);
+        assertEquals(Map.of("categoria", "Eletrônicos", "mes", "2025-09"), primeira.get("chaves"));
+        assertEquals(2, primeira.get("totalVendas"));
+        assertEquals(5, primeira.get("quantidadeTotal"));
+        assertEquals(190.0, ((Number) primeira.get("receitaTotal")).doubleValue());
+    }
+
+    @Test
+    void testAnalisarVendasSemAgrupamento() {
+        criarVenda(LocalDate.now(), 2, "80.00");
+
+        ResponseEntity<List> response = restTemplate.getForEntity(baseUrl + "/vendas/analytics", List.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+        assertEquals(1, ((Map<?, ?>) response.getBody().get(0)).get("totalVendas"));
+    }
+
+    @Test
+    void testAnalisarVendasComDimensaoInvalida() {
+        ResponseEntity<String> invalida = restTemplate.getForEntity(baseUrl + "/vendas/analytics?groupBy=produtoX", String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, invalida.getStatusCode());
+
+        ResponseEntity<String> duasTemporais = restTemplate.getForEntity(baseUrl + "/vendas/analytics?groupBy=dia,mes", String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, duasTemporais.getStatusCode());
+    }
+
+    @Test
+    void testListarVendasPaginadasPorCursor() {
+        for (int i = 0; i < 5; i++) {
+            criarVenda(LocalDate.now(), i + 1, "10.00");
+        }
+
+        List<Long> ids = new ArrayList<>();
+        String url = baseUrl + "/vendas?limit=2";
+        int paginas = 0;
+        while (url != null) {
+            ResponseEntity<Venda[]> response = restTemplate.getForEntity(url, Venda[].class);
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertTrue(response.getBody().length <= 2);
+            for (Venda venda : response.getBody()) {
+                ids.add(venda.getId());
+            }
+            paginas++;
+
+            String proximo = response.getHeaders().getFirst("X-Next-Cursor");
+            if (proximo == null) {
+                assertNull(response.getHeaders().getFirst(HttpHeaders.LINK));
+                url = null;
+            } else {
+                assertEquals(String.valueOf(ids.get(ids.size() - 1)), proximo);
+                assertTrue(response.getHeaders().getFirst(HttpHeaders.LINK).contains("after=" + proximo));
+                url = baseUrl + "/vendas?limit=2&after=" + proximo;
+            }
+        }
+
+        assertEquals(3, paginas);
+        assertEquals(5, ids.size());
+        assertEquals(ids.stream().sorted().distinct().toList(), ids);
+    }
+
+    @Test
+    void testListagemRefleteAlteracaoDaDimensao() {
+        criarVenda(LocalDate.now(), 1, "10.00");
+        criarVenda(LocalDate.now(), 2, "10.00");
+        // Guarda o JSON do produto compartilhado pelas duas vendas
+        JsonNode antes = restTemplate.getForEntity(baseUrl + "/vendas", JsonNode.class).getBody();
+        assertEquals("Produto Teste", antes.get(1).get("produto").get("produto").asText());
+
+        Map<String, Object> produtoDTO = new HashMap<>();
+        produtoDTO.put("produto", "Produto Renomeado");
+        produtoDTO.put("categoria", "Eletrônicos");
+        produtoDTO.put("pedidoMinimo", 10);
+        produtoDTO.put("custoUnitario", 50.00);
+        produtoDTO.put("precoSugerido", 80.00);
+        produtoDTO.put("centoPreco", 75.00);
+        assertEquals(HttpStatus.OK, restTemplate.exchange(baseUrl + "/produtos/" + produtoTeste.getId(), HttpMethod.PUT,
+                new HttpEntity<>(produtoDTO), Map.class).getStatusCode());
+
+        JsonNode depois = restTemplate.getForEntity(baseUrl + "/vendas", JsonNode.class).getBody();
+        for (JsonNode venda : depois) {
+            assertEquals("Produto Renomeado", venda.get("produto").get("produto").asText());
+            assertEquals(clienteTeste.getNomeCliente(), venda.get("cliente").get("nomeCliente").asText());
+        }
+    }
+
+    @Test
+    @MaxQueries(3)
+    void testBuscarVendasPorPeriodoPaginadas() {
+        LocalDate data = LocalDate.of(2025, 9, 10);
+        Venda primeira = criarVenda(data, 1, "10.00");
+        criarVenda(data.plusDays(1), 2, "10.00");
+        criarVenda(data.plusDays(40), 3, "10.00");
+
+        String url = baseUrl + "/vendas/periodo?dataInicio=2025-09-01&dataFim=2025-09-30&limit=1";
+        ResponseEntity<Venda[]> response = restTemplate.getForEntity(url, Venda[].class);
+        assertEquals(1, response.getBody().length);
+        assertEquals(String.valueOf(primeira.getId()), response.getHeaders().getFirst("X-Next-Cursor"));
+
+        response = restTemplate.getForEntity(url + "&after=" + primeira.getId(), Venda[].class);
+        assertEquals(1, response.getBody().length);
+        assertEquals(2, response.getBody()[0].getQuantidade());
+        assertNull(response.getHeaders().getFirst("X-Next-Cursor"));
+    }
+
+    @Test
+    void testListarVendasComLimiteInvalido() {
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/vendas?limit=0", String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void testTransmitirVendasEmNdjson() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            criarVenda(LocalDate.of(2025, 9, 10 + i), i + 1, "10.00");
+        }
+
+        ResponseEntity<String> response = getNdjson(baseUrl + "/vendas");
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(MediaType.APPLICATION_NDJSON.isCompatibleWith(response.getHeaders().getContentType()));
+
+        String[] linhas = response.getBody().split("\n");
+        assertEquals(3, linhas.length);
+        for (int i = 0; i < linhas.length; i++) {
+            JsonNode venda = objectMapper.readTree(linhas[i]);
+            assertEquals(i + 1, venda.get("quantidade").asInt());
+            assertEquals("PROD001", venda.get("produto").get("idProduto").asText());
+        }
+    }
+
+    @Test
+    void testTransmitirVendasPorPeriodoEmNdjson() throws Exception {
+        criarVenda(LocalDate.of(2025, 9, 10), 1, "10.00");
+        criarVenda(LocalDate.of(2025, 9, 20), 2, "10.00");
+        criarVenda(LocalDate.of(2025, 10, 5), 3, "10.00");
+
+        ResponseEntity<String> response = getNdjson(baseUrl + "/vendas/periodo?dataInicio=2025-09-01&dataFim=2025-09-30");
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        String[] linhas = response.getBody().split("\n");
+        assertEquals(2, linhas.length);
+        assertEquals(2, objectMapper.readTree(linhas[1]).get("quantidade").asInt());
+    }
+
+    @Test
+    void testListarVendasSemNdjsonContinuaPaginado() {
+        criarVenda(LocalDate.of(2025, 9, 10), 1, "10.00");
+        criarVenda(LocalDate.of(2025, 9, 11), 2, "10.00");
+
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/vendas?limit=1", String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(response.getHeaders().getContentType()));
+        assertTrue(response.getBody().startsWith("["));
+        assertNotNull(response.getHeaders().getFirst("X-Next-Cursor"));
+    }
+
+    @Test
+    @MaxQueries(3)
+    void testListagensNaoDisparamConsultasPorVenda() {
+        // Um cliente por venda: sem o grafo de busca, cada linha carregaria o seu cliente em um SELECT próprio
+        for (int i = 0; i < 5; i++) {
+            Cliente cliente = new Cliente();
+            cliente.setIdCliente("CLI1" + i);
+            cliente.setNomeCliente("Cliente " + i);
+            cliente.setBairro("Centro");
+            cliente.setCidade("Campinas");
+            cliente.setTipoCliente("Pessoa Física");
+            cliente = clienteRepository.save(cliente);
+
+            Venda venda = new Venda();
+            venda.setData(LocalDate.of(2025, 9, 10));
+            venda.setQuantidade(i + 1);
+            venda.setPrecoUnitario(new BigDecimal("10.00"));
+            venda.setProduto(produtoTeste);
+            venda.setCliente(cliente);
+            venda.setFormaPagamento(formaPagamentoTeste);
+            vendaService.criar(venda);
+        }
+
+        assertConsultasPorRequisicao(baseUrl + "/vendas", 5);
+        assertConsultasPorRequisicao(baseUrl + "/vendas/periodo?dataInicio=2025-09-01&dataFim=2025-09-30", 5);
+        assertConsultasPorRequisicao(baseUrl + "/vendas/produto/" + produtoTeste.getId(), 5);
+        assertConsultasPorRequisicao(baseUrl + "/vendas/data/2025-09-10", 5);
+    }
+
+    private void assertConsultasPorRequisicao(String url, int vendasEsperadas) {
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+
+        ResponseEntity<Venda[]> response = restTemplate.getForEntity(url, Venda[].class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(vendasEsperadas, response.getBody().length);
+        assertTrue(estatisticas.getPrepareStatementCount() <= 2,
+                url + " executou " + estatisticas.getPrepareStatementCount() + " comandos SQL");
+    }
+
+    @Test
+    @MaxQueries(6)
+    void testCriarVendasEmLote() {
+        List<Map<String, Object>> lote = new ArrayList<>();
+        lote.add(novaVendaDTO(produtoTeste.getId(), 2, "10.00"));
+        lote.add(novaVendaDTO(-1L, 1, "10.00"));
+        lote.add(novaVendaDTO(produtoTeste.getId(), null, "10.00"));
+        lote.add(novaVendaDTO(produtoTeste.getId(), 3, "5.50"));
+
+        ResponseEntity<List> response = restTemplate.postForEntity(baseUrl + "/vendas/batch", lote, List.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<Map<String, Object>> itens = response.getBody();
+        assertEquals(4, itens.size());
+        assertEquals(true, itens.get(0).get("sucesso"));
+        assertEquals(20.0, ((Number) ((Map) itens.get(0).get("venda")).get("receitaTotal")).doubleValue(), 0.001);
+        assertEquals(false, itens.get(1).get("sucesso"));
+        assertEquals("Produto não encontrado", itens.get(1).get("erro"));
+        assertEquals(false, itens.get(2).get("sucesso"));
+        assertEquals("Quantidade é obrigatória", itens.get(2).get("erro"));
+        assertEquals(true, itens.get(3).get("sucesso"));
+        assertEquals(3, itens.get(3).get("indice"));
+
+        assertEquals(2L, vendaRepository.count());
+        VendaService.VendaResumo resumo = vendaService.obterResumo();
+        assertEquals(2L, resumo.totalVendas);
+        assertEquals(new BigDecimal("36.50"), resumo.receitaTotal);
+    }
+
+    @Test
+    @MaxQueries(15)
+    void testCriarVendasEmLoteAgrupaInserts() {
+        List<Map<String, Object>> lote = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            lote.add(novaVendaDTO(produtoTeste.getId(), i + 1, "1.00"));
+        }
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+
+        ResponseEntity<List> response = restTemplate.postForEntity(baseUrl + "/vendas/batch", lote, List.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(120L, vendaRepository.count());
+        // 120 vendas pelo Hibernate; a linha do rollup diário (todas no mesmo dia e mesmas dimensões) vai por SQL direto
+        assertEquals(120, estatisticas.getEntityInsertCount());
+        assertEquals(1L, vendaResumoDiarioRepository.count());
+        assertTrue(estatisticas.getPrepareStatementCount() <= 15,
+                "lote de 120 vendas executou " + estatisticas.getPrepareStatementCount() + " comandos SQL");
+    }
+
+    @Test
+    void testCriarVendasEmLoteVazioOuGrande() {
+        ResponseEntity<String> vazio = restTemplate.postForEntity(baseUrl + "/vendas/batch", List.of(), String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, vazio.getStatusCode());
+
+        List<Map<String, Object>> grande = new ArrayList<>();
+        for (int i = 0; i < 1001; i++) {
+            grande.add(novaVendaDTO(produtoTeste.getId(), 1, "1.00"));
+        }
+        ResponseEntity<String> response = restTemplate.postForEntity(baseUrl + "/vendas/batch", grande, String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(0L, vendaRepository.count());
+    }
+
+    @Test
+    @MaxQueries(7)
+    void testExportarVendasEmCsvReimportavel() {
+        Venda primeira = criarVenda(LocalDate.of(2025, 9, 10), 3, "12.50");
+        criarVenda(LocalDate.of(2025, 9, 20), 2, "0.80");
+        criarVenda(LocalDate.of(2025, 10, 5), 1, "10.00");
+
+        ResponseEntity<byte[]> response = restTemplate.getForEntity(
+                baseUrl + "/vendas/export?format=csv&dataInicio=2025-09-01&dataFim=2025-09-30", byte[].class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(MediaType.parseMediaType("text/csv").isCompatibleWith(response.getHeaders().getContentType()));
+        assertEquals("vendas_2025-09-01_2025-09-30.csv", response.getHeaders().getContentDisposition().getFilename());
+
+        String[] linhas = new String(response.getBody(), StandardCharsets.ISO_8859_1).split("\n");
+        assertEquals(3, linhas.length);
+        assertEquals("ID_Venda;Data;ID_Produto;Quantidade; Preco_Unitario ; Receita_Total ;ID_Cliente;ID_Pagamento;;;", linhas[0]);
+        assertEquals(primeira.getIdVenda() + ";2025-09-10;PROD001;3; R$ 12.50 ; R$ 37.50 ;CLI001;PAG001;;;", linhas[1]);
+
+        // O arquivo volta pela importação de planilhas com os mesmos valores
+        vendaRepository.deleteAll();
+        vendaResumoDiarioRepository.deleteAll();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(response.getHeaders().getContentType());
+        ResponseEntity<Map> importacao = restTemplate.postForEntity(baseUrl + "/importacao/vendas",
+                new HttpEntity<>(response.getBody(), headers), Map.class);
+        assertEquals(HttpStatus.OK, importacao.getStatusCode());
+        assertEquals(2, ((Number) importacao.getBody().get("incluidas")).intValue());
+
+        Venda reimportada = vendaRepository.findByIdVenda(primeira.getIdVenda()).orElseThrow();
+        assertEquals(LocalDate.of(2025, 9, 10), reimportada.getData());
+        assertEquals(new BigDecimal("37.50"), reimportada.getReceitaTotal());
+        assertEquals(new BigDecimal("39.10"), vendaService.obterResumo().receitaTotal);
+    }
+
+    @Test
+    void testExportarVendasEmXlsx() throws Exception {
+        Venda primeira = criarVenda(LocalDate.of(2025, 9, 10), 3, "12.50");
+        criarVenda(LocalDate.of(2025, 9, 20), 2, "0.80");
+
+        ResponseEntity<byte[]> response = restTemplate.getForEntity(
+                baseUrl + "/vendas/export?format=xlsx&dataInicio=2025-09-01&dataFim=2025-09-30", byte[].class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("vendas_2025-09-01_2025-09-30.xlsx", response.getHeaders().getContentDisposition().getFilename());
+
+        try (XSSFWorkbook planilha = new XSSFWorkbook(new ByteArrayInputStream(response.getBody()))) {
+            Sheet folha = planilha.getSheetAt(0);
+            assertEquals(2, folha.getLastRowNum());
+            assertEquals("ID_Venda", folha.getRow(0).getCell(0).getStringCellValue());
+            Row linha = folha.getRow(1);
+            assertEquals(primeira.getIdVenda(), linha.getCell(0).getStringCellValue());
+            assertEquals(LocalDate.of(2025, 9, 10), linha.getCell(1).getLocalDateTimeCellValue().toLocalDate());
+            assertEquals(3, linha.getCell(3).getNumericCellValue());
+            assertEquals(37.5, linha.getCell(5).getNumericCellValue());
+            assertEquals("PAG001", linha.getCell(7).getStringCellValue());
+        }
+    }
+
+    @Test
+    void testExportarVendasComFormatoInvalido() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                baseUrl + "/vendas/export?format=pdf&dataInicio=2025-09-01&dataFim=2025-09-30", String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    private Map<String, Object> novaVendaDTO(Long produtoId, Integer quantidade, String precoUnitario) {
+        Map<String, Object> vendaDTO = new HashMap<>();
+        vendaDTO.put("data", "2025-09-10");
+        vendaDTO.put("produtoId", produtoId);
+        vendaDTO.put("quantidade", quantidade);
+        vendaDTO.put("precoUnitario", new BigDecimal(precoUnitario));
+        vendaDTO.put("clienteId", clienteTeste.getId());
+        vendaDTO.put("formaPagamentoId", formaPagamentoTeste.getId());
+        return vendaDTO;
+    }
+
+    private ResponseEntity<String> getNdjson(String url) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+        return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private Venda criarVenda(LocalDate data, int quantidade, String precoUnitario) {
+        Venda venda = new Venda();
+        venda.setData(data);
+        venda.setQuantidade(quantidade);
+        venda.setPrecoUnitario(new BigDecimal(precoUnitario));
+        venda.setProduto(produtoTeste);
+        venda.setCliente(clienteTeste);
+        venda.setFormaPagamento(formaPagamentoTeste);
+        return vendaService.criar(venda).get();
     }
 
     @Test
@@ -0,0 +1,64 @@
+package com.univesp.pi.s3t20.unit;
+
+import com.univesp.pi.s3t20.service.Centavos;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CentavosTest {
+
+    @Test
+    void testConversaoIdaEVolta() {
+        assertEquals(16000L, Centavos.de(new BigDecimal("160.00")));
+        assertEquals(250L, Centavos.de(new BigDecimal("2.5")));
+        assertEquals(0L, Centavos.de(null));
+        // Meio centavo arredonda para longe do zero, como o PostgreSQL
+        assertEquals(13L, Centavos.de(new BigDecimal("0.125")));
+        assertEquals(-13L, Centavos.de(new BigDecimal("-0.125")));
+        assertEquals(12L, Centavos.de(new BigDecimal("0.1249")));
+        assertEquals(new BigDecimal("160.00"), Centavos.paraBigDecimal(16000L));
+        assertNull(Centavos.paraBigDecimal((Long) null));
+    }
+
+    @Test
+    void testSomaSemPerdaDeCentavos() {
+        // 0.10 somado dez milhões de vezes em double acumula erro; em centavos o total é exato
+        long total = 0;
+        for (int i = 0; i < 10_000_000; i++) {
+            total = Centavos.somar(total, 10L);
+        }
+        assertEquals(new BigDecimal("1000000.00"), Centavos.paraBigDecimal(total));
+    }
+
+    @Test
+    void testOverflowEhDetectado() {
+        assertThrows(ArithmeticException.class, () -> Centavos.somar(Long.MAX_VALUE, 1L));
+        assertThrows(ArithmeticException.class, () -> Centavos.multiplicar(Long.MAX_VALUE / 2, 3));
+    }
+
+    @Test
+    void testMediaArredondaParaOCentavo() {
+        assertEquals(1562L, Centavos.media(4685L, 3));
+        assertEquals(2L, Centavos.media(5L, 2));
+        assertEquals(4L, Centavos.media(7L, 2));
+        assertEquals(-2L, Centavos.media(-5L, 2));
+        assertEquals(-1562L, Centavos.media(-4685L, 3));
+    }
+
+    @Test
+    void testLeituraDeValorEmReais() {
+        assertEquals(80L, Centavos.de(" R$ 0.80 ", 0, 9));
+        assertEquals(8000L, Centavos.de("R$80", 0, 4));
+        assertEquals(123456L, Centavos.de("R$ 1,234.56", 0, 11));
+        assertEquals(-150L, Centavos.de("-1.5", 0, 4));
+        // Só o trecho indicado é lido
+        assertEquals(1750L, Centavos.de("P001;100; R$ 17.50 ;C001", 9, 19));
+
+        assertThrows(NumberFormatException.class, () -> Centavos.de(" R$ ", 0, 4));
+        assertThrows(NumberFormatException.class, () -> Centavos.de("0.805", 0, 5));
+        assertThrows(NumberFormatException.class, () -> Centavos.de("1,5.0,0", 0, 7));
+        assertThrows(NumberFormatException.class, () -> Centavos.de("99999999999999999999", 0, 20));
+    }
+}
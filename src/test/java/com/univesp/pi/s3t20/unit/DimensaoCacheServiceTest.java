@@ -0,0 +1,239 @@
+package com.univesp.pi.s3t20.unit;
+
+import com.univesp.pi.s3t20.model.Cliente;
+import com.univesp.pi.s3t20.model.FormaPagamento;
+import com.univesp.pi.s3t20.model.Produto;
+import com.univesp.pi.s3t20.model.Venda;
+import com.univesp.pi.s3t20.repository.ClienteRepository;
+import com.univesp.pi.s3t20.repository.FormaPagamentoRepository;
+import com.univesp.pi.s3t20.repository.ProdutoRepository;
+import com.univesp.pi.s3t20.repository.VendaRepository;
+import com.univesp.pi.s3t20.repository.VendaResumoDiarioRepository;
+import com.univesp.pi.s3t20.service.DimensaoCacheService;
+import com.univesp.pi.s3t20.service.ProdutoService;
+import com.univesp.pi.s3t20.service.VendaService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sem @Transactional: a invalidação do cache acontece ao fim de cada transação dos serviços
+@SpringBootTest(properties = {
+        "dimensoes.cache.tamanho-maximo=2",
+        "dimensoes.cache.ttl=2s",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+public class DimensaoCacheServiceTest {
+
+    @Autowired
+    private DimensaoCacheService dimensaoCacheService;
+
+    @Autowired
+    private VendaService vendaService;
+
+    @Autowired
+    private ProdutoService produtoService;
+
+    @Autowired
+    private VendaRepository vendaRepository;
+
+    @Autowired
+    private VendaResumoDiarioRepository vendaResumoDiarioRepository;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private FormaPagamentoRepository formaPagamentoRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Produto produto;
+    private Cliente cliente;
+    private FormaPagamento pix;
+
+    @BeforeEach
+    void setUp() {
+        limparDados();
+
+        produto = produtoRepository.save(novoProduto("PROD001", "Coxinha"));
+
+        cliente = new Cliente();
+        cliente.setIdCliente("CLI001");
+        cliente.setNomeCliente("Cliente Teste");
+        cliente.setBairro("Centro");
+        cliente.setCidade("Campinas");
+        cliente.setTipoCliente("Pessoa Física");
+        cliente = clienteRepository.save(cliente);
+
+        pix = new FormaPagamento();
+        pix.setIdPagamento("PAG001");
+        pix.setFormaPagamento("Pix");
+        pix.setIsActive(true);
+        pix = formaPagamentoRepository.save(pix);
+    }
+
+    @AfterEach
+    void tearDown() {
+        limparDados();
+    }
+
+    @Test
+    void testCriarVendaNaoConsultaDimensoesEmCache() {
+        criarVenda();
+        double acertos = contador("produtos", "hit");
+
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+        Venda venda = criarVenda();
+
+        assertEquals(0, estatisticas.getEntityStatistics(Produto.class.getName()).getLoadCount());
+        assertEquals(0, estatisticas.getEntityStatistics(Cliente.class.getName()).getLoadCount());
+        assertEquals(0, estatisticas.getEntityStatistics(FormaPagamento.class.getName()).getLoadCount());
+        assertEquals(acertos + 1, contador("produtos", "hit"));
+        assertEquals("Coxinha", venda.getProduto().getProduto());
+    }
+
+    @Test
+    void testBuscaPorIdEPorCodigoCompartilhamEntrada() {
+        assertTrue(dimensaoCacheService.produto(produto.getId()).isPresent());
+        double faltas = contador("produtos", "miss");
+
+        Produto porCodigo = dimensaoCacheService.produtoPorCodigo("PROD001").get();
+
+        assertEquals(produto.getId(), porCodigo.getId());
+        assertEquals(faltas, contador("produtos", "miss"));
+        assertTrue(dimensaoCacheService.produto(-1L).isEmpty());
+        assertTrue(dimensaoCacheService.clientePorCodigo("CLI001").isPresent());
+        assertTrue(dimensaoCacheService.formaPagamentoPorCodigo("PAG001").isPresent());
+    }
+
+    @Test
+    void testAlteracaoDoProdutoInvalidaCache() {
+        assertEquals("Coxinha", dimensaoCacheService.produto(produto.getId()).get().getProduto());
+
+        Produto alteracao = novoProduto("PROD001", "Coxinha de Frango");
+        produtoService.atualizar(produto.getId(), alteracao);
+
+        assertEquals("Coxinha de Frango", dimensaoCacheService.produto(produto.getId()).get().getProduto());
+
+        assertTrue(produtoService.deletar(produto.getId()));
+        assertTrue(dimensaoCacheService.produto(produto.getId()).isEmpty());
+    }
+
+    @Test
+    void testCacheLimitadoRemoveMenosUsado() {
+        Produto segundo = produtoRepository.save(novoProduto("PROD002", "Empada"));
+        Produto terceiro = produtoRepository.save(novoProduto("PROD003", "Quibe"));
+        double remocoes = meterRegistry.get("cache.evictions").tag("cache", "produtos").functionCounter().count();
+
+        dimensaoCacheService.produto(produto.getId());
+        dimensaoCacheService.produto(segundo.getId());
+        dimensaoCacheService.produto(produto.getId());
+        dimensaoCacheService.produto(terceiro.getId());
+
+        assertEquals(2, meterRegistry.get("cache.size").tag("cache", "produtos").gauge().value());
+        assertEquals(remocoes + 1, meterRegistry.get("cache.evictions").tag("cache", "produtos").functionCounter().count());
+
+        double faltas = contador("produtos", "miss");
+        dimensaoCacheService.produto(produto.getId());
+        assertEquals(faltas, contador("produtos", "miss"));
+        dimensaoCacheService.produtoPorCodigo("PROD002");
+        assertEquals(faltas + 1, contador("produtos", "miss"));
+    }
+
+    @Test
+    void testEntradaVencidaReleAlteracaoFeitaPorFora() throws InterruptedException {
+        assertEquals("Coxinha", dimensaoCacheService.produtoPorCodigo("PROD001").get().getProduto());
+        // Alteração que não passa por ProdutoService (como a de outra instância): o cache não é invalidado
+        produto.setProduto("Coxinha de Frango");
+        produtoRepository.save(produto);
+        assertEquals("Coxinha", dimensaoCacheService.produto(produto.getId()).get().getProduto());
+        double remocoes = meterRegistry.get("cache.evictions").tag("cache", "produtos").functionCounter().count();
+
+        Thread.sleep(2_100);
+
+        assertEquals("Coxinha de Frango", dimensaoCacheService.produtoPorCodigo("PROD001").get().getProduto());
+        assertEquals(remocoes + 1, meterRegistry.get("cache.evictions").tag("cache", "produtos").functionCounter().count());
+        assertEquals("Coxinha de Frango", dimensaoCacheService.produto(produto.getId()).get().getProduto());
+    }
+
+    @Test
+    void testLeituraEmTransacaoRevertidaNaoFicaNoCache() {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        Long id = transacao.execute(status -> {
+            Produto temporario = produtoRepository.save(novoProduto("PROD009", "Temporário"));
+            assertTrue(dimensaoCacheService.produto(temporario.getId()).isPresent());
+            status.setRollbackOnly();
+            return temporario.getId();
+        });
+
+        assertTrue(dimensaoCacheService.produto(id).isEmpty());
+    }
+
+    private double contador(String cache, String resultado) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", resultado).functionCounter().count();
+    }
+
+    private Venda criarVenda() {
+        Venda venda = new Venda();
+        venda.setData(LocalDate.of(2025, 9, 1));
+        venda.setQuantidade(10);
+        venda.setPrecoUnitario(new BigDecimal("2.50"));
+        Produto refProduto = new Produto();
+        refProduto.setId(produto.getId());
+        venda.setProduto(refProduto);
+        Cliente refCliente = new Cliente();
+        refCliente.setId(cliente.getId());
+        venda.setCliente(refCliente);
+        FormaPagamento refPagamento = new FormaPagamento();
+        refPagamento.setId(pix.getId());
+        venda.setFormaPagamento(refPagamento);
+        return vendaService.criar(venda).get();
+    }
+
+    private Produto novoProduto(String codigo, String nome) {
+        Produto novo = new Produto();
+        novo.setIdProduto(codigo);
+        novo.setProduto(nome);
+        novo.setCategoria("Salgado");
+        novo.setPedidoMinimo(10);
+        novo.setCustoUnitario(new BigDecimal("1.00"));
+        novo.setPrecoSugerido(new BigDecimal("2.50"));
+        novo.setCentoPreco(new BigDecimal("200.00"));
+        return novo;
+    }
+
+    private void limparDados() {
+        vendaRepository.deleteAll();
+        vendaResumoDiarioRepository.deleteAll();
+        produtoRepository.deleteAll();
+        clienteRepository.deleteAll();
+        formaPagamentoRepository.deleteAll();
+        dimensaoCacheService.limpar();
+    }
+}
@@ -0,0 +1,161 @@
+package com.univesp.pi.s3t20.unit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.univesp.pi.s3t20.config.DimensaoJsonModule;
+import com.univesp.pi.s3t20.dto.ProdutoDTO;
+import com.univesp.pi.s3t20.dto.VendaResponseDTO;
+import com.univesp.pi.s3t20.model.Cliente;
+import com.univesp.pi.s3t20.model.FormaPagamento;
+import com.univesp.pi.s3t20.model.Produto;
+import com.univesp.pi.s3t20.model.Venda;
+import com.univesp.pi.s3t20.service.DimensaoJsonCache;
+import com.univesp.pi.s3t20.service.MapperService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DimensaoJsonCacheTest {
+
+    private DimensaoJsonCache cache;
+    private MapperService mapperService;
+    private ObjectMapper comCache;
+    private ObjectMapper semCache;
+    private Produto produto;
+    private Cliente cliente;
+    private FormaPagamento formaPagamento;
+
+    @BeforeEach
+    void setUp() {
+        cache = new DimensaoJsonCache(100);
+        mapperService = mapperService(cache);
+        comCache = Jackson2ObjectMapperBuilder.json().modulesToInstall(new DimensaoJsonModule(cache)).build();
+        semCache = Jackson2ObjectMapperBuilder.json().build();
+
+        produto = new Produto();
+        produto.setId(1L);
+        produto.setIdProduto("P001");
+        produto.setProduto("Coxinha de \"frango\"");
+        produto.setCategoria("Salgado");
+        produto.setPedidoMinimo(25);
+        produto.setPrecoSugerido(new BigDecimal("0.80"));
+        produto.setCentoPreco(new BigDecimal("80.00"));
+        produto.setUpdatedAt(LocalDateTime.of(2025, 9, 1, 12, 0));
+
+        cliente = new Cliente();
+        cliente.setId(2L);
+        cliente.setIdCliente("C001");
+        cliente.setNomeCliente("João Pereira");
+        cliente.setBairro("Centro");
+        cliente.setCidade("São Paulo");
+        cliente.setTipoCliente("Pessoa Física");
+
+        formaPagamento = new FormaPagamento();
+        formaPagamento.setId(3L);
+        formaPagamento.setIdPagamento("FP01");
+        formaPagamento.setFormaPagamento("Pix");
+    }
+
+    @Test
+    void testDimensoesCompartilhadasEntreAsVendas() {
+        VendaResponseDTO primeira = mapperService.toVendaResponseDTO(venda(1));
+        VendaResponseDTO segunda = mapperService.toVendaResponseDTO(venda(2));
+
+        assertSame(primeira.getProduto(), segunda.getProduto());
+        assertSame(primeira.getCliente(), segunda.getCliente());
+        assertSame(primeira.getFormaPagamento(), segunda.getFormaPagamento());
+        // Sem cache (tamanho 0), uma cópia por venda
+        MapperService semCompartilhar = mapperService(new DimensaoJsonCache(0));
+        assertNotSame(semCompartilhar.toVendaResponseDTO(venda(1)).getProduto(),
+                semCompartilhar.toVendaResponseDTO(venda(2)).getProduto());
+    }
+
+    @Test
+    void testJsonIgualAoDaSerializacaoPadrao() throws Exception {
+        List<VendaResponseDTO> pagina = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            pagina.add(mapperService.toVendaResponseDTO(venda(i)));
+        }
+
+        // A primeira escrita guarda o JSON das dimensões; a segunda usa os bytes guardados
+        assertEquals(semCache.writeValueAsString(pagina), new String(comCache.writeValueAsBytes(pagina), "UTF-8"));
+        assertNotNull(cache.json(pagina.get(0).getProduto()));
+        assertEquals(semCache.writeValueAsString(pagina), new String(comCache.writeValueAsBytes(pagina), "UTF-8"));
+        assertEquals(semCache.writeValueAsString(pagina), comCache.writeValueAsString(pagina));
+    }
+
+    @Test
+    void testAlteracaoGeraNovoJson() throws Exception {
+        VendaResponseDTO antes = mapperService.toVendaResponseDTO(venda(1));
+        comCache.writeValueAsBytes(antes);
+
+        // Outro updatedAt (alteração gravada): DTO e JSON novos
+        produto.setProduto("Coxinha de catupiry");
+        produto.setUpdatedAt(produto.getUpdatedAt().plusMinutes(1));
+        VendaResponseDTO depois = mapperService.toVendaResponseDTO(venda(2));
+        assertNotSame(antes.getProduto(), depois.getProduto());
+        assertTrue(comCache.writeValueAsString(depois).contains("Coxinha de catupiry"));
+        // O DTO antigo deixa de usar o JSON guardado, mas continua serializável
+        assertNull(cache.json(antes.getProduto()));
+        assertEquals(semCache.writeValueAsString(antes), comCache.writeValueAsString(antes));
+
+        // Invalidação explícita (DimensaoCacheService ao alterar ou excluir)
+        cliente.setNomeCliente("Maria Souza");
+        cache.invalidarCliente(cliente.getId());
+        assertTrue(comCache.writeValueAsString(mapperService.toVendaResponseDTO(venda(3))).contains("Maria Souza"));
+    }
+
+    @Test
+    void testTamanhoMaximoDescartaDimensaoUsadaHaMaisTempo() {
+        cache = new DimensaoJsonCache(2);
+        mapperService = mapperService(cache);
+        Produto outro = new Produto();
+        outro.setId(4L);
+        outro.setIdProduto("P002");
+        outro.setProduto("Kibe");
+        Produto terceiro = new Produto();
+        terceiro.setId(5L);
+        terceiro.setIdProduto("P003");
+        terceiro.setProduto("Esfiha");
+
+        ProdutoDTO coxinha = cache.produto(produto, mapperService::toProdutoDTO);
+        ProdutoDTO kibe = cache.produto(outro, mapperService::toProdutoDTO);
+        // Acesso recente à coxinha: quem sai ao passar do limite é o kibe
+        assertSame(coxinha, cache.produto(produto, mapperService::toProdutoDTO));
+        cache.produto(terceiro, mapperService::toProdutoDTO);
+
+        assertTrue(cache.compartilhado(coxinha));
+        assertFalse(cache.compartilhado(kibe));
+        assertNotSame(kibe, cache.produto(outro, mapperService::toProdutoDTO));
+    }
+
+    private static MapperService mapperService(DimensaoJsonCache cache) {
+        MapperService mapperService = new MapperService();
+        ReflectionTestUtils.setField(mapperService, "dimensaoJsonCache", cache);
+        return mapperService;
+    }
+
+    private Venda venda(int i) {
+        Venda venda = new Venda();
+        venda.setId((long) i);
+        venda.setIdVenda(String.format("V%05d", i));
+        venda.setData(LocalDate.of(2025, 9, 10));
+        venda.setQuantidade(2);
+        venda.setPrecoUnitario(new BigDecimal("0.80"));
+        venda.setReceitaTotal(new BigDecimal("1.60"));
+        venda.setProduto(produto);
+        venda.setCliente(cliente);
+        venda.setFormaPagamento(formaPagamento);
+        venda.setCreatedAt(LocalDateTime.of(2025, 9, 10, 8, 30));
+        venda.setUpdatedAt(LocalDateTime.of(2025, 9, 10, 8, 30));
+        return venda;
+    }
+}
@@ -0,0 +1,248 @@
+package com.univesp.pi.s3t20.unit;
+
+import com.univesp.pi.s3t20.model.Cliente;
+import com.univesp.pi.s3t20.model.FormaPagamento;
+import com.univesp.pi.s3t20.model.Produto;
+import com.univesp.pi.s3t20.model.Venda;
+import com.univesp.pi.s3t20.model.VendaResumoDiario;
+import com.univesp.pi.s3t20.repository.ClienteRepository;
+import com.univesp.pi.s3t20.repository.FormaPagamentoRepository;
+import com.univesp.pi.s3t20.repository.ProdutoRepository;
+import com.univesp.pi.s3t20.repository.VendaRepository;
+import com.univesp.pi.s3t20.repository.VendaResumoDiarioRepository;
+import com.univesp.pi.s3t20.service.GeradorCodigoService;
+import com.univesp.pi.s3t20.service.GeradorCodigoService.Sequencia;
+import com.univesp.pi.s3t20.service.ProdutoService;
+import com.univesp.pi.s3t20.service.VendaService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sem @Transactional: as criações concorrentes precisam de transações próprias, como em produção
+@SpringBootTest
+@ActiveProfiles("test")
+public class GeradorCodigoServiceTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private GeradorCodigoService geradorCodigoService;
+
+    @Autowired
+    private VendaService vendaService;
+
+    @Autowired
+    private ProdutoService produtoService;
+
+    @Autowired
+    private VendaRepository vendaRepository;
+
+    @Autowired
+    private VendaResumoDiarioRepository vendaResumoDiarioRepository;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private FormaPagamentoRepository formaPagamentoRepository;
+
+    @BeforeEach
+    void setUp() {
+        limparDados();
+    }
+
+    @AfterEach
+    void tearDown() {
+        limparDados();
+    }
+
+    @Test
+    void testCodigosTemPrefixoDaSequencia() {
+        assertTrue(geradorCodigoService.proximo(Sequencia.VENDA).matches("VEN\\d{3,}"));
+        assertTrue(geradorCodigoService.proximo(Sequencia.PRODUTO).matches("PROD\\d{3,}"));
+        assertTrue(geradorCodigoService.proximo(Sequencia.CLIENTE).matches("CLI\\d{3,}"));
+        assertTrue(geradorCodigoService.proximo(Sequencia.FORMA_PAGAMENTO).matches("PAG\\d{3,}"));
+    }
+
+    @Test
+    void testCodigosUnicosSobConcorrencia() throws Exception {
+        int porThread = 2_000;
+        List<List<String>> resultados = executarEmParalelo(() -> {
+            List<String> codigos = new ArrayList<>(porThread);
+            for (int i = 0; i < porThread; i++) {
+                codigos.add(geradorCodigoService.proximo(Sequencia.CLIENTE));
+            }
+            return codigos;
+        });
+
+        Set<String> unicos = new HashSet<>();
+        resultados.forEach(unicos::addAll);
+        assertEquals(THREADS * porThread, unicos.size());
+    }
+
+    @Test
+    void testCriacoesConcorrentesNaoColidem() throws Exception {
+        Venda modelo = modeloVenda();
+        int porThread = 25;
+        // Um dia por venda: o teste exercita os códigos, não a disputa pela mesma linha do rollup diário
+        AtomicInteger dias = new AtomicInteger();
+        List<List<String>> resultados = executarEmParalelo(() -> {
+            List<String> codigos = new ArrayList<>();
+            for (int i = 0; i < porThread; i++) {
+                Venda venda = novaVenda(modelo, LocalDate.of(2025, 1, 1).plusDays(dias.getAndIncrement()), 1);
+                codigos.add(vendaService.criar(venda).get().getIdVenda());
+                codigos.add(produtoService.criar(novoProduto("Produto " + i)).getIdProduto());
+            }
+            return codigos;
+        });
+
+        Set<String> unicos = new HashSet<>();
+        resultados.forEach(unicos::addAll);
+        assertEquals(THREADS * porThread * 2, unicos.size());
+        assertEquals(THREADS * porThread, vendaRepository.count());
+        assertEquals(THREADS * porThread + 1, produtoRepository.count());
+    }
+
+    @Test
+    void testResumoDiarioSobConcorrenciaNaMesmaChave() throws Exception {
+        Venda modelo = modeloVenda();
+        LocalDate dia = LocalDate.of(2025, 3, 10);
+        int porThread = 10;
+        // Todas as transações disputam a inclusão da mesma linha do rollup (chave ainda inexistente na largada):
+        // vendas avulsas e lotes que também levam uma venda do dia seguinte (caminho dos lotes JDBC)
+        AtomicInteger quantidades = new AtomicInteger();
+        executarEmParalelo(() -> {
+            for (int i = 0; i < porThread; i++) {
+                vendaService.criar(novaVenda(modelo, dia, quantidades.incrementAndGet()));
+            }
+            vendaService.criarLote(List.of(novaVenda(modelo, dia, quantidades.incrementAndGet()),
+                    novaVenda(modelo, dia.plusDays(1), 1)));
+            return null;
+        });
+
+        int total = THREADS * (porThread + 1);
+        List<VendaResumoDiario> resumos = vendaResumoDiarioRepository.findAll();
+        assertEquals(2, resumos.size());
+        VendaResumoDiario resumo = resumos.stream().filter(r -> r.getData().equals(dia)).findFirst().orElseThrow();
+        VendaResumoDiario seguinte = resumos.stream().filter(r -> !r.getData().equals(dia)).findFirst().orElseThrow();
+        assertEquals((long) THREADS, seguinte.getTotalVendas());
+        assertEquals((long) total, resumo.getTotalVendas());
+        assertEquals((long) total * (total + 1) / 2, resumo.getQuantidadeTotal());
+        assertEquals(1, resumo.getQuantidadeMinima());
+        assertEquals(total, resumo.getQuantidadeMaxima());
+        assertEquals(0, new BigDecimal("2.50").multiply(BigDecimal.valueOf((long) total * (total + 1) / 2))
+                .compareTo(resumo.getReceitaTotal()));
+    }
+
+    @Test
+    void testCodigoGeradoSaltaCodigoCadastradoManualmente() {
+        String proximo = geradorCodigoService.proximo(Sequencia.PRODUTO);
+        int numero = Integer.parseInt(proximo.substring("PROD".length()));
+        Produto manual = novoProduto("Manual");
+        manual.setIdProduto(String.format("PROD%03d", numero + 1));
+        produtoService.criar(manual);
+
+        Produto gerado = produtoService.criar(novoProduto("Gerado"));
+
+        assertNotNull(gerado);
+        assertNotEquals(manual.getIdProduto(), gerado.getIdProduto());
+    }
+
+    private <T> List<T> executarEmParalelo(Callable<T> tarefa) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<T>> futuros = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futuros.add(executor.submit(() -> {
+                    largada.await();
+                    return tarefa.call();
+                }));
+            }
+            largada.countDown();
+            List<T> resultados = new ArrayList<>();
+            for (Future<T> futuro : futuros) {
+                resultados.add(futuro.get(60, TimeUnit.SECONDS));
+            }
+            return resultados;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Venda com produto, cliente e forma de pagamento gravados, usada como molde pelas threads
+    private Venda modeloVenda() {
+        Produto produto = novoProduto("Coxinha");
+        produto.setIdProduto("PROD-T");
+
+        Cliente cliente = new Cliente();
+        cliente.setIdCliente("CLI-T");
+        cliente.setNomeCliente("Cliente Teste");
+        cliente.setBairro("Centro");
+        cliente.setCidade("Campinas");
+        cliente.setTipoCliente("Pessoa Física");
+
+        FormaPagamento pix = new FormaPagamento();
+        pix.setIdPagamento("PAG-T");
+        pix.setFormaPagamento("Pix");
+        pix.setIsActive(true);
+
+        Venda modelo = new Venda();
+        modelo.setProduto(produtoRepository.save(produto));
+        modelo.setCliente(clienteRepository.save(cliente));
+        modelo.setFormaPagamento(formaPagamentoRepository.save(pix));
+        return modelo;
+    }
+
+    private Venda novaVenda(Venda modelo, LocalDate data, int quantidade) {
+        Venda venda = new Venda();
+        venda.setData(data);
+        venda.setQuantidade(quantidade);
+        venda.setPrecoUnitario(new BigDecimal("2.50"));
+        venda.setProduto(modelo.getProduto());
+        venda.setCliente(modelo.getCliente());
+        venda.setFormaPagamento(modelo.getFormaPagamento());
+        return venda;
+    }
+
+    private Produto novoProduto(String nome) {
+        Produto produto = new Produto();
+        produto.setProduto(nome);
+        produto.setCategoria("Salgado");
+        produto.setPedidoMinimo(10);
+        produto.setCustoUnitario(new BigDecimal("1.00"));
+        produto.setPrecoSugerido(new BigDecimal("2.50"));
+        produto.setCentoPreco(new BigDecimal("200.00"));
+        return produto;
+    }
+
+    private void limparDados() {
+        vendaRepository.deleteAll();
+        vendaResumoDiarioRepository.deleteAll();
+        produtoRepository.deleteAll();
+        clienteRepository.deleteAll();
+        formaPagamentoRepository.deleteAll();
+    }
+}
@@ -0,0 +1,151 @@
+package com.univesp.pi.s3t20.unit;
+
+import com.univesp.pi.s3t20.model.Cliente;
+import com.univesp.pi.s3t20.model.Venda;
+import com.univesp.pi.s3t20.repository.ClienteRepository;
+import com.univesp.pi.s3t20.repository.FormaPagamentoRepository;
+import com.univesp.pi.s3t20.repository.ProdutoRepository;
+import com.univesp.pi.s3t20.repository.VendaRepository;
+import com.univesp.pi.s3t20.repository.VendaResumoDiarioRepository;
+import com.univesp.pi.s3t20.service.GeradorDadosService;
+import com.univesp.pi.s3t20.service.GeradorDadosService.ResultadoGeracao;
+import com.univesp.pi.s3t20.service.VendaService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sem @Transactional na classe: o gerador grava cada lote em sua própria transação
+@SpringBootTest(properties = "gerador.lote.tamanho=500")
+@ActiveProfiles("test")
+public class GeradorDadosServiceTest {
+
+    private static final LocalDate INICIO = LocalDate.of(2025, 1, 1);
+    private static final LocalDate FIM = LocalDate.of(2025, 3, 31);
+
+    @Autowired
+    private GeradorDadosService geradorDadosService;
+
+    @Autowired
+    private VendaService vendaService;
+
+    @Autowired
+    private VendaRepository vendaRepository;
+
+    @Autowired
+    private VendaResumoDiarioRepository vendaResumoDiarioRepository;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private FormaPagamentoRepository formaPagamentoRepository;
+
+    @BeforeEach
+    void setUp() {
+        limparDados();
+    }
+
+    @AfterEach
+    void tearDown() {
+        limparDados();
+    }
+
+    @Test
+    void testGerarComPerfilDasPlanilhas() {
+        ResultadoGeracao resultado = geradorDadosService.gerar(200, 5000, INICIO, FIM, 7);
+
+        assertEquals(200L, resultado.clientes);
+        assertEquals(5000L, resultado.vendas);
+        // Produtos e formas de pagamento das planilhas importados antes da geração
+        assertEquals(79L, produtoRepository.count());
+        assertEquals(4L, formaPagamentoRepository.count());
+        assertEquals(200L, clienteRepository.count());
+
+        // Clientes com bairros e cidades das planilhas
+        Set<String> cidades = clienteRepository.findAll().stream().map(Cliente::getCidade).collect(Collectors.toSet());
+        assertTrue(cidades.contains("Mogi das Cruzes"));
+        assertTrue(Set.of("Arujá", "Ferraz de Vasconcelos", "Guararema", "Itaquaquecetuba", "Mogi das Cruzes", "Poá",
+                "Suzano").containsAll(cidades));
+
+        List<Venda> vendas = vendaRepository.findAll();
+        assertEquals(5000, vendas.size());
+        for (Venda venda : vendas) {
+            assertFalse(venda.getData().isBefore(INICIO) || venda.getData().isAfter(FIM));
+            // Preço praticado do produto em FatoVendas.csv e receita calculada como na API
+            assertEquals(venda.getPrecoUnitario().multiply(BigDecimal.valueOf(venda.getQuantidade())),
+                    venda.getReceitaTotal());
+        }
+        assertEquals(new BigDecimal("0.80"), vendas.stream()
+                .filter(venda -> "P001".equals(venda.getProduto().getIdProduto()))
+                .findFirst().orElseThrow().getPrecoUnitario());
+
+        // Mix de pagamento de FatoVendas.csv: PIX em 163 de 473 vendas (34%), Dinheiro em 88 (19%)
+        Map<String, Long> porForma = vendas.stream().collect(Collectors.groupingBy(
+                venda -> venda.getFormaPagamento().getIdPagamento(), Collectors.counting()));
+        assertEquals(0.34, porForma.get("FP02") / 5000.0, 0.03);
+        assertEquals(0.19, porForma.get("FP01") / 5000.0, 0.03);
+
+        // Quantidades só entre as observadas nas planilhas (múltiplos de 25)
+        assertTrue(vendas.stream().allMatch(venda -> venda.getQuantidade() % 25 == 0));
+
+        // P076 é o produto mais vendido das planilhas (29 de 473 vendas) e continua sendo
+        Map<String, Long> porProduto = vendas.stream().collect(Collectors.groupingBy(
+                venda -> venda.getProduto().getIdProduto(), Collectors.counting()));
+        long maisFrequente = porProduto.values().stream().mapToLong(Long::longValue).max().orElseThrow();
+        assertEquals(maisFrequente, porProduto.get("P076"));
+
+        // Rollup atualizado pela mesma carga em lote
+        BigDecimal receita = vendas.stream().map(Venda::getReceitaTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+        VendaService.VendaResumo resumo = vendaService.obterResumo();
+        assertEquals(5000L, resumo.totalVendas);
+        assertEquals(0, receita.compareTo(resumo.receitaTotal));
+    }
+
+    @Test
+    void testMesmaSementeGeraOsMesmosDados() {
+        geradorDadosService.gerar(20, 0, INICIO, FIM, 7);
+
+        geradorDadosService.gerar(0, 1000, INICIO, FIM, 11);
+        Map<Long, Long> primeira = receitasPorDia();
+        vendaRepository.deleteAll();
+        vendaResumoDiarioRepository.deleteAll();
+        geradorDadosService.gerar(0, 1000, INICIO, FIM, 11);
+
+        assertEquals(primeira, receitasPorDia());
+    }
+
+    @Test
+    void testVendasSemClientesCadastrados() {
+        assertThrows(IllegalStateException.class, () -> geradorDadosService.gerar(0, 10, INICIO, FIM, 7));
+        assertThrows(IllegalArgumentException.class, () -> geradorDadosService.gerar(10, 10, FIM, INICIO, 7));
+    }
+
+    private Map<Long, Long> receitasPorDia() {
+        return vendaRepository.findAll().stream().collect(Collectors.groupingBy(
+                venda -> venda.getData().toEpochDay(),
+                Collectors.summingLong(venda -> venda.getReceitaTotal().movePointRight(2).longValueExact())));
+    }
+
+    private void limparDados() {
+        vendaRepository.deleteAll();
+        vendaResumoDiarioRepository.deleteAll();
+        produtoRepository.deleteAll();
+        clienteRepository.deleteAll();
+        formaPagamentoRepository.deleteAll();
+    }
+}
@@ -0,0 +1,60 @@
+package com.univesp.pi.s3t20.unit;
+
+import com.univesp.pi.s3t20.service.MapaLongInt;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MapaLongIntTest {
+
+    @Test
+    void testIncluiAtualizaERemove() {
+        MapaLongInt mapa = new MapaLongInt();
+        assertEquals(MapaLongInt.AUSENTE, mapa.get(1L));
+
+        mapa.put(1L, 0);
+        mapa.put(Long.MIN_VALUE, 7);
+        mapa.put(0L, 3);
+        assertEquals(0, mapa.get(1L));
+        assertEquals(7, mapa.get(Long.MIN_VALUE));
+        assertEquals(3, mapa.get(0L));
+
+        mapa.put(1L, 5);
+        assertEquals(5, mapa.get(1L));
+        assertEquals(3, mapa.tamanho());
+
+        mapa.remove(1L);
+        mapa.remove(42L);
+        assertEquals(MapaLongInt.AUSENTE, mapa.get(1L));
+        assertEquals(2, mapa.tamanho());
+        assertThrows(IllegalArgumentException.class, () -> mapa.put(2L, -1));
+    }
+
+    @Test
+    void testConfereComHashMap() {
+        // Ids sequenciais (como os das vendas) misturados a aleatórios, com remoções no meio dos agrupamentos
+        MapaLongInt mapa = new MapaLongInt();
+        Map<Long, Integer> esperado = new HashMap<>();
+        Random aleatorio = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long chave = aleatorio.nextBoolean() ? aleatorio.nextInt(20_000) : aleatorio.nextLong();
+            if (aleatorio.nextInt(3) == 0) {
+                mapa.remove(chave);
+                esperado.remove(chave);
+            } else {
+                mapa.put(chave, i);
+                esperado.put(chave, i);
+            }
+        }
+
+        assertEquals(esperado.size(), mapa.tamanho());
+        esperado.forEach((chave, valor) -> assertEquals(valor, mapa.get(chave)));
+        for (long chave = 0; chave < 20_000; chave++) {
+            assertEquals(esperado.getOrDefault(chave, MapaLongInt.AUSENTE), mapa.get(chave));
+        }
+    }
+}
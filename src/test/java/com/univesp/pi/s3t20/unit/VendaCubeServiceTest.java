@@ -0,0 +1,313 @@
+package com.univesp.pi.s3t20.unit;
+
+import com.univesp.pi.s3t20.dto.VendaAnaliseDTO;
+import com.univesp.pi.s3t20.model.Cliente;
+import com.univesp.pi.s3t20.model.FormaPagamento;
+import com.univesp.pi.s3t20.model.Produto;
+import com.univesp.pi.s3t20.model.Venda;
+import com.univesp.pi.s3t20.repository.ClienteRepository;
+import com.univesp.pi.s3t20.repository.FormaPagamentoRepository;
+import com.univesp.pi.s3t20.repository.ProdutoRepository;
+import com.univesp.pi.s3t20.repository.VendaAnaliseRepository.Dimensao;
+import com.univesp.pi.s3t20.repository.VendaRepository;
+import com.univesp.pi.s3t20.repository.VendaResumoDiarioRepository;
+import com.univesp.pi.s3t20.service.ProdutoService;
+import com.univesp.pi.s3t20.service.VendaCubeService;
+import com.univesp.pi.s3t20.service.VendaResumoDiarioService;
+import com.univesp.pi.s3t20.service.VendaService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sem @Transactional: o cubo só é atualizado após o commit de cada operação do VendaService
+@SpringBootTest(properties = "cube.enabled=true")
+@ActiveProfiles("test")
+public class VendaCubeServiceTest {
+
+    @Autowired
+    private VendaCubeService vendaCubeService;
+
+    @Autowired
+    private VendaService vendaService;
+
+    @Autowired
+    private VendaResumoDiarioService vendaResumoDiarioService;
+
+    @Autowired
+    private ProdutoService produtoService;
+
+    @Autowired
+    private VendaRepository vendaRepository;
+
+    @Autowired
+    private VendaResumoDiarioRepository vendaResumoDiarioRepository;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private FormaPagamentoRepository formaPagamentoRepository;
+
+    private Produto salgado;
+    private Produto doce;
+    private Cliente cliente;
+    private FormaPagamento pix;
+
+    @BeforeEach
+    void setUp() {
+        limparDados();
+
+        salgado = produtoRepository.save(novoProduto("PROD001", "Coxinha", "Salgado"));
+        doce = produtoRepository.save(novoProduto("PROD002", "Brigadeiro", "Doce"));
+
+        cliente = new Cliente();
+        cliente.setIdCliente("CLI001");
+        cliente.setNomeCliente("Cliente Teste");
+        cliente.setBairro("Centro");
+        cliente.setCidade("Campinas");
+        cliente.setTipoCliente("Pessoa Física");
+        cliente = clienteRepository.save(cliente);
+
+        pix = new FormaPagamento();
+        pix.setIdPagamento("PAG001");
+        pix.setFormaPagamento("Pix");
+        pix.setIsActive(true);
+        pix = formaPagamentoRepository.save(pix);
+
+        vendaCubeService.carregar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        limparDados();
+        vendaCubeService.carregar();
+    }
+
+    @Test
+    void testCuboCarregaVendasExistentes() {
+        criarVenda(salgado, LocalDate.of(2025, 9, 1), 10, "25.00");
+        criarVenda(doce, LocalDate.of(2025, 9, 2), 4, "12.40");
+
+        vendaCubeService.carregar();
+
+        assertTrue(vendaCubeService.disponivel());
+        assertEquals(2, vendaCubeService.tamanho());
+        VendaService.VendaResumo resumo = vendaCubeService.resumo(null, null);
+        assertEquals(2L, resumo.totalVendas);
+        assertEquals(new BigDecimal("37.40"), resumo.receitaTotal);
+    }
+
+    @Test
+    void testResumoConfereComRollup() {
+        criarVenda(salgado, LocalDate.of(2025, 9, 1), 10, "25.00");
+        criarVenda(salgado, LocalDate.of(2025, 9, 15), 3, "7.50");
+        criarVenda(doce, LocalDate.of(2025, 10, 2), 7, "14.35");
+
+        VendaService.VendaResumo resumo = vendaService.obterResumo();
+        assertEquals(3L, resumo.totalVendas);
+        assertEquals(new BigDecimal("46.85"), resumo.receitaTotal);
+        assertEquals(new BigDecimal("7.50"), resumo.receitaMinima);
+        assertEquals(new BigDecimal("25.00"), resumo.receitaMaxima);
+        assertEquals(new BigDecimal("15.62"), resumo.receitaMedia);
+        assertEquals(20L, resumo.quantidadeTotal);
+        assertEquals(3, resumo.quantidadeMinima);
+        assertEquals(10, resumo.quantidadeMaxima);
+
+        VendaService.VendaResumo setembro = vendaService.obterResumoPorPeriodo(
+                LocalDate.of(2025, 9, 1), LocalDate.of(2025, 9, 30));
+        var rollup = vendaResumoDiarioService.agregarResumoPorPeriodo(
+                LocalDate.of(2025, 9, 1), LocalDate.of(2025, 9, 30));
+        assertEquals(rollup.getTotalVendas(), setembro.totalVendas);
+        assertEquals(rollup.getReceitaTotalCentavos(), setembro.receitaTotal.unscaledValue().longValueExact());
+        assertEquals(rollup.getQuantidadeTotal(), setembro.quantidadeTotal);
+        assertEquals(rollup.getQuantidadeMinima(), setembro.quantidadeMinima);
+        assertEquals(rollup.getQuantidadeMaxima(), setembro.quantidadeMaxima);
+    }
+
+    @Test
+    void testResumoSemVendasNoPeriodo() {
+        criarVenda(salgado, LocalDate.of(2025, 9, 1), 10, "25.00");
+
+        VendaService.VendaResumo resumo = vendaCubeService.resumo(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+        assertEquals(0L, resumo.totalVendas);
+        assertEquals(new BigDecimal("0.00"), resumo.receitaTotal);
+        assertNull(resumo.receitaMinima);
+        assertNull(resumo.quantidadeMedia);
+    }
+
+    @Test
+    void testAgruparConfereComRollup() {
+        criarVenda(salgado, LocalDate.of(2025, 9, 1), 10, "25.00");
+        criarVenda(salgado, LocalDate.of(2025, 9, 29), 3, "7.50");
+        criarVenda(doce, LocalDate.of(2025, 9, 30), 2, "4.10");
+        criarVenda(doce, LocalDate.of(2025, 10, 2), 7, "14.35");
+
+        List<List<Dimensao>> agrupamentos = List.of(
+                List.of(),
+                List.of(Dimensao.CATEGORIA),
+                List.of(Dimensao.CATEGORIA, Dimensao.MES),
+                List.of(Dimensao.SEMANA, Dimensao.CIDADE),
+                List.of(Dimensao.FORMA_PAGAMENTO, Dimensao.DIA));
+        for (List<Dimensao> dimensoes : agrupamentos) {
+            assertLinhasIguais(vendaResumoDiarioService.agrupar(dimensoes, null, null),
+                    vendaCubeService.agrupar(dimensoes, null, null));
+        }
+
+        LocalDate inicio = LocalDate.of(2025, 9, 15);
+        LocalDate fim = LocalDate.of(2025, 9, 30);
+        List<VendaAnaliseDTO> periodo = vendaService.analisar(List.of(Dimensao.CATEGORIA), inicio, fim);
+        assertLinhasIguais(vendaResumoDiarioService.agrupar(List.of(Dimensao.CATEGORIA), inicio, fim), periodo);
+        assertEquals(2, periodo.size());
+        assertEquals("Doce", periodo.get(0).getChaves().get("categoria"));
+        assertEquals(0, new BigDecimal("4.10").compareTo(periodo.get(0).getReceitaTotal()));
+    }
+
+    @Test
+    void testCuboAcompanhaAtualizacaoEExclusao() {
+        Venda venda = criarVenda(salgado, LocalDate.of(2025, 9, 1), 10, "25.00");
+        criarVenda(doce, LocalDate.of(2025, 9, 2), 4, "12.40");
+
+        Venda alteracao = new Venda();
+        alteracao.setData(LocalDate.of(2025, 10, 5));
+        alteracao.setQuantidade(12);
+        alteracao.setPrecoUnitario(new BigDecimal("2.50"));
+        alteracao.setReceitaTotal(new BigDecimal("30.00"));
+        vendaService.atualizar(venda.getId(), alteracao);
+
+        VendaService.VendaResumo resumo = vendaService.obterResumo();
+        assertEquals(2L, resumo.totalVendas);
+        assertEquals(new BigDecimal("42.40"), resumo.receitaTotal);
+        assertEquals(1L, vendaService.obterResumoPorPeriodo(
+                LocalDate.of(2025, 10, 1), LocalDate.of(2025, 10, 31)).totalVendas);
+
+        vendaService.deletar(venda.getId());
+
+        resumo = vendaService.obterResumo();
+        assertEquals(1L, resumo.totalVendas);
+        assertEquals(new BigDecimal("12.40"), resumo.receitaTotal);
+    }
+
+    @Test
+    void testCuboRemoveVendasDeProdutoExcluido() {
+        criarVenda(salgado, LocalDate.of(2025, 9, 1), 10, "25.00");
+        criarVenda(doce, LocalDate.of(2025, 9, 2), 4, "12.40");
+
+        assertTrue(produtoService.deletar(salgado.getId()));
+
+        VendaService.VendaResumo resumo = vendaService.obterResumo();
+        assertEquals(1L, resumo.totalVendas);
+        assertEquals(new BigDecimal("12.40"), resumo.receitaTotal);
+        List<VendaAnaliseDTO> porCategoria = vendaService.analisar(List.of(Dimensao.CATEGORIA), null, null);
+        assertEquals(1, porCategoria.size());
+        assertEquals("Doce", porCategoria.get(0).getChaves().get("categoria"));
+    }
+
+    @Test
+    void testCuboAcompanhaRotulosDasDimensoes() {
+        criarVenda(salgado, LocalDate.of(2025, 9, 1), 10, "25.00");
+        criarVenda(doce, LocalDate.of(2025, 9, 2), 4, "12.40");
+
+        Produto alteracao = novoProduto("PROD002", "Brigadeiro", "Salgado");
+        assertTrue(produtoService.atualizar(doce.getId(), alteracao).isPresent());
+
+        List<VendaAnaliseDTO> porCategoria = vendaCubeService.agrupar(List.of(Dimensao.CATEGORIA), null, null);
+        assertLinhasIguais(vendaResumoDiarioService.agrupar(List.of(Dimensao.CATEGORIA), null, null), porCategoria);
+        assertEquals(1, porCategoria.size());
+        assertEquals("Salgado", porCategoria.get(0).getChaves().get("categoria"));
+        assertEquals(2L, porCategoria.get(0).getTotalVendas());
+
+        // Importação atualizando pelo código também renomeia; a recarga lê os mesmos rótulos do banco
+        produtoService.importarLote(List.of(novoProduto("PROD001", "Coxinha", "Frito")));
+        List<Dimensao> dimensoes = List.of(Dimensao.CATEGORIA, Dimensao.CIDADE, Dimensao.FORMA_PAGAMENTO);
+        List<VendaAnaliseDTO> aposImportacao = vendaCubeService.agrupar(dimensoes, null, null);
+        assertEquals(List.of("Frito", "Salgado"),
+                aposImportacao.stream().map(linha -> linha.getChaves().get("categoria")).toList());
+        vendaCubeService.carregar();
+        assertLinhasIguais(aposImportacao, vendaCubeService.agrupar(dimensoes, null, null));
+    }
+
+    @Test
+    void testCuboCompactaVendasExcluidas() {
+        List<Venda> vendas = new ArrayList<>();
+        for (int dia = 1; dia <= 8; dia++) {
+            vendas.add(criarVenda(salgado, LocalDate.of(2025, 9, dia), dia, dia + ".00"));
+        }
+
+        // Uma linha inativa em oito fica no lugar; com duas (um quarto do cubo) as colunas são compactadas
+        vendaService.deletar(vendas.get(0).getId());
+        assertEquals(8, vendaCubeService.tamanho());
+        vendaService.deletar(vendas.get(3).getId());
+        assertEquals(6, vendaCubeService.tamanho());
+
+        // As vendas que mudaram de linha continuam localizáveis pelos ganchos
+        Venda ultima = vendas.get(7);
+        Venda alteracao = new Venda();
+        alteracao.setData(ultima.getData());
+        alteracao.setQuantidade(10);
+        alteracao.setPrecoUnitario(new BigDecimal("2.00"));
+        alteracao.setReceitaTotal(new BigDecimal("20.00"));
+        vendaService.atualizar(ultima.getId(), alteracao);
+        vendaService.deletar(vendas.get(1).getId());
+
+        VendaService.VendaResumo resumo = vendaCubeService.resumo(null, null);
+        assertEquals(5L, resumo.totalVendas);
+        assertEquals(new BigDecimal("41.00"), resumo.receitaTotal);
+        assertEquals(31L, resumo.quantidadeTotal);
+        assertEquals(10L, vendaCubeService.resumo(ultima.getData(), ultima.getData()).quantidadeTotal);
+    }
+
+    private void assertLinhasIguais(List<VendaAnaliseDTO> esperado, List<VendaAnaliseDTO> atual) {
+        assertEquals(esperado.size(), atual.size());
+        for (int i = 0; i < esperado.size(); i++) {
+            assertEquals(esperado.get(i).getChaves(), atual.get(i).getChaves());
+            assertEquals(esperado.get(i).getTotalVendas(), atual.get(i).getTotalVendas());
+            assertEquals(esperado.get(i).getQuantidadeTotal(), atual.get(i).getQuantidadeTotal());
+            assertEquals(0, esperado.get(i).getReceitaTotal().compareTo(atual.get(i).getReceitaTotal()));
+        }
+    }
+
+    private Venda criarVenda(Produto produto, LocalDate data, int quantidade, String receita) {
+        Venda venda = new Venda();
+        venda.setData(data);
+        venda.setQuantidade(quantidade);
+        venda.setPrecoUnitario(new BigDecimal(receita).divide(BigDecimal.valueOf(quantidade), 2, java.math.RoundingMode.HALF_UP));
+        venda.setReceitaTotal(new BigDecimal(receita));
+        venda.setProduto(produto);
+        venda.setCliente(cliente);
+        venda.setFormaPagamento(pix);
+        return vendaService.criar(venda).get();
+    }
+
+    private Produto novoProduto(String codigo, String nome, String categoria) {
+        Produto produto = new Produto();
+        produto.setIdProduto(codigo);
+        produto.setProduto(nome);
+        produto.setCategoria(categoria);
+        produto.setPedidoMinimo(10);
+        produto.setCustoUnitario(new BigDecimal("1.00"));
+        produto.setPrecoSugerido(new BigDecimal("2.50"));
+        produto.setCentoPreco(new BigDecimal("200.00"));
+        return produto;
+    }
+
+    private void limparDados() {
+        vendaRepository.deleteAll();
+        vendaResumoDiarioRepository.deleteAll();
+        produtoRepository.deleteAll();
+        clienteRepository.deleteAll();
+        formaPagamentoRepository.deleteAll();
+    }
+}
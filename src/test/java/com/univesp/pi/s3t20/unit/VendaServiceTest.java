@@ -8,6 +8,8 @@ import com.univesp.pi.s3t20.repository.VendaRepository;
 import com.univesp.pi.s3t20.repository.ProdutoRepository;
 import com.univesp.pi.s3t20.repository.ClienteRepository;
 import com.univesp.pi.s3t20.repository.FormaPagamentoRepository;
+import com.univesp.pi.s3t20.repository.VendaResumoDiarioRepository;
+import com.univesp.pi.s3t20.service.Centavos;
 import com.univesp.pi.s3t20.service.VendaService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -42,6 +44,9 @@ public class VendaServiceTest {
     
     @Autowired
     private FormaPagamentoRepository formaPagamentoRepository;
+    
+    @Autowired
+    private VendaResumoDiarioRepository vendaResumoDiarioRepository;
 
     private Venda vendaTeste;
     private Produto produtoTeste;
@@ -52,6 +57,7 @@ public class VendaServiceTest {
     void setUp() {
         // Limpar dados antes de cada teste
         vendaRepository.deleteAll();
+        vendaResumoDiarioRepository.deleteAll();
         produtoRepository.deleteAll();
         clienteRepository.deleteAll();
         formaPagamentoRepository.deleteAll();
@@ -90,7 +96,7 @@ public class VendaServiceTest {
         vendaTeste.setProduto(produtoTeste);
         vendaTeste.setCliente(clienteTeste);
         vendaTeste.setFormaPagamento(formaPagamentoTeste);
-        vendaTeste = vendaRepository.save(vendaTeste);
+        vendaTeste = vendaService.criar(vendaTeste).get();
     }
 
     @Test
@@ -280,7 +286,7 @@ public class VendaServiceTest {
         VendaService.VendaResumo resumo = vendaService.obterResumo();
         assertNotNull(resumo);
         assertEquals(1L, resumo.totalVendas);
-        assertEquals(160.0, resumo.receitaTotal);
+        assertEquals(new BigDecimal("160.00"), resumo.receitaTotal);
     }
 
     @Test
@@ -291,7 +297,106 @@ public class VendaServiceTest {
         VendaService.VendaResumo resumo = vendaService.obterResumoPorPeriodo(dataInicio, dataFim);
         assertNotNull(resumo);
         assertEquals(1L, resumo.totalVendas);
-        assertEquals(160.0, resumo.receitaTotal);
+        assertEquals(new BigDecimal("160.00"), resumo.receitaTotal);
+    }
+
+    @Test
+    void testObterResumoComAgregacoes() {
+        Venda outraVenda = new Venda();
+        outraVenda.setIdVenda("VENDA002");
+        outraVenda.setData(LocalDate.now());
+        outraVenda.setQuantidade(4);
+        outraVenda.setPrecoUnitario(new BigDecimal("10.00"));
+        outraVenda.setReceitaTotal(new BigDecimal("40.00"));
+        outraVenda.setProduto(produtoTeste);
+        outraVenda.setCliente(clienteTeste);
+        outraVenda.setFormaPagamento(formaPagamentoTeste);
+        vendaService.criar(outraVenda);
+
+        VendaService.VendaResumo resumo = vendaService.obterResumo();
+        assertEquals(2L, resumo.totalVendas);
+        assertEquals(new BigDecimal("200.00"), resumo.receitaTotal);
+        assertEquals(new BigDecimal("40.00"), resumo.receitaMinima);
+        assertEquals(new BigDecimal("160.00"), resumo.receitaMaxima);
+        assertEquals(new BigDecimal("100.00"), resumo.receitaMedia);
+        assertEquals(6L, resumo.quantidadeTotal);
+        assertEquals(2, resumo.quantidadeMinima);
+        assertEquals(4, resumo.quantidadeMaxima);
+        assertEquals(3.0, resumo.quantidadeMedia, 0.001);
+    }
+
+    @Test
+    void testResumoDiarioAcompanhaAtualizacao() {
+        Venda alteracao = new Venda();
+        alteracao.setData(vendaTeste.getData());
+        alteracao.setQuantidade(5);
+        alteracao.setPrecoUnitario(new BigDecimal("90.00"));
+        vendaService.atualizar(vendaTeste.getId(), alteracao);
+
+        VendaService.VendaResumo resumo = vendaService.obterResumo();
+        assertEquals(1L, resumo.totalVendas);
+        assertEquals(new BigDecimal("450.00"), resumo.receitaTotal);
+        assertEquals(5L, resumo.quantidadeTotal);
+        assertEquals(new BigDecimal("450.00"), resumo.receitaMaxima);
+        assertEquals(1, vendaResumoDiarioRepository.count());
+    }
+
+    @Test
+    void testResumoDiarioAcompanhaMudancaDeData() {
+        LocalDate novaData = vendaTeste.getData().minusDays(5);
+        Venda alteracao = new Venda();
+        alteracao.setData(novaData);
+        alteracao.setQuantidade(2);
+        alteracao.setPrecoUnitario(new BigDecimal("80.00"));
+        vendaService.atualizar(vendaTeste.getId(), alteracao);
+
+        assertEquals(0L, vendaService.obterResumoPorPeriodo(LocalDate.now(), LocalDate.now()).totalVendas);
+        assertEquals(1L, vendaService.obterResumoPorPeriodo(novaData, novaData).totalVendas);
+        assertEquals(1, vendaResumoDiarioRepository.count());
+    }
+
+    @Test
+    void testResumoDiarioAcompanhaExclusao() {
+        Venda maior = new Venda();
+        maior.setData(vendaTeste.getData());
+        maior.setQuantidade(10);
+        maior.setPrecoUnitario(new BigDecimal("80.00"));
+        maior.setProduto(produtoTeste);
+        maior.setCliente(clienteTeste);
+        maior.setFormaPagamento(formaPagamentoTeste);
+        Venda criada = vendaService.criar(maior).get();
+        assertEquals(new BigDecimal("800.00"), vendaService.obterResumo().receitaMaxima);
+
+        assertTrue(vendaService.deletar(criada.getId()));
+        VendaService.VendaResumo resumo = vendaService.obterResumo();
+        assertEquals(1L, resumo.totalVendas);
+        assertEquals(new BigDecimal("160.00"), resumo.receitaMaxima);
+
+        assertTrue(vendaService.deletar(vendaTeste.getId()));
+        assertEquals(0, vendaResumoDiarioRepository.count());
+        assertEquals(0L, vendaService.obterResumo().totalVendas);
+    }
+
+    @Test
+    void testResumoDiarioConfereComTabelaDeVendas() {
+        for (int i = 1; i <= 5; i++) {
+            Venda venda = new Venda();
+            venda.setData(LocalDate.now().minusDays(i % 3));
+            venda.setQuantidade(i);
+            venda.setPrecoUnitario(new BigDecimal("12.50"));
+            venda.setProduto(produtoTeste);
+            venda.setCliente(clienteTeste);
+            venda.setFormaPagamento(formaPagamentoTeste);
+            vendaService.criar(venda);
+        }
+
+        VendaRepository.ResumoAgregado fatos = vendaRepository.agregarResumo();
+        VendaService.VendaResumo resumo = vendaService.obterResumo();
+        assertEquals(fatos.getTotalVendas(), resumo.totalVendas);
+        assertEquals(Centavos.paraBigDecimal(fatos.getReceitaTotalCentavos()), resumo.receitaTotal);
+        assertEquals(fatos.getQuantidadeTotal(), resumo.quantidadeTotal);
+        assertEquals(Centavos.paraBigDecimal(fatos.getReceitaMinimaCentavos()), resumo.receitaMinima);
+        assertEquals(Centavos.paraBigDecimal(fatos.getReceitaMaximaCentavos()), resumo.receitaMaxima);
     }
 
     @Test
@@ -302,6 +407,8 @@ public class VendaServiceTest {
         VendaService.VendaResumo resumo = vendaService.obterResumoPorPeriodo(dataInicio, dataFim);
         assertNotNull(resumo);
         assertEquals(0L, resumo.totalVendas);
-        assertEquals(0.0, resumo.receitaTotal);
+        assertEquals(new BigDecimal("0.00"), resumo.receitaTotal);
+        assertEquals(0L, resumo.quantidadeTotal);
+        assertNull(resumo.receitaMedia);
     }
 }